@@ -0,0 +1,79 @@
+package org.example.shoppingapp.benchmark;
+
+import org.example.shoppingapp.model.dto.OptimizedShoppingListDTO;
+import org.example.shoppingapp.repository.InMemoryDiscountRepository;
+import org.example.shoppingapp.repository.InMemoryProductRepository;
+import org.example.shoppingapp.repository.InMemoryUserRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
+import org.example.shoppingapp.repository.interfaces.ProductRepository;
+import org.example.shoppingapp.service.LatestPriceView;
+import org.example.shoppingapp.service.ShoppingListOptimizerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Greedy versus exact (store visit cost and store limit) basket optimization. The exact optimizer should stay
+ * under 10 ms for 50-item baskets over 20 stores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BasketOptimizerBenchmark {
+
+    @Param({"20"})
+    public int stores;
+
+    @Param({"50"})
+    public int basketSize;
+
+    @Param({"0", "5", "15"})
+    public double storeVisitCost;
+
+    @Param({"0", "3"})
+    public int maxStores;
+
+    private ShoppingListOptimizerService shoppingListOptimizerService;
+    private Map<String, Integer> basket;
+
+    @Setup
+    public void setUp() {
+        int products = 2000;
+        SyntheticDataGenerator data = new SyntheticDataGenerator(products, stores, 7, 0, 0, 42);
+        NameDictionaries nameDictionaries = data.getNameDictionaries();
+        ProductRepository productRepository = new InMemoryProductRepository(nameDictionaries);
+        PriceEntryRepository priceEntryRepository = PriceEntryRepositoryBenchmark.createRepository("in-memory", nameDictionaries);
+        data.populate(productRepository, priceEntryRepository, new InMemoryDiscountRepository(nameDictionaries),
+                new InMemoryUserRepository());
+        shoppingListOptimizerService = new ShoppingListOptimizerService(productRepository,
+                new LatestPriceView(priceEntryRepository, nameDictionaries), nameDictionaries);
+
+        Random random = new Random(7);
+        basket = new LinkedHashMap<>();
+        while (basket.size() < basketSize) {
+            basket.put(SyntheticDataGenerator.productId(random.nextInt(products)), 1 + random.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public List<OptimizedShoppingListDTO> greedy() {
+        return shoppingListOptimizerService.optimizeShoppingBasket(basket);
+    }
+
+    @Benchmark
+    public List<OptimizedShoppingListDTO> exact() {
+        return shoppingListOptimizerService.optimizeShoppingBasket(basket, storeVisitCost, maxStores);
+    }
+}
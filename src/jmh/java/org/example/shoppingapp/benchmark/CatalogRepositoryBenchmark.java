@@ -0,0 +1,95 @@
+package org.example.shoppingapp.benchmark;
+
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.model.User;
+import org.example.shoppingapp.repository.InMemoryProductRepository;
+import org.example.shoppingapp.repository.InMemoryUserRepository;
+import org.example.shoppingapp.repository.interfaces.ProductRepository;
+import org.example.shoppingapp.repository.interfaces.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finders of the product and user repositories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CatalogRepositoryBenchmark {
+
+    @Param({"2000", "20000"})
+    public int products;
+
+    @Param({"1000"})
+    public int users;
+
+    private ProductRepository productRepository;
+    private UserRepository userRepository;
+    private SyntheticDataGenerator data;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        data = new SyntheticDataGenerator(products, 0, 0, 0, users, 42);
+        productRepository = new InMemoryProductRepository(data.getNameDictionaries());
+        productRepository.saveAll(data.getProducts());
+        userRepository = new InMemoryUserRepository();
+        userRepository.saveAll(data.getUsers());
+    }
+
+    @Benchmark
+    public Optional<Product> findProductById() {
+        return productRepository.findById(SyntheticDataGenerator.productId(next(products)));
+    }
+
+    @Benchmark
+    public List<Product> findAllProducts() {
+        return productRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Product> findProductsByCategory() {
+        return productRepository.findByCategory(SyntheticDataGenerator.CATEGORIES[next(SyntheticDataGenerator.CATEGORIES.length)]);
+    }
+
+    @Benchmark
+    public List<Product> findProductsByBrand() {
+        return productRepository.findByBrand(data.getProducts().get(next(products)).getBrand());
+    }
+
+    @Benchmark
+    public Optional<Product> findProductByNameAndBrand() {
+        Product product = data.getProducts().get(next(products));
+        return productRepository.findByProductNameAndBrand(product.getProductName(), product.getBrand());
+    }
+
+    @Benchmark
+    public List<Product> findProductsByNameContaining() {
+        return productRepository.findByProductNameContaining(" " + next(products));
+    }
+
+    @Benchmark
+    public Optional<User> findUserById() {
+        return userRepository.findById(next(users) + 1);
+    }
+
+    @Benchmark
+    public Optional<User> findUserByUsername() {
+        return userRepository.findByUsername("user" + (next(users) + 1));
+    }
+
+    private int next(int bound) {
+        cursor = cursor + 1 == Integer.MAX_VALUE ? 0 : cursor + 1;
+        return cursor % bound;
+    }
+}
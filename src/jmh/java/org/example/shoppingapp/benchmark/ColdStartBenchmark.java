@@ -0,0 +1,99 @@
+package org.example.shoppingapp.benchmark;
+
+import org.example.shoppingapp.repository.InMemoryDiscountRepository;
+import org.example.shoppingapp.repository.InMemoryProductRepository;
+import org.example.shoppingapp.repository.InMemoryUserRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
+import org.example.shoppingapp.service.DataLoadingService;
+import org.example.shoppingapp.service.PriceHistoryArchive;
+import org.example.shoppingapp.utils.CsvDataParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Initial data load of a generated data directory (by default about 10M price rows: 50k products, 7 stores,
+ * 36 days), from the CSV files or from the binary snapshot written by a previous load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ColdStartBenchmark {
+
+    @Param({"csv", "snapshot"})
+    public String source;
+
+    @Param({"in-memory", "columnar"})
+    public String repository;
+
+    @Param({"50000"})
+    public int products;
+
+    @Param({"7"})
+    public int stores;
+
+    @Param({"36"})
+    public int days;
+
+    private Path directory;
+
+    @Setup
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("cold-start-benchmark");
+        SyntheticDataGenerator data = new SyntheticDataGenerator(products, stores, days, 5000, 100, 42);
+        data.writePriceFiles(directory);
+        for (String storeName : data.getStoreNames()) {
+            data.writeDiscountFile(directory, storeName);
+        }
+        if ("snapshot".equals(source)) {
+            load(); // writes the snapshot
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int load() throws Exception {
+        NameDictionaries nameDictionaries = new NameDictionaries();
+        InMemoryProductRepository productRepository = new InMemoryProductRepository(nameDictionaries);
+        PriceEntryRepository priceEntryRepository = PriceEntryRepositoryBenchmark.createRepository(repository, nameDictionaries);
+        DataLoadingService dataLoadingService = new DataLoadingService(new CsvDataParser(productRepository, nameDictionaries),
+                productRepository, priceEntryRepository, new InMemoryDiscountRepository(nameDictionaries),
+                new InMemoryUserRepository(), new PriceHistoryArchive(productRepository, nameDictionaries), nameDictionaries);
+        setField(dataLoadingService, "dataDirectoryPath", directory.toString());
+        setField(dataLoadingService, "loadingParallelism", Runtime.getRuntime().availableProcessors());
+        setField(dataLoadingService, "snapshotEnabled", "snapshot".equals(source));
+        dataLoadingService.loadInitialData();
+        return priceEntryRepository.findAll().size();
+    }
+
+    private static void setField(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
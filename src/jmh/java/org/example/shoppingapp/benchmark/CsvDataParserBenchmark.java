@@ -0,0 +1,114 @@
+package org.example.shoppingapp.benchmark;
+
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.repository.InMemoryProductRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.utils.CsvDataParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Parses one generated price file (one row per stocked product) and one discount file.
+ * Every invocation uses a new parser and an empty catalog, like the initial load. {@link #parsePriceFileWithSplit}
+ * parses the same price file with the split/trim/replace line handling used before the byte tokenizer, for comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvDataParserBenchmark {
+
+    @Param({"2000", "100000"})
+    public int products;
+
+    @Param({"5000"})
+    public int discounts;
+
+    private Path directory;
+    private String storeName;
+    private LocalDate day;
+    private Path priceFile;
+    private Path discountFile;
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticDataGenerator data = new SyntheticDataGenerator(products, 1, 1, discounts, 0, 42);
+        directory = Files.createTempDirectory("csv-parser-benchmark");
+        storeName = data.getStoreNames().get(0);
+        day = data.getDays().get(0);
+        priceFile = data.writePriceFile(directory, storeName, day);
+        discountFile = data.writeDiscountFile(directory, storeName);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public CsvDataParser.ParsedFileData parsePriceFile() throws IOException {
+        return newParser().parseAllDataFromFile(priceFile);
+    }
+
+    // The line handling CsvDataParser used before the tokenizer: readLine, split, trim, replace and parseDouble.
+    @Benchmark
+    public List<PriceEntry> parsePriceFileWithSplit() throws IOException {
+        Map<String, Product> catalog = new HashMap<>();
+        List<PriceEntry> entries = new ArrayList<>();
+        NameDictionaries nameDictionaries = new NameDictionaries();
+        int storeId = nameDictionaries.stores().idOf(storeName);
+        try (BufferedReader reader = Files.newBufferedReader(priceFile, StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(";", -1);
+                String productId = fields[0].trim();
+                String productName = fields[1].trim();
+                String productCategory = fields[2].trim();
+                String brand = fields[3].trim();
+                double packageQuantity = Double.parseDouble(fields[4].trim());
+                String packageUnitString = fields[5].trim();
+                double price = Double.parseDouble(fields[6].trim().replace(",", "."));
+                String currency = fields[7].trim();
+                Product product = catalog.computeIfAbsent(productId, id ->
+                        new Product(id, productName, nameDictionaries.categories().idOf(productCategory), brand,
+                                packageQuantity, packageUnitString));
+                entries.add(new PriceEntry(product, storeId, day, price, currency));
+            }
+        }
+        return entries;
+    }
+
+    @Benchmark
+    public CsvDataParser.ParsedFileData parseDiscountFile() throws IOException {
+        return newParser().parseAllDataFromFile(discountFile);
+    }
+
+    private static CsvDataParser newParser() {
+        NameDictionaries nameDictionaries = new NameDictionaries();
+        return new CsvDataParser(new InMemoryProductRepository(nameDictionaries), nameDictionaries);
+    }
+}
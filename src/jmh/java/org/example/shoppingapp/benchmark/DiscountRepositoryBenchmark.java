@@ -0,0 +1,77 @@
+package org.example.shoppingapp.benchmark;
+
+import org.example.shoppingapp.model.Discount;
+import org.example.shoppingapp.repository.InMemoryDiscountRepository;
+import org.example.shoppingapp.repository.interfaces.DiscountRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DiscountRepositoryBenchmark {
+
+    @Param({"2000"})
+    public int products;
+
+    @Param({"5"})
+    public int stores;
+
+    @Param({"30"})
+    public int days;
+
+    @Param({"5000"})
+    public int discounts;
+
+    private DiscountRepository discountRepository;
+    private SyntheticDataGenerator data;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        data = new SyntheticDataGenerator(products, stores, days, discounts, 0, 42);
+        discountRepository = new InMemoryDiscountRepository(data.getNameDictionaries());
+        discountRepository.saveAll(data.getDiscounts());
+    }
+
+    @Benchmark
+    public List<Discount> findAll() {
+        return discountRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Discount> findByProductId() {
+        return discountRepository.findByProductId(SyntheticDataGenerator.productId(next(products)));
+    }
+
+    @Benchmark
+    public List<Discount> findByStoreName() {
+        return discountRepository.findByStoreName(data.getStoreNames().get(next(stores)));
+    }
+
+    @Benchmark
+    public List<Discount> findActiveOnDate() {
+        return discountRepository.findActiveOnDate(data.getDays().get(next(days)));
+    }
+
+    @Benchmark
+    public List<Discount> findByDateRange() {
+        LocalDate from = data.getDays().get(next(days));
+        return discountRepository.findByDateRange(from, from.plusDays(7));
+    }
+
+    private int next(int bound) {
+        cursor = cursor + 1 == Integer.MAX_VALUE ? 0 : cursor + 1;
+        return cursor % bound;
+    }
+}
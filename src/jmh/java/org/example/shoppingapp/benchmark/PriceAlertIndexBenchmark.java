@@ -0,0 +1,93 @@
+package org.example.shoppingapp.benchmark;
+
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.model.dto.TriggeredAlertDTO;
+import org.example.shoppingapp.repository.InMemoryDiscountRepository;
+import org.example.shoppingapp.repository.InMemoryProductRepository;
+import org.example.shoppingapp.repository.InMemoryUserRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
+import org.example.shoppingapp.repository.interfaces.ProductRepository;
+import org.example.shoppingapp.repository.interfaces.UserRepository;
+import org.example.shoppingapp.service.LatestPriceView;
+import org.example.shoppingapp.service.PriceAlertService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price alert matching with many subscribers per product: by default 1M alerts, 100 per product over 10k
+ * products, with target prices spread around each product's base price.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PriceAlertIndexBenchmark {
+
+    @Param({"10000"})
+    public int products;
+
+    @Param({"100"})
+    public int alertsPerProduct;
+
+    private SyntheticDataGenerator data;
+    private PriceAlertService priceAlertService;
+    private int storeId;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        // Every user watches alertsPerProduct products, so there are as many users as products.
+        data = new SyntheticDataGenerator(products, 3, 1, 0, products, 42);
+        NameDictionaries nameDictionaries = data.getNameDictionaries();
+        ProductRepository productRepository = new InMemoryProductRepository(nameDictionaries);
+        PriceEntryRepository priceEntryRepository = PriceEntryRepositoryBenchmark.createRepository("in-memory", nameDictionaries);
+        UserRepository userRepository = new InMemoryUserRepository();
+        data.populate(productRepository, priceEntryRepository, new InMemoryDiscountRepository(nameDictionaries), userRepository);
+        priceAlertService = new PriceAlertService(userRepository, productRepository, priceEntryRepository,
+                new LatestPriceView(priceEntryRepository, nameDictionaries), nameDictionaries);
+        storeId = nameDictionaries.stores().findId(data.getStoreNames().get(0));
+
+        Random random = new Random(7);
+        int step = Math.max(products / alertsPerProduct, 1);
+        for (int user = 0; user < products; user++) {
+            for (int i = 0; i < alertsPerProduct; i++) {
+                int product = (user + i * step) % products;
+                double target = data.getBasePrice(product) * (0.5 + random.nextDouble());
+                priceAlertService.setAlert(data.getUsers().get(user).getUserId(), SyntheticDataGenerator.productId(product), target);
+            }
+        }
+    }
+
+    /** One new price: a range scan of the product's alerts instead of a pass over every alert. */
+    @Benchmark
+    public List<TriggeredAlertDTO> matchNewPrice() {
+        int index = next(products);
+        Product product = data.getProducts().get(index);
+        priceAlertService.onPriceEntriesAdded(List.of(
+                new PriceEntry(product, storeId, LocalDate.now(), data.getBasePrice(index), "RON")));
+        return priceAlertService.drainTriggeredAlerts();
+    }
+
+    /** Every product's cheapest current price against its alerts. */
+    @Benchmark
+    public List<TriggeredAlertDTO> checkTriggeredAlerts() {
+        return priceAlertService.checkTriggeredAlerts();
+    }
+
+    private int next(int bound) {
+        cursor = cursor + 1 == Integer.MAX_VALUE ? 0 : cursor + 1;
+        return cursor % bound;
+    }
+}
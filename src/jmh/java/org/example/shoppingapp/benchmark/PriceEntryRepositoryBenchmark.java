@@ -0,0 +1,99 @@
+package org.example.shoppingapp.benchmark;
+
+import org.example.shoppingapp.model.EpochDays;
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.repository.ColumnarPriceEntryRepository;
+import org.example.shoppingapp.repository.InMemoryPriceEntryRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
+import org.example.shoppingapp.service.LatestPriceView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PriceEntryRepositoryBenchmark {
+
+    @Param({"in-memory", "columnar"})
+    public String repository;
+
+    @Param({"2000"})
+    public int products;
+
+    @Param({"5"})
+    public int stores;
+
+    @Param({"30"})
+    public int days;
+
+    private PriceEntryRepository priceEntryRepository;
+    private SyntheticDataGenerator data;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        data = new SyntheticDataGenerator(products, stores, days, 0, 0, 42);
+        priceEntryRepository = createRepository(repository, data.getNameDictionaries());
+        priceEntryRepository.saveAll(data.getPriceEntries());
+    }
+
+    static PriceEntryRepository createRepository(String repository, NameDictionaries nameDictionaries) {
+        return "columnar".equals(repository)
+                ? new ColumnarPriceEntryRepository(nameDictionaries)
+                : new InMemoryPriceEntryRepository(nameDictionaries);
+    }
+
+    @Benchmark
+    public List<PriceEntry> findAll() {
+        return priceEntryRepository.findAll();
+    }
+
+    @Benchmark
+    public List<PriceEntry> findByProductId() {
+        return priceEntryRepository.findByProductId(SyntheticDataGenerator.productId(next(products)));
+    }
+
+    /** What LatestPriceView reads when a product's current prices are first asked for. */
+    @Benchmark
+    public List<PriceEntry> findLatestAndDailyCheapestByProductId() {
+        return priceEntryRepository.findLatestAndDailyCheapestByProductId(SyntheticDataGenerator.productId(next(products)),
+                EpochDays.of(LocalDate.now().minusDays(LatestPriceView.CURRENT_PRICE_WINDOW_DAYS)));
+    }
+
+    @Benchmark
+    public List<PriceEntry> findByStoreName() {
+        return priceEntryRepository.findByStoreName(data.getStoreNames().get(next(stores)));
+    }
+
+    @Benchmark
+    public List<PriceEntry> findByEntryDate() {
+        return priceEntryRepository.findByEntryDate(day(next(days)));
+    }
+
+    @Benchmark
+    public List<PriceEntry> findByStoreNameAndEntryDate() {
+        int i = next(stores * days);
+        return priceEntryRepository.findByStoreNameAndEntryDate(data.getStoreNames().get(i % stores), day(i / stores));
+    }
+
+    private LocalDate day(int index) {
+        return data.getDays().get(index);
+    }
+
+    // Rotates through the keys so no single lookup stays hot in the cache.
+    private int next(int bound) {
+        cursor = cursor + 1 == Integer.MAX_VALUE ? 0 : cursor + 1;
+        return cursor % bound;
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.shoppingapp.benchmark;
+
+import org.example.shoppingapp.model.Discount;
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.repository.InMemoryDiscountRepository;
+import org.example.shoppingapp.repository.interfaces.DiscountRepository;
+import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loaders appending batches while readers query the same repositories: two loader threads and three reader
+ * threads per group. The price repository starts with 300k entries and is reset to them once loaders have
+ * appended {@code maxAddedEntries} more, so the measurement does not run out of heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RepositoryContentionBenchmark {
+
+    @Param({"in-memory", "columnar"})
+    public String repository;
+
+    @Param({"2000"})
+    public int products;
+
+    @Param({"5"})
+    public int stores;
+
+    @Param({"30"})
+    public int days;
+
+    @Param({"1000"})
+    public int batchSize;
+
+    @Param({"2000000"})
+    public int maxAddedEntries;
+
+    private SyntheticDataGenerator data;
+    private PriceEntryRepository priceEntryRepository;
+    private DiscountRepository discountRepository;
+    private List<List<PriceEntry>> priceBatches;
+    private List<List<Discount>> discountBatches;
+    private final AtomicInteger nextBatch = new AtomicInteger();
+    private final AtomicLong addedEntries = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        data = new SyntheticDataGenerator(products, stores, days, 5000, 0, 42);
+        priceEntryRepository = PriceEntryRepositoryBenchmark.createRepository(repository, data.getNameDictionaries());
+        priceEntryRepository.saveAll(data.getPriceEntries());
+        discountRepository = new InMemoryDiscountRepository(data.getNameDictionaries());
+        discountRepository.saveAll(data.getDiscounts());
+        priceBatches = batches(data.getPriceEntries());
+        discountBatches = batches(data.getDiscounts());
+    }
+
+    private <T> List<List<T>> batches(List<T> rows) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            batches.add(List.copyOf(rows.subList(from, Math.min(from + batchSize, rows.size()))));
+        }
+        return batches;
+    }
+
+    @Benchmark
+    @Group("prices")
+    @GroupThreads(2)
+    public List<PriceEntry> loadPrices() {
+        List<PriceEntry> batch = priceBatches.get(Math.floorMod(nextBatch.getAndIncrement(), priceBatches.size()));
+        if (addedEntries.addAndGet(batch.size()) > maxAddedEntries) {
+            addedEntries.set(0);
+            priceEntryRepository.replaceAll(data.getPriceEntries());
+        }
+        return priceEntryRepository.saveAll(batch);
+    }
+
+    @Benchmark
+    @Group("prices")
+    @GroupThreads(2)
+    public List<PriceEntry> findPricesByProductId() {
+        return priceEntryRepository.findByProductId(SyntheticDataGenerator.productId(ThreadLocalRandom.current().nextInt(products)));
+    }
+
+    @Benchmark
+    @Group("prices")
+    @GroupThreads(1)
+    public double scanAllPrices() {
+        double total = 0;
+        for (PriceEntry entry : priceEntryRepository.findAll()) {
+            total += entry.getPrice();
+        }
+        return total;
+    }
+
+    @Benchmark
+    @Group("discounts")
+    @GroupThreads(2)
+    public List<Discount> loadDiscounts() {
+        List<Discount> batch = discountBatches.get(Math.floorMod(nextBatch.getAndIncrement(), discountBatches.size()));
+        if (addedEntries.addAndGet(batch.size()) > maxAddedEntries) {
+            addedEntries.set(0);
+            discountRepository.replaceAll(data.getDiscounts());
+        }
+        return discountRepository.saveAll(batch);
+    }
+
+    @Benchmark
+    @Group("discounts")
+    @GroupThreads(3)
+    public List<Discount> findActiveDiscounts() {
+        return discountRepository.findActiveOnDate(data.getDays().get(ThreadLocalRandom.current().nextInt(days)));
+    }
+}
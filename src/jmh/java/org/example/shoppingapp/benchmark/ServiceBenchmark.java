@@ -0,0 +1,186 @@
+package org.example.shoppingapp.benchmark;
+
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.dto.DiscountedProductDTO;
+import org.example.shoppingapp.model.dto.OptimizedShoppingListDTO;
+import org.example.shoppingapp.model.dto.PriceHistoryDataPointDTO;
+import org.example.shoppingapp.model.dto.ProductRecommendationDTO;
+import org.example.shoppingapp.model.dto.TriggeredAlertDTO;
+import org.example.shoppingapp.repository.InMemoryDiscountRepository;
+import org.example.shoppingapp.repository.InMemoryProductRepository;
+import org.example.shoppingapp.repository.InMemoryUserRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.repository.interfaces.DiscountRepository;
+import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
+import org.example.shoppingapp.repository.interfaces.ProductRepository;
+import org.example.shoppingapp.repository.interfaces.UserRepository;
+import org.example.shoppingapp.service.DiscountService;
+import org.example.shoppingapp.service.LatestPriceView;
+import org.example.shoppingapp.service.PriceAlertService;
+import org.example.shoppingapp.service.PriceHistoryArchive;
+import org.example.shoppingapp.service.PriceHistoryService;
+import org.example.shoppingapp.service.ProductRecommendationService;
+import org.example.shoppingapp.service.ShoppingListOptimizerService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service entry points over repositories filled by {@link SyntheticDataGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServiceBenchmark {
+
+    @Param({"in-memory", "columnar"})
+    public String repository;
+
+    @Param({"2000"})
+    public int products;
+
+    @Param({"5"})
+    public int stores;
+
+    @Param({"30"})
+    public int days;
+
+    @Param({"5000"})
+    public int discounts;
+
+    @Param({"20"})
+    public int basketSize;
+
+    @Param({"100"})
+    public int users;
+
+    @Param({"10"})
+    public int alertsPerUser;
+
+    private SyntheticDataGenerator data;
+    private ShoppingListOptimizerService shoppingListOptimizerService;
+    private DiscountService discountService;
+    private PriceHistoryService priceHistoryService;
+    private ProductRecommendationService productRecommendationService;
+    private PriceAlertService priceAlertService;
+    private Map<String, Integer> basket;
+    private List<PriceEntry> newPrices;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        data = new SyntheticDataGenerator(products, stores, days, discounts, users, 42);
+        NameDictionaries nameDictionaries = data.getNameDictionaries();
+        ProductRepository productRepository = new InMemoryProductRepository(nameDictionaries);
+        PriceEntryRepository priceEntryRepository = PriceEntryRepositoryBenchmark.createRepository(repository, nameDictionaries);
+        DiscountRepository discountRepository = new InMemoryDiscountRepository(nameDictionaries);
+        UserRepository userRepository = new InMemoryUserRepository();
+        data.populate(productRepository, priceEntryRepository, discountRepository, userRepository);
+
+        LatestPriceView latestPriceView = new LatestPriceView(priceEntryRepository, nameDictionaries);
+        shoppingListOptimizerService = new ShoppingListOptimizerService(productRepository, latestPriceView, nameDictionaries);
+        discountService = new DiscountService(discountRepository, latestPriceView, nameDictionaries);
+        priceHistoryService = new PriceHistoryService(priceEntryRepository, productRepository,
+                new PriceHistoryArchive(productRepository, nameDictionaries), nameDictionaries);
+        productRecommendationService = new ProductRecommendationService(productRepository, latestPriceView, nameDictionaries);
+        priceAlertService = new PriceAlertService(userRepository, productRepository, priceEntryRepository, latestPriceView,
+                nameDictionaries);
+
+        Random random = new Random(7);
+        basket = new LinkedHashMap<>();
+        while (basket.size() < Math.min(basketSize, products)) {
+            basket.put(SyntheticDataGenerator.productId(random.nextInt(products)), 1 + random.nextInt(3));
+        }
+        for (int user = 1; user <= users; user++) {
+            for (int i = 0; i < alertsPerUser; i++) {
+                int product = random.nextInt(products);
+                // About half of the alerts trigger.
+                double target = data.getBasePrice(product) * (random.nextBoolean() ? 1.5 : 0.5);
+                priceAlertService.setAlert(user, SyntheticDataGenerator.productId(product), target);
+            }
+        }
+        // One store's prices for today, as delivered by a daily price file.
+        String firstStore = data.getStoreNames().get(0);
+        newPrices = priceEntryRepository.findByStoreNameAndEntryDate(firstStore, LocalDate.now());
+    }
+
+    @Benchmark
+    public List<OptimizedShoppingListDTO> optimizeShoppingBasket() {
+        return shoppingListOptimizerService.optimizeShoppingBasket(basket);
+    }
+
+    @Benchmark
+    public List<DiscountedProductDTO> getBestCurrentDiscounts() {
+        return discountService.getBestCurrentDiscounts(10);
+    }
+
+    @Benchmark
+    public List<DiscountedProductDTO> getNewDiscounts() {
+        return discountService.getNewDiscounts(24, 10);
+    }
+
+    @Benchmark
+    public List<PriceHistoryDataPointDTO> getPriceHistoryForProduct() {
+        return priceHistoryService.getPriceHistory(SyntheticDataGenerator.productId(next(products)),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+    }
+
+    @Benchmark
+    public List<PriceHistoryDataPointDTO> getPriceHistoryForCategoryAndStore() {
+        LocalDate to = LocalDate.now();
+        return priceHistoryService.getPriceHistory(null, Optional.of(data.getStoreNames().get(next(stores))),
+                Optional.of(category()), Optional.empty(), Optional.of(to.minusDays(7)), Optional.of(to));
+    }
+
+    @Benchmark
+    public List<PriceHistoryDataPointDTO> getPriceHistoryForCategoryAndDateRange() {
+        // Every price of the category is checked against the date range.
+        LocalDate to = LocalDate.now().minusDays(next(days));
+        return priceHistoryService.getPriceHistory(null, Optional.empty(), Optional.of(category()), Optional.empty(),
+                Optional.of(to.minusDays(3)), Optional.of(to));
+    }
+
+    @Benchmark
+    public List<ProductRecommendationDTO> getBestValueProductsForCategory() {
+        return productRecommendationService.getBestValueProducts(Optional.empty(), Optional.of(category()), 10);
+    }
+
+    @Benchmark
+    public List<ProductRecommendationDTO> getBestValueProductsForProduct() {
+        return productRecommendationService.getBestValueProducts(
+                Optional.of(SyntheticDataGenerator.productId(next(products))), Optional.empty(), 10);
+    }
+
+    @Benchmark
+    public List<TriggeredAlertDTO> checkTriggeredAlerts() {
+        return priceAlertService.checkTriggeredAlerts();
+    }
+
+    @Benchmark
+    public List<TriggeredAlertDTO> matchNewPricesAgainstAlerts() {
+        priceAlertService.onPriceEntriesAdded(newPrices);
+        return priceAlertService.drainTriggeredAlerts();
+    }
+
+    private String category() {
+        return SyntheticDataGenerator.CATEGORIES[next(SyntheticDataGenerator.CATEGORIES.length)];
+    }
+
+    private int next(int bound) {
+        cursor = cursor + 1 == Integer.MAX_VALUE ? 0 : cursor + 1;
+        return cursor % bound;
+    }
+}
@@ -0,0 +1,245 @@
+package org.example.shoppingapp.benchmark;
+
+import org.example.shoppingapp.model.Discount;
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.model.User;
+import org.example.shoppingapp.model.enums.Currency;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.repository.interfaces.DiscountRepository;
+import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
+import org.example.shoppingapp.repository.interfaces.ProductRepository;
+import org.example.shoppingapp.repository.interfaces.UserRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic generator of products, users, daily price entries and discounts at benchmark scale.
+ * The last generated day is today, so the services (which all work relative to {@link LocalDate#now()})
+ * see current prices and active discounts. The same seed always produces the same data. Store and category ids
+ * come from the generator's own {@link NameDictionaries}, which the repositories and services under test share.
+ */
+public class SyntheticDataGenerator {
+    public static final String[] CATEGORIES = {"lactate", "panificatie", "fructe", "legume", "carne", "bauturi",
+            "dulciuri", "conserve", "paste", "ingrijire personala", "produse de curatenie", "congelate"};
+    private static final String[] STORE_NAMES = {"lidl", "kaufland", "profi", "mega", "auchan", "carrefour", "penny"};
+    private static final String[] UNITS = {"l", "ml", "kg", "g", "buc"};
+    private static final double[][] QUANTITIES = {{0.5, 1, 1.5, 2}, {200, 330, 500, 750}, {0.5, 1, 2}, {100, 250, 500}, {1, 4, 6, 10}};
+    private static final int BRANDS = 40;
+    private static final double STOCKED_RATIO = 0.8;
+    private static final String PRICE_FILE_HEADER =
+            "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n";
+
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+    private final List<Product> products = new ArrayList<>();
+    private final List<String> storeNames = new ArrayList<>();
+    private final List<LocalDate> days = new ArrayList<>();
+    private final List<User> users = new ArrayList<>();
+    private final List<PriceEntry> priceEntries = new ArrayList<>();
+    private final List<Discount> discounts = new ArrayList<>();
+    private final double[] basePrices;
+
+    /**
+     * @param productCount number of distinct products.
+     * @param storeCount number of stores; each stocks about 80% of the products.
+     * @param dayCount number of consecutive days with one price per stocked product and store, ending today.
+     * @param discountCount total number of discounts, spread over stores, products and the generated days.
+     * @param userCount number of users.
+     * @param seed random seed.
+     */
+    public SyntheticDataGenerator(int productCount, int storeCount, int dayCount, int discountCount, int userCount, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < storeCount; i++) {
+            storeNames.add(i < STORE_NAMES.length ? STORE_NAMES[i] : "store" + (i + 1));
+        }
+        LocalDate today = LocalDate.now();
+        for (int i = dayCount - 1; i >= 0; i--) {
+            days.add(today.minusDays(i));
+        }
+
+        basePrices = new double[productCount];
+        for (int i = 0; i < productCount; i++) {
+            int unit = random.nextInt(UNITS.length);
+            double quantity = QUANTITIES[unit][random.nextInt(QUANTITIES[unit].length)];
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            products.add(new Product(productId(i), "Produs " + category + " " + i, nameDictionaries.categories().idOf(category),
+                    "Brand" + random.nextInt(BRANDS), quantity, UNITS[unit]));
+            basePrices[i] = 1 + random.nextInt(5000) / 100.0;
+        }
+
+        for (int i = 0; i < userCount; i++) {
+            users.add(new User(i + 1, "user" + (i + 1), "Prenume" + (i + 1), "Nume" + (i + 1)));
+        }
+
+        for (String storeName : storeNames) {
+            int storeId = nameDictionaries.stores().idOf(storeName);
+            double storeFactor = 0.9 + random.nextDouble() * 0.2;
+            for (int i = 0; i < productCount; i++) {
+                if (random.nextDouble() >= STOCKED_RATIO) {
+                    continue;
+                }
+                double price = basePrices[i] * storeFactor;
+                for (LocalDate day : days) {
+                    // Small daily drift, rounded to bani like real price files.
+                    price = Math.max(0.1, price * (0.98 + random.nextDouble() * 0.04));
+                    price = Math.round(price * 100) / 100.0;
+                    priceEntries.add(new PriceEntry(products.get(i), storeId, day, price, Currency.RON));
+                }
+            }
+        }
+
+        if (productCount > 0 && storeCount > 0 && dayCount > 0) {
+            for (int i = 0; i < discountCount; i++) {
+                Product product = products.get(random.nextInt(productCount));
+                int storeId = nameDictionaries.stores().idOf(storeNames.get(random.nextInt(storeCount)));
+                LocalDate start = days.get(random.nextInt(dayCount));
+                LocalDate end = start.plusDays(3 + random.nextInt(12));
+                LocalDate observed = start.minusDays(random.nextInt(3));
+                discounts.add(new Discount(product, storeId, start, end, 5 + random.nextInt(46), observed));
+            }
+        }
+    }
+
+    public static String productId(int index) {
+        return String.format(Locale.ROOT, "P%06d", index);
+    }
+
+    public void populate(ProductRepository productRepository, PriceEntryRepository priceEntryRepository,
+                         DiscountRepository discountRepository, UserRepository userRepository) {
+        productRepository.saveAll(products);
+        priceEntryRepository.saveAll(priceEntries);
+        discountRepository.saveAll(discounts);
+        userRepository.saveAll(users);
+    }
+
+    /**
+     * Writes the prices of one store on one generated day in the {@code store_yyyy-MM-dd.csv} format.
+     */
+    public Path writePriceFile(Path directory, String storeName, LocalDate day) throws IOException {
+        Path file = directory.resolve(storeName + "_" + day + ".csv");
+        int storeId = nameDictionaries.stores().findId(storeName);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(PRICE_FILE_HEADER);
+            for (PriceEntry entry : priceEntries) {
+                if (entry.getStoreId() == storeId && entry.getEntryDate().equals(day)) {
+                    writePriceRow(writer, entry);
+                }
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Writes the price files of every store and generated day in one pass over the price entries.
+     */
+    public List<Path> writePriceFiles(Path directory) throws IOException {
+        Map<String, BufferedWriter> writers = new LinkedHashMap<>();
+        List<Path> files = new ArrayList<>();
+        try {
+            for (PriceEntry entry : priceEntries) {
+                String fileName = storeName(entry.getStoreId()) + "_" + entry.getEntryDate() + ".csv";
+                BufferedWriter writer = writers.get(fileName);
+                if (writer == null) {
+                    Path file = directory.resolve(fileName);
+                    writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                    writers.put(fileName, writer);
+                    files.add(file);
+                    writer.write(PRICE_FILE_HEADER);
+                }
+                writePriceRow(writer, entry);
+            }
+        } finally {
+            for (BufferedWriter writer : writers.values()) {
+                writer.close();
+            }
+        }
+        return files;
+    }
+
+    private void writePriceRow(BufferedWriter writer, PriceEntry entry) throws IOException {
+        Product product = entry.getProduct();
+        writer.write(product.getProductId() + ";" + product.getProductName() + ";" + categoryName(product)
+                + ";" + product.getBrand() + ";" + formatNumber(product.getPackageQuantityInput())
+                + ";" + product.getPackageUnitInput().getCsvValue()
+                + ";" + formatNumber(entry.getPrice()) + ";" + entry.getCurrency() + "\n");
+    }
+
+    /**
+     * Writes all discounts of one store in the {@code store_discounts_yyyy-MM-dd.csv} format, dated today.
+     */
+    public Path writeDiscountFile(Path directory, String storeName) throws IOException {
+        Path file = directory.resolve(storeName + "_discounts_" + LocalDate.now() + ".csv");
+        int storeId = nameDictionaries.stores().findId(storeName);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("product_id;product_name;brand;package_quantity;package_unit;product_category;from_date;to_date;percentage_of_discount\n");
+            for (Discount discount : discounts) {
+                if (discount.getStoreId() == storeId) {
+                    Product product = discount.getProduct();
+                    writer.write(product.getProductId() + ";" + product.getProductName() + ";" + product.getBrand()
+                            + ";" + formatNumber(product.getPackageQuantityInput())
+                            + ";" + product.getPackageUnitInput().getCsvValue() + ";" + categoryName(product)
+                            + ";" + discount.getStartDate() + ";" + discount.getEndDate()
+                            + ";" + formatNumber(discount.getDiscountPercentage()) + "\n");
+                }
+            }
+        }
+        return file;
+    }
+
+    private String storeName(int storeId) {
+        return nameDictionaries.stores().nameOf(storeId);
+    }
+
+    private String categoryName(Product product) {
+        return nameDictionaries.categories().nameOf(product.getCategoryId());
+    }
+
+    private static String formatNumber(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+
+    public NameDictionaries getNameDictionaries() {
+        return nameDictionaries;
+    }
+
+    public List<Product> getProducts() {
+        return Collections.unmodifiableList(products);
+    }
+
+    public List<String> getStoreNames() {
+        return Collections.unmodifiableList(storeNames);
+    }
+
+    public List<LocalDate> getDays() {
+        return Collections.unmodifiableList(days);
+    }
+
+    public List<User> getUsers() {
+        return Collections.unmodifiableList(users);
+    }
+
+    public List<PriceEntry> getPriceEntries() {
+        return Collections.unmodifiableList(priceEntries);
+    }
+
+    public List<Discount> getDiscounts() {
+        return Collections.unmodifiableList(discounts);
+    }
+
+    /** Price the product was generated around, useful for picking alert targets that do or do not trigger. */
+    public double getBasePrice(int productIndex) {
+        return basePrices[productIndex];
+    }
+}
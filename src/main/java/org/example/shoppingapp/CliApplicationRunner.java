@@ -6,6 +6,7 @@ import org.example.shoppingapp.repository.interfaces.UserRepository;
 import org.example.shoppingapp.service.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -13,31 +14,33 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class CliApplicationRunner implements CommandLineRunner {
     private static final Logger logger = LoggerFactory.getLogger(CliApplicationRunner.class);
+    // Commands that read products, prices, discounts or alerts, which are only complete after the initial load.
+    private static final Set<String> DATA_COMMANDS = Set.of("best_discounts", "new_discounts", "price_history",
+            "best_value", "optimize_basket", "optimize_basket_stores", "set_alert", "my_alerts", "remove_alert",
+            "check_alerts", "reload_data", "reload_changed_data");
 
-    private final DiscountService discountService;
-    private final PriceHistoryService priceHistoryService;
-    private final ProductRecommendationService productRecommendationService;
+    private final CachedQueryService cachedQueryService;
     private final ShoppingListOptimizerService shoppingListOptimizerService;
     private final PriceAlertService priceAlertService;
     private final DataLoadingService dataLoadingService;
     private final UserRepository userRepository;
 
+    @Value("${app.cli.data-wait-seconds:30}")
+    private long dataWaitSeconds = 30;
+
     private User currentUser = null;
 
-    public CliApplicationRunner(DiscountService discountService,
-                                PriceHistoryService priceHistoryService,
-                                ProductRecommendationService productRecommendationService,
+    public CliApplicationRunner(CachedQueryService cachedQueryService,
                                 ShoppingListOptimizerService shoppingListOptimizerService,
                                 PriceAlertService priceAlertService,
                                 DataLoadingService dataLoadingService,
                                 UserRepository userRepository) {
-        this.discountService = discountService;
-        this.priceHistoryService = priceHistoryService;
-        this.productRecommendationService = productRecommendationService;
+        this.cachedQueryService = cachedQueryService;
         this.shoppingListOptimizerService = shoppingListOptimizerService;
         this.priceAlertService = priceAlertService;
         this.dataLoadingService = dataLoadingService;
@@ -49,6 +52,10 @@ public class CliApplicationRunner implements CommandLineRunner {
         logger.info("CLI Application Runner started.");
         System.out.println("Welcome to the Price Comparator CLI!");
         System.out.println("A command menu has started. Type 'help' for a list of available commands.");
+        if (!dataLoadingService.isInitialLoadComplete()) {
+            System.out.println("Data is loading in the background (" + dataLoadingService.getInitialLoadProgress()
+                    + "%). Type 'data_status' to check on it.");
+        }
         Scanner scanner = new Scanner(System.in);
         String command;
 
@@ -78,6 +85,9 @@ public class CliApplicationRunner implements CommandLineRunner {
     }
 
     private void processCommand(String command, Scanner scanner) {
+        if (DATA_COMMANDS.contains(command) && !waitForData()) {
+            return;
+        }
         switch (command) {
             case "help":
                 printHelp();
@@ -109,6 +119,9 @@ public class CliApplicationRunner implements CommandLineRunner {
             case "optimize_basket":
                 handleOptimizeBasket(scanner);
                 break;
+            case "optimize_basket_stores":
+                handleOptimizeBasketAcrossStores(scanner);
+                break;
             case "set_alert":
                 handleSetAlert(scanner);
                 break;
@@ -121,11 +134,25 @@ public class CliApplicationRunner implements CommandLineRunner {
             case "check_alerts":
                 handleCheckTriggeredAlerts();
                 break;
+            case "alert_notifications":
+                handleAlertNotifications();
+                break;
             case "reload_data":
                 System.out.println("Reloading all data from CSV files...");
                 dataLoadingService.reloadAllData();
                 System.out.println("Data reloaded successfully.");
                 break;
+            case "reload_changed_data":
+                System.out.println("Reloading new and changed CSV files...");
+                dataLoadingService.reloadChangedData();
+                System.out.println("Data reloaded successfully.");
+                break;
+            case "cache_stats":
+                System.out.println(cachedQueryService.getStats());
+                break;
+            case "data_status":
+                showDataStatus();
+                break;
             default:
                 System.out.println("Unknown command. Type 'help' for a list of commands.");
         }
@@ -145,22 +172,59 @@ public class CliApplicationRunner implements CommandLineRunner {
         System.out.println("    best_value            Find best value products (price/unit).");
         System.out.println("  Shopping Features:");
         System.out.println("    optimize_basket       Optimize a shopping basket for cost savings.");
+        System.out.println("    optimize_basket_stores Optimize a basket counting a cost per store visited and a store limit.");
         System.out.println("  Price Alerts (requires login):");
         System.out.println("    set_alert             Set a price alert for a product.");
         System.out.println("    my_alerts             List your active price alerts.");
         System.out.println("    remove_alert          Remove an active price alert.");
         System.out.println("    check_alerts          Check for and display triggered alerts (for all users).");
+        System.out.println("    alert_notifications   Show alerts triggered by newly loaded prices since the last call.");
         System.out.println("  Data Management:");
         System.out.println("    reload_data           Reload all data from CSV files.");
+        System.out.println("    reload_changed_data   Reload new, changed and deleted CSV files only.");
+        System.out.println("    cache_stats           Show hits, misses and evictions of the query result cache.");
+        System.out.println("    data_status           Show whether the initial data load has finished.");
         System.out.println("  General:");
         System.out.println("    help                  Show this help message.");
         System.out.println("    exit                  Exit the application.");
     }
 
+    /**
+     * Waits up to {@code app.cli.data-wait-seconds} for the initial data load. Returns false, after telling the
+     * user how far the load got, if it is still running.
+     */
+    private boolean waitForData() {
+        if (dataLoadingService.isInitialLoadComplete()) {
+            return true;
+        }
+        System.out.println("Data is still loading (" + dataLoadingService.getInitialLoadProgress()
+                + "%). Waiting up to " + dataWaitSeconds + " seconds...");
+        try {
+            if (dataLoadingService.awaitInitialLoad(dataWaitSeconds, TimeUnit.SECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Data is still loading (" + dataLoadingService.getInitialLoadProgress()
+                + "%). Please try again shortly.");
+        return false;
+    }
+
+    private void showDataStatus() {
+        if (dataLoadingService.isInitialLoadComplete()) {
+            System.out.println("Data loaded (version " + dataLoadingService.getDataVersion() + ").");
+        } else {
+            System.out.println("Data is still loading (" + dataLoadingService.getInitialLoadProgress() + "%).");
+        }
+    }
+
     private void listUsers() {
         List<User> users = userRepository.findAll();
         if (users.isEmpty()) {
-            System.out.println("No users found. Ensure users.csv is loaded.");
+            System.out.println(dataLoadingService.isInitialLoadComplete()
+                    ? "No users found. Ensure users.csv is loaded."
+                    : "No users loaded yet; data is still loading (" + dataLoadingService.getInitialLoadProgress() + "%).");
             return;
         }
         System.out.println("\nAvailable Users:");
@@ -179,6 +243,9 @@ public class CliApplicationRunner implements CommandLineRunner {
         if (userOpt.isPresent()) {
             currentUser = userOpt.get();
             System.out.println("Logged in as: " + currentUser.getUsername());
+        } else if (!dataLoadingService.isInitialLoadComplete()) {
+            System.out.println("Login failed: User '" + username + "' not found yet; data is still loading ("
+                    + dataLoadingService.getInitialLoadProgress() + "%).");
         } else {
             System.out.println("Login failed: User '" + username + "' not found.");
         }
@@ -204,7 +271,7 @@ public class CliApplicationRunner implements CommandLineRunner {
     private void handleBestDiscounts(Scanner scanner) {
         System.out.print("Enter limit for best discounts (e.g., 10): ");
         int limit = Integer.parseInt(scanner.nextLine().trim());
-        List<DiscountedProductDTO> bestDiscounts = discountService.getBestCurrentDiscounts(limit);
+        List<DiscountedProductDTO> bestDiscounts = cachedQueryService.getBestCurrentDiscounts(limit);
         if (bestDiscounts.isEmpty()) {
             System.out.println("No current discounts found.");
         } else {
@@ -219,7 +286,7 @@ public class CliApplicationRunner implements CommandLineRunner {
         System.out.print("Enter limit (e.g., 10): ");
         int limit = Integer.parseInt(scanner.nextLine().trim());
 
-        List<DiscountedProductDTO> newDiscounts = discountService.getNewDiscounts(hoursAgo, limit);
+        List<DiscountedProductDTO> newDiscounts = cachedQueryService.getNewDiscounts(hoursAgo, limit);
         if (newDiscounts.isEmpty()) {
             System.out.println("No new discounts found in the last " + hoursAgo + " hours (approx).");
         } else {
@@ -265,7 +332,7 @@ public class CliApplicationRunner implements CommandLineRunner {
             return;
         }
 
-        List<PriceHistoryDataPointDTO> history = priceHistoryService.getPriceHistory(
+        List<PriceHistoryDataPointDTO> history = cachedQueryService.getPriceHistory(
                 productId.isEmpty() ? null : productId,
                 storeNameOpt, categoryOpt, brandOpt, fromDateOpt, toDateOpt);
 
@@ -299,7 +366,7 @@ public class CliApplicationRunner implements CommandLineRunner {
         System.out.print("Enter limit (e.g., 5): ");
         int limit = Integer.parseInt(scanner.nextLine().trim());
 
-        List<ProductRecommendationDTO> recommendations = productRecommendationService.getBestValueProducts(productIdOpt, categoryOpt, limit);
+        List<ProductRecommendationDTO> recommendations = cachedQueryService.getBestValueProducts(productIdOpt, categoryOpt, limit);
         if (recommendations.isEmpty()) {
             System.out.println("No recommendations found for the given criteria.");
         } else {
@@ -309,6 +376,39 @@ public class CliApplicationRunner implements CommandLineRunner {
     }
 
     private void handleOptimizeBasket(Scanner scanner) {
+        Map<String, Integer> basket = readBasket(scanner);
+        if (basket.isEmpty()) {
+            System.out.println("Basket is empty. Nothing to optimize.");
+            return;
+        }
+
+        printOptimizedLists(shoppingListOptimizerService.optimizeShoppingBasket(basket));
+    }
+
+    private void handleOptimizeBasketAcrossStores(Scanner scanner) {
+        Map<String, Integer> basket = readBasket(scanner);
+        if (basket.isEmpty()) {
+            System.out.println("Basket is empty. Nothing to optimize.");
+            return;
+        }
+        System.out.print("Cost per store visit (e.g., 5.00, or leave blank for 0): ");
+        String visitCostStr = scanner.nextLine().trim();
+        System.out.print("Maximum number of stores (leave blank for no limit): ");
+        String maxStoresStr = scanner.nextLine().trim();
+        double storeVisitCost;
+        int maxStores;
+        try {
+            storeVisitCost = visitCostStr.isEmpty() ? 0 : Double.parseDouble(visitCostStr);
+            maxStores = maxStoresStr.isEmpty() ? 0 : Integer.parseInt(maxStoresStr);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid number. Please try again.");
+            return;
+        }
+
+        printOptimizedLists(shoppingListOptimizerService.optimizeShoppingBasket(basket, storeVisitCost, maxStores));
+    }
+
+    private Map<String, Integer> readBasket(Scanner scanner) {
         Map<String, Integer> basket = new HashMap<>();
         System.out.println("Enter products for your basket (ProductId Quantity). Type 'done' when finished.");
         while (true) {
@@ -328,13 +428,10 @@ public class CliApplicationRunner implements CommandLineRunner {
                 System.out.println("Invalid format. Use: ProductId Quantity");
             }
         }
+        return basket;
+    }
 
-        if (basket.isEmpty()) {
-            System.out.println("Basket is empty. Nothing to optimize.");
-            return;
-        }
-
-        List<OptimizedShoppingListDTO> optimizedLists = shoppingListOptimizerService.optimizeShoppingBasket(basket);
+    private void printOptimizedLists(List<OptimizedShoppingListDTO> optimizedLists) {
         if (optimizedLists.isEmpty()) {
             System.out.println("Could not generate optimized shopping lists (maybe no products found or priced).");
         } else {
@@ -407,4 +504,14 @@ public class CliApplicationRunner implements CommandLineRunner {
             triggeredAlerts.forEach(System.out::println);
         }
     }
-}
\ No newline at end of file
+
+    private void handleAlertNotifications() {
+        List<TriggeredAlertDTO> triggeredAlerts = priceAlertService.drainTriggeredAlerts();
+        if (triggeredAlerts.isEmpty()) {
+            System.out.println("No alerts have been triggered by new prices since the last check.");
+        } else {
+            System.out.println("\nAlerts Triggered by New Prices:");
+            triggeredAlerts.forEach(System.out::println);
+        }
+    }
+}
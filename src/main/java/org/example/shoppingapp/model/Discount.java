@@ -8,20 +8,22 @@ import java.util.Objects;
 
 public class Discount {
     private Product product;
-    private String storeName;
-    private LocalDate startDate;
-    private LocalDate endDate;
+    // Id of the store in the store NameDictionary; the name is looked up there.
+    private int storeId;
     private double discountPercentage;
-    private LocalDate discountObservationDate;
+    // The three dates as epoch days, for the date filters; the LocalDates are derived when asked for.
+    private int startEpochDay;
+    private int endEpochDay;
+    private int observationEpochDay;
     private static final Logger logger = LoggerFactory.getLogger(Discount.class);
 
-    public Discount(Product product, String storeName, LocalDate startDate, LocalDate endDate,
+    public Discount(Product product, int storeId, LocalDate startDate, LocalDate endDate,
                     double discountPercentage, LocalDate discountObservationDate) {
         this.product = product;
-        this.storeName = storeName;
-        this.startDate = startDate;
-        this.endDate = endDate;
-        this.discountObservationDate = discountObservationDate;
+        this.storeId = storeId;
+        this.startEpochDay = EpochDays.of(startDate);
+        this.endEpochDay = EpochDays.of(endDate);
+        this.observationEpochDay = EpochDays.of(discountObservationDate);
 
         if (discountPercentage < 0 || discountPercentage > 100) {
             logger.warn("Warning: Discount percentage " + discountPercentage + "% for product " + product.getProductId() + " is outside the 0-100 range. Using as is.");
@@ -30,15 +32,24 @@ public class Discount {
     }
 
     public boolean isActiveOnDate(LocalDate checkDate) {
-        return !checkDate.isBefore(startDate) && !checkDate.isAfter(endDate);
+        return isActiveOnEpochDay(EpochDays.of(checkDate));
+    }
+
+    /** Same as {@link #isActiveOnDate}, for a date given as an epoch day. Never true without a start or end date. */
+    public boolean isActiveOnEpochDay(int epochDay) {
+        return startEpochDay != EpochDays.NONE && epochDay >= startEpochDay && epochDay <= endEpochDay;
     }
 
     public Product getProduct() { return product; }
-    public String getStoreName() { return storeName; }
-    public LocalDate getStartDate() { return startDate; }
-    public LocalDate getEndDate() { return endDate; }
+    /** Id of the store in the store {@link NameDictionary}, {@link NameDictionary#NO_ID} if there is none. */
+    public int getStoreId() { return storeId; }
+    public LocalDate getStartDate() { return EpochDays.toDate(startEpochDay); }
+    public LocalDate getEndDate() { return EpochDays.toDate(endEpochDay); }
     public double getDiscountPercentage() { return discountPercentage; }
-    public LocalDate getDiscountObservationDate() { return discountObservationDate; }
+    public LocalDate getDiscountObservationDate() { return EpochDays.toDate(observationEpochDay); }
+    public int getStartEpochDay() { return startEpochDay; }
+    public int getEndEpochDay() { return endEpochDay; }
+    public int getObservationEpochDay() { return observationEpochDay; }
 
     @Override
     public boolean equals(Object o) {
@@ -47,14 +58,14 @@ public class Discount {
         Discount discount = (Discount) o;
         return Double.compare(discount.discountPercentage, discountPercentage) == 0 &&
                 Objects.equals(product, discount.product) &&
-                Objects.equals(storeName, discount.storeName) &&
-                Objects.equals(startDate, discount.startDate) &&
-                Objects.equals(endDate, discount.endDate);
+                storeId == discount.storeId &&
+                startEpochDay == discount.startEpochDay &&
+                endEpochDay == discount.endEpochDay;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(product, storeName, startDate, endDate, discountPercentage);
+        return Objects.hash(product, storeId, startEpochDay, endEpochDay, discountPercentage);
     }
 
     @Override
@@ -65,10 +76,10 @@ public class Discount {
         }
         return "Discount{" +
                 "product=" + productInfo +
-                ", store='" + storeName + '\'' +
-                ", activePeriod=" + startDate + " to " + endDate +
+                ", storeId=" + storeId +
+                ", activePeriod=" + getStartDate() + " to " + getEndDate() +
                 ", percentage=" + discountPercentage + "%" +
-                ", observedOn=" + discountObservationDate +
+                ", observedOn=" + getDiscountObservationDate() +
                 '}';
     }
 }
\ No newline at end of file
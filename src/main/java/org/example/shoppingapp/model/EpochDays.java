@@ -0,0 +1,28 @@
+package org.example.shoppingapp.model;
+
+import java.time.LocalDate;
+
+/**
+ * Dates as days since 1970-01-01, as kept by {@link PriceEntry} and {@link Discount} instead of
+ * {@link LocalDate}s, so date filters on the query paths compare ints.
+ */
+public final class EpochDays {
+    /** Stands for a missing date; sorts before every real date. */
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private EpochDays() {
+    }
+
+    public static int of(LocalDate date) {
+        return date != null ? (int) date.toEpochDay() : NONE;
+    }
+
+    public static int today() {
+        return of(LocalDate.now());
+    }
+
+    /** The date, or null for {@link #NONE}. */
+    public static LocalDate toDate(int epochDay) {
+        return epochDay != NONE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+}
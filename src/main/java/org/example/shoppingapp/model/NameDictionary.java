@@ -0,0 +1,72 @@
+package org.example.shoppingapp.model;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small integer ids for store or category names, so rows keep an id instead of a string and filters and indexes
+ * compare ids. Names that differ only in case share an id, and {@link #nameOf} returns the spelling seen first.
+ * Ids are never reused: a row still holding the id of a name dropped by {@link #retainOnly} resolves to null
+ * rather than to another name.
+ */
+public final class NameDictionary {
+    public static final int NO_ID = -1;
+
+    // Every spelling seen so far, so names seen before are resolved without case folding.
+    private final Map<String, Integer> idsBySpelling = new ConcurrentHashMap<>();
+    private final Map<String, Integer> idsByFoldedName = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+
+    /** Id of the name, assigning one if the name was never seen; {@link #NO_ID} for null. */
+    public int idOf(String name) {
+        if (name == null) {
+            return NO_ID;
+        }
+        Integer id = idsBySpelling.get(name);
+        if (id == null) {
+            id = idsByFoldedName.computeIfAbsent(fold(name), k -> {
+                int assigned = nextId.getAndIncrement();
+                namesById.put(assigned, name);
+                return assigned;
+            });
+            idsBySpelling.putIfAbsent(name, id);
+        }
+        return id;
+    }
+
+    /** Id of the name if it was seen before, without assigning one (for query input); {@link #NO_ID} otherwise. */
+    public int findId(String name) {
+        if (name == null) {
+            return NO_ID;
+        }
+        Integer id = idsBySpelling.get(name);
+        if (id == null) {
+            id = idsByFoldedName.get(fold(name));
+        }
+        return id != null ? id : NO_ID;
+    }
+
+    /** The name with this id, as first spelled; null for {@link #NO_ID} or a dropped id. */
+    public String nameOf(int id) {
+        return id == NO_ID ? null : namesById.get(id);
+    }
+
+    /** Drops every name whose id is not in the set, e.g. the stores no loaded row refers to any more. */
+    public void retainOnly(Set<Integer> ids) {
+        namesById.keySet().retainAll(ids);
+        idsByFoldedName.values().retainAll(ids);
+        idsBySpelling.values().retainAll(ids);
+    }
+
+    public int size() {
+        return namesById.size();
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -10,17 +10,23 @@ import java.util.Objects;
 
 public class PriceEntry {
     private Product product;
-    private String storeName;
-    private LocalDate entryDate;
+    // Id of the store in the store NameDictionary; the name is looked up there.
+    private int storeId;
+    // The entry date as an epoch day; the LocalDate is derived when asked for.
+    private int entryEpochDay;
     private double price;
     private Currency currency;
     private double pricePerNormalizedUnit;
     private static final Logger logger = LoggerFactory.getLogger(PriceEntry.class);
-    public PriceEntry(Product product, String storeName, LocalDate entryDate, double price, String currency) {
+    public PriceEntry(Product product, int storeId, LocalDate entryDate, double price, String currency) {
+        this(product, storeId, entryDate, price, Currency.valueOf(currency));
+    }
+
+    public PriceEntry(Product product, int storeId, LocalDate entryDate, double price, Currency currency) {
         this.product = product;
-        this.storeName = storeName;
-        this.entryDate = entryDate;
-        this.currency = Currency.valueOf(currency);
+        this.storeId = storeId;
+        this.entryEpochDay = EpochDays.of(entryDate);
+        this.currency = currency;
         this.price = price;
         calculatePricePerNormalizedUnit();
     }
@@ -39,8 +45,11 @@ public class PriceEntry {
     }
 
     public Product getProduct() { return product; }
-    public String getStoreName() { return storeName; }
-    public LocalDate getEntryDate() { return entryDate; }
+    /** Id of the store in the store {@link NameDictionary}, {@link NameDictionary#NO_ID} if there is none. */
+    public int getStoreId() { return storeId; }
+    public LocalDate getEntryDate() { return EpochDays.toDate(entryEpochDay); }
+    /** The entry date as an epoch day, {@link EpochDays#NONE} if there is none. */
+    public int getEntryEpochDay() { return entryEpochDay; }
     public double getPrice() { return price; }
     public Currency getCurrency() { return currency; }
     public double getPricePerNormalizedUnit() { return pricePerNormalizedUnit; }
@@ -59,14 +68,14 @@ public class PriceEntry {
         PriceEntry that = (PriceEntry) o;
         return Double.compare(that.price, price) == 0 &&
                 Objects.equals(product, that.product) &&
-                Objects.equals(storeName, that.storeName) &&
-                Objects.equals(entryDate, that.entryDate) &&
+                storeId == that.storeId &&
+                entryEpochDay == that.entryEpochDay &&
                 Objects.equals(currency, that.currency);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(product, storeName, entryDate, price, currency);
+        return Objects.hash(product, storeId, entryEpochDay, price, currency);
     }
 
     @Override
@@ -78,8 +87,8 @@ public class PriceEntry {
 
         return "PriceEntry{" +
                 "product=" + productInfo +
-                ", store='" + storeName + '\'' +
-                ", date=" + entryDate +
+                ", storeId=" + storeId +
+                ", date=" + getEntryDate() +
                 ", price=" + String.format("%.2f", price) + " " + currency +
                 ", pricePerNormUnit=" + String.format("%.2f", pricePerNormalizedUnit) + "/" + getUnitForNormalizedPrice() +
                 '}';
@@ -8,7 +8,8 @@ import java.util.Objects;
 public class Product {
     private String productId;
     private String productName;
-    private String productCategory;
+    // Id of the category in the category NameDictionary; the name is looked up there.
+    private int categoryId;
     private String brand;
     private double packageQuantityInput;
     private UnitType packageUnitInput;
@@ -17,11 +18,11 @@ public class Product {
     private UnitType normalizedUnitType;
     private static final Logger logger = LoggerFactory.getLogger(Product.class);
 
-    public Product(String productId, String productName, String productCategory, String brand,
+    public Product(String productId, String productName, int categoryId, String brand,
                    double packageQuantity, String packageUnitString) {
         this.productId = productId;
         this.productName = productName;
-        this.productCategory = productCategory;
+        this.categoryId = categoryId;
         this.brand = brand;
         this.packageQuantityInput = packageQuantity;
 
@@ -43,7 +44,8 @@ public class Product {
 
     public String getProductId() { return productId; }
     public String getProductName() { return productName; }
-    public String getProductCategory() { return productCategory; }
+    /** Id of the category in the category {@link NameDictionary}, {@link NameDictionary#NO_ID} if there is none. */
+    public int getCategoryId() { return categoryId; }
     public String getBrand() { return brand; }
     public double getPackageQuantityInput() { return packageQuantityInput; }
     public UnitType getPackageUnitInput() { return packageUnitInput; }
@@ -0,0 +1,135 @@
+package org.example.shoppingapp.repository;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Immutable list view used for repository snapshots. {@link #appendAll} returns a new, longer view and leaves this
+ * one unchanged; when this view is the longest one over its backing storage, the claim on the slots past its end is
+ * taken with a CAS and the new elements are written there in place, so appending a batch costs O(batch).
+ * Every view only reads the slots below its own size, which are never written again, so views can be shared
+ * with any number of readers without locking once they are published (e.g. through a volatile field).
+ * <p>
+ * The storage is a list of chunks, the first holding 8 elements and each next one twice as many as the one before.
+ * Growing adds chunks and never moves the elements already stored, so a writer appending to a list of millions of
+ * entries neither copies them nor briefly holds two arrays of them. Only appending to a view that is no longer
+ * the longest one copies its elements.
+ */
+final class AppendOnlyList<E> extends AbstractList<E> implements RandomAccess {
+    private static final int FIRST_CHUNK_BITS = 3;
+    private static final int FIRST_CHUNK_SIZE = 1 << FIRST_CHUNK_BITS;
+    private static final AppendOnlyList<?> EMPTY = new AppendOnlyList<>(new Object[0][], new AtomicInteger(), 0);
+
+    // Chunk k holds FIRST_CHUNK_SIZE << k slots. Views over the same storage share the chunks; a longer view may
+    // have more of them.
+    private final Object[][] chunks;
+    // Number of slots of the storage handed out to some view; shared by all views over the same storage.
+    private final AtomicInteger claimed;
+    private final int size;
+
+    private AppendOnlyList(Object[][] chunks, AtomicInteger claimed, int size) {
+        this.chunks = chunks;
+        this.claimed = claimed;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> AppendOnlyList<E> empty() {
+        return (AppendOnlyList<E>) EMPTY;
+    }
+
+    static <E> AppendOnlyList<E> of(Collection<? extends E> elements) {
+        if (elements.isEmpty()) {
+            return empty();
+        }
+        Object[][] chunks = withCapacity(new Object[0][], elements.size());
+        write(chunks, 0, elements);
+        return new AppendOnlyList<>(chunks, new AtomicInteger(elements.size()), elements.size());
+    }
+
+    /**
+     * Returns a view holding this view's elements followed by the given ones. This view is not modified.
+     */
+    AppendOnlyList<E> appendAll(List<? extends E> added) {
+        if (added.isEmpty()) {
+            return this;
+        }
+        int newSize = size + added.size();
+        if (size > 0 && claimed.compareAndSet(size, newSize)) {
+            Object[][] grown = withCapacity(chunks, newSize);
+            write(grown, size, added);
+            return new AppendOnlyList<>(grown, claimed, newSize);
+        }
+        // Empty, or a longer view already owns the slots past this one: start new storage.
+        Object[][] copy = withCapacity(new Object[0][], newSize);
+        for (int k = 0, copied = 0; copied < size; k++) {
+            int length = Math.min(copy[k].length, size - copied);
+            System.arraycopy(chunks[k], 0, copy[k], 0, length);
+            copied += length;
+        }
+        write(copy, size, added);
+        return new AppendOnlyList<>(copy, new AtomicInteger(newSize), newSize);
+    }
+
+    private static Object[][] withCapacity(Object[][] chunks, int capacity) {
+        int needed = chunkIndex(capacity - 1) + 1;
+        if (needed <= chunks.length) {
+            return chunks;
+        }
+        Object[][] grown = Arrays.copyOf(chunks, needed);
+        for (int k = chunks.length; k < needed; k++) {
+            grown[k] = new Object[FIRST_CHUNK_SIZE << k];
+        }
+        return grown;
+    }
+
+    private static void write(Object[][] chunks, int from, Collection<?> elements) {
+        int k = chunkIndex(from);
+        int offset = from + FIRST_CHUNK_SIZE - (FIRST_CHUNK_SIZE << k);
+        for (Object element : elements) {
+            if (offset == chunks[k].length) {
+                k++;
+                offset = 0;
+            }
+            chunks[k][offset++] = element;
+        }
+    }
+
+    private static int chunkIndex(int index) {
+        return 31 - Integer.numberOfLeadingZeros(index + FIRST_CHUNK_SIZE) - FIRST_CHUNK_BITS;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int slot = index + FIRST_CHUNK_SIZE;
+        int chunkStart = Integer.highestOneBit(slot);
+        return (E) chunks[Integer.numberOfTrailingZeros(chunkStart) - FIRST_CHUNK_BITS][slot - chunkStart];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        for (int k = 0, visited = 0; visited < size; k++) {
+            Object[] chunk = chunks[k];
+            int length = Math.min(chunk.length, size - visited);
+            for (int i = 0; i < length; i++) {
+                action.accept((E) chunk[i]);
+            }
+            visited += length;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,439 @@
+package org.example.shoppingapp.repository;
+
+import org.example.shoppingapp.model.EpochDays;
+import org.example.shoppingapp.model.NameDictionary;
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.model.enums.Currency;
+import org.example.shoppingapp.repository.interfaces.PriceEntryListener;
+import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Price entry store that keeps rows in parallel primitive arrays instead of one PriceEntry object per row.
+ * Products and store ids are dictionary-encoded; PriceEntry objects are only materialized when read.
+ * Enabled with {@code app.repository.price-entries=columnar}.
+ * <p>
+ * The tradeoff: the rows take a fraction of the heap at rest, but {@code findAll} and the finders build a new
+ * PriceEntry (and LocalDate) for every row they return, on every call, so reads allocate in proportion to their
+ * result and return equal but not identical objects. {@code LatestPriceView}, which the discount, basket and
+ * alert services read current prices through, uses {@link #findLatestAndDailyCheapestByProductId} instead: it
+ * picks the winning rows from the columns and materializes only those.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.repository.price-entries", havingValue = "columnar")
+public class ColumnarPriceEntryRepository implements PriceEntryRepository {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarPriceEntryRepository.class);
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_ORDINAL = -1;
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<PriceEntryListener> listeners = new CopyOnWriteArrayList<>();
+    private final NameDictionaries nameDictionaries;
+
+    // Dictionaries
+    private final List<Product> products = new ArrayList<>();
+    private final Map<String, Integer> productOrdinals = new HashMap<>();
+    // Store ids of the rows, so the store column holds a short instead of an int.
+    private final List<Integer> storeIds = new ArrayList<>();
+    private final Map<Integer, Short> storeOrdinals = new HashMap<>();
+
+    // Columns
+    private int[] productColumn = new int[INITIAL_CAPACITY];
+    private short[] storeColumn = new short[INITIAL_CAPACITY];
+    private int[] epochDayColumn = new int[INITIAL_CAPACITY];
+    private double[] priceColumn = new double[INITIAL_CAPACITY];
+    private byte[] currencyColumn = new byte[INITIAL_CAPACITY];
+    private int size;
+
+    // Row ids per product ordinal
+    private final List<IntList> rowsByProduct = new ArrayList<>();
+
+    public ColumnarPriceEntryRepository(NameDictionaries nameDictionaries) {
+        this.nameDictionaries = nameDictionaries;
+    }
+
+    @Override
+    public PriceEntry save(PriceEntry priceEntry) {
+        if (priceEntry == null) {
+            logger.warn("Attempted to save a null PriceEntry.");
+            throw new IllegalArgumentException("PriceEntry cannot be null.");
+        }
+        lock.writeLock().lock();
+        try {
+            appendAll(List.of(priceEntry));
+            notifyAdded(List.of(priceEntry));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.trace("PriceEntry saved for product: {}", priceEntry.getProduct() != null ? priceEntry.getProduct().getProductId() : "N/A");
+        return priceEntry;
+    }
+
+    @Override
+    public List<PriceEntry> saveAll(Iterable<PriceEntry> entries) {
+        List<PriceEntry> savedEntries = new ArrayList<>(entries instanceof Collection ? ((Collection<?>) entries).size() : 16);
+        if (entries != null) {
+            for (PriceEntry entry : entries) {
+                if (entry != null) {
+                    savedEntries.add(entry);
+                }
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            appendAll(savedEntries);
+            notifyAdded(savedEntries);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Saved {} price entries; columnar price store holds {} rows, ~{} bytes of column data.",
+                    savedEntries.size(), size(), estimateColumnBytes());
+        }
+        return savedEntries;
+    }
+
+    @Override
+    public List<PriceEntry> findAll() {
+        lock.readLock().lock();
+        try {
+            List<PriceEntry> result = new ArrayList<>(size);
+            for (int row = 0; row < size; row++) {
+                result.add(materialize(row));
+            }
+            return Collections.unmodifiableList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PriceEntry> findByProductId(String productId) {
+        if (productId == null) return List.of();
+        lock.readLock().lock();
+        try {
+            Integer productOrdinal = productOrdinals.get(productId);
+            if (productOrdinal == null) {
+                return List.of();
+            }
+            IntList rows = rowsByProduct.get(productOrdinal);
+            List<PriceEntry> result = new ArrayList<>(rows.size);
+            for (int i = 0; i < rows.size; i++) {
+                result.add(materialize(rows.values[i]));
+            }
+            return Collections.unmodifiableList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PriceEntry> findLatestAndDailyCheapestByProductId(String productId, int sinceEpochDay) {
+        if (productId == null) return List.of();
+        lock.readLock().lock();
+        try {
+            Integer productOrdinal = productOrdinals.get(productId);
+            if (productOrdinal == null) {
+                return List.of();
+            }
+            // Winning row per store, and per store and day; rows are visited in saved order, so ties keep the first.
+            IntList rows = rowsByProduct.get(productOrdinal);
+            Map<Short, Integer> latestRowByStore = new HashMap<>();
+            Map<Long, Integer> cheapestRowByStoreAndDay = new HashMap<>();
+            for (int i = 0; i < rows.size; i++) {
+                int row = rows.values[i];
+                short storeOrdinal = storeColumn[row];
+                int epochDay = epochDayColumn[row];
+                if (storeOrdinal == NO_ORDINAL || epochDay == EpochDays.NONE) {
+                    continue;
+                }
+                latestRowByStore.merge(storeOrdinal, row, (current, added) ->
+                        epochDayColumn[added] > epochDayColumn[current] ? added : current);
+                if (epochDay >= sinceEpochDay) {
+                    long storeAndDay = ((long) storeOrdinal << Integer.SIZE) | (epochDay & 0xFFFFFFFFL);
+                    cheapestRowByStoreAndDay.merge(storeAndDay, row, (current, added) ->
+                            priceColumn[added] < priceColumn[current] ? added : current);
+                }
+            }
+            int[] selectedRows = new int[latestRowByStore.size() + cheapestRowByStoreAndDay.size()];
+            int selected = 0;
+            for (int row : latestRowByStore.values()) {
+                selectedRows[selected++] = row;
+            }
+            for (int row : cheapestRowByStoreAndDay.values()) {
+                selectedRows[selected++] = row;
+            }
+            Arrays.sort(selectedRows);
+            List<PriceEntry> result = new ArrayList<>(selectedRows.length);
+            for (int i = 0; i < selectedRows.length; i++) {
+                // The latest row of a store is often also the cheapest of its day.
+                if (i == 0 || selectedRows[i] != selectedRows[i - 1]) {
+                    result.add(materialize(selectedRows[i]));
+                }
+            }
+            return Collections.unmodifiableList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PriceEntry> findByStoreName(String storeName) {
+        if (storeName == null) return List.of();
+        lock.readLock().lock();
+        try {
+            short storeOrdinal = storeOrdinal(storeName);
+            if (storeOrdinal == NO_ORDINAL) {
+                return List.of();
+            }
+            List<PriceEntry> result = new ArrayList<>();
+            for (int row = 0; row < size; row++) {
+                if (storeColumn[row] == storeOrdinal) {
+                    result.add(materialize(row));
+                }
+            }
+            return Collections.unmodifiableList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PriceEntry> findByEntryDate(LocalDate date) {
+        if (date == null) return List.of();
+        int epochDay = EpochDays.of(date);
+        lock.readLock().lock();
+        try {
+            List<PriceEntry> result = new ArrayList<>();
+            for (int row = 0; row < size; row++) {
+                if (epochDayColumn[row] == epochDay) {
+                    result.add(materialize(row));
+                }
+            }
+            return Collections.unmodifiableList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PriceEntry> findByStoreNameAndEntryDate(String storeName, LocalDate date) {
+        if (storeName == null || date == null) return List.of();
+        int epochDay = EpochDays.of(date);
+        lock.readLock().lock();
+        try {
+            short storeOrdinal = storeOrdinal(storeName);
+            if (storeOrdinal == NO_ORDINAL) {
+                return List.of();
+            }
+            List<PriceEntry> result = new ArrayList<>();
+            for (int row = 0; row < size; row++) {
+                if (epochDayColumn[row] == epochDay && storeColumn[row] == storeOrdinal) {
+                    result.add(materialize(row));
+                }
+            }
+            return Collections.unmodifiableList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        lock.writeLock().lock();
+        try {
+            clearColumns();
+            listeners.forEach(PriceEntryListener::onPriceEntriesReplaced);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("All price entries cleared.");
+    }
+
+    @Override
+    public void replaceAll(Collection<PriceEntry> entries) {
+        List<PriceEntry> replacement = new ArrayList<>(entries.size());
+        for (PriceEntry entry : entries) {
+            if (entry != null) {
+                replacement.add(entry);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            clearColumns();
+            appendAll(replacement);
+            listeners.forEach(PriceEntryListener::onPriceEntriesReplaced);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Replaced price entries with {} rows.", size());
+    }
+
+    @Override
+    public void addListener(PriceEntryListener listener) {
+        listeners.add(listener);
+    }
+
+    // Called with the write lock held, so listeners see changes in write order.
+    private void notifyAdded(List<PriceEntry> addedEntries) {
+        if (!addedEntries.isEmpty()) {
+            List<PriceEntry> view = Collections.unmodifiableList(addedEntries);
+            listeners.forEach(listener -> listener.onPriceEntriesAdded(view));
+        }
+    }
+
+    private void clearColumns() {
+        products.clear();
+        productOrdinals.clear();
+        storeIds.clear();
+        storeOrdinals.clear();
+        rowsByProduct.clear();
+        productColumn = new int[INITIAL_CAPACITY];
+        storeColumn = new short[INITIAL_CAPACITY];
+        epochDayColumn = new int[INITIAL_CAPACITY];
+        priceColumn = new double[INITIAL_CAPACITY];
+        currencyColumn = new byte[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rough size of the stored rows in the column arrays and row index, excluding the dictionaries and the spare
+     * capacity of the arrays, for comparing footprints.
+     */
+    public long estimateColumnBytes() {
+        lock.readLock().lock();
+        try {
+            long bytesPerRow = Integer.BYTES + Short.BYTES + Integer.BYTES + Double.BYTES + Byte.BYTES;
+            long rowIndexBytes = 0;
+            for (IntList rows : rowsByProduct) {
+                rowIndexBytes += (long) rows.size * Integer.BYTES;
+            }
+            return (long) size * bytesPerRow + rowIndexBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends a batch: the columns grow at most once, and the store ordinal of the previous row is reused, since
+     * the rows of one price file share it.
+     */
+    private void appendAll(List<PriceEntry> batch) {
+        ensureCapacity(size + batch.size());
+        int lastStoreId = NameDictionary.NO_ID;
+        short lastStoreOrdinal = NO_ORDINAL;
+        for (PriceEntry entry : batch) {
+            int productOrdinal = productOrdinal(entry.getProduct());
+            productColumn[size] = productOrdinal;
+            if (entry.getStoreId() != lastStoreId) {
+                lastStoreId = entry.getStoreId();
+                lastStoreOrdinal = addStoreOrdinal(lastStoreId);
+            }
+            storeColumn[size] = lastStoreOrdinal;
+            epochDayColumn[size] = entry.getEntryEpochDay();
+            priceColumn[size] = entry.getPrice();
+            currencyColumn[size] = (byte) entry.getCurrency().ordinal();
+            if (productOrdinal != NO_ORDINAL) {
+                rowsByProduct.get(productOrdinal).add(size);
+            }
+            size++;
+        }
+    }
+
+    private PriceEntry materialize(int row) {
+        Product product = productColumn[row] != NO_ORDINAL ? products.get(productColumn[row]) : null;
+        int storeId = storeColumn[row] != NO_ORDINAL ? storeIds.get(storeColumn[row]) : NameDictionary.NO_ID;
+        return new PriceEntry(product, storeId, EpochDays.toDate(epochDayColumn[row]), priceColumn[row], CURRENCIES[currencyColumn[row]]);
+    }
+
+    private int productOrdinal(Product product) {
+        if (product == null || product.getProductId() == null) {
+            return NO_ORDINAL;
+        }
+        Integer ordinal = productOrdinals.get(product.getProductId());
+        if (ordinal == null) {
+            ordinal = products.size();
+            products.add(product);
+            productOrdinals.put(product.getProductId(), ordinal);
+            rowsByProduct.add(new IntList());
+        }
+        return ordinal;
+    }
+
+    private short addStoreOrdinal(int storeId) {
+        if (storeId == NameDictionary.NO_ID) {
+            return NO_ORDINAL;
+        }
+        Short ordinal = storeOrdinals.get(storeId);
+        if (ordinal == null) {
+            if (storeIds.size() >= Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct stores for the columnar price store.");
+            }
+            ordinal = (short) storeIds.size();
+            storeIds.add(storeId);
+            storeOrdinals.put(storeId, ordinal);
+        }
+        return ordinal;
+    }
+
+    /**
+     * Ordinal of the store, whose name the dictionary matches ignoring case; {@link #NO_ORDINAL} if no row has it.
+     */
+    private short storeOrdinal(String storeName) {
+        Short ordinal = storeOrdinals.get(nameDictionaries.stores().findId(storeName));
+        if (ordinal == null) {
+            return NO_ORDINAL;
+        }
+        return ordinal;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= productColumn.length) {
+            return;
+        }
+        int newCapacity = Math.max(productColumn.length * 2, capacity);
+        productColumn = Arrays.copyOf(productColumn, newCapacity);
+        storeColumn = Arrays.copyOf(storeColumn, newCapacity);
+        epochDayColumn = Arrays.copyOf(epochDayColumn, newCapacity);
+        priceColumn = Arrays.copyOf(priceColumn, newCapacity);
+        currencyColumn = Arrays.copyOf(currencyColumn, newCapacity);
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
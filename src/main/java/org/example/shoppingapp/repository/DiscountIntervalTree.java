@@ -0,0 +1,154 @@
+package org.example.shoppingapp.repository;
+
+import org.example.shoppingapp.model.Discount;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Interval tree over the [startDate, endDate] period of each discount.
+ * Implemented as a treap ordered by start day, where every node also keeps the largest end day of its subtree,
+ * so inserts stay balanced (expected O(log N)) even when discount files arrive sorted by date,
+ * and stabbing/overlap queries run in O(log N + k).
+ * A tree is never modified once built: {@link #withAll} returns a new one that shares every node off the insertion
+ * paths, so a tree can be read by any number of threads while the next version is built.
+ */
+class DiscountIntervalTree {
+
+    private static final class Node {
+        final long start;
+        final long end;
+        final int priority;
+        final Discount discount;
+        long maxEnd;
+        Node left;
+        Node right;
+
+        Node(Discount discount, int priority) {
+            this.discount = discount;
+            this.start = discount.getStartEpochDay();
+            this.end = discount.getEndEpochDay();
+            this.priority = priority;
+            this.maxEnd = end;
+        }
+
+        private Node(Node other) {
+            this.discount = other.discount;
+            this.start = other.start;
+            this.end = other.end;
+            this.priority = other.priority;
+            this.maxEnd = other.maxEnd;
+            this.left = other.left;
+            this.right = other.right;
+        }
+    }
+
+    private final SplittableRandom random = new SplittableRandom();
+    private Node root;
+    private int size;
+
+    /**
+     * Returns a new tree holding this tree's discounts plus the given ones, copying only the nodes on the
+     * insertion paths (O(k log N) for k discounts). This tree is not modified. Discounts without a start or end
+     * date cannot be placed and are left out.
+     */
+    DiscountIntervalTree withAll(Iterable<Discount> discounts) {
+        DiscountIntervalTree copy = new DiscountIntervalTree();
+        copy.root = root;
+        copy.size = size;
+        for (Discount discount : discounts) {
+            if (discount.getStartDate() != null && discount.getEndDate() != null) {
+                copy.root = insert(copy.root, new Node(discount, copy.random.nextInt()));
+                copy.size++;
+            }
+        }
+        return copy;
+    }
+
+    List<Discount> findActiveOn(LocalDate date) {
+        long day = date.toEpochDay();
+        return findOverlapping(day, day);
+    }
+
+    List<Discount> findOverlapping(LocalDate from, LocalDate to) {
+        return findOverlapping(from.toEpochDay(), to.toEpochDay());
+    }
+
+    int size() {
+        return size;
+    }
+
+    private List<Discount> findOverlapping(long from, long to) {
+        List<Discount> result = new ArrayList<>();
+        if (from <= to) {
+            collectOverlapping(root, from, to, result);
+        }
+        return result;
+    }
+
+    private static void collectOverlapping(Node node, long from, long to, List<Discount> result) {
+        if (node == null || node.maxEnd < from) {
+            return;
+        }
+        collectOverlapping(node.left, from, to, result);
+        if (node.start <= to) {
+            if (node.end >= from) {
+                result.add(node.discount);
+            }
+            collectOverlapping(node.right, from, to, result);
+        }
+    }
+
+    // Every node on the way down is copied before it is changed, so the original tree stays intact.
+    // Rotations only touch the copied node and the child just returned by the recursive call, which is also new.
+    private static Node insert(Node node, Node newNode) {
+        if (node == null) {
+            return newNode;
+        }
+        node = new Node(node);
+        if (newNode.start < node.start) {
+            node.left = insert(node.left, newNode);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, newNode);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        updateMaxEnd(node);
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        updateMaxEnd(node);
+        updateMaxEnd(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        updateMaxEnd(node);
+        updateMaxEnd(pivot);
+        return pivot;
+    }
+
+    private static void updateMaxEnd(Node node) {
+        long maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd > maxEnd) {
+            maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > maxEnd) {
+            maxEnd = node.right.maxEnd;
+        }
+        node.maxEnd = maxEnd;
+    }
+}
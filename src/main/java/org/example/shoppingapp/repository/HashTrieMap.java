@@ -0,0 +1,158 @@
+package org.example.shoppingapp.repository;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash map used for the index maps of repository snapshots. {@link #with} returns a new map and leaves
+ * this one unchanged, copying only the nodes on the path to the key: each node has 32 slots indexed by the next
+ * 5 bits of the key's hash, so an update copies at most 7 small arrays however many keys the map holds.
+ * Like {@link AppendOnlyList}, maps can be shared with any number of readers without locking once they are
+ * published. Keys must not be null.
+ */
+final class HashTrieMap<K, V> {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final HashTrieMap<?, ?> EMPTY = new HashTrieMap<>(new Object[WIDTH]);
+
+    // Each slot is empty, a Leaf, or a child node (Object[]) indexed by the next bits of the hash.
+    private final Object[] root;
+
+    private HashTrieMap(Object[] root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> HashTrieMap<K, V> empty() {
+        return (HashTrieMap<K, V>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        int hash = hash(key);
+        Object[] node = root;
+        for (int shift = 0; ; shift += BITS) {
+            Object slot = node[(hash >>> shift) & MASK];
+            if (slot instanceof Object[]) {
+                node = (Object[]) slot;
+                continue;
+            }
+            for (Leaf<K, V> leaf = (Leaf<K, V>) slot; leaf != null; leaf = leaf.next) {
+                if (leaf.hash == hash && leaf.key.equals(key)) {
+                    return leaf.value;
+                }
+            }
+            return null;
+        }
+    }
+
+    V getOrDefault(Object key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /** Returns a map holding this map's entries with the key mapped to the value. This map is not modified. */
+    HashTrieMap<K, V> with(K key, V value) {
+        Objects.requireNonNull(key);
+        return new HashTrieMap<>(with(root, 0, new Leaf<>(hash(key), key, value, null)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Object[] with(Object[] node, int shift, Leaf<K, V> added) {
+        Object[] copy = node.clone();
+        int index = (added.hash >>> shift) & MASK;
+        Object slot = node[index];
+        if (slot == null) {
+            copy[index] = added;
+        } else if (slot instanceof Object[]) {
+            copy[index] = with((Object[]) slot, shift + BITS, added);
+        } else {
+            Leaf<K, V> existing = (Leaf<K, V>) slot;
+            if (existing.hash == added.hash) {
+                // Same full hash: the keys share a chain.
+                copy[index] = new Leaf<>(added.hash, added.key, added.value, existing.without(added.key));
+            } else {
+                // Different hashes differ in some bit, so they end up in different slots further down.
+                Object[] child = new Object[WIDTH];
+                child[(existing.hash >>> (shift + BITS)) & MASK] = existing;
+                copy[index] = with(child, shift + BITS, added);
+            }
+        }
+        return copy;
+    }
+
+    /** Returns a map holding this map's entries except the key's. This map is not modified. */
+    HashTrieMap<K, V> without(Object key) {
+        Object[] next = without(root, 0, hash(key), key);
+        return next == root ? this : new HashTrieMap<>(next);
+    }
+
+    // Returns the node itself if the key is not in it.
+    @SuppressWarnings("unchecked")
+    private static <K, V> Object[] without(Object[] node, int shift, int hash, Object key) {
+        int index = (hash >>> shift) & MASK;
+        Object slot = node[index];
+        Object replacement;
+        if (slot instanceof Object[]) {
+            replacement = without((Object[]) slot, shift + BITS, hash, key);
+        } else if (slot != null && ((Leaf<K, V>) slot).hash == hash) {
+            replacement = ((Leaf<K, V>) slot).without(key);
+        } else {
+            return node;
+        }
+        if (replacement == slot) {
+            return node;
+        }
+        // An emptied child node is left in place; lookups through it find nothing.
+        Object[] copy = node.clone();
+        copy[index] = replacement;
+        return copy;
+    }
+
+    /** Calls the action for every entry, in no particular order. */
+    void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(root, action);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> void forEach(Object[] node, BiConsumer<? super K, ? super V> action) {
+        for (Object slot : node) {
+            if (slot instanceof Object[]) {
+                forEach((Object[]) slot, action);
+                continue;
+            }
+            for (Leaf<K, V> leaf = (Leaf<K, V>) slot; leaf != null; leaf = leaf.next) {
+                action.accept(leaf.key, leaf.value);
+            }
+        }
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Leaf<K, V> {
+        private final int hash;
+        private final K key;
+        private final V value;
+        // Further keys with the same hash.
+        private final Leaf<K, V> next;
+
+        private Leaf(int hash, K key, V value, Leaf<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        private Leaf<K, V> without(Object removed) {
+            if (key.equals(removed)) {
+                return next;
+            }
+            Leaf<K, V> rest = next != null ? next.without(removed) : null;
+            return rest == next ? this : new Leaf<>(hash, key, value, rest);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.example.shoppingapp.repository;
 
 import org.example.shoppingapp.model.Discount;
+import org.example.shoppingapp.model.NameDictionary;
 import org.example.shoppingapp.repository.interfaces.DiscountRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -8,24 +9,24 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.stream.Collectors;
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.stereotype.Repository;
-
-import java.time.LocalDate;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Repository
 public class InMemoryDiscountRepository implements DiscountRepository {
     private static final Logger logger = LoggerFactory.getLogger(InMemoryDiscountRepository.class);
-    private final List<Discount> discounts = Collections.synchronizedList(new ArrayList<>());
+
+    // Immutable snapshot of the discounts and their active-period index, replaced as a whole on every write,
+    // so readers never lock or copy and always see the list and the index in agreement.
+    private volatile State state = State.EMPTY;
+    // Serializes writers, so no batch is lost between reading the current state and publishing the next one.
+    private final Object writeLock = new Object();
+    private final NameDictionaries nameDictionaries;
+
+    public InMemoryDiscountRepository(NameDictionaries nameDictionaries) {
+        this.nameDictionaries = nameDictionaries;
+    }
 
     @Override
     public Discount save(Discount discount) {
@@ -33,64 +34,104 @@ public class InMemoryDiscountRepository implements DiscountRepository {
             logger.warn("Attempted to save a null Discount.");
             throw new IllegalArgumentException("Discount cannot be null.");
         }
-        discounts.add(discount);
+        synchronized (writeLock) {
+            state = state.plus(List.of(discount));
+        }
         logger.trace("Discount saved for product: {}", discount.getProduct() != null ? discount.getProduct().getProductId() : "N/A");
         return discount;
     }
 
     @Override
     public List<Discount> saveAll(Iterable<Discount> newDiscounts) {
-        List<Discount> savedDiscounts = new ArrayList<>();
+        List<Discount> savedDiscounts = new ArrayList<>(newDiscounts instanceof Collection ? ((Collection<?>) newDiscounts).size() : 16);
         if (newDiscounts != null) {
             for (Discount discount : newDiscounts) {
-                 if (discount != null) {
-                    savedDiscounts.add(save(discount));
+                if (discount != null) {
+                    savedDiscounts.add(discount);
                 }
             }
         }
+        synchronized (writeLock) {
+            state = state.plus(savedDiscounts);
+        }
+        logger.debug("Saved {} discounts.", savedDiscounts.size());
         return savedDiscounts;
     }
 
     @Override
     public List<Discount> findAll() {
-        return new ArrayList<>(discounts);
+        return state.discounts;
     }
 
     @Override
     public List<Discount> findByProductId(String productId) {
         if (productId == null) return new ArrayList<>();
-        return discounts.stream()
+        return state.discounts.stream()
                 .filter(d -> d.getProduct() != null && productId.equals(d.getProduct().getProductId()))
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<Discount> findByStoreName(String storeName) {
-        if (storeName == null) return new ArrayList<>();
-        return discounts.stream()
-                .filter(d -> storeName.equalsIgnoreCase(d.getStoreName()))
+        int storeId = nameDictionaries.stores().findId(storeName);
+        if (storeId == NameDictionary.NO_ID) return new ArrayList<>();
+        return state.discounts.stream()
+                .filter(d -> d.getStoreId() == storeId)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<Discount> findActiveOnDate(LocalDate date) {
         if (date == null) return new ArrayList<>();
-        return discounts.stream()
-                .filter(d -> d.isActiveOnDate(date))
-                .collect(Collectors.toList());
+        return state.activePeriodIndex.findActiveOn(date);
     }
 
     @Override
     public List<Discount> findByDateRange(LocalDate from, LocalDate to) {
         if (from == null || to == null) return new ArrayList<>();
-        return discounts.stream()
-                .filter(d -> !d.getStartDate().isAfter(to) && !d.getEndDate().isBefore(from))
-                .collect(Collectors.toList());
+        return state.activePeriodIndex.findOverlapping(from, to);
     }
 
     @Override
     public void deleteAll() {
-        discounts.clear();
+        synchronized (writeLock) {
+            state = State.EMPTY;
+        }
         logger.info("All discounts cleared.");
     }
-}
\ No newline at end of file
+
+    @Override
+    public void replaceAll(Collection<Discount> replacementDiscounts) {
+        List<Discount> replacement = new ArrayList<>(replacementDiscounts.size());
+        for (Discount discount : replacementDiscounts) {
+            if (discount != null) {
+                replacement.add(discount);
+            }
+        }
+        State replacementState = State.EMPTY.plus(replacement);
+        synchronized (writeLock) {
+            state = replacementState;
+        }
+        logger.info("Replaced discounts with {} discounts.", replacement.size());
+    }
+
+    private static final class State {
+        private static final State EMPTY = new State(AppendOnlyList.empty(), new DiscountIntervalTree());
+
+        private final AppendOnlyList<Discount> discounts;
+        // Never mutated after construction; each batch gets a new tree that shares the untouched nodes.
+        private final DiscountIntervalTree activePeriodIndex;
+
+        private State(AppendOnlyList<Discount> discounts, DiscountIntervalTree activePeriodIndex) {
+            this.discounts = discounts;
+            this.activePeriodIndex = activePeriodIndex;
+        }
+
+        private State plus(List<Discount> batch) {
+            if (batch.isEmpty()) {
+                return this;
+            }
+            return new State(discounts.appendAll(batch), activePeriodIndex.withAll(batch));
+        }
+    }
+}
@@ -1,21 +1,39 @@
 package org.example.shoppingapp.repository;
 
+import org.example.shoppingapp.model.NameDictionary;
 import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.repository.interfaces.PriceEntryListener;
 import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Repository
+@ConditionalOnProperty(name = "app.repository.price-entries", havingValue = "in-memory", matchIfMissing = true)
 public class InMemoryPriceEntryRepository implements PriceEntryRepository {
     private static final Logger logger = LoggerFactory.getLogger(InMemoryPriceEntryRepository.class);
-    private final List<PriceEntry> priceEntries = Collections.synchronizedList(new ArrayList<>());
+
+    // Immutable snapshot of the entries and their secondary indexes. Readers use whatever snapshot is current
+    // without locking or copying; writers build the next snapshot and publish it with a single volatile write.
+    private volatile State state = State.EMPTY;
+    // Serializes writers, so no batch is lost between reading the current state and publishing the next one.
+    private final Object writeLock = new Object();
+    private final List<PriceEntryListener> listeners = new CopyOnWriteArrayList<>();
+    private final NameDictionaries nameDictionaries;
+
+    public InMemoryPriceEntryRepository(NameDictionaries nameDictionaries) {
+        this.nameDictionaries = nameDictionaries;
+    }
 
     @Override
     public PriceEntry save(PriceEntry priceEntry) {
@@ -23,64 +41,175 @@ public class InMemoryPriceEntryRepository implements PriceEntryRepository {
             logger.warn("Attempted to save a null PriceEntry.");
             throw new IllegalArgumentException("PriceEntry cannot be null.");
         }
-        priceEntries.add(priceEntry);
+        synchronized (writeLock) {
+            state = state.plus(List.of(priceEntry));
+            notifyAdded(List.of(priceEntry));
+        }
         logger.trace("PriceEntry saved for product: {}", priceEntry.getProduct() != null ? priceEntry.getProduct().getProductId() : "N/A");
         return priceEntry;
     }
 
     @Override
     public List<PriceEntry> saveAll(Iterable<PriceEntry> entries) {
-        List<PriceEntry> savedEntries = new ArrayList<>();
+        List<PriceEntry> savedEntries = new ArrayList<>(entries instanceof Collection ? ((Collection<?>) entries).size() : 16);
         if (entries != null) {
             for (PriceEntry entry : entries) {
                 if (entry != null) {
-                    savedEntries.add(save(entry));
+                    savedEntries.add(entry);
                 }
             }
         }
+        // The whole batch becomes visible at once.
+        synchronized (writeLock) {
+            state = state.plus(savedEntries);
+            notifyAdded(savedEntries);
+        }
+        logger.debug("Saved {} price entries.", savedEntries.size());
         return savedEntries;
     }
 
     @Override
     public List<PriceEntry> findAll() {
-        return new ArrayList<>(priceEntries);
+        return state.entries;
     }
 
     @Override
     public List<PriceEntry> findByProductId(String productId) {
-        if (productId == null) return new ArrayList<>();
-        return priceEntries.stream()
-                .filter(entry -> entry.getProduct() != null && productId.equals(entry.getProduct().getProductId()))
-                .collect(Collectors.toList());
+        if (productId == null) return List.of();
+        return orEmpty(state.byProductId.get(productId));
     }
 
     @Override
     public List<PriceEntry> findByStoreName(String storeName) {
-        if (storeName == null) return new ArrayList<>();
-        return priceEntries.stream()
-                .filter(entry -> storeName.equalsIgnoreCase(entry.getStoreName()))
-                .collect(Collectors.toList());
+        if (storeName == null) return List.of();
+        return orEmpty(state.byStore.get(nameDictionaries.stores().findId(storeName)));
     }
 
     @Override
     public List<PriceEntry> findByEntryDate(LocalDate date) {
-        if (date == null) return new ArrayList<>();
-        return priceEntries.stream()
-                .filter(entry -> date.equals(entry.getEntryDate()))
-                .collect(Collectors.toList());
+        if (date == null) return List.of();
+        return orEmpty(state.byDate.get(date));
     }
-    
+
     @Override
     public List<PriceEntry> findByStoreNameAndEntryDate(String storeName, LocalDate date) {
-        if (storeName == null || date == null) return new ArrayList<>();
-        return priceEntries.stream()
-                .filter(entry -> storeName.equalsIgnoreCase(entry.getStoreName()) && date.equals(entry.getEntryDate()))
-                .collect(Collectors.toList());
+        if (storeName == null || date == null) return List.of();
+        HashTrieMap<LocalDate, AppendOnlyList<PriceEntry>> storeEntriesByDate = state.byStoreAndDate.get(nameDictionaries.stores().findId(storeName));
+        return orEmpty(storeEntriesByDate != null ? storeEntriesByDate.get(date) : null);
     }
 
     @Override
     public void deleteAll() {
-        priceEntries.clear();
+        synchronized (writeLock) {
+            state = State.EMPTY;
+            listeners.forEach(PriceEntryListener::onPriceEntriesReplaced);
+        }
         logger.info("All price entries cleared.");
     }
-}
\ No newline at end of file
+
+    @Override
+    public void replaceAll(Collection<PriceEntry> entries) {
+        List<PriceEntry> replacement = new ArrayList<>(entries.size());
+        for (PriceEntry entry : entries) {
+            if (entry != null) {
+                replacement.add(entry);
+            }
+        }
+        // Built off to the side, so readers never see a partial or empty state.
+        State replacementState = State.EMPTY.plus(replacement);
+        synchronized (writeLock) {
+            state = replacementState;
+            listeners.forEach(PriceEntryListener::onPriceEntriesReplaced);
+        }
+        logger.info("Replaced price entries with {} entries.", replacement.size());
+    }
+
+    @Override
+    public void addListener(PriceEntryListener listener) {
+        listeners.add(listener);
+    }
+
+    private void notifyAdded(List<PriceEntry> addedEntries) {
+        if (!addedEntries.isEmpty()) {
+            List<PriceEntry> view = Collections.unmodifiableList(addedEntries);
+            listeners.forEach(listener -> listener.onPriceEntriesAdded(view));
+        }
+    }
+
+    private static List<PriceEntry> orEmpty(List<PriceEntry> indexedEntries) {
+        return indexedEntries != null ? indexedEntries : List.of();
+    }
+
+    private static final class State {
+        private static final State EMPTY = new State(AppendOnlyList.empty(), HashTrieMap.empty(), HashTrieMap.empty(),
+                HashTrieMap.empty(), HashTrieMap.empty());
+
+        private final AppendOnlyList<PriceEntry> entries;
+        private final HashTrieMap<String, AppendOnlyList<PriceEntry>> byProductId;
+        // Store indexes are keyed by store id.
+        private final HashTrieMap<Integer, AppendOnlyList<PriceEntry>> byStore;
+        private final HashTrieMap<LocalDate, AppendOnlyList<PriceEntry>> byDate;
+        private final HashTrieMap<Integer, HashTrieMap<LocalDate, AppendOnlyList<PriceEntry>>> byStoreAndDate;
+
+        private State(AppendOnlyList<PriceEntry> entries,
+                      HashTrieMap<String, AppendOnlyList<PriceEntry>> byProductId,
+                      HashTrieMap<Integer, AppendOnlyList<PriceEntry>> byStore,
+                      HashTrieMap<LocalDate, AppendOnlyList<PriceEntry>> byDate,
+                      HashTrieMap<Integer, HashTrieMap<LocalDate, AppendOnlyList<PriceEntry>>> byStoreAndDate) {
+            this.entries = entries;
+            this.byProductId = byProductId;
+            this.byStore = byStore;
+            this.byDate = byDate;
+            this.byStoreAndDate = byStoreAndDate;
+        }
+
+        /**
+         * Returns the state with the batch appended. Only the index lists the batch touches are extended, and only
+         * the index map nodes leading to them are copied; everything else is shared with this state, which stays
+         * valid for readers still holding it. An append therefore costs O(batch), whatever the size of the indexes.
+         */
+        private State plus(List<PriceEntry> batch) {
+            if (batch.isEmpty()) {
+                return this;
+            }
+            Map<String, List<PriceEntry>> addedByProductId = new HashMap<>();
+            Map<Integer, List<PriceEntry>> addedByStore = new HashMap<>();
+            Map<LocalDate, List<PriceEntry>> addedByDate = new HashMap<>();
+            Map<Integer, Map<LocalDate, List<PriceEntry>>> addedByStoreAndDate = new HashMap<>();
+            for (PriceEntry entry : batch) {
+                if (entry.getProduct() != null && entry.getProduct().getProductId() != null) {
+                    addedByProductId.computeIfAbsent(entry.getProduct().getProductId(), k -> new ArrayList<>()).add(entry);
+                }
+                if (entry.getEntryDate() != null) {
+                    addedByDate.computeIfAbsent(entry.getEntryDate(), k -> new ArrayList<>()).add(entry);
+                }
+                if (entry.getStoreId() != NameDictionary.NO_ID) {
+                    Integer storeId = entry.getStoreId();
+                    addedByStore.computeIfAbsent(storeId, k -> new ArrayList<>()).add(entry);
+                    if (entry.getEntryDate() != null) {
+                        addedByStoreAndDate.computeIfAbsent(storeId, k -> new HashMap<>())
+                                .computeIfAbsent(entry.getEntryDate(), k -> new ArrayList<>())
+                                .add(entry);
+                    }
+                }
+            }
+            HashTrieMap<Integer, HashTrieMap<LocalDate, AppendOnlyList<PriceEntry>>> nextByStoreAndDate = byStoreAndDate;
+            for (Map.Entry<Integer, Map<LocalDate, List<PriceEntry>>> added : addedByStoreAndDate.entrySet()) {
+                nextByStoreAndDate = nextByStoreAndDate.with(added.getKey(),
+                        extend(byStoreAndDate.getOrDefault(added.getKey(), HashTrieMap.empty()), added.getValue()));
+            }
+            return new State(entries.appendAll(batch), extend(byProductId, addedByProductId), extend(byStore, addedByStore),
+                    extend(byDate, addedByDate), nextByStoreAndDate);
+        }
+
+        private static <K> HashTrieMap<K, AppendOnlyList<PriceEntry>> extend(HashTrieMap<K, AppendOnlyList<PriceEntry>> index,
+                                                                             Map<K, List<PriceEntry>> added) {
+            HashTrieMap<K, AppendOnlyList<PriceEntry>> next = index;
+            for (Map.Entry<K, List<PriceEntry>> addedEntries : added.entrySet()) {
+                next = next.with(addedEntries.getKey(),
+                        index.getOrDefault(addedEntries.getKey(), AppendOnlyList.empty()).appendAll(addedEntries.getValue()));
+            }
+            return next;
+        }
+    }
+}
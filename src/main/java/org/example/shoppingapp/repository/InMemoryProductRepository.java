@@ -1,5 +1,6 @@
 package org.example.shoppingapp.repository;
 
+import org.example.shoppingapp.model.NameDictionary;
 import org.example.shoppingapp.model.Product;
 import org.example.shoppingapp.repository.interfaces.ProductRepository;
 import org.slf4j.Logger;
@@ -7,16 +8,29 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Repository
 public class InMemoryProductRepository implements ProductRepository {
     private static final Logger logger = LoggerFactory.getLogger(InMemoryProductRepository.class);
-    private final Map<String, Product> productCatalog = new ConcurrentHashMap<>();
+    // Immutable snapshot of the catalog, replaced on every write. Readers never lock or copy; a write updates only
+    // the index entries of the products it changes and shares the rest with the previous snapshot.
+    private volatile Catalog catalog = Catalog.EMPTY;
+    private final Object writeLock = new Object();
+    private final NameDictionaries nameDictionaries;
+
+    public InMemoryProductRepository(NameDictionaries nameDictionaries) {
+        this.nameDictionaries = nameDictionaries;
+    }
 
     @Override
     public Product save(Product product) {
@@ -24,21 +38,32 @@ public class InMemoryProductRepository implements ProductRepository {
             logger.warn("Attempted to save a null product or product with null ID.");
             throw new IllegalArgumentException("Product or Product ID cannot be null.");
         }
-        productCatalog.put(product.getProductId(), product);
+        synchronized (writeLock) {
+            catalog = catalog.with(Map.of(product.getProductId(), Optional.of(product)));
+        }
         logger.trace("Product saved/updated: {}", product.getProductId());
         return product;
     }
 
     @Override
     public List<Product> saveAll(Iterable<Product> products) {
-        List<Product> savedEntities = new ArrayList<>();
+        List<Product> savedEntities = new ArrayList<>(products instanceof Collection ? ((Collection<?>) products).size() : 16);
         if (products != null) {
             for (Product product : products) {
                 if (product != null) {
-                    savedEntities.add(save(product));
+                    if (product.getProductId() == null) {
+                        logger.warn("Attempted to save a null product or product with null ID.");
+                        throw new IllegalArgumentException("Product or Product ID cannot be null.");
+                    }
+                    savedEntities.add(product);
                 }
             }
         }
+        Map<String, Optional<Product>> changes = new LinkedHashMap<>();
+        savedEntities.forEach(product -> changes.put(product.getProductId(), Optional.of(product)));
+        synchronized (writeLock) {
+            catalog = catalog.with(changes);
+        }
         logger.debug("Saved {} products.", savedEntities.size());
         return savedEntities;
     }
@@ -48,7 +73,7 @@ public class InMemoryProductRepository implements ProductRepository {
         if (productId == null) {
             return Optional.empty();
         }
-        return Optional.ofNullable(productCatalog.get(productId));
+        return Optional.ofNullable(catalog.byId.get(productId));
     }
 
     @Override
@@ -56,12 +81,12 @@ public class InMemoryProductRepository implements ProductRepository {
         if (productId == null) {
             return false;
         }
-        return productCatalog.containsKey(productId);
+        return catalog.byId.get(productId) != null;
     }
 
     @Override
     public List<Product> findAll() {
-        return new ArrayList<>(productCatalog.values());
+        return catalog.products();
     }
 
     public List<Product> findAllProductsByIds(Iterable<String> productIds) {
@@ -77,13 +102,19 @@ public class InMemoryProductRepository implements ProductRepository {
 
     @Override
     public long count() {
-        return productCatalog.size();
+        return catalog.size;
     }
 
     @Override
     public void deleteById(String productId) {
         if (productId != null) {
-            Product removed = productCatalog.remove(productId);
+            Product removed;
+            synchronized (writeLock) {
+                removed = catalog.byId.get(productId);
+                if (removed != null) {
+                    catalog = catalog.with(Map.of(productId, Optional.empty()));
+                }
+            }
             if (removed != null) {
                 logger.trace("Product deleted by ID: {}", productId);
             }
@@ -98,27 +129,49 @@ public class InMemoryProductRepository implements ProductRepository {
     }
 
     public void deleteAllGivenProducts(Iterable<Product> products) {
-        if (products != null) {
-            products.forEach(this::delete);
+        if (products == null) {
+            return;
+        }
+        Map<String, Optional<Product>> changes = new LinkedHashMap<>();
+        for (Product product : products) {
+            if (product != null && product.getProductId() != null) {
+                changes.put(product.getProductId(), Optional.empty());
+            }
+        }
+        synchronized (writeLock) {
+            catalog = catalog.with(changes);
         }
     }
 
     @Override
     public void deleteAll() {
-        productCatalog.clear();
+        synchronized (writeLock) {
+            catalog = Catalog.EMPTY;
+        }
         logger.info("All products cleared from repository.");
     }
 
+    @Override
+    public void replaceAll(Collection<Product> products) {
+        Map<String, Optional<Product>> replacement = new LinkedHashMap<>();
+        for (Product product : products) {
+            if (product != null && product.getProductId() != null) {
+                replacement.put(product.getProductId(), Optional.of(product));
+            }
+        }
+        Catalog replacementCatalog = Catalog.EMPTY.with(replacement);
+        synchronized (writeLock) {
+            catalog = replacementCatalog;
+        }
+        logger.info("Replaced product catalog with {} products.", replacementCatalog.size);
+    }
+
     @Override
     public List<Product> findByCategory(String category) {
         if (category == null || category.trim().isEmpty()) {
             return new ArrayList<>();
         }
-        String lowerCategory = category.trim().toLowerCase();
-        return productCatalog.values().stream()
-                .filter(product -> product.getProductCategory() != null &&
-                        product.getProductCategory().toLowerCase().equals(lowerCategory))
-                .collect(Collectors.toList());
+        return catalog.byCategory.getOrDefault(nameDictionaries.categories().findId(category.trim()), List.of());
     }
 
     @Override
@@ -126,11 +179,7 @@ public class InMemoryProductRepository implements ProductRepository {
         if (brand == null || brand.trim().isEmpty()) {
             return new ArrayList<>();
         }
-        String lowerBrand = brand.trim().toLowerCase();
-        return productCatalog.values().stream()
-                .filter(product -> product.getBrand() != null &&
-                        product.getBrand().toLowerCase().equals(lowerBrand))
-                .collect(Collectors.toList());
+        return catalog.byBrand.getOrDefault(brand.trim().toLowerCase(), List.of());
     }
 
     @Override
@@ -138,14 +187,9 @@ public class InMemoryProductRepository implements ProductRepository {
         if (productName == null || productName.trim().isEmpty() || brand == null || brand.trim().isEmpty()) {
             return Optional.empty();
         }
-        String lowerProductName = productName.trim().toLowerCase();
-        String lowerBrand = brand.trim().toLowerCase();
-        return productCatalog.values().stream()
-                .filter(product -> product.getProductName() != null &&
-                        product.getProductName().toLowerCase().equals(lowerProductName) &&
-                        product.getBrand() != null &&
-                        product.getBrand().toLowerCase().equals(lowerBrand))
-                .findFirst();
+        List<Product> sameNameAndBrand = catalog.byNameAndBrand.get(
+                List.of(productName.trim().toLowerCase(), brand.trim().toLowerCase()));
+        return sameNameAndBrand == null ? Optional.empty() : Optional.of(sameNameAndBrand.get(0));
     }
 
     @Override
@@ -154,9 +198,135 @@ public class InMemoryProductRepository implements ProductRepository {
             return new ArrayList<>();
         }
         String lowerSubstring = nameSubstring.trim().toLowerCase();
-        return productCatalog.values().stream()
+        return catalog.products().stream()
                 .filter(product -> product.getProductName() != null &&
                         product.getProductName().toLowerCase().contains(lowerSubstring))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    private static final class Catalog {
+        private static final Catalog EMPTY = new Catalog(HashTrieMap.empty(), 0, HashTrieMap.empty(),
+                HashTrieMap.empty(), HashTrieMap.empty());
+
+        // Persistent maps, never mutated after construction.
+        private final HashTrieMap<String, Product> byId;
+        private final int size;
+        // Inverted indexes by category id and case-folded brand, each list in the order its products were added.
+        private final HashTrieMap<Integer, List<Product>> byCategory;
+        private final HashTrieMap<String, List<Product>> byBrand;
+        // (lowercase name, lowercase brand) to the products sharing them; lookups return the first.
+        private final HashTrieMap<List<String>, List<Product>> byNameAndBrand;
+        // Built on the first findAll of this snapshot.
+        private volatile List<Product> products;
+
+        private Catalog(HashTrieMap<String, Product> byId, int size,
+                        HashTrieMap<Integer, List<Product>> byCategory,
+                        HashTrieMap<String, List<Product>> byBrand,
+                        HashTrieMap<List<String>, List<Product>> byNameAndBrand) {
+            this.byId = byId;
+            this.size = size;
+            this.byCategory = byCategory;
+            this.byBrand = byBrand;
+            this.byNameAndBrand = byNameAndBrand;
+        }
+
+        private List<Product> products() {
+            List<Product> all = products;
+            if (all == null) {
+                List<Product> collected = new ArrayList<>(size);
+                byId.forEach((productId, product) -> collected.add(product));
+                all = List.copyOf(collected);
+                products = all;
+            }
+            return all;
+        }
+
+        /**
+         * Returns the catalog with each product ID mapped to its new product, or removed for an empty value. Only the
+         * index lists holding a changed product are copied, each once per call.
+         */
+        private Catalog with(Map<String, Optional<Product>> changes) {
+            HashTrieMap<String, Product> nextById = byId;
+            int nextSize = size;
+            Map<Integer, ListEdits> categories = new HashMap<>();
+            Map<String, ListEdits> brands = new HashMap<>();
+            Map<List<String>, ListEdits> namesAndBrands = new HashMap<>();
+            for (Map.Entry<String, Optional<Product>> change : changes.entrySet()) {
+                Product previous = byId.get(change.getKey());
+                Product next = change.getValue().orElse(null);
+                if (previous == next) {
+                    continue;
+                }
+                if (next == null) {
+                    nextById = nextById.without(change.getKey());
+                    nextSize--;
+                } else {
+                    nextById = nextById.with(change.getKey(), next);
+                    if (previous == null) {
+                        nextSize++;
+                    }
+                }
+                move(categories, categoryKey(previous), categoryKey(next), previous, next);
+                move(brands, brandKey(previous), brandKey(next), previous, next);
+                move(namesAndBrands, nameAndBrandKey(previous), nameAndBrandKey(next), previous, next);
+            }
+            return new Catalog(nextById, nextSize, apply(byCategory, categories), apply(byBrand, brands),
+                    apply(byNameAndBrand, namesAndBrands));
+        }
+
+        // Records moving a product from its previous key's list to its next key's list; it keeps its place if the
+        // key is unchanged.
+        private static <K> void move(Map<K, ListEdits> edits, K previousKey, K nextKey, Product previous, Product next) {
+            if (previousKey != null && previousKey.equals(nextKey)) {
+                edits.computeIfAbsent(previousKey, k -> new ListEdits()).replaced.put(previous, next);
+                return;
+            }
+            if (previousKey != null) {
+                edits.computeIfAbsent(previousKey, k -> new ListEdits()).removed.add(previous);
+            }
+            if (nextKey != null) {
+                edits.computeIfAbsent(nextKey, k -> new ListEdits()).added.add(next);
+            }
+        }
+
+        // Rebuilds each edited list in one pass over its current contents.
+        private static <K> HashTrieMap<K, List<Product>> apply(HashTrieMap<K, List<Product>> index,
+                                                              Map<K, ListEdits> edits) {
+            for (Map.Entry<K, ListEdits> entry : edits.entrySet()) {
+                List<Product> current = index.getOrDefault(entry.getKey(), List.of());
+                ListEdits listEdits = entry.getValue();
+                List<Product> next = new ArrayList<>(current.size() + listEdits.added.size());
+                for (Product product : current) {
+                    if (!listEdits.removed.contains(product)) {
+                        next.add(listEdits.replaced.getOrDefault(product, product));
+                    }
+                }
+                next.addAll(listEdits.added);
+                index = next.isEmpty() ? index.without(entry.getKey()) : index.with(entry.getKey(), List.copyOf(next));
+            }
+            return index;
+        }
+
+        private static Integer categoryKey(Product product) {
+            return product == null || product.getCategoryId() == NameDictionary.NO_ID ? null : product.getCategoryId();
+        }
+
+        private static String brandKey(Product product) {
+            return product == null || product.getBrand() == null ? null : product.getBrand().toLowerCase();
+        }
+
+        private static List<String> nameAndBrandKey(Product product) {
+            if (product == null || product.getBrand() == null || product.getProductName() == null) {
+                return null;
+            }
+            return List.of(product.getProductName().toLowerCase(), product.getBrand().toLowerCase());
+        }
+    }
+
+    // Pending changes to one index list. Products are matched by identity: the catalog holds one instance per ID.
+    private static final class ListEdits {
+        private final Map<Product, Product> replaced = new IdentityHashMap<>();
+        private final Set<Product> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<Product> added = new ArrayList<>();
+    }
+}
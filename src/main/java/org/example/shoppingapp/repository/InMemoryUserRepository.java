@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -31,13 +32,22 @@ public class InMemoryUserRepository implements UserRepository {
     @Override
     public List<User> saveAll(Iterable<User> users) {
         List<User> savedUsers = new ArrayList<>();
+        Map<Integer, User> byId = new LinkedHashMap<>();
         if (users != null) {
             for (User user : users) {
                 if (user != null) {
-                    savedUsers.add(save(user));
+                    if (user.getUserId() == null) {
+                        logger.warn("Attempted to save a null user or user with null ID.");
+                        throw new IllegalArgumentException("User or User ID cannot be null.");
+                    }
+                    savedUsers.add(user);
+                    byId.put(user.getUserId(), user);
                 }
             }
         }
+        // Validated up front, so a bad user in the batch leaves the repository unchanged.
+        this.users.putAll(byId);
+        logger.debug("Saved {} users.", savedUsers.size());
         return savedUsers;
     }
 
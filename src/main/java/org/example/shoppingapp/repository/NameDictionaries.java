@@ -0,0 +1,24 @@
+package org.example.shoppingapp.repository;
+
+import org.example.shoppingapp.model.NameDictionary;
+import org.springframework.stereotype.Component;
+
+/**
+ * The store and category dictionaries of the loaded data. {@code CsvDataParser} assigns the ids while parsing,
+ * price entries, discounts and products keep only the ids, and the repositories and services look names up here.
+ * Like the repositories, it lives as long as the application; a full reload drops the names no reloaded row
+ * refers to any more.
+ */
+@Component
+public class NameDictionaries {
+    private final NameDictionary stores = new NameDictionary();
+    private final NameDictionary categories = new NameDictionary();
+
+    public NameDictionary stores() {
+        return stores;
+    }
+
+    public NameDictionary categories() {
+        return categories;
+    }
+}
@@ -2,6 +2,7 @@ package org.example.shoppingapp.repository.interfaces;
 
 import org.example.shoppingapp.model.Discount;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 public interface DiscountRepository {
@@ -13,4 +14,6 @@ public interface DiscountRepository {
     List<Discount> findActiveOnDate(LocalDate date);
     List<Discount> findByDateRange(LocalDate from, LocalDate to);
     void deleteAll(); // Sau clear()
+    // Swaps in the new contents at once; readers never observe an empty repository.
+    void replaceAll(Collection<Discount> discounts);
 }
\ No newline at end of file
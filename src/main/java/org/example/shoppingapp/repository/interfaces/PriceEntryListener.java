@@ -0,0 +1,15 @@
+package org.example.shoppingapp.repository.interfaces;
+
+import org.example.shoppingapp.model.PriceEntry;
+import java.util.List;
+
+/**
+ * Notified by a {@link PriceEntryRepository} after its contents change. Callbacks run on the writing thread
+ * once the change is visible to readers, one at a time and in write order, so they must be quick.
+ */
+public interface PriceEntryListener {
+    // Called once per save or saveAll batch with the entries that were added.
+    void onPriceEntriesAdded(List<PriceEntry> addedEntries);
+    // Called after deleteAll or replaceAll; the previous contents are gone.
+    void onPriceEntriesReplaced();
+}
@@ -2,8 +2,13 @@ package org.example.shoppingapp.repository.interfaces;
 
 import org.example.shoppingapp.model.PriceEntry;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
+/**
+ * Finders return read-only lists, never null: an empty {@code List.of()} when nothing matches or an argument
+ * is null. Callers that need to modify the result copy it first.
+ */
 public interface PriceEntryRepository {
     PriceEntry save(PriceEntry priceEntry);
     List<PriceEntry> saveAll(Iterable<PriceEntry> priceEntries);
@@ -12,5 +17,18 @@ public interface PriceEntryRepository {
     List<PriceEntry> findByStoreName(String storeName);
     List<PriceEntry> findByEntryDate(LocalDate date);
     List<PriceEntry> findByStoreNameAndEntryDate(String storeName, LocalDate date);
+
+    /**
+     * Entries of the product that are the latest of their store, or the cheapest of their store and day from
+     * {@code sinceEpochDay} on, in saved order; on ties the entry saved first wins. May return more entries than
+     * that, so callers still reduce the result themselves. The default returns all entries of the product; a store
+     * that builds PriceEntry objects on read overrides it to build only these.
+     */
+    default List<PriceEntry> findLatestAndDailyCheapestByProductId(String productId, int sinceEpochDay) {
+        return findByProductId(productId);
+    }
     void deleteAll(); // Sau clear()
+    // Swaps in the new contents at once; readers never observe an empty repository.
+    void replaceAll(Collection<PriceEntry> priceEntries);
+    void addListener(PriceEntryListener listener);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package org.example.shoppingapp.repository.interfaces;
 
 import org.example.shoppingapp.model.Product;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +22,10 @@ public interface ProductRepository {
     void delete(Product product);
 
     void deleteAll();
+
+    // Swaps in the new contents at once; readers never observe an empty repository.
+    void replaceAll(Collection<Product> products);
+
     List<Product> findByCategory(String category);
 
     List<Product> findByBrand(String brand);
@@ -0,0 +1,154 @@
+package org.example.shoppingapp.service;
+
+import org.example.shoppingapp.model.dto.DiscountedProductDTO;
+import org.example.shoppingapp.model.dto.PriceHistoryDataPointDTO;
+import org.example.shoppingapp.model.dto.ProductRecommendationDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches the results of the read-only queries of {@link DiscountService}, {@link ProductRecommendationService} and
+ * {@link PriceHistoryService}, keyed by the query and its parameters. The results only change when
+ * {@link DataLoadingService#getDataVersion()} changes or the day changes (the queries look at current prices and
+ * discounts), so the whole cache is dropped when either does. While a load or reload is in progress
+ * ({@link DataLoadingService#isDataChanging()}) the repositories may hold part of the new data, so queries are
+ * answered without the cache.
+ * <p>
+ * At most {@code app.query-cache.max-entries} results are kept; the least recently used one is evicted first.
+ * 0 disables the cache.
+ */
+@Service
+public class CachedQueryService {
+    private static final Logger logger = LoggerFactory.getLogger(CachedQueryService.class);
+
+    private final DiscountService discountService;
+    private final ProductRecommendationService productRecommendationService;
+    private final PriceHistoryService priceHistoryService;
+    private final DataLoadingService dataLoadingService;
+
+    @Value("${app.query-cache.max-entries:1000}")
+    private int maxEntries = 1000;
+
+    // Results in access order, all computed at cachedVersion on cachedDate; guarded by its own monitor.
+    private final LinkedHashMap<List<Object>, List<?>> results = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedVersion = -1;
+    private LocalDate cachedDate;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public CachedQueryService(DiscountService discountService,
+                              ProductRecommendationService productRecommendationService,
+                              PriceHistoryService priceHistoryService,
+                              DataLoadingService dataLoadingService) {
+        this.discountService = discountService;
+        this.productRecommendationService = productRecommendationService;
+        this.priceHistoryService = priceHistoryService;
+        this.dataLoadingService = dataLoadingService;
+    }
+
+    public List<DiscountedProductDTO> getBestCurrentDiscounts(int limit) {
+        return cached(() -> discountService.getBestCurrentDiscounts(limit), "best_discounts", limit);
+    }
+
+    public List<DiscountedProductDTO> getNewDiscounts(int hoursAgo, int limit) {
+        return cached(() -> discountService.getNewDiscounts(hoursAgo, limit), "new_discounts", hoursAgo, limit);
+    }
+
+    public List<ProductRecommendationDTO> getBestValueProducts(Optional<String> productIdOpt, Optional<String> categoryNameOpt, int limit) {
+        return cached(() -> productRecommendationService.getBestValueProducts(productIdOpt, categoryNameOpt, limit),
+                "best_value", productIdOpt, categoryNameOpt, limit);
+    }
+
+    public List<PriceHistoryDataPointDTO> getPriceHistory(String productId,
+                                                          Optional<String> storeNameOpt,
+                                                          Optional<String> categoryOpt,
+                                                          Optional<String> brandOpt,
+                                                          Optional<LocalDate> fromDateOpt,
+                                                          Optional<LocalDate> toDateOpt) {
+        return cached(() -> priceHistoryService.getPriceHistory(productId, storeNameOpt, categoryOpt, brandOpt, fromDateOpt, toDateOpt),
+                "price_history", productId, storeNameOpt, categoryOpt, brandOpt, fromDateOpt, toDateOpt);
+    }
+
+    public Stats getStats() {
+        synchronized (results) {
+            return new Stats(hits.get(), misses.get(), evictions.get(), results.size());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> cached(Supplier<List<T>> query, Object... parameters) {
+        if (maxEntries <= 0) {
+            return query.get();
+        }
+        List<Object> key = Arrays.asList(parameters);
+        long version = dataLoadingService.getDataVersion();
+        if (dataLoadingService.isDataChanging()) {
+            return query.get();
+        }
+        LocalDate today = LocalDate.now();
+        synchronized (results) {
+            if (version != cachedVersion || !today.equals(cachedDate)) {
+                results.clear();
+                cachedVersion = version;
+                cachedDate = today;
+            }
+            List<?> cachedResult = results.get(key);
+            if (cachedResult != null) {
+                hits.incrementAndGet();
+                return (List<T>) cachedResult;
+            }
+        }
+        misses.incrementAndGet();
+        // Computed outside the lock: concurrent misses of the same query may both compute it.
+        List<T> result = List.copyOf(query.get());
+        synchronized (results) {
+            // A result computed while the data changed is returned but not kept.
+            if (version == cachedVersion && today.equals(cachedDate)
+                    && version == dataLoadingService.getDataVersion() && !dataLoadingService.isDataChanging()) {
+                results.put(key, result);
+                while (results.size() > maxEntries) {
+                    results.remove(results.keySet().iterator().next());
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        logger.debug("Cached {} results of {} at data version {}.", result.size(), key, version);
+        return result;
+    }
+
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+
+        private Stats(long hits, long misses, long evictions, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public int getSize() { return size; }
+
+        @Override
+        public String toString() {
+            return "Query cache: " + size + " results, " + hits + " hits, " + misses + " misses, " + evictions + " evictions";
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package org.example.shoppingapp.service;
+
+import org.example.shoppingapp.utils.CsvDataParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches {@code app.data.directory} and ingests price and discount files as they are dropped or rewritten,
+ * so the application can keep running across daily data drops. Enabled with {@code app.data.watch.enabled=true}.
+ * <p>
+ * A file is handed over only after it has been quiet for {@code app.data.watch.debounce-ms}, so files that are
+ * still being written are not parsed half-way. Quiet files go through a bounded queue to a single low-priority
+ * ingestion thread; when the queue is full the files stay pending in the watcher, so a burst of drops is ingested
+ * a few files at a time instead of competing with query threads.
+ */
+@Component
+@ConditionalOnProperty(name = "app.data.watch.enabled", havingValue = "true")
+public class DataDirectoryWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(DataDirectoryWatcher.class);
+    private static final long IDLE_POLL_MILLIS = 1000;
+
+    private final DataLoadingService dataLoadingService;
+
+    @Value("${app.data.directory:./data}")
+    private String dataDirectoryPath;
+
+    @Value("${app.data.watch.debounce-ms:2000}")
+    private long debounceMillis;
+
+    @Value("${app.data.watch.queue-capacity:16}")
+    private int queueCapacity;
+
+    @Value("${app.data.watch.max-batch-files:8}")
+    private int maxBatchFiles;
+
+    // Files with recent events and the time of their last event. Only used by the watcher thread.
+    private final Map<Path, Long> lastEventNanos = new HashMap<>();
+    private BlockingQueue<Path> quietFiles;
+    private Path dataDir;
+    private WatchService watchService;
+    private Thread watcherThread;
+    private Thread ingestionThread;
+    private volatile boolean running;
+
+    public DataDirectoryWatcher(DataLoadingService dataLoadingService) {
+        this.dataLoadingService = dataLoadingService;
+    }
+
+    @PostConstruct
+    public void start() {
+        dataDir = Paths.get(dataDirectoryPath);
+        if (!Files.isDirectory(dataDir)) {
+            logger.error("Data directory not found or is not a directory: {}. Data files will not be watched.", dataDirectoryPath);
+            return;
+        }
+        try {
+            watchService = dataDir.getFileSystem().newWatchService();
+            dataDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            logger.error("Could not watch data directory {}: {}", dataDirectoryPath, e.getMessage(), e);
+            return;
+        }
+        quietFiles = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        running = true;
+
+        watcherThread = new Thread(this::watchLoop, "data-dir-watcher");
+        watcherThread.setDaemon(true);
+        ingestionThread = new Thread(this::ingestionLoop, "data-dir-ingestion");
+        ingestionThread.setDaemon(true);
+        ingestionThread.setPriority(Thread.MIN_PRIORITY);
+        watcherThread.start();
+        ingestionThread.start();
+        logger.info("Watching {} for new and changed data files (debounce {} ms).", dataDir, debounceMillis);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("Error closing the data directory watch service: {}", e.getMessage());
+            }
+        }
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+        if (ingestionThread != null) {
+            ingestionThread.interrupt();
+        }
+    }
+
+    private void watchLoop() {
+        while (running) {
+            WatchKey key;
+            try {
+                key = watchService.poll(lastEventNanos.isEmpty() ? IDLE_POLL_MILLIS : Math.max(debounceMillis / 2, 10),
+                        TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+            if (key != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost; the data directory itself stands for "rescan everything".
+                        logger.warn("Data directory watch events overflowed; a full incremental reload will follow.");
+                        lastEventNanos.put(dataDir, System.nanoTime());
+                        continue;
+                    }
+                    Path file = dataDir.resolve((Path) event.context());
+                    if (CsvDataParser.isDataFileName(file.getFileName().toString())) {
+                        lastEventNanos.put(file, System.nanoTime());
+                    }
+                }
+                if (!key.reset()) {
+                    logger.error("Data directory {} is no longer accessible; stopping the watcher.", dataDir);
+                    running = false;
+                    return;
+                }
+            }
+            handOverQuietFiles();
+        }
+    }
+
+    private void handOverQuietFiles() {
+        long now = System.nanoTime();
+        long debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        Iterator<Map.Entry<Path, Long>> pending = lastEventNanos.entrySet().iterator();
+        while (pending.hasNext()) {
+            Map.Entry<Path, Long> entry = pending.next();
+            if (now - entry.getValue() < debounceNanos) {
+                continue;
+            }
+            if (!quietFiles.offer(entry.getKey())) {
+                logger.debug("Ingestion queue is full; {} files stay pending.", lastEventNanos.size());
+                return;
+            }
+            pending.remove();
+        }
+    }
+
+    private void ingestionLoop() {
+        List<Path> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(quietFiles.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            quietFiles.drainTo(batch, Math.max(maxBatchFiles, 1) - 1);
+            try {
+                if (batch.contains(dataDir)) {
+                    dataLoadingService.reloadChangedData();
+                } else {
+                    logger.info("Ingesting {} data files from {}.", batch.size(), dataDir);
+                    dataLoadingService.applyFileChanges(batch);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Error ingesting data files {}: {}", batch, e.getMessage(), e);
+            }
+            batch.clear();
+        }
+    }
+}
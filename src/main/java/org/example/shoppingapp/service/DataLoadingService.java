@@ -1,11 +1,19 @@
 package org.example.shoppingapp.service;
 
+import org.example.shoppingapp.model.Discount;
+import org.example.shoppingapp.model.EpochDays;
+import org.example.shoppingapp.model.NameDictionary;
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
 import org.example.shoppingapp.model.User;
+import org.example.shoppingapp.repository.NameDictionaries;
 import org.example.shoppingapp.repository.interfaces.DiscountRepository;
 import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
 import org.example.shoppingapp.repository.interfaces.ProductRepository;
 import org.example.shoppingapp.repository.interfaces.UserRepository;
 import org.example.shoppingapp.utils.CsvDataParser;
+import org.example.shoppingapp.utils.DataFileFingerprint;
+import org.example.shoppingapp.utils.DataSnapshot;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,7 +24,27 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Service
@@ -28,20 +56,59 @@ public class DataLoadingService {
     private final PriceEntryRepository priceEntryRepository;
     private final DiscountRepository discountRepository;
     private final UserRepository userRepository;
+    private final PriceHistoryArchive priceHistoryArchive;
+    private final NameDictionaries nameDictionaries;
 
     @Value("${app.data.directory:./data}")
     private String dataDirectoryPath;
 
+    @Value("${app.data.loading.parallelism:1}")
+    private int loadingParallelism;
+
+    // Run the initial load on a background thread, so startup and the CLI do not wait for it.
+    @Value("${app.data.loading.background:false}")
+    private boolean backgroundLoading;
+
+    @Value("${app.data.snapshot.enabled:false}")
+    private boolean snapshotEnabled;
+
+    // Defaults to snapshot.bin in the data directory.
+    @Value("${app.data.snapshot.file:}")
+    private String snapshotFilePath;
+
+    // Data files ingested so far, with their fingerprint and the rows they contributed.
+    private final Map<Path, LoadedFile> loadedFiles = new ConcurrentHashMap<>();
+    // Serializes initial load and reloads.
+    private final Object ingestionLock = new Object();
+    // Incremented each time a load or reload starts changing the repositories.
+    private final AtomicLong dataVersion = new AtomicLong();
+    // Nesting depth of the data changes in progress; guarded by ingestionLock.
+    private int dataChangeDepth;
+    private volatile boolean dataChanging;
+    // Completed when the initial load has finished; replaced by a pending one while a background load runs.
+    // Reloads join it first, so they cannot take the ingestion lock before the loader thread does.
+    private volatile CompletableFuture<Void> initialLoad = CompletableFuture.completedFuture(null);
+    // Actions waiting for a background initial load; the loader thread runs them before completing initialLoad,
+    // so whoever waits for the load also sees them done. Guarded by its own monitor.
+    private final List<Runnable> initialLoadActions = new ArrayList<>();
+    // Data files of the ingestion in progress and how many of them are done, for progress reporting.
+    private final AtomicInteger filesToIngest = new AtomicInteger();
+    private final AtomicInteger filesIngested = new AtomicInteger();
+
     public DataLoadingService(CsvDataParser csvDataParser,
                               ProductRepository productRepository,
                               PriceEntryRepository priceEntryRepository,
                               DiscountRepository discountRepository,
-                              UserRepository userRepository) {
+                              UserRepository userRepository,
+                              PriceHistoryArchive priceHistoryArchive,
+                              NameDictionaries nameDictionaries) {
         this.csvDataParser = csvDataParser;
         this.productRepository = productRepository;
         this.priceEntryRepository = priceEntryRepository;
         this.discountRepository = discountRepository;
         this.userRepository = userRepository;
+        this.priceHistoryArchive = priceHistoryArchive;
+        this.nameDictionaries = nameDictionaries;
     }
 
     private void loadUsersFromCsv() {
@@ -75,64 +142,745 @@ public class DataLoadingService {
             logger.error("Error loading users from users.csv: {}", e.getMessage(), e);
         }
     }
+    /**
+     * Loads the data directory. With {@code app.data.snapshot.enabled=true} the binary snapshot written after the
+     * previous load is read instead of the CSV files, and only data files that are new, changed or deleted since
+     * then are ingested; the snapshot is rewritten whenever CSV files had to be parsed.
+     * <p>
+     * With {@code app.data.loading.background=true} the load runs on its own thread and this returns at once;
+     * {@link #isInitialLoadComplete()} and {@link #getInitialLoadProgress()} report how far it got, and reloads
+     * wait for it to finish.
+     */
     @PostConstruct
     public void loadInitialData() {
-        logger.info("Starting initial data load from directory: {}", dataDirectoryPath);
-        Path dataDir = Paths.get(dataDirectoryPath);
-
-        if (!Files.exists(dataDir) || !Files.isDirectory(dataDir)) {
-            logger.error("Data directory not found or is not a directory: {}", dataDirectoryPath);
+        if (!backgroundLoading) {
+            loadData(snapshotEnabled);
             return;
         }
+        CompletableFuture<Void> load = new CompletableFuture<>();
+        initialLoad = load;
+        Thread loaderThread = new Thread(() -> {
+            try {
+                loadData(snapshotEnabled);
+            } catch (RuntimeException e) {
+                logger.error("Initial data load failed: {}", e.getMessage(), e);
+            } finally {
+                completeInitialLoad(load);
+            }
+        }, "initial-data-load");
+        loaderThread.setDaemon(true);
+        loaderThread.start();
+        logger.info("Loading data from {} in the background.", dataDirectoryPath);
+    }
+
+    /** True once the initial load and the actions registered with {@link #whenInitialLoadComplete} have run. */
+    public boolean isInitialLoadComplete() {
+        return initialLoad.isDone();
+    }
 
+    /** Percentage of the data files of the initial load ingested so far; 100 once the load has finished. */
+    public int getInitialLoadProgress() {
+        if (initialLoad.isDone()) {
+            return 100;
+        }
+        int total = filesToIngest.get();
+        return total == 0 ? 0 : Math.min(filesIngested.get() * 100 / total, 99);
+    }
+
+    /**
+     * Waits up to the timeout for the initial load and the actions registered with {@link #whenInitialLoadComplete};
+     * returns whether they have finished.
+     */
+    public boolean awaitInitialLoad(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            initialLoad.get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            // Never completed exceptionally; a failed load is logged and still counts as finished.
+            return true;
+        }
+    }
+
+    /**
+     * Runs the action once the initial load has finished: right away on the calling thread if it already has,
+     * otherwise on the loader thread, before the load counts as complete.
+     */
+    public void whenInitialLoadComplete(Runnable action) {
+        synchronized (initialLoadActions) {
+            if (!initialLoad.isDone()) {
+                initialLoadActions.add(action);
+                return;
+            }
+        }
+        runInitialLoadAction(action);
+    }
+
+    private void completeInitialLoad(CompletableFuture<Void> load) {
+        while (true) {
+            List<Runnable> actions;
+            synchronized (initialLoadActions) {
+                if (initialLoadActions.isEmpty()) {
+                    load.complete(null);
+                    return;
+                }
+                actions = new ArrayList<>(initialLoadActions);
+                initialLoadActions.clear();
+            }
+            actions.forEach(this::runInitialLoadAction);
+        }
+    }
+
+    private void runInitialLoadAction(Runnable action) {
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            logger.error("Action after the initial data load failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void loadData(boolean useSnapshot) {
+        synchronized (ingestionLock) {
+            logger.info("Starting initial data load from directory: {}", dataDirectoryPath);
+            Path dataDir = Paths.get(dataDirectoryPath);
+
+            if (!Files.exists(dataDir) || !Files.isDirectory(dataDir)) {
+                logger.error("Data directory not found or is not a directory: {}", dataDirectoryPath);
+                return;
+            }
+
+            beginDataChange();
+            try {
+                if (useSnapshot && restoreSnapshot(dataDir)) {
+                    long restoredVersion = dataVersion.get();
+                    applyDirectoryChanges(dataDir, System.nanoTime());
+                    if (dataVersion.get() != restoredVersion) {
+                        writeSnapshot(dataDir);
+                    }
+                } else {
+                    // Users first: they are small, and login does not need to wait for the price files.
+                    loadUsersFromCsv();
+                    ingestFiles(listDataFiles(dataDir), this::processFile, loadingParallelism);
+
+                    if (snapshotEnabled) {
+                        writeSnapshot(dataDir);
+                    }
+                }
+            } finally {
+                endDataChange();
+            }
+
+            logger.info("Initial data load finished.");
+            logger.info("Total products loaded: {}", productRepository.count());
+            logger.info("Total price entries loaded: {}", priceEntryRepository.findAll().size());
+            logger.info("Total discounts loaded: {}", discountRepository.findAll().size());
+            logger.info("Total users loaded: {}", userRepository.count());
+        }
+    }
+
+    private List<Path> listDataFiles(Path dataDir) {
         try (Stream<Path> paths = Files.walk(dataDir)) {
-            paths.filter(Files::isRegularFile)
+            return paths.filter(Files::isRegularFile)
                  .filter(path -> path.toString().toLowerCase().endsWith(".csv"))
                  .sorted()
-                 .forEach(this::processFile);
+                 .collect(Collectors.toList());
         } catch (IOException e) {
             logger.error("Error reading data directory: {}", dataDirectoryPath, e);
+            return List.of();
         }
+    }
 
-        loadUsersFromCsv();
-
-        logger.info("Initial data load finished.");
-        logger.info("Total products loaded: {}", productRepository.count());
-        logger.info("Total price entries loaded: {}", priceEntryRepository.findAll().size());
-        logger.info("Total discounts loaded: {}", discountRepository.findAll().size());
-        logger.info("Total users loaded: {}", userRepository.count());
+    private void ingestFiles(List<Path> dataFiles, Consumer<Path> fileProcessor, int maxParallelism) {
+        if (dataFiles.isEmpty()) {
+            return;
+        }
+        int parallelism = Math.min(Math.max(maxParallelism, 1), dataFiles.size());
+        long startNanos = System.nanoTime();
+        int total = dataFiles.size();
+        filesIngested.set(0);
+        filesToIngest.set(total);
+        Consumer<Path> countingProcessor = file -> {
+            fileProcessor.accept(file);
+            int done = filesIngested.incrementAndGet();
+            if (done * 10 / total > (done - 1) * 10 / total) {
+                logger.info("Ingested {} of {} data files ({}%).", done, total, done * 100 / total);
+            }
+        };
+        csvDataParser.clearPendingProducts();
+        try {
+            if (parallelism == 1) {
+                dataFiles.forEach(countingProcessor);
+            } else {
+                ingestFilesInParallel(dataFiles, parallelism, countingProcessor);
+            }
+        } finally {
+            csvDataParser.clearPendingProducts();
+        }
+        logger.info("Ingested {} data files in {} ms (parallelism {}).",
+                dataFiles.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), parallelism);
+    }
 
+    private void ingestFilesInParallel(List<Path> dataFiles, int parallelism, Consumer<Path> fileProcessor) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> dataFiles.parallelStream().forEach(fileProcessor)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Parallel data ingestion was interrupted.", e);
+        } catch (ExecutionException e) {
+            logger.error("Parallel data ingestion failed: {}", e.getCause().getMessage(), e.getCause());
+        } finally {
+            pool.shutdown();
+        }
     }
 
     private void processFile(Path filePath) {
         logger.info("Processing file: {}", filePath.getFileName());
+        long startNanos = System.nanoTime();
         try {
-            CsvDataParser.ParsedFileData parsedData = csvDataParser.parseAllDataFromFile(filePath);
-            
+            DataFileFingerprint fingerprint = DataFileFingerprint.of(filePath);
+            Set<String> priceEntryKeys = ConcurrentHashMap.newKeySet();
+            CsvDataParser.ParsedFileData parsedData;
+            if (csvDataParser.selectReadStrategy(filePath) == CsvDataParser.ReadStrategy.MEMORY_MAPPED) {
+                // Large files: price entries are saved batch by batch while the chunks are parsed.
+                parsedData = csvDataParser.parseAllDataFromFile(filePath, batch -> {
+                    priceEntryRepository.saveAll(residentEntries(filePath, batch));
+                    RowKeys rowKeys = rowKeys();
+                    batch.forEach(entry -> priceEntryKeys.add(rowKeys.of(entry)));
+                });
+            } else {
+                parsedData = csvDataParser.parseAllDataFromFile(filePath);
+            }
+
             if (!parsedData.products.isEmpty()) {
                 productRepository.saveAll(parsedData.products);
                 logger.debug("Saved {} new/updated products from {}", parsedData.products.size(), filePath.getFileName());
             }
-            if (!parsedData.priceEntries.isEmpty()) {
-                priceEntryRepository.saveAll(parsedData.priceEntries);
-                logger.debug("Saved {} price entries from {}", parsedData.priceEntries.size(), filePath.getFileName());
+            List<PriceEntry> residentEntries = residentEntries(filePath, parsedData.priceEntries);
+            if (!residentEntries.isEmpty()) {
+                priceEntryRepository.saveAll(residentEntries);
+                logger.debug("Saved {} price entries from {}", residentEntries.size(), filePath.getFileName());
             }
             if (!parsedData.discounts.isEmpty()) {
                 discountRepository.saveAll(parsedData.discounts);
                 logger.debug("Saved {} discounts from {}", parsedData.discounts.size(), filePath.getFileName());
             }
+            LoadedFile loadedFile = LoadedFile.of(fingerprint, parsedData, rowKeys());
+            loadedFile.priceEntryKeys.addAll(priceEntryKeys);
+            loadedFiles.put(filePath, loadedFile);
+            logger.info("Processed file {} in {} ms", filePath.getFileName(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
         } catch (IOException e) {
             logger.error("Error processing file {}: {}", filePath.getFileName(), e.getMessage(), e);
         }
     }
 
+    /**
+     * Parses every data file again and replaces the contents of the product, price and discount repositories with the
+     * result. Like {@link #reloadChangedData()}, the next contents are built off to the side and swapped in with
+     * {@code replaceAll}, so readers never observe an empty catalog. If any file cannot be parsed, the loaded data is
+     * kept as it is.
+     */
     public void reloadAllData() {
-        logger.info("Reloading all data...");
-        productRepository.deleteAll();
-        priceEntryRepository.deleteAll();
-        discountRepository.deleteAll();
+        initialLoad.join();
+        synchronized (ingestionLock) {
+            logger.info("Reloading all data from directory: {}", dataDirectoryPath);
+            Path dataDir = Paths.get(dataDirectoryPath);
+            if (!Files.exists(dataDir) || !Files.isDirectory(dataDir)) {
+                logger.error("Data directory not found or is not a directory: {}", dataDirectoryPath);
+                return;
+            }
+            long startNanos = System.nanoTime();
+            beginDataChange();
+            try {
+                loadUsersFromCsv();
+                List<Path> dataFiles = listDataFiles(dataDir);
+                Map<Path, ParsedChange> parsedFiles = new ConcurrentHashMap<>();
+                Set<Path> failedFiles = ConcurrentHashMap.newKeySet();
+                ingestFiles(dataFiles, file -> parseChangedFile(file, parsedFiles, failedFiles), loadingParallelism);
+                if (!failedFiles.isEmpty()) {
+                    logger.error("Could not parse {} data files {}; keeping the loaded data.", failedFiles.size(), failedFiles);
+                    return;
+                }
 
-        loadInitialData();
-        logger.info("Data reload complete.");
+                priceHistoryArchive.clear();
+                Map<String, Product> products = new LinkedHashMap<>();
+                List<PriceEntry> priceEntries = new ArrayList<>();
+                List<Discount> discounts = new ArrayList<>();
+                Set<Integer> storeIds = new HashSet<>();
+                for (Path file : dataFiles) {
+                    CsvDataParser.ParsedFileData data = parsedFiles.get(file).data;
+                    // Archived prices count too: their products stay in the catalog and their stores in the dictionary.
+                    data.products.forEach(product -> addProduct(products, product));
+                    data.priceEntries.forEach(entry -> {
+                        addProduct(products, entry.getProduct());
+                        storeIds.add(entry.getStoreId());
+                    });
+                    data.discounts.forEach(discount -> {
+                        addProduct(products, discount.getProduct());
+                        storeIds.add(discount.getStoreId());
+                    });
+                    priceEntries.addAll(residentEntries(file, data.priceEntries));
+                    discounts.addAll(data.discounts);
+                }
+                productRepository.replaceAll(products.values());
+                priceEntryRepository.replaceAll(priceEntries);
+                discountRepository.replaceAll(discounts);
+                nameDictionaries.stores().retainOnly(storeIds);
+                nameDictionaries.categories().retainOnly(products.values().stream()
+                        .map(Product::getCategoryId)
+                        .collect(Collectors.toSet()));
+
+                loadedFiles.clear();
+                parsedFiles.forEach((file, change) -> loadedFiles.put(file, change.loadedFile));
+                if (snapshotEnabled) {
+                    writeSnapshot(dataDir);
+                }
+                logger.info("Full reload: {} data files in {} ms. Now {} products, {} price entries, {} discounts.",
+                        dataFiles.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                        products.size(), priceEntries.size(), discounts.size());
+            } finally {
+                endDataChange();
+            }
+        }
+    }
+
+    /**
+     * Ingests only data files that are new or whose content changed since they were loaded, and retracts the rows
+     * of changed and deleted files. The next state of the product, price and discount repositories is built
+     * off to the side and swapped in with {@code replaceAll}, so readers never observe an empty catalog.
+     * When the only changes are new files, they are simply appended.
+     */
+    public void reloadChangedData() {
+        initialLoad.join();
+        synchronized (ingestionLock) {
+            logger.info("Reloading changed data files from directory: {}", dataDirectoryPath);
+            Path dataDir = Paths.get(dataDirectoryPath);
+            if (!Files.exists(dataDir) || !Files.isDirectory(dataDir)) {
+                logger.error("Data directory not found or is not a directory: {}", dataDirectoryPath);
+                return;
+            }
+            applyDirectoryChanges(dataDir, System.nanoTime());
+        }
+    }
+
+    private void applyDirectoryChanges(Path dataDir, long startNanos) {
+        List<Path> dataFiles = listDataFiles(dataDir);
+        List<Path> changedFiles = new ArrayList<>();
+        for (Path file : dataFiles) {
+            try {
+                if (hasChanged(file)) {
+                    changedFiles.add(file);
+                }
+            } catch (IOException e) {
+                logger.error("Could not check data file {}: {}", file.getFileName(), e.getMessage(), e);
+            }
+        }
+        Set<Path> removedFiles = new HashSet<>(loadedFiles.keySet());
+        removedFiles.removeAll(dataFiles);
+        applyChanges(dataDir, changedFiles, removedFiles, loadingParallelism, startNanos);
+    }
+
+    /**
+     * Applies changes to the given data files, as reported by {@link DataDirectoryWatcher}. Files that no longer
+     * exist are retracted. The files are parsed one at a time on the calling thread.
+     */
+    public void applyFileChanges(Collection<Path> files) {
+        initialLoad.join();
+        synchronized (ingestionLock) {
+            long startNanos = System.nanoTime();
+            List<Path> changedFiles = new ArrayList<>();
+            Set<Path> removedFiles = new HashSet<>();
+            for (Path file : files) {
+                if (!Files.isRegularFile(file)) {
+                    if (loadedFiles.containsKey(file)) {
+                        removedFiles.add(file);
+                    }
+                    continue;
+                }
+                try {
+                    if (hasChanged(file)) {
+                        changedFiles.add(file);
+                    }
+                } catch (IOException e) {
+                    logger.error("Could not check data file {}: {}", file.getFileName(), e.getMessage(), e);
+                }
+            }
+            changedFiles.sort(null);
+            applyChanges(Paths.get(dataDirectoryPath), changedFiles, removedFiles, 1, startNanos);
+        }
+    }
+
+    private void applyChanges(Path dataDir, List<Path> changedFiles, Set<Path> removedFiles, int parallelism, long startNanos) {
+        if (changedFiles.isEmpty() && removedFiles.isEmpty()) {
+            logger.info("No data file changes detected.");
+            return;
+        }
+        beginDataChange();
+        try {
+            applyNonEmptyChanges(dataDir, changedFiles, removedFiles, parallelism, startNanos);
+        } finally {
+            endDataChange();
+        }
+    }
+
+    private void applyNonEmptyChanges(Path dataDir, List<Path> changedFiles, Set<Path> removedFiles, int parallelism, long startNanos) {
+        if (removedFiles.isEmpty() && changedFiles.stream().noneMatch(loadedFiles::containsKey)) {
+            // Only new files: nothing to retract, so they are appended to the repositories as they are parsed.
+            ingestFiles(changedFiles, this::processFile, parallelism);
+            if (changedFiles.contains(dataDir.resolve("users.csv"))) {
+                loadUsersFromCsv();
+            }
+            logger.info("Incremental reload: appended {} new data files in {} ms.",
+                    changedFiles.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return;
+        }
+
+        // Rows do not record their file, so they are retracted by store and date. Unchanged files sharing a store and
+        // date with a retracted file would lose their rows too; they are parsed again and their rows re-added, which
+        // makes the retraction per file.
+        Set<Path> sharingFiles = unchangedFilesSharingKeys(changedFiles, removedFiles);
+        List<Path> filesToParse = new ArrayList<>(changedFiles);
+        filesToParse.addAll(sharingFiles);
+        if (!sharingFiles.isEmpty()) {
+            logger.info("Re-reading {} unchanged data files that share a store and date with changed ones: {}",
+                    sharingFiles.size(), sharingFiles);
+        }
+        Map<Path, ParsedChange> parsedChanges = new ConcurrentHashMap<>();
+        Set<Path> failedFiles = ConcurrentHashMap.newKeySet();
+        ingestFiles(filesToParse, file -> parseChangedFile(file, parsedChanges, failedFiles), parallelism);
+        if (!failedFiles.isEmpty()) {
+            // Retracting now would drop the rows of the failed files' store and date keys without re-adding them.
+            // Nothing is applied, and the changed files are tried again on the next reload.
+            logger.error("Could not parse {} data files {}; keeping the loaded data until the next reload.",
+                    failedFiles.size(), failedFiles);
+            return;
+        }
+
+        Set<String> retractedPriceEntryKeys = new HashSet<>();
+        Set<String> retractedDiscountKeys = new HashSet<>();
+        List<Path> replacedFiles = new ArrayList<>(removedFiles);
+        replacedFiles.addAll(parsedChanges.keySet());
+        for (Path file : replacedFiles) {
+            priceHistoryArchive.unregister(file);
+            LoadedFile previous = loadedFiles.get(file);
+            if (previous != null) {
+                retractedPriceEntryKeys.addAll(previous.priceEntryKeys);
+                retractedDiscountKeys.addAll(previous.discountKeys);
+            }
+        }
+
+        RowKeys rowKeys = rowKeys();
+        List<PriceEntry> priceEntries = new ArrayList<>();
+        for (PriceEntry entry : priceEntryRepository.findAll()) {
+            if (!retractedPriceEntryKeys.contains(rowKeys.of(entry))) {
+                priceEntries.add(entry);
+            }
+        }
+        List<Discount> discounts = new ArrayList<>();
+        for (Discount discount : discountRepository.findAll()) {
+            if (!retractedDiscountKeys.contains(rowKeys.of(discount))) {
+                discounts.add(discount);
+            }
+        }
+        for (Path file : filesToParse) {
+            ParsedChange change = parsedChanges.get(file);
+            if (change != null) {
+                priceEntries.addAll(residentEntries(file, change.data.priceEntries));
+                discounts.addAll(change.data.discounts);
+            }
+        }
+        // The catalog is exactly the products still referenced by a price entry or discount. Archived prices are
+        // not in memory to tell which products they reference, so with an archive the catalog only grows.
+        Map<String, Product> products = new LinkedHashMap<>();
+        if (priceHistoryArchive.isEnabled()) {
+            productRepository.findAll().forEach(product -> addProduct(products, product));
+        }
+        priceEntries.forEach(entry -> addProduct(products, entry.getProduct()));
+        discounts.forEach(discount -> addProduct(products, discount.getProduct()));
+
+        productRepository.replaceAll(products.values());
+        priceEntryRepository.replaceAll(priceEntries);
+        discountRepository.replaceAll(discounts);
+
+        removedFiles.forEach(loadedFiles::remove);
+        parsedChanges.forEach((file, change) -> loadedFiles.put(file, change.loadedFile));
+
+        if (changedFiles.contains(dataDir.resolve("users.csv"))) {
+            loadUsersFromCsv();
+        }
+        logger.info("Incremental reload: {} changed/new and {} deleted data files in {} ms. Now {} products, {} price entries, {} discounts.",
+                parsedChanges.size(), removedFiles.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos),
+                products.size(), priceEntries.size(), discounts.size());
+    }
+
+    /**
+     * Version of the loaded data, incremented when a load or reload starts changing the repositories.
+     * Each repository publishes immutable snapshots, so a reader can cache results derived from them
+     * for as long as this value stays the same and {@link #isDataChanging()} is false.
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    /**
+     * True while a load or reload is changing the repositories. They may then hold part of the new data,
+     * e.g. the files ingested so far, so results derived from them should not be cached.
+     */
+    public boolean isDataChanging() {
+        return dataChanging;
+    }
+
+    // Called with ingestionLock held. The flag is set before the version changes, so a reader that sees
+    // the new version and then the flag cleared knows the change is complete.
+    private void beginDataChange() {
+        dataChangeDepth++;
+        dataChanging = true;
+        dataVersion.incrementAndGet();
+    }
+
+    private void endDataChange() {
+        if (--dataChangeDepth == 0) {
+            dataChanging = false;
+        }
+    }
+
+    private Path snapshotFile(Path dataDir) {
+        return snapshotFilePath == null || snapshotFilePath.isBlank()
+                ? dataDir.resolve("snapshot.bin") : Paths.get(snapshotFilePath);
+    }
+
+    /**
+     * Fills the repositories and the loaded file fingerprints from the snapshot, if there is a readable one.
+     */
+    private boolean restoreSnapshot(Path dataDir) {
+        Path file = snapshotFile(dataDir);
+        if (!Files.isRegularFile(file)) {
+            logger.info("No data snapshot at {}; loading from CSV files.", file);
+            return false;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            DataSnapshot snapshot = DataSnapshot.readFrom(file, nameDictionaries);
+            userRepository.saveAll(snapshot.getUsers());
+            productRepository.saveAll(snapshot.getProducts());
+            discountRepository.saveAll(snapshot.getDiscounts());
+            snapshot.getFiles().forEach((path, state) -> loadedFiles.put(dataDir.resolve(path),
+                    new LoadedFile(state.getFingerprint(), state.getPriceEntryKeys(), state.getDiscountKeys())));
+            if (priceHistoryArchive.isEnabled()) {
+                // Prices that aged out of the resident window since the snapshot was written are archived now.
+                loadedFiles.forEach((path, loaded) -> loaded.priceEntryKeys.forEach(key -> {
+                    LocalDate entryDate = LocalDate.parse(key.substring(key.lastIndexOf('|') + 1));
+                    if (priceHistoryArchive.isArchived(entryDate)) {
+                        priceHistoryArchive.register(path, entryDate);
+                    }
+                }));
+                int oldestResident = priceHistoryArchive.oldestResidentEpochDay();
+                priceEntryRepository.saveAll(snapshot.getPriceEntries().stream()
+                        .filter(entry -> entry.getEntryEpochDay() == EpochDays.NONE || entry.getEntryEpochDay() >= oldestResident)
+                        .collect(Collectors.toList()));
+            } else {
+                priceEntryRepository.saveAll(snapshot.getPriceEntries());
+            }
+            logger.info("Restored {} products, {} price entries and {} discounts from data snapshot {} in {} ms.",
+                    snapshot.getProducts().size(), snapshot.getPriceEntries().size(), snapshot.getDiscounts().size(),
+                    file, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not read data snapshot {}: {}. Loading from CSV files.", file, e.getMessage());
+            productRepository.deleteAll();
+            priceEntryRepository.deleteAll();
+            discountRepository.deleteAll();
+            loadedFiles.clear();
+            priceHistoryArchive.clear();
+            return false;
+        }
+    }
+
+    private void writeSnapshot(Path dataDir) {
+        long startNanos = System.nanoTime();
+        Path file = snapshotFile(dataDir);
+        Map<String, DataSnapshot.FileState> files = new LinkedHashMap<>();
+        loadedFiles.forEach((path, loaded) -> files.put(dataDir.relativize(path).toString(),
+                new DataSnapshot.FileState(loaded.fingerprint, loaded.priceEntryKeys, loaded.discountKeys)));
+        try {
+            new DataSnapshot(productRepository.findAll(), priceEntryRepository.findAll(), discountRepository.findAll(),
+                    userRepository.findAll(), files).writeTo(file, nameDictionaries);
+            logger.info("Wrote data snapshot {} in {} ms.", file, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        } catch (IOException e) {
+            logger.error("Could not write data snapshot {}: {}", file, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Loaded files, other than the changed and removed ones, whose rows share a store and date key with the rows
+     * retracted for those files, directly or through another such file. Sorted, so they are parsed in a fixed order.
+     */
+    private Set<Path> unchangedFilesSharingKeys(List<Path> changedFiles, Set<Path> removedFiles) {
+        Set<Path> replaced = new HashSet<>(removedFiles);
+        replaced.addAll(changedFiles);
+        Set<String> priceEntryKeys = new HashSet<>();
+        Set<String> discountKeys = new HashSet<>();
+        Set<Path> sharingFiles = new TreeSet<>();
+        Collection<Path> added = replaced;
+        while (!added.isEmpty()) {
+            for (Path file : added) {
+                LoadedFile loaded = loadedFiles.get(file);
+                if (loaded != null) {
+                    priceEntryKeys.addAll(loaded.priceEntryKeys);
+                    discountKeys.addAll(loaded.discountKeys);
+                }
+            }
+            added = new ArrayList<>();
+            for (Map.Entry<Path, LoadedFile> entry : loadedFiles.entrySet()) {
+                LoadedFile loaded = entry.getValue();
+                if (!replaced.contains(entry.getKey())
+                        && (!Collections.disjoint(loaded.priceEntryKeys, priceEntryKeys)
+                        || !Collections.disjoint(loaded.discountKeys, discountKeys))) {
+                    replaced.add(entry.getKey());
+                    sharingFiles.add(entry.getKey());
+                    added.add(entry.getKey());
+                }
+            }
+        }
+        return sharingFiles;
+    }
+
+    private boolean hasChanged(Path file) throws IOException {
+        LoadedFile previous = loadedFiles.get(file);
+        if (previous == null) {
+            return true;
+        }
+        if (previous.fingerprint.matchesMetadataOf(file)) {
+            return false;
+        }
+        // Only a file that kept its size may just have been touched, and only a checksum taken earlier can tell.
+        if (!previous.fingerprint.hasChecksum() || !previous.fingerprint.matchesSizeOf(file)) {
+            return true;
+        }
+        DataFileFingerprint current = DataFileFingerprint.withChecksumOf(file);
+        if (previous.fingerprint.hasSameContentAs(current)) {
+            logger.debug("Data file {} was touched but its content is unchanged.", file.getFileName());
+            loadedFiles.put(file, previous.withFingerprint(current));
+            return false;
+        }
+        return true;
+    }
+
+    private void parseChangedFile(Path file, Map<Path, ParsedChange> parsedChanges, Set<Path> failedFiles) {
+        try {
+            // A file that changed without changing its size gets a checksum, so touching it again is recognized
+            // without parsing it.
+            LoadedFile previous = loadedFiles.get(file);
+            DataFileFingerprint fingerprint = previous != null && previous.fingerprint.matchesSizeOf(file)
+                    ? DataFileFingerprint.withChecksumOf(file) : DataFileFingerprint.of(file);
+            CsvDataParser.ParsedFileData data = csvDataParser.parseAllDataFromFile(file);
+            parsedChanges.put(file, new ParsedChange(data, LoadedFile.of(fingerprint, data, rowKeys())));
+        } catch (IOException | RuntimeException e) {
+            failedFiles.add(file);
+            logger.error("Error processing file {}: {}", file.getFileName(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the entries of the file that stay in the price entry repository, and registers the file with the
+     * price history archive for the dates of the others.
+     */
+    private List<PriceEntry> residentEntries(Path file, List<PriceEntry> entries) {
+        if (!priceHistoryArchive.isEnabled()) {
+            return entries;
+        }
+        List<PriceEntry> resident = new ArrayList<>(entries.size());
+        Set<LocalDate> archivedDates = new HashSet<>();
+        int oldestResident = priceHistoryArchive.oldestResidentEpochDay();
+        for (PriceEntry entry : entries) {
+            if (entry.getEntryEpochDay() != EpochDays.NONE && entry.getEntryEpochDay() < oldestResident) {
+                archivedDates.add(entry.getEntryDate());
+            } else {
+                resident.add(entry);
+            }
+        }
+        archivedDates.forEach(date -> priceHistoryArchive.register(file, date));
+        return resident;
+    }
+
+    private static void addProduct(Map<String, Product> products, Product product) {
+        if (product != null && product.getProductId() != null) {
+            products.putIfAbsent(product.getProductId(), product);
+        }
+    }
+
+    private RowKeys rowKeys() {
+        return new RowKeys(nameDictionaries.stores());
+    }
+
+    /**
+     * Row keys of price entries and discounts. Price files hold one store and entry date, discount files one store
+     * and observation date, so the previous key is reused while consecutive rows share them. Keys hold the store
+     * name in lower case, since they are kept in data snapshots and store ids and first spellings can differ
+     * between runs. Not thread-safe.
+     */
+    private static final class RowKeys {
+        private final NameDictionary stores;
+        private int lastStoreId = NameDictionary.NO_ID;
+        private int lastEpochDay = EpochDays.NONE;
+        private String lastKey;
+
+        private RowKeys(NameDictionary stores) {
+            this.stores = stores;
+        }
+
+        private String of(PriceEntry entry) {
+            return of(entry.getStoreId(), entry.getEntryEpochDay());
+        }
+
+        private String of(Discount discount) {
+            return of(discount.getStoreId(), discount.getObservationEpochDay());
+        }
+
+        private String of(int storeId, int epochDay) {
+            if (lastKey == null || storeId != lastStoreId || epochDay != lastEpochDay) {
+                String storeName = stores.nameOf(storeId);
+                lastStoreId = storeId;
+                lastEpochDay = epochDay;
+                lastKey = (storeName != null ? storeName.toLowerCase(Locale.ROOT) : null) + "|" + EpochDays.toDate(epochDay);
+            }
+            return lastKey;
+        }
+    }
+
+    private static final class LoadedFile {
+        private final DataFileFingerprint fingerprint;
+        private final Set<String> priceEntryKeys;
+        private final Set<String> discountKeys;
+
+        private LoadedFile(DataFileFingerprint fingerprint, Set<String> priceEntryKeys, Set<String> discountKeys) {
+            this.fingerprint = fingerprint;
+            this.priceEntryKeys = priceEntryKeys;
+            this.discountKeys = discountKeys;
+        }
+
+        private static LoadedFile of(DataFileFingerprint fingerprint, CsvDataParser.ParsedFileData data, RowKeys rowKeys) {
+            Set<String> priceEntryKeys = new HashSet<>();
+            data.priceEntries.forEach(entry -> priceEntryKeys.add(rowKeys.of(entry)));
+            Set<String> discountKeys = new HashSet<>();
+            data.discounts.forEach(discount -> discountKeys.add(rowKeys.of(discount)));
+            return new LoadedFile(fingerprint, priceEntryKeys, discountKeys);
+        }
+
+        private LoadedFile withFingerprint(DataFileFingerprint newFingerprint) {
+            return new LoadedFile(newFingerprint, priceEntryKeys, discountKeys);
+        }
+    }
+
+    private static final class ParsedChange {
+        private final CsvDataParser.ParsedFileData data;
+        private final LoadedFile loadedFile;
+
+        private ParsedChange(CsvDataParser.ParsedFileData data, LoadedFile loadedFile) {
+            this.data = data;
+            this.loadedFile = loadedFile;
+        }
     }
-}
\ No newline at end of file
+}
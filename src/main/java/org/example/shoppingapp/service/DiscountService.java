@@ -1,10 +1,11 @@
 package org.example.shoppingapp.service;
 import org.example.shoppingapp.model.Discount;
+import org.example.shoppingapp.model.EpochDays;
 import org.example.shoppingapp.model.PriceEntry;
 import org.example.shoppingapp.model.Product;
 import org.example.shoppingapp.model.dto.DiscountedProductDTO;
+import org.example.shoppingapp.repository.NameDictionaries;
 import org.example.shoppingapp.repository.interfaces.DiscountRepository;
-import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -12,22 +13,38 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class DiscountService {
     private static final Logger logger = LoggerFactory.getLogger(DiscountService.class);
 
+    // From this many discounts on, the top discounts of each slice are selected in parallel and then merged.
+    private static final int PARALLEL_SELECTION_THRESHOLD = 50_000;
+
+    private static final Comparator<Discount> BY_PERCENTAGE_DESC =
+            Comparator.comparingDouble(Discount::getDiscountPercentage).reversed();
+    private static final Comparator<Discount> BY_OBSERVATION_DATE_AND_PERCENTAGE =
+            Comparator.comparingInt(Discount::getObservationEpochDay).reversed()
+                    .thenComparingDouble(Discount::getDiscountPercentage).reversed();
+
     private final DiscountRepository discountRepository;
-    private final PriceEntryRepository priceEntryRepository;
+    private final LatestPriceView latestPriceView;
+    private final NameDictionaries nameDictionaries;
 
-    public DiscountService(DiscountRepository discountRepository, PriceEntryRepository priceEntryRepository) {
+    public DiscountService(DiscountRepository discountRepository, LatestPriceView latestPriceView,
+                           NameDictionaries nameDictionaries) {
         this.discountRepository = discountRepository;
-        this.priceEntryRepository = priceEntryRepository;
+        this.latestPriceView = latestPriceView;
+        this.nameDictionaries = nameDictionaries;
     }
 
     /**
@@ -45,13 +62,7 @@ public class DiscountService {
             return List.of();
         }
 
-        return activeDiscounts.stream()
-                .map(this::createDiscountedProductDTO)
-                .filter(Objects::nonNull)
-                .filter(dto -> dto.getDiscountPercentage() > 0)
-                .sorted(Comparator.comparingDouble(DiscountedProductDTO::getDiscountPercentage).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
+        return selectTop(activeDiscounts, discount -> true, BY_PERCENTAGE_DESC, limit);
     }
 
     public List<DiscountedProductDTO> getNewDiscounts(int hoursAgo, int limit) {
@@ -64,45 +75,91 @@ public class DiscountService {
 
         logger.debug("Fetching new discounts active on {} observed since {}, limit: {}", today, sinceObservationDate, limit);
 
-        List<Discount> recentAndActiveDiscounts = discountRepository.findAll().stream()
-                .filter(d -> d.isActiveOnDate(today) &&
-                             !d.getDiscountObservationDate().isBefore(sinceObservationDate))
-                .sorted(Comparator.comparing(Discount::getDiscountObservationDate).reversed()
-                                  .thenComparing(Discount::getDiscountPercentage).reversed())
-                .collect(Collectors.toList());
-
-        if (recentAndActiveDiscounts.isEmpty()) {
+        int todayEpochDay = EpochDays.of(today);
+        int sinceEpochDay = EpochDays.of(sinceObservationDate);
+        List<DiscountedProductDTO> newDiscounts = selectTop(discountRepository.findAll(),
+                d -> d.isActiveOnEpochDay(todayEpochDay) && d.getObservationEpochDay() >= sinceEpochDay,
+                BY_OBSERVATION_DATE_AND_PERCENTAGE, limit);
+        if (newDiscounts.isEmpty()) {
             logger.info("No new and active discounts found since {}.", sinceObservationDate);
-            return List.of();
         }
+        return newDiscounts;
+    }
 
-        return recentAndActiveDiscounts.stream()
-                .map(this::createDiscountedProductDTO)
-                .filter(Objects::nonNull)
-                .filter(dto -> dto.getDiscountPercentage() > 0)
-                .limit(limit)
+    /**
+     * The first {@code limit} discounts in the given order that pass the filter, have a positive percentage and a
+     * reference price, as DTOs. Only the winners are turned into DTOs; equal discounts keep their list order.
+     */
+    private List<DiscountedProductDTO> selectTop(List<Discount> discounts, Predicate<Discount> filter,
+                                                 Comparator<Discount> order, int limit) {
+        if (limit <= 0 || discounts.isEmpty()) {
+            return List.of();
+        }
+        List<Candidate> winners;
+        if (discounts.size() < PARALLEL_SELECTION_THRESHOLD) {
+            winners = selectTop(discounts, 0, discounts.size(), filter, order, limit);
+        } else {
+            int slices = ForkJoinPool.getCommonPoolParallelism() * 4;
+            winners = IntStream.range(0, slices).parallel()
+                    .mapToObj(slice -> selectTop(discounts, (int) ((long) discounts.size() * slice / slices),
+                            (int) ((long) discounts.size() * (slice + 1) / slices), filter, order, limit))
+                    .flatMap(List::stream)
+                    .sorted(Candidate.rank(order))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+        return winners.stream()
+                .map(candidate -> createDiscountedProductDTO(candidate.discount, candidate.referencePriceEntry))
                 .collect(Collectors.toList());
     }
 
-    private DiscountedProductDTO createDiscountedProductDTO(Discount discount) {
+    /**
+     * Selects the winners among {@code discounts[from, to)} with a heap of at most {@code limit} candidates, worst
+     * first. The reference price is only looked up for discounts that would enter the heap.
+     */
+    private List<Candidate> selectTop(List<Discount> discounts, int from, int to, Predicate<Discount> filter,
+                                      Comparator<Discount> order, int limit) {
+        Comparator<Candidate> rank = Candidate.rank(order);
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(Math.min(limit, to - from) + 1, rank.reversed());
+        for (int i = from; i < to; i++) {
+            Discount discount = discounts.get(i);
+            if (discount.getDiscountPercentage() <= 0 || !filter.test(discount)) {
+                continue;
+            }
+            // Ties keep the candidate that came first.
+            if (heap.size() == limit && order.compare(discount, heap.peek().discount) >= 0) {
+                continue;
+            }
+            Optional<PriceEntry> referencePriceEntry = findReferencePrice(discount);
+            if (referencePriceEntry.isEmpty()) {
+                continue;
+            }
+            heap.add(new Candidate(discount, referencePriceEntry.get(), i));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Candidate> winners = new ArrayList<>(heap);
+        winners.sort(rank);
+        return winners;
+    }
+
+    private Optional<PriceEntry> findReferencePrice(Discount discount) {
         Product product = discount.getProduct();
         if (product == null) {
             logger.warn("Discount {} has a null product.", discount);
-            return null;
+            return Optional.empty();
         }
-        Optional<PriceEntry> referencePriceEntryOpt = priceEntryRepository
-                .findByProductId(product.getProductId()).stream()
-                .filter(pe -> pe.getStoreName().equalsIgnoreCase(discount.getStoreName()))
-                .max(Comparator.comparing(PriceEntry::getEntryDate));
-
-
+        Optional<PriceEntry> referencePriceEntryOpt = latestPriceView.findLatest(product.getProductId(), discount.getStoreId());
         if (referencePriceEntryOpt.isEmpty()) {
             logger.warn("No price entry found for product {} at store {} to calculate discount details.",
-                    product.getProductId(), discount.getStoreName());
-            return null;
+                    product.getProductId(), nameDictionaries.stores().nameOf(discount.getStoreId()));
         }
+        return referencePriceEntryOpt;
+    }
 
-        PriceEntry referencePriceEntry = referencePriceEntryOpt.get();
+    private DiscountedProductDTO createDiscountedProductDTO(Discount discount, PriceEntry referencePriceEntry) {
+        Product product = discount.getProduct();
         BigDecimal originalPrice = BigDecimal.valueOf(referencePriceEntry.getPrice()).setScale(2, RoundingMode.HALF_UP);
         BigDecimal discountPercentage = BigDecimal.valueOf(discount.getDiscountPercentage());
         BigDecimal oneHundred = BigDecimal.valueOf(100);
@@ -118,11 +175,28 @@ public class DiscountService {
                 product.getProductId(),
                 product.getProductName(),
                 product.getBrand(),
-                discount.getStoreName(),
+                nameDictionaries.stores().nameOf(discount.getStoreId()),
                 originalPrice,
                 discountedPrice,
                 discount.getDiscountPercentage(),
                 packageInfo
         );
     }
+
+    private static final class Candidate {
+        private final Discount discount;
+        private final PriceEntry referencePriceEntry;
+        private final int index;
+
+        private Candidate(Discount discount, PriceEntry referencePriceEntry, int index) {
+            this.discount = discount;
+            this.referencePriceEntry = referencePriceEntry;
+            this.index = index;
+        }
+
+        private static Comparator<Candidate> rank(Comparator<Discount> order) {
+            return Comparator.<Candidate, Discount>comparing(candidate -> candidate.discount, order)
+                    .thenComparingInt(candidate -> candidate.index);
+        }
+    }
 }
\ No newline at end of file
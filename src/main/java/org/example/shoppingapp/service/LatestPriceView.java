@@ -0,0 +1,190 @@
+package org.example.shoppingapp.service;
+
+import org.example.shoppingapp.model.EpochDays;
+import org.example.shoppingapp.model.NameDictionary;
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.repository.interfaces.PriceEntryListener;
+import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Materialized view of current prices: per product and store, the latest price entry and the cheapest entry of
+ * each day in the last {@value #CURRENT_PRICE_WINDOW_DAYS} days. Services use it instead of rescanning a
+ * product's whole price history on every request.
+ * <p>
+ * A product's prices are read from the repository the first time they are asked for and are then kept up to date
+ * incrementally from the repository's {@link PriceEntryListener} callbacks; replacing the repository contents
+ * drops the view, which is rebuilt lazily.
+ */
+@Component
+public class LatestPriceView implements PriceEntryListener {
+    /** Prices older than this many days are not current. */
+    public static final int CURRENT_PRICE_WINDOW_DAYS = 7;
+
+    private final PriceEntryRepository priceEntryRepository;
+    private final NameDictionaries nameDictionaries;
+    private final Map<String, ProductPrices> pricesByProduct = new ConcurrentHashMap<>();
+    // Incremented on every change, so prices read from an older repository state are not cached.
+    // Applying the same entry twice is harmless: latest and cheapest keep the entry they already have on ties.
+    private final AtomicLong changeCount = new AtomicLong();
+
+    public LatestPriceView(PriceEntryRepository priceEntryRepository, NameDictionaries nameDictionaries) {
+        this.priceEntryRepository = priceEntryRepository;
+        this.nameDictionaries = nameDictionaries;
+        priceEntryRepository.addListener(this);
+    }
+
+    /** Latest price entry of the product at the store (store name compared case-insensitively). */
+    public Optional<PriceEntry> findLatest(String productId, String storeName) {
+        return findLatest(productId, nameDictionaries.stores().findId(storeName));
+    }
+
+    /** Latest price entry of the product at the store with this id. */
+    public Optional<PriceEntry> findLatest(String productId, int storeId) {
+        if (productId == null || storeId == NameDictionary.NO_ID) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(pricesOf(productId).latestByStore.get(storeId));
+    }
+
+    /** Latest price entry of the product at each store that ever sold it. */
+    public List<PriceEntry> findLatestPerStore(String productId) {
+        if (productId == null) {
+            return List.of();
+        }
+        return new ArrayList<>(pricesOf(productId).latestByStore.values());
+    }
+
+    /** Cheapest current price entry of the product at each store that has one. */
+    public List<PriceEntry> findCheapestCurrentPerStore(String productId) {
+        if (productId == null) {
+            return List.of();
+        }
+        LocalDate oldestCurrent = oldestCurrentDate();
+        List<PriceEntry> cheapest = new ArrayList<>();
+        for (NavigableMap<LocalDate, PriceEntry> cheapestByDay : pricesOf(productId).cheapestByDayByStore.values()) {
+            PriceEntry storeCheapest = cheapestOf(cheapestByDay.tailMap(oldestCurrent, true));
+            if (storeCheapest != null) {
+                cheapest.add(storeCheapest);
+            }
+        }
+        return cheapest;
+    }
+
+    /** Cheapest current price entry of the product across all stores. */
+    public Optional<PriceEntry> findCheapestCurrent(String productId) {
+        PriceEntry cheapest = null;
+        for (PriceEntry entry : findCheapestCurrentPerStore(productId)) {
+            if (cheapest == null || entry.getPrice() < cheapest.getPrice()) {
+                cheapest = entry;
+            }
+        }
+        return Optional.ofNullable(cheapest);
+    }
+
+    @Override
+    public void onPriceEntriesAdded(List<PriceEntry> addedEntries) {
+        changeCount.incrementAndGet();
+        Map<String, List<PriceEntry>> addedByProduct = new HashMap<>();
+        for (PriceEntry entry : addedEntries) {
+            if (entry.getProduct() != null && entry.getProduct().getProductId() != null) {
+                addedByProduct.computeIfAbsent(entry.getProduct().getProductId(), k -> new ArrayList<>()).add(entry);
+            }
+        }
+        LocalDate oldestCurrent = oldestCurrentDate();
+        // Only products already in the view are updated; the others are read from the repository when first needed.
+        addedByProduct.forEach((productId, entries) ->
+                pricesByProduct.computeIfPresent(productId, (k, prices) -> prices.plus(entries, oldestCurrent)));
+    }
+
+    @Override
+    public void onPriceEntriesReplaced() {
+        changeCount.incrementAndGet();
+        pricesByProduct.clear();
+    }
+
+    private ProductPrices pricesOf(String productId) {
+        ProductPrices cached = pricesByProduct.get(productId);
+        if (cached != null) {
+            return cached;
+        }
+        long seenChanges = changeCount.get();
+        LocalDate oldestCurrent = oldestCurrentDate();
+        ProductPrices computed = ProductPrices.EMPTY.plus(
+                priceEntryRepository.findLatestAndDailyCheapestByProductId(productId, EpochDays.of(oldestCurrent)), oldestCurrent);
+        ProductPrices stored = pricesByProduct.compute(productId, (k, existing) ->
+                existing != null ? existing : changeCount.get() == seenChanges ? computed : null);
+        return stored != null ? stored : computed;
+    }
+
+    private static LocalDate oldestCurrentDate() {
+        return LocalDate.now().minusDays(CURRENT_PRICE_WINDOW_DAYS);
+    }
+
+    private static PriceEntry cheapestOf(Map<LocalDate, PriceEntry> cheapestByDay) {
+        PriceEntry cheapest = null;
+        for (PriceEntry entry : cheapestByDay.values()) {
+            if (cheapest == null || entry.getPrice() < cheapest.getPrice()) {
+                cheapest = entry;
+            }
+        }
+        return cheapest;
+    }
+
+    /** Prices of one product. Never mutated once built; updates build a new instance. */
+    private static final class ProductPrices {
+        private static final ProductPrices EMPTY = new ProductPrices(Map.of(), Map.of());
+
+        // Keyed by store id.
+        private final Map<Integer, PriceEntry> latestByStore;
+        // Per store, the cheapest entry of each day that was current when it was added.
+        private final Map<Integer, NavigableMap<LocalDate, PriceEntry>> cheapestByDayByStore;
+
+        private ProductPrices(Map<Integer, PriceEntry> latestByStore,
+                              Map<Integer, NavigableMap<LocalDate, PriceEntry>> cheapestByDayByStore) {
+            this.latestByStore = latestByStore;
+            this.cheapestByDayByStore = cheapestByDayByStore;
+        }
+
+        private ProductPrices plus(List<PriceEntry> entries, LocalDate oldestCurrent) {
+            Map<Integer, PriceEntry> latest = new HashMap<>(latestByStore);
+            Map<Integer, NavigableMap<LocalDate, PriceEntry>> cheapest = new HashMap<>(cheapestByDayByStore);
+            Set<Integer> copiedStores = new HashSet<>();
+            int oldestCurrentEpochDay = EpochDays.of(oldestCurrent);
+            for (PriceEntry entry : entries) {
+                if (entry.getStoreId() == NameDictionary.NO_ID || entry.getEntryEpochDay() == EpochDays.NONE) {
+                    continue;
+                }
+                Integer store = entry.getStoreId();
+                latest.merge(store, entry, (current, added) ->
+                        added.getEntryEpochDay() > current.getEntryEpochDay() ? added : current);
+                if (entry.getEntryEpochDay() < oldestCurrentEpochDay) {
+                    continue;
+                }
+                NavigableMap<LocalDate, PriceEntry> cheapestByDay = cheapest.get(store);
+                if (copiedStores.add(store)) {
+                    // Copied once per store and batch; days that are no longer current are dropped on the way.
+                    cheapestByDay = cheapestByDay == null ? new TreeMap<>() : new TreeMap<>(cheapestByDay.tailMap(oldestCurrent, true));
+                    cheapest.put(store, cheapestByDay);
+                }
+                cheapestByDay.merge(entry.getEntryDate(), entry, (current, added) ->
+                        added.getPrice() < current.getPrice() ? added : current);
+            }
+            return new ProductPrices(latest, cheapest);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.shoppingapp.service;
+
+import org.example.shoppingapp.model.PriceAlert;
+
+/**
+ * Notified by {@link PriceAlertService} whenever a user's alert is set or removed, in the order the changes were
+ * applied for that user. Called while the user's alerts are locked, so implementations must be quick and must
+ * not block.
+ */
+public interface PriceAlertChangeListener {
+    void onAlertSet(PriceAlert alert);
+
+    void onAlertRemoved(Integer userId, String productId);
+}
@@ -0,0 +1,11 @@
+package org.example.shoppingapp.service;
+
+import org.example.shoppingapp.model.dto.TriggeredAlertDTO;
+
+/**
+ * Notified by {@link PriceAlertService} as soon as a newly saved price meets a user's target price.
+ * Called on the thread that saved the price, so implementations must be quick and must not block.
+ */
+public interface PriceAlertListener {
+    void onAlertTriggered(TriggeredAlertDTO triggeredAlert);
+}
@@ -0,0 +1,317 @@
+package org.example.shoppingapp.service;
+
+import org.example.shoppingapp.model.PriceAlert;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.repository.interfaces.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps price alerts across restarts in an append-only log file ({@code app.alerts.log.file}). Enabled with
+ * {@code app.alerts.log.enabled=true}.
+ * <p>
+ * Every alert set or removed is appended as one line by a background writer thread, which writes whatever has
+ * queued up since its last write and fsyncs once per batch, at most once per {@code app.alerts.log.flush-interval-ms};
+ * {@code setAlert} and {@code removeAlert} never wait for the disk. When the log has grown to twice its size after
+ * the last compaction (and to at least {@code app.alerts.log.compact-min-records} lines), it is rewritten with
+ * one line per active alert and atomically moved over the old log.
+ * <p>
+ * On startup, after the catalog is loaded, the log is read once, only the last change per user and product is kept,
+ * and those alerts are put back without the per-alert lookups and logging of {@code setAlert}. A torn last line
+ * left by a crash is skipped, and the log is compacted before anything is appended to it. Alerts of products that
+ * are not in the catalog (e.g. the load found no data, or the product's files were removed) are not restored, but
+ * their lines are held aside and written back on every compaction until the user sets or removes that alert again.
+ */
+@Component
+@ConditionalOnProperty(name = "app.alerts.log.enabled", havingValue = "true")
+@DependsOn("dataLoadingService")
+public class PriceAlertLog implements PriceAlertChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(PriceAlertLog.class);
+    private static final String SEPARATOR = ";";
+    private static final String SET = "SET";
+    private static final String REMOVE = "REMOVE";
+
+    private final PriceAlertService priceAlertService;
+    private final ProductRepository productRepository;
+    private final DataLoadingService dataLoadingService;
+
+    @Value("${app.alerts.log.file:./alerts.log}")
+    private String logFilePath = "./alerts.log";
+
+    @Value("${app.alerts.log.flush-interval-ms:200}")
+    private long flushIntervalMillis = 200;
+
+    @Value("${app.alerts.log.compact-min-records:10000}")
+    private int compactMinRecords = 10000;
+
+    // Lines not yet written, in the order the changes were applied.
+    private final BlockingQueue<String> pendingLines = new LinkedBlockingQueue<>();
+    // SET lines replayed for products missing from the catalog, per "userId;productId", kept through compactions.
+    private final Map<String, String> unresolvedLines = new ConcurrentHashMap<>();
+    // Only used by the writer thread once it is started.
+    private Path logFile;
+    private FileChannel channel;
+    private long lineCount;
+    private long compactThreshold;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    public PriceAlertLog(PriceAlertService priceAlertService, ProductRepository productRepository,
+                         DataLoadingService dataLoadingService) {
+        this.priceAlertService = priceAlertService;
+        this.productRepository = productRepository;
+        this.dataLoadingService = dataLoadingService;
+    }
+
+    @PostConstruct
+    public void start() {
+        // Replayed alerts are matched to loaded products, so the log is opened once the initial load is done.
+        dataLoadingService.whenInitialLoadComplete(this::open);
+    }
+
+    private void open() {
+        logFile = Paths.get(logFilePath);
+        try {
+            Path parent = logFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            boolean damaged = Files.exists(logFile) && replay();
+            compactThreshold = Math.max(compactMinRecords,
+                    2L * (priceAlertService.getAllAlerts().size() + unresolvedLines.size()));
+            if (damaged || lineCount >= compactThreshold) {
+                compact();
+            } else {
+                openChannel();
+            }
+        } catch (IOException e) {
+            logger.error("Could not open price alert log {}: {}. Alerts will not be kept across restarts.",
+                    logFile, e.getMessage(), e);
+            return;
+        }
+        running = true;
+        priceAlertService.addAlertChangeListener(this);
+        writerThread = new Thread(this::writeLoop, "price-alert-log");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (writerThread == null) {
+            return;
+        }
+        // Not interrupted: an interrupt during a write would close the channel. The writer sees the flag
+        // within one flush interval and writes what is left before exiting.
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.warn("Price alert log writer did not finish; {} changes may be lost.", pendingLines.size());
+        }
+    }
+
+    @Override
+    public void onAlertSet(PriceAlert alert) {
+        unresolvedLines.remove(alert.getUserId() + SEPARATOR + alert.getProduct().getProductId());
+        pendingLines.add(setLine(alert));
+    }
+
+    @Override
+    public void onAlertRemoved(Integer userId, String productId) {
+        unresolvedLines.remove(userId + SEPARATOR + productId);
+        pendingLines.add(REMOVE + SEPARATOR + userId + SEPARATOR + productId + "\n");
+    }
+
+    /**
+     * Reads the log and puts its alerts back. Returns whether the log holds malformed lines, e.g. a line torn by a
+     * crash, which must not be appended to.
+     */
+    private boolean replay() throws IOException {
+        // Last alert set per "userId;productId", read without its product; a REMOVE line drops the key.
+        Map<String, PriceAlert> lastSet = new LinkedHashMap<>();
+        int malformed = 0;
+        try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineCount++;
+                String[] fields = line.split(SEPARATOR, -1);
+                try {
+                    if (fields.length == 5 && SET.equals(fields[0])) {
+                        String key = fields[1] + SEPARATOR + fields[2];
+                        lastSet.put(key, new PriceAlert(Integer.valueOf(fields[1]), null,
+                                Double.parseDouble(fields[3]), true, LocalDate.parse(fields[4])));
+                    } else if (fields.length == 3 && REMOVE.equals(fields[0])) {
+                        lastSet.remove(fields[1] + SEPARATOR + fields[2]);
+                    } else {
+                        malformed++;
+                    }
+                } catch (NumberFormatException | DateTimeParseException e) {
+                    malformed++;
+                }
+            }
+        }
+
+        int restored = 0;
+        for (Map.Entry<String, PriceAlert> entry : lastSet.entrySet()) {
+            PriceAlert read = entry.getValue();
+            String productId = entry.getKey().substring(entry.getKey().indexOf(SEPARATOR) + 1);
+            Optional<Product> product = productRepository.findById(productId);
+            if (product.isEmpty()) {
+                // Kept in the log, so the alert comes back once the product is loaded again.
+                unresolvedLines.put(entry.getKey(), SET + SEPARATOR + entry.getKey() + SEPARATOR
+                        + read.getTargetPrice() + SEPARATOR + read.getDateCreated() + "\n");
+                continue;
+            }
+            priceAlertService.restoreAlert(new PriceAlert(read.getUserId(), product.get(), read.getTargetPrice(),
+                    true, read.getDateCreated()));
+            restored++;
+        }
+        if (!unresolvedLines.isEmpty()) {
+            logger.warn("Kept {} price alerts for products that are not loaded without restoring them.", unresolvedLines.size());
+        }
+        if (malformed > 0) {
+            logger.warn("Skipped {} malformed lines in price alert log {}.", malformed, logFile);
+        }
+        logger.info("Restored {} price alerts from {} ({} log lines).", restored, logFile, lineCount);
+        return malformed > 0 || !endsWithNewline();
+    }
+
+    private boolean endsWithNewline() throws IOException {
+        try (FileChannel in = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            if (in.size() == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            in.read(last, in.size() - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    private void writeLoop() {
+        List<String> batch = new ArrayList<>();
+        long lastForceNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (running || !pendingLines.isEmpty()) {
+            try {
+                String first = pendingLines.poll(Math.max(flushIntervalMillis, 1), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Wait out the rest of the flush interval, so a burst of changes shares one fsync.
+                long waitNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis) - (System.nanoTime() - lastForceNanos);
+                if (running && waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            pendingLines.drainTo(batch);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                write(batch);
+                lastForceNanos = System.nanoTime();
+                if (lineCount >= compactThreshold) {
+                    compact();
+                }
+            } catch (IOException e) {
+                logger.error("Error writing {} changes to price alert log {}: {}", batch.size(), logFile, e.getMessage(), e);
+            }
+            batch.clear();
+        }
+        closeChannel();
+    }
+
+    private void write(List<String> lines) throws IOException {
+        StringBuilder text = new StringBuilder(lines.size() * 40);
+        lines.forEach(text::append);
+        ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        lineCount += lines.size();
+    }
+
+    /**
+     * Rewrites the log with the current alerts and the held-aside alerts of unknown products. Changes queued after the alerts were read are appended to the new
+     * log afterwards; replaying a change that is already part of the snapshot is harmless.
+     */
+    private void compact() throws IOException {
+        List<PriceAlert> alerts = priceAlertService.getAllAlerts();
+        List<String> unresolved = new ArrayList<>(unresolvedLines.values());
+        Path compacted = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            StringBuilder text = new StringBuilder(alerts.size() * 40);
+            alerts.forEach(alert -> text.append(setLine(alert)));
+            unresolved.forEach(text::append);
+            ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        closeChannel();
+        Files.move(compacted, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        openChannel();
+        logger.info("Compacted price alert log {} from {} to {} lines.", logFile, lineCount, alerts.size() + unresolved.size());
+        lineCount = alerts.size() + unresolved.size();
+        compactThreshold = Math.max(compactMinRecords, 2 * lineCount);
+    }
+
+    private void openChannel() throws IOException {
+        channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeChannel() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Error closing price alert log {}: {}", logFile, e.getMessage());
+        }
+        channel = null;
+    }
+
+    private static String setLine(PriceAlert alert) {
+        return SET + SEPARATOR + alert.getUserId() + SEPARATOR + alert.getProduct().getProductId() + SEPARATOR
+                + alert.getTargetPrice() + SEPARATOR + alert.getDateCreated() + "\n";
+    }
+}
@@ -1,44 +1,81 @@
 package org.example.shoppingapp.service;
 
+import org.example.shoppingapp.model.EpochDays;
+import org.example.shoppingapp.model.NameDictionary;
 import org.example.shoppingapp.model.PriceAlert;
 import org.example.shoppingapp.model.PriceEntry;
 import org.example.shoppingapp.model.Product;
 import org.example.shoppingapp.model.User;
 import org.example.shoppingapp.model.dto.TriggeredAlertDTO;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.repository.interfaces.PriceEntryListener;
 import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
 import org.example.shoppingapp.repository.interfaces.ProductRepository;
 import org.example.shoppingapp.repository.interfaces.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+/**
+ * Manages price alerts. Active alerts are indexed per product and ordered by target price, so the alerts triggered
+ * by a price are found with one range lookup plus the alerts it actually triggers. Besides the on-demand
+ * {@link #checkTriggeredAlerts()}, every price entry saved to the repository is matched against that index. Triggered alerts go to the
+ * registered {@link PriceAlertListener}s and to a bounded queue read with {@link #drainTriggeredAlerts()}.
+ * Prices that arrive through {@code replaceAll} (a reload of changed files) are not matched.
+ */
 @Service
-public class PriceAlertService {
+public class PriceAlertService implements PriceEntryListener {
     private static final Logger logger = LoggerFactory.getLogger(PriceAlertService.class);
+    private static final Comparator<PriceAlert> BY_TARGET_PRICE =
+            Comparator.comparingDouble(PriceAlert::getTargetPrice).thenComparing(PriceAlert::getUserId);
 
     private final Map<Integer, List<PriceAlert>> userAlerts = new ConcurrentHashMap<>();
+    // Active alerts per product id, ordered by target price, then user id.
+    private final Map<String, NavigableSet<PriceAlert>> alertsByProduct = new ConcurrentHashMap<>();
+
+    @Value("${app.alerts.triggered-queue-capacity:1000}")
+    private int triggeredQueueCapacity = 1000;
+
+    // Guarded by its own monitor; the oldest alerts are dropped when it is full.
+    private final Deque<TriggeredAlertDTO> triggeredQueue = new ArrayDeque<>();
+    private final List<PriceAlertListener> alertListeners = new CopyOnWriteArrayList<>();
+    private final List<PriceAlertChangeListener> changeListeners = new CopyOnWriteArrayList<>();
 
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
-    private final PriceEntryRepository priceEntryRepository;
+    private final LatestPriceView latestPriceView;
+    private final NameDictionaries nameDictionaries;
 
     public PriceAlertService(UserRepository userRepository,
                              ProductRepository productRepository,
-                             PriceEntryRepository priceEntryRepository) {
+                             PriceEntryRepository priceEntryRepository,
+                             LatestPriceView latestPriceView,
+                             NameDictionaries nameDictionaries) {
         this.userRepository = userRepository;
         this.productRepository = productRepository;
-        this.priceEntryRepository = priceEntryRepository;
+        this.latestPriceView = latestPriceView;
+        this.nameDictionaries = nameDictionaries;
+        priceEntryRepository.addListener(this);
     }
 
     public boolean setAlert(Integer userId, String productId, double targetPrice) {
@@ -59,11 +96,7 @@ public class PriceAlertService {
         }
 
         Product product = productOpt.get();
-        PriceAlert newAlert = new PriceAlert(userId, product, targetPrice, true, LocalDate.now());
-
-        userAlerts.computeIfAbsent(userId, k -> Collections.synchronizedList(new ArrayList<>()))
-                  .removeIf(alert -> alert.getProduct().getProductId().equals(productId));
-        userAlerts.get(userId).add(newAlert);
+        putAlert(new PriceAlert(userId, product, targetPrice, true, LocalDate.now()), true);
 
         logger.info("Price alert set for User ID {}, Product ID {}, Target Price: {}", userId, productId, targetPrice);
         return true;
@@ -73,37 +106,43 @@ public class PriceAlertService {
         return new ArrayList<>(userAlerts.getOrDefault(userId, Collections.emptyList()));
     }
 
+    /**
+     * Returns every alert of every user. Each user's alerts are read consistently, but users are read one by one.
+     */
+    public List<PriceAlert> getAllAlerts() {
+        List<PriceAlert> all = new ArrayList<>();
+        for (List<PriceAlert> alertsForUser : userAlerts.values()) {
+            synchronized (alertsForUser) {
+                all.addAll(alertsForUser);
+            }
+        }
+        return all;
+    }
 
+    /**
+     * Puts back an alert read from durable storage, replacing the user's alert for the same product. Unlike
+     * {@link #setAlert} the user is not looked up, and change listeners are not notified.
+     */
+    void restoreAlert(PriceAlert alert) {
+        putAlert(alert, false);
+    }
+
+
+    /**
+     * Returns the active alerts whose target is at or above the product's cheapest current price, grouped by
+     * product. Each product with alerts costs one price lookup and one range scan of its ordered alerts.
+     */
     public List<TriggeredAlertDTO> checkTriggeredAlerts() {
-        LocalDate today = LocalDate.now();
         List<TriggeredAlertDTO> triggered = new ArrayList<>();
 
-        userAlerts.forEach((userId, alerts) -> {
-            alerts.stream()
-                .filter(PriceAlert::isActive)
-                .forEach(alert -> {
-                    Product product = alert.getProduct();
-
-                    Optional<PriceEntry> cheapestCurrentPriceOpt = priceEntryRepository
-                            .findByProductId(product.getProductId()).stream()
-                            .filter(pe -> !pe.getEntryDate().isBefore(today.minusDays(7)))
-                            .min(Comparator.comparingDouble(PriceEntry::getPrice));
-
-                    cheapestCurrentPriceOpt.ifPresent(cheapestEntry -> {
-                        if (cheapestEntry.getPrice() <= alert.getTargetPrice()) {
-                            triggered.add(new TriggeredAlertDTO(
-                                    userId,
-                                    product.getProductId(),
-                                    product.getProductName(),
-                                    product.getBrand(),
-                                    cheapestEntry.getStoreName(),
-                                    BigDecimal.valueOf(cheapestEntry.getPrice()),
-                                    BigDecimal.valueOf(alert.getTargetPrice())
-                            ));
+        alertsByProduct.forEach((productId, productAlerts) ->
+                latestPriceView.findCheapestCurrent(productId).ifPresent(cheapestEntry -> {
+                    for (PriceAlert alert : triggeredBy(productAlerts, cheapestEntry.getPrice())) {
+                        if (alert.isActive()) {
+                            triggered.add(toTriggeredAlert(alert, cheapestEntry));
                         }
-                    });
-                });
-        });
+                    }
+                }));
         if(!triggered.isEmpty()){
             logger.info("Found {} triggered price alerts.", triggered.size());
         }
@@ -111,17 +150,156 @@ public class PriceAlertService {
     }
     
      public boolean removeAlert(Integer userId, String productId) {
-        List<PriceAlert> alertsForUser = userAlerts.get(userId);
-        if (alertsForUser != null) {
-            boolean removed = alertsForUser.removeIf(alert -> alert.getProduct().getProductId().equals(productId) && alert.isActive());
-            if (removed) {
-                logger.info("Price alert removed for User ID {}, Product ID {}", userId, productId);
-                if (alertsForUser.isEmpty()) {
-                    userAlerts.remove(userId);
+        AtomicBoolean removed = new AtomicBoolean();
+        // The removal and the empty check run inside computeIfPresent, so a concurrent putAlert never adds to a
+        // list that has just been dropped from the map.
+        userAlerts.computeIfPresent(userId, (k, alertsForUser) -> {
+            synchronized (alertsForUser) {
+                if (removeAlerts(alertsForUser, alert -> alert.getProduct().getProductId().equals(productId) && alert.isActive())) {
+                    removed.set(true);
+                    changeListeners.forEach(listener -> listener.onAlertRemoved(userId, productId));
                 }
+                return alertsForUser.isEmpty() ? null : alertsForUser;
             }
-            return removed;
+        });
+        if (removed.get()) {
+            logger.info("Price alert removed for User ID {}, Product ID {}", userId, productId);
+        }
+        return removed.get();
+    }
+
+    /**
+     * Registers a listener called for every alert triggered by a newly saved price.
+     */
+    public void addAlertListener(PriceAlertListener listener) {
+        alertListeners.add(listener);
+    }
+
+    /**
+     * Registers a listener called for every alert set or removed, e.g. to persist the changes.
+     */
+    public void addAlertChangeListener(PriceAlertChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Returns and removes the alerts triggered by newly saved prices since the last call, oldest first.
+     * At most {@code app.alerts.triggered-queue-capacity} alerts are kept.
+     */
+    public List<TriggeredAlertDTO> drainTriggeredAlerts() {
+        synchronized (triggeredQueue) {
+            List<TriggeredAlertDTO> drained = new ArrayList<>(triggeredQueue);
+            triggeredQueue.clear();
+            return drained;
         }
-        return false;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void onPriceEntriesAdded(List<PriceEntry> addedEntries) {
+        if (alertsByProduct.isEmpty()) {
+            return;
+        }
+        int oldestCurrent = EpochDays.of(LocalDate.now().minusDays(LatestPriceView.CURRENT_PRICE_WINDOW_DAYS));
+        for (PriceEntry entry : addedEntries) {
+            // A missing date is EpochDays.NONE, which is before every current date.
+            if (entry.getProduct() == null || entry.getStoreId() == NameDictionary.NO_ID || entry.getEntryEpochDay() < oldestCurrent) {
+                continue;
+            }
+            NavigableSet<PriceAlert> productAlerts = alertsByProduct.get(entry.getProduct().getProductId());
+            if (productAlerts == null) {
+                continue;
+            }
+            for (PriceAlert alert : triggeredBy(productAlerts, entry.getPrice())) {
+                if (alert.isActive()) {
+                    publish(toTriggeredAlert(alert, entry));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPriceEntriesReplaced() {
+        // Nothing to do: only newly saved prices are matched against alerts.
+    }
+
+    private void putAlert(PriceAlert newAlert, boolean notifyListeners) {
+        String productId = newAlert.getProduct().getProductId();
+        // Like removeAlert, the user's list is changed inside compute, so it cannot be dropped from the map in between.
+        userAlerts.compute(newAlert.getUserId(), (userId, alertsForUser) -> {
+            if (alertsForUser == null) {
+                alertsForUser = Collections.synchronizedList(new ArrayList<>());
+            }
+            synchronized (alertsForUser) {
+                removeAlerts(alertsForUser, alert -> alert.getProduct().getProductId().equals(productId));
+                alertsForUser.add(newAlert);
+                // The add happens inside compute so a concurrent removal cannot drop the set from the map in between.
+                alertsByProduct.compute(productId, (k, productAlerts) -> {
+                    if (productAlerts == null) {
+                        productAlerts = new ConcurrentSkipListSet<>(BY_TARGET_PRICE);
+                    }
+                    productAlerts.add(newAlert);
+                    return productAlerts;
+                });
+                if (notifyListeners) {
+                    changeListeners.forEach(listener -> listener.onAlertSet(newAlert));
+                }
+            }
+            return alertsForUser;
+        });
+    }
+
+    /** Alerts of one product with a target at or above the price, found with one lookup in the ordered set. */
+    private static NavigableSet<PriceAlert> triggeredBy(NavigableSet<PriceAlert> productAlerts, double price) {
+        return productAlerts.tailSet(new PriceAlert(Integer.MIN_VALUE, null, price, true, null), true);
+    }
+
+    private boolean removeAlerts(List<PriceAlert> alertsForUser, Predicate<PriceAlert> filter) {
+        boolean removed = false;
+        for (Iterator<PriceAlert> it = alertsForUser.iterator(); it.hasNext(); ) {
+            PriceAlert alert = it.next();
+            if (filter.test(alert)) {
+                it.remove();
+                String productId = alert.getProduct().getProductId();
+                alertsByProduct.compute(productId, (k, productAlerts) -> {
+                    if (productAlerts == null) {
+                        return null;
+                    }
+                    productAlerts.remove(alert);
+                    return productAlerts.isEmpty() ? null : productAlerts;
+                });
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    private void publish(TriggeredAlertDTO triggeredAlert) {
+        synchronized (triggeredQueue) {
+            if (triggeredQueue.size() >= Math.max(triggeredQueueCapacity, 1)) {
+                TriggeredAlertDTO dropped = triggeredQueue.pollFirst();
+                logger.debug("Triggered alert queue is full; dropping the oldest alert for user {}.", dropped.getUserId());
+            }
+            triggeredQueue.addLast(triggeredAlert);
+        }
+        for (PriceAlertListener listener : alertListeners) {
+            try {
+                listener.onAlertTriggered(triggeredAlert);
+            } catch (RuntimeException e) {
+                logger.error("Price alert listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private TriggeredAlertDTO toTriggeredAlert(PriceAlert alert, PriceEntry priceEntry) {
+        Product product = alert.getProduct();
+        return new TriggeredAlertDTO(
+                alert.getUserId(),
+                product.getProductId(),
+                product.getProductName(),
+                product.getBrand(),
+                nameDictionaries.stores().nameOf(priceEntry.getStoreId()),
+                BigDecimal.valueOf(priceEntry.getPrice()),
+                BigDecimal.valueOf(alert.getTargetPrice())
+        );
+    }
+}
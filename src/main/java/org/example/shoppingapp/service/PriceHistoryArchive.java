@@ -0,0 +1,192 @@
+package org.example.shoppingapp.service;
+
+import org.example.shoppingapp.model.EpochDays;
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.repository.interfaces.ProductRepository;
+import org.example.shoppingapp.utils.CsvDataParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Price history older than {@code app.data.history.resident-days} days, kept on disk instead of in the price entry
+ * repository. {@link DataLoadingService} registers the data files holding each archived entry date; the entries of a
+ * date (a partition) are parsed again from those files when a price history query needs them, and the most recently
+ * used {@code app.data.history.max-cached-partitions} partitions stay in memory.
+ * <p>
+ * A resident window of 0 (the default) keeps all prices in the repository and disables the archive. The window is
+ * never shorter than {@link LatestPriceView#CURRENT_PRICE_WINDOW_DAYS}, so current prices are always resident.
+ */
+@Component
+public class PriceHistoryArchive {
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryArchive.class);
+
+    @Value("${app.data.history.resident-days:0}")
+    private int residentDays = 0;
+
+    @Value("${app.data.history.max-cached-partitions:30}")
+    private int maxCachedPartitions = 30;
+
+    // Own parser, so re-reading archived files never touches the pending products of an ingestion in progress.
+    // Partition loads share its pending products, so one partition is parsed at a time, under parseLock.
+    private final CsvDataParser csvDataParser;
+    private final Object parseLock = new Object();
+    // Files holding entries of each archived date.
+    private final NavigableMap<LocalDate, Set<Path>> filesByDate = new ConcurrentSkipListMap<>();
+    // Loaded partitions in access order; guarded by its own monitor.
+    private final LinkedHashMap<LocalDate, List<PriceEntry>> cachedPartitions = new LinkedHashMap<>(16, 0.75f, true);
+    // Incremented on every change, so a partition read while files were registered or unregistered is not cached.
+    private final AtomicLong changeCount = new AtomicLong();
+
+    public PriceHistoryArchive(ProductRepository productRepository, NameDictionaries nameDictionaries) {
+        this.csvDataParser = new CsvDataParser(productRepository, nameDictionaries);
+    }
+
+    public boolean isEnabled() {
+        return residentDays > 0;
+    }
+
+    /** True if prices of this date are archived instead of being saved to the repository. */
+    public boolean isArchived(LocalDate entryDate) {
+        if (residentDays <= 0 || entryDate == null) {
+            return false;
+        }
+        return EpochDays.of(entryDate) < oldestResidentEpochDay();
+    }
+
+    /**
+     * Epoch day of the oldest date that stays resident while the archive is enabled, for checking many entries
+     * against one cutoff.
+     */
+    public int oldestResidentEpochDay() {
+        int window = Math.max(residentDays, LatestPriceView.CURRENT_PRICE_WINDOW_DAYS);
+        return EpochDays.of(LocalDate.now().minusDays(window));
+    }
+
+    /** Records that the file holds price entries of the archived date. */
+    public void register(Path file, LocalDate entryDate) {
+        filesByDate.computeIfAbsent(entryDate, k -> ConcurrentHashMap.newKeySet()).add(file);
+        evict(entryDate);
+    }
+
+    /** Forgets the file, e.g. because it changed or was deleted. */
+    public void unregister(Path file) {
+        for (Map.Entry<LocalDate, Set<Path>> entry : filesByDate.entrySet()) {
+            if (entry.getValue().remove(file)) {
+                filesByDate.computeIfPresent(entry.getKey(), (date, files) -> files.isEmpty() ? null : files);
+                evict(entry.getKey());
+            }
+        }
+    }
+
+    public void clear() {
+        filesByDate.clear();
+        synchronized (cachedPartitions) {
+            changeCount.incrementAndGet();
+            cachedPartitions.clear();
+        }
+    }
+
+    /** Archived price entries dated between the two dates, inclusive, loading partitions that are not in memory. */
+    public List<PriceEntry> findByEntryDateBetween(LocalDate from, LocalDate to) {
+        List<PriceEntry> entries = new ArrayList<>();
+        for (LocalDate date : filesByDate.subMap(from, true, to, true).keySet()) {
+            entries.addAll(partition(date));
+        }
+        return entries;
+    }
+
+    /**
+     * Archived price entries dated up to the given date, inclusive, that match the filter. Every archived date up to
+     * it is read, one partition at a time; partitions that are not in memory are parsed without being cached, so a
+     * query over the whole history does not push the recently used partitions out, and only the matching entries are
+     * kept.
+     */
+    public List<PriceEntry> findUpTo(LocalDate to, Predicate<PriceEntry> filter) {
+        List<PriceEntry> entries = new ArrayList<>();
+        for (LocalDate date : filesByDate.headMap(to, true).keySet()) {
+            for (PriceEntry entry : partition(date, false)) {
+                if (filter.test(entry)) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private List<PriceEntry> partition(LocalDate date) {
+        return partition(date, true);
+    }
+
+    private List<PriceEntry> partition(LocalDate date, boolean cache) {
+        synchronized (cachedPartitions) {
+            List<PriceEntry> cached = cachedPartitions.get(date);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        synchronized (parseLock) {
+            // Another query may have loaded the partition while this one waited.
+            long seenChanges;
+            synchronized (cachedPartitions) {
+                List<PriceEntry> cached = cachedPartitions.get(date);
+                if (cached != null) {
+                    return cached;
+                }
+                seenChanges = changeCount.get();
+            }
+            long startNanos = System.nanoTime();
+            List<PriceEntry> entries = new ArrayList<>();
+            for (Path file : filesByDate.getOrDefault(date, Set.of())) {
+                try {
+                    for (PriceEntry entry : csvDataParser.parseAllDataFromFile(file).priceEntries) {
+                        if (date.equals(entry.getEntryDate())) {
+                            entries.add(entry);
+                        }
+                    }
+                } catch (IOException e) {
+                    logger.error("Could not read archived prices of {} from {}: {}", date, file, e.getMessage(), e);
+                }
+            }
+            csvDataParser.clearPendingProducts();
+            List<PriceEntry> partition = List.copyOf(entries);
+            synchronized (cachedPartitions) {
+                if (!cache || changeCount.get() != seenChanges) {
+                    return partition;
+                }
+                cachedPartitions.put(date, partition);
+                while (cachedPartitions.size() > Math.max(maxCachedPartitions, 1)) {
+                    LocalDate eldest = cachedPartitions.keySet().iterator().next();
+                    cachedPartitions.remove(eldest);
+                }
+            }
+            logger.debug("Loaded {} archived price entries of {} in {} ms.", partition.size(), date,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return partition;
+        }
+    }
+
+    private void evict(LocalDate date) {
+        synchronized (cachedPartitions) {
+            changeCount.incrementAndGet();
+            cachedPartitions.remove(date);
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package org.example.shoppingapp.service;
 
+import org.example.shoppingapp.model.EpochDays;
+import org.example.shoppingapp.model.NameDictionary;
 import org.example.shoppingapp.model.PriceEntry;
 import org.example.shoppingapp.model.Product;
 import org.example.shoppingapp.model.dto.PriceHistoryDataPointDTO;
+import org.example.shoppingapp.repository.NameDictionaries;
 import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
 import org.example.shoppingapp.repository.interfaces.ProductRepository;
 import org.slf4j.Logger;
@@ -13,8 +16,10 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -24,10 +29,15 @@ public class PriceHistoryService {
 
     private final PriceEntryRepository priceEntryRepository;
     private final ProductRepository productRepository;
+    private final PriceHistoryArchive priceHistoryArchive;
+    private final NameDictionaries nameDictionaries;
 
-    public PriceHistoryService(PriceEntryRepository priceEntryRepository, ProductRepository productRepository) {
+    public PriceHistoryService(PriceEntryRepository priceEntryRepository, ProductRepository productRepository,
+                               PriceHistoryArchive priceHistoryArchive, NameDictionaries nameDictionaries) {
         this.priceEntryRepository = priceEntryRepository;
         this.productRepository = productRepository;
+        this.priceHistoryArchive = priceHistoryArchive;
+        this.nameDictionaries = nameDictionaries;
     }
 
     /**
@@ -50,44 +60,69 @@ public class PriceHistoryService {
         logger.debug("Fetching price history for productId: {}, store: {}, category: {}, brand: {}, from: {}, to: {}",
                 productId, storeNameOpt, categoryOpt, brandOpt, fromDateOpt, toDateOpt);
 
-        Stream<PriceEntry> entriesStream = priceEntryRepository.findAll().stream();
+        boolean singleProduct = productId != null && !productId.isBlank();
+        // Older prices come from the archive. A range without a start date reads every archived date up to its end,
+        // keeping only the product's entries and leaving the archive's cache of recently used dates alone.
+        List<PriceEntry> archivedEntries;
+        if (!priceHistoryArchive.isEnabled()) {
+            archivedEntries = List.of();
+        } else if (fromDateOpt.isPresent()) {
+            archivedEntries = priceHistoryArchive.findByEntryDateBetween(fromDateOpt.get(), toDateOpt.orElse(LocalDate.MAX));
+        } else {
+            archivedEntries = priceHistoryArchive.findUpTo(toDateOpt.orElse(LocalDate.MAX), singleProduct
+                    ? pe -> pe.getProduct() != null && productId.equals(pe.getProduct().getProductId())
+                    : pe -> true);
+        }
+        // A single product's resident prices come from the repository's product index instead of a full scan.
+        List<PriceEntry> residentEntries = singleProduct
+                ? priceEntryRepository.findByProductId(productId)
+                : priceEntryRepository.findAll();
+        Stream<PriceEntry> entriesStream = Stream.concat(residentEntries.stream(), archivedEntries.stream());
+
+        // The cheap int comparisons on store and date run before the product ID lookups.
+        if (storeNameOpt.isPresent()) {
+            int storeId = nameDictionaries.stores().findId(storeNameOpt.get());
+            if (storeId == NameDictionary.NO_ID) {
+                return List.of();
+            }
+            entriesStream = entriesStream.filter(pe -> pe.getStoreId() == storeId);
+        }
+        if (fromDateOpt.isPresent()) {
+            int fromEpochDay = EpochDays.of(fromDateOpt.get());
+            entriesStream = entriesStream.filter(pe -> pe.getEntryEpochDay() >= fromEpochDay);
+        }
+        if (toDateOpt.isPresent()) {
+            int toEpochDay = EpochDays.of(toDateOpt.get());
+            entriesStream = entriesStream.filter(pe -> pe.getEntryEpochDay() != EpochDays.NONE && pe.getEntryEpochDay() <= toEpochDay);
+        }
 
-        if (productId != null && !productId.isBlank()) {
+        if (singleProduct) {
+            // Still needed for the archived entries.
             entriesStream = entriesStream.filter(pe -> pe.getProduct() != null && productId.equals(pe.getProduct().getProductId()));
         } else if (categoryOpt.isPresent() || brandOpt.isPresent()) {
+            // Matching products come from the catalog's category and brand indexes; entries are then matched by ID.
+            Set<String> productIds = null;
             if (categoryOpt.isPresent()) {
-                String category = categoryOpt.get().toLowerCase();
-                entriesStream = entriesStream.filter(pe -> pe.getProduct() != null &&
-                        pe.getProduct().getProductCategory() != null &&
-                        pe.getProduct().getProductCategory().toLowerCase().equals(category));
+                productIds = productIdsOf(productRepository.findByCategory(categoryOpt.get()));
             }
             if (brandOpt.isPresent()) {
-                String brand = brandOpt.get().toLowerCase();
-                entriesStream = entriesStream.filter(pe -> pe.getProduct() != null &&
-                        pe.getProduct().getBrand() != null &&
-                        pe.getProduct().getBrand().toLowerCase().equals(brand));
+                Set<String> brandProductIds = productIdsOf(productRepository.findByBrand(brandOpt.get()));
+                if (productIds == null) {
+                    productIds = brandProductIds;
+                } else {
+                    productIds.retainAll(brandProductIds);
+                }
             }
+            Set<String> matchingProductIds = productIds;
+            entriesStream = entriesStream.filter(pe -> pe.getProduct() != null &&
+                    matchingProductIds.contains(pe.getProduct().getProductId()));
         } else {
             logger.warn("Price history request without productId, category, or brand. Returning empty list.");
             return List.of();
         }
 
-        if (storeNameOpt.isPresent()) {
-            String storeName = storeNameOpt.get().toLowerCase();
-            entriesStream = entriesStream.filter(pe -> pe.getStoreName() != null &&
-                    pe.getStoreName().toLowerCase().equals(storeName));
-        }
-        if (fromDateOpt.isPresent()) {
-            LocalDate fromDate = fromDateOpt.get();
-            entriesStream = entriesStream.filter(pe -> !pe.getEntryDate().isBefore(fromDate));
-        }
-        if (toDateOpt.isPresent()) {
-            LocalDate toDate = toDateOpt.get();
-            entriesStream = entriesStream.filter(pe -> !pe.getEntryDate().isAfter(toDate));
-        }
-
         List<PriceEntry> filteredEntries = entriesStream
-                .sorted(Comparator.comparing(PriceEntry::getEntryDate))
+                .sorted(Comparator.comparingInt(PriceEntry::getEntryEpochDay))
                 .collect(Collectors.toList());
 
         if (filteredEntries.isEmpty()){
@@ -98,7 +133,13 @@ public class PriceHistoryService {
                 .map(pe -> new PriceHistoryDataPointDTO(
                         pe.getEntryDate(),
                         BigDecimal.valueOf(pe.getPrice()).setScale(2, RoundingMode.HALF_UP),
-                        pe.getStoreName()))
+                        nameDictionaries.stores().nameOf(pe.getStoreId())))
                 .collect(Collectors.toList());
     }
+
+    private static Set<String> productIdsOf(List<Product> products) {
+        Set<String> productIds = new HashSet<>();
+        products.forEach(product -> productIds.add(product.getProductId()));
+        return productIds;
+    }
 }
\ No newline at end of file
@@ -1,9 +1,10 @@
 package org.example.shoppingapp.service;
 
+import org.example.shoppingapp.model.EpochDays;
 import org.example.shoppingapp.model.PriceEntry;
 import org.example.shoppingapp.model.Product;
 import org.example.shoppingapp.model.dto.ProductRecommendationDTO;
-import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
 import org.example.shoppingapp.repository.interfaces.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,11 +21,14 @@ public class ProductRecommendationService {
     private static final Logger logger = LoggerFactory.getLogger(ProductRecommendationService.class);
 
     private final ProductRepository productRepository;
-    private final PriceEntryRepository priceEntryRepository;
+    private final LatestPriceView latestPriceView;
+    private final NameDictionaries nameDictionaries;
 
-    public ProductRecommendationService(ProductRepository productRepository, PriceEntryRepository priceEntryRepository) {
+    public ProductRecommendationService(ProductRepository productRepository, LatestPriceView latestPriceView,
+                                        NameDictionaries nameDictionaries) {
         this.productRepository = productRepository;
-        this.priceEntryRepository = priceEntryRepository;
+        this.latestPriceView = latestPriceView;
+        this.nameDictionaries = nameDictionaries;
     }
 
     public List<ProductRecommendationDTO> getBestValueProducts(Optional<String> productIdOpt, Optional<String> categoryNameOpt, int limit) {
@@ -39,7 +43,7 @@ public class ProductRecommendationService {
                 logger.warn("Product with ID {} not found for best value recommendations.", productIdOpt.get());
                 return List.of();
             }
-            String categoryOfProduct = targetProducts.get(0).getProductCategory();
+            String categoryOfProduct = nameDictionaries.categories().nameOf(targetProducts.get(0).getCategoryId());
             if (categoryOfProduct != null && !categoryOfProduct.isBlank()) {
                  targetProducts.addAll(productRepository.findByCategory(categoryOfProduct).stream()
                     .filter(p -> !p.getProductId().equals(productIdOpt.get()))
@@ -58,14 +62,10 @@ public class ProductRecommendationService {
         }
         
 
+        int oldestCurrent = EpochDays.of(today.minusDays(LatestPriceView.CURRENT_PRICE_WINDOW_DAYS));
         List<PriceEntry> currentPriceEntries = targetProducts.stream()
-            .flatMap(product -> priceEntryRepository.findByProductId(product.getProductId()).stream()
-                .collect(Collectors.groupingBy(PriceEntry::getStoreName,
-                         Collectors.maxBy(Comparator.comparing(PriceEntry::getEntryDate))))
-                .values().stream()
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .filter(pe -> !pe.getEntryDate().isBefore(today.minusDays(7)))
+            .flatMap(product -> latestPriceView.findLatestPerStore(product.getProductId()).stream()
+                .filter(pe -> pe.getEntryEpochDay() >= oldestCurrent)
             )
             .collect(Collectors.toList());
 
@@ -86,12 +86,12 @@ public class ProductRecommendationService {
                             product.getProductId(),
                             product.getProductName(),
                             product.getBrand(),
-                            priceEntry.getStoreName(),
+                            nameDictionaries.stores().nameOf(priceEntry.getStoreId()),
                             BigDecimal.valueOf(priceEntry.getPrice()).setScale(2, RoundingMode.HALF_UP),
                             packageInfo,
                             pricePerUnit,
                             unitNormalized,
-                            product.getProductCategory()
+                            nameDictionaries.categories().nameOf(product.getCategoryId())
                     );
                 })
                 .filter(Objects::nonNull)
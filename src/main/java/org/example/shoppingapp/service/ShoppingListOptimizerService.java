@@ -4,7 +4,7 @@ import org.example.shoppingapp.model.PriceEntry;
 import org.example.shoppingapp.model.Product;
 import org.example.shoppingapp.model.dto.OptimizedShoppingListDTO;
 import org.example.shoppingapp.model.dto.ShoppingListItemDTO;
-import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
 import org.example.shoppingapp.repository.interfaces.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,32 +12,38 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class ShoppingListOptimizerService {
     private static final Logger logger = LoggerFactory.getLogger(ShoppingListOptimizerService.class);
 
+    private static final String NOT_PRICED_LIST = "Items_Not_Found_Or_Priced";
+
     private final ProductRepository productRepository;
-    private final PriceEntryRepository priceEntryRepository;
+    private final LatestPriceView latestPriceView;
+    private final NameDictionaries nameDictionaries;
 
-    public ShoppingListOptimizerService(ProductRepository productRepository, PriceEntryRepository priceEntryRepository) {
+    public ShoppingListOptimizerService(ProductRepository productRepository, LatestPriceView latestPriceView,
+                                        NameDictionaries nameDictionaries) {
         this.productRepository = productRepository;
-        this.priceEntryRepository = priceEntryRepository;
+        this.latestPriceView = latestPriceView;
+        this.nameDictionaries = nameDictionaries;
     }
 
     public List<OptimizedShoppingListDTO> optimizeShoppingBasket(Map<String, Integer> productIdsWithQuantities) {
         if (productIdsWithQuantities == null || productIdsWithQuantities.isEmpty()) {
             return List.of();
         }
-        LocalDate today = LocalDate.now();
         Map<String, List<ShoppingListItemDTO>> itemsByCheapestStore = new HashMap<>();
         BigDecimal totalBasketCost = BigDecimal.ZERO;
 
@@ -52,47 +58,132 @@ public class ShoppingListOptimizerService {
             }
             Product product = productOpt.get();
 
-            Optional<PriceEntry> cheapestPriceEntryOpt = priceEntryRepository.findByProductId(productId).stream()
-                    .filter(pe -> !pe.getEntryDate().isBefore(today.minusDays(7)))
-                    .min(Comparator.comparingDouble(PriceEntry::getPrice));
+            Optional<PriceEntry> cheapestPriceEntryOpt = latestPriceView.findCheapestCurrent(productId);
 
             if (cheapestPriceEntryOpt.isPresent()) {
                 PriceEntry cheapestEntry = cheapestPriceEntryOpt.get();
-                String storeName = cheapestEntry.getStoreName();
+                String storeName = nameDictionaries.stores().nameOf(cheapestEntry.getStoreId());
                 BigDecimal itemPrice = BigDecimal.valueOf(cheapestEntry.getPrice()).setScale(2, RoundingMode.HALF_UP);
                 BigDecimal itemSubtotal = itemPrice.multiply(BigDecimal.valueOf(quantityNeeded));
 
-                ShoppingListItemDTO listItem = new ShoppingListItemDTO(
-                        product.getProductId(),
-                        product.getProductName(),
-                        product.getBrand(),
-                        quantityNeeded,
-                        itemPrice,
-                        itemSubtotal,
-                        String.format("%.2f %s", product.getPackageQuantityInput(), product.getPackageUnitInput() != null ? product.getPackageUnitInput().getCsvValue() : "")
-                );
+                ShoppingListItemDTO listItem = pricedItem(product, quantityNeeded, itemPrice, itemSubtotal);
 
                 itemsByCheapestStore.computeIfAbsent(storeName, k -> new ArrayList<>()).add(listItem);
                 totalBasketCost = totalBasketCost.add(itemSubtotal);
 
             } else {
                 logger.warn("No current price found for product ID {}. Skipping from optimization.", productId);
-                 ShoppingListItemDTO notFoundItem = new ShoppingListItemDTO(
-                        product.getProductId(),
-                        product.getProductName(),
-                        product.getBrand(),
-                        quantityNeeded,
-                        BigDecimal.ZERO,
-                        BigDecimal.ZERO,
-                        "Price Not Found"
-                );
-                itemsByCheapestStore.computeIfAbsent("Items_Not_Found_Or_Priced", k-> new ArrayList<>()).add(notFoundItem);
+                itemsByCheapestStore.computeIfAbsent(NOT_PRICED_LIST, k-> new ArrayList<>()).add(notPricedItem(product, quantityNeeded));
             }
         }
         
         logger.info("Overall estimated basket cost (sum of cheapest items individually): {}", totalBasketCost.setScale(2, RoundingMode.HALF_UP));
 
-        return itemsByCheapestStore.entrySet().stream()
+        return toStoreLists(itemsByCheapestStore);
+    }
+
+    /**
+     * Exact variant of {@link #optimizeShoppingBasket} that also charges {@code storeVisitCost} for every store on
+     * the plan and visits at most {@code maxStores} stores (0 = no limit). Picks the set of stores minimizing
+     * item cost plus visit cost, then buys every item at the cheapest chosen store. Items that cannot be bought
+     * within the store limit are listed with the unpriced ones.
+     */
+    public List<OptimizedShoppingListDTO> optimizeShoppingBasket(Map<String, Integer> productIdsWithQuantities,
+                                                                 double storeVisitCost, int maxStores) {
+        if (productIdsWithQuantities == null || productIdsWithQuantities.isEmpty()) {
+            return List.of();
+        }
+        List<Product> products = new ArrayList<>();
+        List<Integer> quantities = new ArrayList<>();
+        List<Map<String, Double>> pricesByStore = new ArrayList<>();
+        Map<String, Integer> storeIndexes = new LinkedHashMap<>();
+        Map<String, List<ShoppingListItemDTO>> itemsByStore = new HashMap<>();
+
+        for (Map.Entry<String, Integer> basketEntry : productIdsWithQuantities.entrySet()) {
+            Optional<Product> productOpt = productRepository.findById(basketEntry.getKey());
+            if (productOpt.isEmpty()) {
+                logger.warn("Product with ID {} in basket not found in catalog. Skipping.", basketEntry.getKey());
+                continue;
+            }
+            Map<String, Double> cheapestByStore = new HashMap<>();
+            for (PriceEntry pe : latestPriceView.findCheapestCurrentPerStore(basketEntry.getKey())) {
+                cheapestByStore.put(nameDictionaries.stores().nameOf(pe.getStoreId()), pe.getPrice());
+            }
+            if (cheapestByStore.isEmpty()) {
+                logger.warn("No current price found for product ID {}. Skipping from optimization.", basketEntry.getKey());
+                itemsByStore.computeIfAbsent(NOT_PRICED_LIST, k -> new ArrayList<>())
+                        .add(notPricedItem(productOpt.get(), basketEntry.getValue()));
+                continue;
+            }
+            cheapestByStore.keySet().forEach(store -> storeIndexes.putIfAbsent(store, storeIndexes.size()));
+            products.add(productOpt.get());
+            quantities.add(basketEntry.getValue());
+            pricesByStore.add(cheapestByStore);
+        }
+        if (products.isEmpty()) {
+            return toStoreLists(itemsByStore);
+        }
+
+        // Costs in bani, so the search works on exact integer sums.
+        List<String> storeNames = new ArrayList<>(storeIndexes.keySet());
+        long[][] costs = new long[storeNames.size()][products.size()];
+        for (int store = 0; store < storeNames.size(); store++) {
+            Arrays.fill(costs[store], StoreSubsetSearch.UNAVAILABLE);
+        }
+        for (int item = 0; item < products.size(); item++) {
+            int quantity = quantities.get(item);
+            for (Map.Entry<String, Double> storePrice : pricesByStore.get(item).entrySet()) {
+                costs[storeIndexes.get(storePrice.getKey())][item] = Math.round(storePrice.getValue() * 100) * quantity;
+            }
+        }
+        StoreSubsetSearch search = new StoreSubsetSearch(costs, Math.round(storeVisitCost * 100),
+                maxStores > 0 ? maxStores : storeNames.size());
+        int[] assignment = search.solve();
+
+        for (int item = 0; item < products.size(); item++) {
+            Product product = products.get(item);
+            int quantity = quantities.get(item);
+            if (assignment[item] < 0) {
+                logger.warn("Product ID {} is not sold at any of the chosen stores. Skipping from optimization.", product.getProductId());
+                itemsByStore.computeIfAbsent(NOT_PRICED_LIST, k -> new ArrayList<>()).add(notPricedItem(product, quantity));
+                continue;
+            }
+            String storeName = storeNames.get(assignment[item]);
+            BigDecimal itemPrice = BigDecimal.valueOf(pricesByStore.get(item).get(storeName)).setScale(2, RoundingMode.HALF_UP);
+            itemsByStore.computeIfAbsent(storeName, k -> new ArrayList<>())
+                    .add(pricedItem(product, quantity, itemPrice, itemPrice.multiply(BigDecimal.valueOf(quantity))));
+        }
+        logger.info("Basket plan uses {} stores; item cost plus visit cost: {}", search.getChosenStoreCount(),
+                BigDecimal.valueOf(search.getBestCost(), 2));
+        return toStoreLists(itemsByStore);
+    }
+
+    private static ShoppingListItemDTO pricedItem(Product product, int quantity, BigDecimal itemPrice, BigDecimal itemSubtotal) {
+        return new ShoppingListItemDTO(
+                product.getProductId(),
+                product.getProductName(),
+                product.getBrand(),
+                quantity,
+                itemPrice,
+                itemSubtotal,
+                String.format("%.2f %s", product.getPackageQuantityInput(), product.getPackageUnitInput() != null ? product.getPackageUnitInput().getCsvValue() : "")
+        );
+    }
+
+    private static ShoppingListItemDTO notPricedItem(Product product, int quantity) {
+        return new ShoppingListItemDTO(
+                product.getProductId(),
+                product.getProductName(),
+                product.getBrand(),
+                quantity,
+                BigDecimal.ZERO,
+                BigDecimal.ZERO,
+                "Price Not Found"
+        );
+    }
+
+    private static List<OptimizedShoppingListDTO> toStoreLists(Map<String, List<ShoppingListItemDTO>> itemsByStore) {
+        return itemsByStore.entrySet().stream()
                 .map(entry -> {
                     String storeName = entry.getKey();
                     List<ShoppingListItemDTO> items = entry.getValue();
@@ -104,4 +195,155 @@ public class ShoppingListOptimizerService {
                 .sorted(Comparator.comparing(OptimizedShoppingListDTO::getStoreName))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Branch and bound over store subsets. Stores are decided one at a time (include, then exclude). A partial plan
+     * is either complete as it is, or pays at least one more visit and, per item, no less than the cheapest price
+     * among the included and still undecided stores; whole subtrees are skipped as soon as neither can beat the
+     * best plan found so far.
+     * Items not sold at any chosen store cost {@link #missingItemCost}, which exceeds any real plan, so plans that
+     * buy more items always win and the store limit can never make the search infeasible.
+     */
+    private static final class StoreSubsetSearch {
+        static final long UNAVAILABLE = Long.MAX_VALUE;
+
+        private final int storeCount;
+        private final int itemCount;
+        private final long[][] costs;
+        private final long visitCost;
+        private final int maxStores;
+        private final long missingItemCost;
+        // suffixMin[k][item]: cheapest cost of the item at stores k.. in search order.
+        private final long[][] suffixMin;
+        // cheapest[depth]: per item, the cheapest cost among the stores included on the current path.
+        private final long[][] cheapest;
+        private final int[] order;
+        private final boolean[] included;
+        private final boolean[] bestIncluded;
+        private long bestCost;
+
+        StoreSubsetSearch(long[][] costs, long visitCost, int maxStores) {
+            this.storeCount = costs.length;
+            this.itemCount = costs[0].length;
+            this.visitCost = Math.max(visitCost, 0);
+            this.maxStores = maxStores;
+            long worstPlan = this.visitCost * storeCount;
+            for (long[] storeCosts : costs) {
+                for (long cost : storeCosts) {
+                    if (cost != UNAVAILABLE) {
+                        worstPlan = Math.max(worstPlan, cost);
+                    }
+                }
+            }
+            this.missingItemCost = worstPlan * (itemCount + 1) + this.visitCost * storeCount + 1;
+
+            // Stores that are cheapest for many items come first, so good plans are found early.
+            int[] wins = new int[storeCount];
+            for (int item = 0; item < itemCount; item++) {
+                int cheapestStore = 0;
+                for (int store = 1; store < storeCount; store++) {
+                    if (costs[store][item] < costs[cheapestStore][item]) {
+                        cheapestStore = store;
+                    }
+                }
+                wins[cheapestStore]++;
+            }
+            this.order = IntStream.range(0, storeCount).boxed()
+                    .sorted(Comparator.comparingInt((Integer store) -> -wins[store]))
+                    .mapToInt(Integer::intValue).toArray();
+            this.costs = new long[storeCount][];
+            for (int k = 0; k < storeCount; k++) {
+                long[] storeCosts = costs[order[k]].clone();
+                for (int item = 0; item < itemCount; item++) {
+                    if (storeCosts[item] == UNAVAILABLE) {
+                        storeCosts[item] = missingItemCost;
+                    }
+                }
+                this.costs[k] = storeCosts;
+            }
+            this.suffixMin = new long[storeCount + 1][itemCount];
+            Arrays.fill(suffixMin[storeCount], missingItemCost);
+            for (int k = storeCount - 1; k >= 0; k--) {
+                for (int item = 0; item < itemCount; item++) {
+                    suffixMin[k][item] = Math.min(suffixMin[k + 1][item], this.costs[k][item]);
+                }
+            }
+            this.cheapest = new long[storeCount + 1][itemCount];
+            this.included = new boolean[storeCount];
+            this.bestIncluded = new boolean[storeCount];
+        }
+
+        /** @return for each item, the index of the store to buy it at, or -1 if no chosen store sells it. */
+        int[] solve() {
+            Arrays.fill(cheapest[0], missingItemCost);
+            bestCost = missingItemCost * itemCount;
+            search(0, 0, cheapest[0]);
+
+            int[] assignment = new int[itemCount];
+            for (int item = 0; item < itemCount; item++) {
+                long best = missingItemCost;
+                assignment[item] = -1;
+                for (int k = 0; k < storeCount; k++) {
+                    if (bestIncluded[k] && costs[k][item] < best) {
+                        best = costs[k][item];
+                        assignment[item] = order[k];
+                    }
+                }
+            }
+            return assignment;
+        }
+
+        long getBestCost() {
+            return bestCost;
+        }
+
+        int getChosenStoreCount() {
+            int count = 0;
+            for (boolean chosen : bestIncluded) {
+                if (chosen) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private void search(int k, int storesIncluded, long[] current) {
+            long stopHere = visitCost * storesIncluded;
+            long withMoreStores = stopHere + visitCost;
+            for (int item = 0; item < itemCount; item++) {
+                stopHere += current[item];
+                withMoreStores += Math.min(current[item], suffixMin[k][item]);
+            }
+            boolean canAddStores = k < storeCount && storesIncluded < maxStores;
+            // Either no further store is added, or at least one more visit is paid for.
+            if ((canAddStores ? Math.min(stopHere, withMoreStores) : stopHere) >= bestCost) {
+                return;
+            }
+            if (stopHere < bestCost) {
+                bestCost = stopHere;
+                System.arraycopy(included, 0, bestIncluded, 0, storeCount);
+            }
+            if (!canAddStores || withMoreStores >= bestCost) {
+                return;
+            }
+            long[] next = cheapest[k + 1];
+            boolean improves = false;
+            for (int item = 0; item < itemCount; item++) {
+                long cost = costs[k][item];
+                if (cost < current[item]) {
+                    next[item] = cost;
+                    improves = true;
+                } else {
+                    next[item] = current[item];
+                }
+            }
+            // A store that is not cheaper for any item only adds its visit cost.
+            if (improves) {
+                included[k] = true;
+                search(k + 1, storesIncluded + 1, next);
+                included[k] = false;
+            }
+            search(k + 1, storesIncluded, current);
+        }
+    }
+}
@@ -4,39 +4,77 @@ import org.example.shoppingapp.model.Discount;
 import org.example.shoppingapp.model.PriceEntry;
 import org.example.shoppingapp.model.Product;
 import org.example.shoppingapp.model.User;
+import org.example.shoppingapp.model.enums.Currency;
+import org.example.shoppingapp.repository.NameDictionaries;
 import org.example.shoppingapp.repository.interfaces.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.annotation.Bean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Component
 public class CsvDataParser {
     private static final Logger logger = LoggerFactory.getLogger(CsvDataParser.class);
     private static final String CSV_DELIMITER = ";";
+    private static final char CSV_DELIMITER_CHAR = ';';
+    private static final Currency[] CURRENCIES = Currency.values();
+    private static final long DEFAULT_MAPPED_READ_THRESHOLD_BYTES = 64L * 1024 * 1024;
+    private static final int DEFAULT_MAPPED_READ_BATCH_SIZE = 50_000;
+    private static final long MIN_MAPPED_CHUNK_BYTES = 1024 * 1024;
+    private static final long MAX_MAPPED_CHUNK_BYTES = 256L * 1024 * 1024;
     private static final DateTimeFormatter FILENAME_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final DateTimeFormatter DISCOUNT_DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private final ProductRepository productRepository;
+    // Store and category ids are assigned here, once per file for the store and once per new product for the category.
+    private final NameDictionaries nameDictionaries;
+    // Products created by files parsed in the current load that are not yet saved in the repository.
+    // Shared between parser threads so concurrent files resolve a product ID to the same instance.
+    private final Map<String, Product> pendingProducts = new ConcurrentHashMap<>();
 
-    public CsvDataParser(ProductRepository productRepository) {
+    @Value("${app.data.mapped-read-threshold-bytes:67108864}")
+    private long mappedReadThresholdBytes = DEFAULT_MAPPED_READ_THRESHOLD_BYTES;
+
+    @Value("${app.data.mapped-read-batch-size:50000}")
+    private int mappedReadBatchSize = DEFAULT_MAPPED_READ_BATCH_SIZE;
+
+    public CsvDataParser(ProductRepository productRepository, NameDictionaries nameDictionaries) {
         this.productRepository = productRepository;
+        this.nameDictionaries = nameDictionaries;
     }
 
     public ParsedFileData parseAllDataFromFile(Path filePath) throws IOException {
+        return parseAllDataFromFile(filePath, null);
+    }
+
+    /**
+     * Parses a data file. When the file is read with the {@link ReadStrategy#MEMORY_MAPPED} strategy and a sink is
+     * given, price entries are handed to the sink in batches while parsing and are not part of the returned data.
+     * @param priceEntryBatchSink receives batches of parsed price entries (may be called concurrently); may be null.
+     */
+    public ParsedFileData parseAllDataFromFile(Path filePath, Consumer<List<PriceEntry>> priceEntryBatchSink) throws IOException {
         String fileName = filePath.getFileName().toString().toLowerCase();
         List<Product> newOrUpdatedProducts = new ArrayList<>();
         List<PriceEntry> priceEntries = new ArrayList<>();
@@ -44,22 +82,45 @@ public class CsvDataParser {
 
         if (fileName.contains("_discounts_")) {
             discounts.addAll(parseDiscountFile(filePath, newOrUpdatedProducts));
-        } else if (fileName.matches("^[a-zA-Z0-9]+_\\d{4}-\\d{2}-\\d{2}\\.csv$")) {
-            priceEntries.addAll(parsePriceFile(filePath, newOrUpdatedProducts));
+        } else if (isPriceFileName(fileName)) {
+            priceEntries.addAll(parsePriceFile(filePath, newOrUpdatedProducts, priceEntryBatchSink));
         } else {
             logger.warn("Skipping file with unrecognized name format: {}", fileName);
         }
         return new ParsedFileData(newOrUpdatedProducts, priceEntries, discounts);
     }
 
+    /**
+     * Price files at or above {@code app.data.mapped-read-threshold-bytes} are memory-mapped and parsed in parallel
+     * chunks; everything else is read into a single heap buffer.
+     */
+    public ReadStrategy selectReadStrategy(Path filePath) throws IOException {
+        String fileName = filePath.getFileName().toString().toLowerCase();
+        if (isPriceFileName(fileName) && Files.size(filePath) >= mappedReadThresholdBytes) {
+            return ReadStrategy.MEMORY_MAPPED;
+        }
+        return ReadStrategy.BUFFERED;
+    }
+
+    private static boolean isPriceFileName(String lowerCaseFileName) {
+        return lowerCaseFileName.matches("^[a-zA-Z0-9]+_\\d{4}-\\d{2}-\\d{2}\\.csv$");
+    }
+
+    /** True for {@code store_yyyy-MM-dd.csv} price files and {@code store_discounts_yyyy-MM-dd.csv} discount files. */
+    public static boolean isDataFileName(String fileName) {
+        String lowerCaseFileName = fileName.toLowerCase();
+        return isPriceFileName(lowerCaseFileName)
+                || lowerCaseFileName.matches("^[a-zA-Z0-9]+_discounts_\\d{4}-\\d{2}-\\d{2}\\.csv$");
+    }
 
-    private List<PriceEntry> parsePriceFile(Path filePath, List<Product> newOrUpdatedProductsCollector) throws IOException {
+    private List<PriceEntry> parsePriceFile(Path filePath, List<Product> newOrUpdatedProductsCollector,
+                                            Consumer<List<PriceEntry>> batchSink) throws IOException {
         List<PriceEntry> parsedEntries = new ArrayList<>();
         String fileName = filePath.getFileName().toString();
         logger.info("Parsing price file: {}", fileName);
 
         String[] nameParts = fileName.replace(".csv", "").split("_");
-        String storeName = nameParts[0];
+        int storeId = nameDictionaries.stores().idOf(nameParts[0]);
         LocalDate entryDate;
         try {
             entryDate = LocalDate.parse(nameParts[nameParts.length -1], FILENAME_DATE_FORMATTER);
@@ -68,56 +129,165 @@ public class CsvDataParser {
             return parsedEntries;
         }
 
-        try (InputStream is = Files.newInputStream(filePath);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            reader.readLine(); // Skip header
-            String line;
-            int lineNumber = 1;
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                String[] fields = line.split(CSV_DELIMITER, -1);
-                if (fields.length < 8) {
-                    logger.warn("Skipping malformed line {} in {}: Insufficient fields. Line: {}", lineNumber, fileName, line);
-                    continue;
-                }
-                try {
-                    String productId = fields[0].trim();
-                    String productName = fields[1].trim();
-                    String productCategory = fields[2].trim();
-                    String brand = fields[3].trim();
-                    double packageQuantity = Double.parseDouble(fields[4].trim());
-                    String packageUnitString = fields[5].trim();
-                    double price = Double.parseDouble(fields[6].trim().replace(",","."));
-                    String currency = fields[7].trim();
-
-                    Optional<Product> existingProductOpt = productRepository.findById(productId);
-                    Product product;
-                    if (existingProductOpt.isPresent()) {
-                        product = existingProductOpt.get();
-                    } else {
-                        product = new Product(productId, productName, productCategory, brand, packageQuantity, packageUnitString);
-                        newOrUpdatedProductsCollector.add(product);
-                    }
-
-                    PriceEntry priceEntry = new PriceEntry(product, storeName, entryDate, price, currency);
-                    parsedEntries.add(priceEntry);
+        if (selectReadStrategy(filePath) == ReadStrategy.MEMORY_MAPPED) {
+            return parseMappedPriceFile(filePath, storeId, entryDate, newOrUpdatedProductsCollector, batchSink);
+        }
 
-                } catch (Exception e) {
-                    logger.error("Error parsing line {} in price file {}: {}. Line: {}", lineNumber, fileName, e.getMessage(), line, e);
-                }
+        CsvRowTokenizer tokenizer = new CsvRowTokenizer(ByteBuffer.wrap(Files.readAllBytes(filePath)), CSV_DELIMITER_CHAR);
+        tokenizer.nextRow(); // Skip header
+        while (tokenizer.nextRow()) {
+            PriceEntry priceEntry = parsePriceRow(tokenizer, fileName, storeId, entryDate, newOrUpdatedProductsCollector);
+            if (priceEntry != null) {
+                parsedEntries.add(priceEntry);
             }
         }
         logger.info("Parsed {} price entries from {}", parsedEntries.size(), fileName);
         return parsedEntries;
     }
 
+    private PriceEntry parsePriceRow(CsvRowTokenizer tokenizer, String fileName, int storeId, LocalDate entryDate,
+                                     List<Product> newOrUpdatedProductsCollector) {
+        int lineNumber = tokenizer.lineNumber();
+        if (tokenizer.fieldCount() < 8) {
+            logger.warn("Skipping malformed line {} in {}: Insufficient fields. Line: {}", lineNumber, fileName, tokenizer.currentLine());
+            return null;
+        }
+        try {
+            String productId = tokenizer.string(0);
+            double packageQuantity = tokenizer.decimal(4);
+            double price = tokenizer.decimal(6);
+            Currency currency = parseCurrency(tokenizer, 7);
+
+            Product product = findKnownProduct(productId);
+            if (product == null) {
+                product = registerNewProduct(new Product(productId, tokenizer.string(1),
+                        nameDictionaries.categories().idOf(tokenizer.string(2)),
+                        tokenizer.string(3), packageQuantity, tokenizer.string(5)), newOrUpdatedProductsCollector);
+            }
+            return new PriceEntry(product, storeId, entryDate, price, currency);
+
+        } catch (Exception e) {
+            logger.error("Error parsing line {} in price file {}: {}. Line: {}", lineNumber, fileName, e.getMessage(), tokenizer.currentLine(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Maps the file in chunks split on line boundaries and parses the chunks in parallel.
+     * Line numbers in log messages are relative to the chunk, whose byte offset is logged alongside.
+     */
+    private List<PriceEntry> parseMappedPriceFile(Path filePath, int storeId, LocalDate entryDate,
+                                                  List<Product> newOrUpdatedProductsCollector,
+                                                  Consumer<List<PriceEntry>> batchSink) throws IOException {
+        String fileName = filePath.getFileName().toString();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            List<long[]> chunks = splitOnLineBoundaries(channel);
+            logger.info("Memory-mapping {} ({} bytes) in {} chunks.", fileName, channel.size(), chunks.size());
+
+            List<MappedChunkResult> results = IntStream.range(0, chunks.size()).parallel()
+                    .mapToObj(i -> parseMappedChunk(channel, chunks.get(i), i == 0, fileName, storeId, entryDate, batchSink))
+                    .collect(Collectors.toList());
+
+            List<PriceEntry> parsedEntries = new ArrayList<>();
+            int parsedCount = 0;
+            for (MappedChunkResult result : results) {
+                newOrUpdatedProductsCollector.addAll(result.newProducts);
+                parsedEntries.addAll(result.unsentEntries);
+                parsedCount += result.parsedCount;
+            }
+            logger.info("Parsed {} price entries from {}", parsedCount, fileName);
+            return parsedEntries;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private MappedChunkResult parseMappedChunk(FileChannel channel, long[] chunk, boolean firstChunk, String fileName,
+                                               int storeId, LocalDate entryDate, Consumer<List<PriceEntry>> batchSink) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        MappedChunkResult result = new MappedChunkResult();
+        String chunkName = fileName + "@" + chunk[0];
+        CsvRowTokenizer tokenizer = new CsvRowTokenizer(buffer, CSV_DELIMITER_CHAR);
+        if (firstChunk) {
+            tokenizer.nextRow(); // Skip header
+        }
+        List<PriceEntry> batch = new ArrayList<>();
+        while (tokenizer.nextRow()) {
+            PriceEntry priceEntry = parsePriceRow(tokenizer, chunkName, storeId, entryDate, result.newProducts);
+            if (priceEntry == null) {
+                continue;
+            }
+            batch.add(priceEntry);
+            result.parsedCount++;
+            if (batchSink != null && batch.size() >= mappedReadBatchSize) {
+                batchSink.accept(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (batchSink != null) {
+            if (!batch.isEmpty()) {
+                batchSink.accept(batch);
+            }
+        } else {
+            result.unsentEntries = batch;
+        }
+        return result;
+    }
+
+    /**
+     * Splits the file into [start, end) byte ranges that each end right after a newline (or at end of file).
+     */
+    private List<long[]> splitOnLineBoundaries(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long targetChunkBytes = Math.max(MIN_MAPPED_CHUNK_BYTES,
+                Math.min(MAX_MAPPED_CHUNK_BYTES, size / (Runtime.getRuntime().availableProcessors() * 4L)));
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(8192);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + targetChunkBytes);
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                if (read <= 0) {
+                    end = size;
+                    break;
+                }
+                int newline = -1;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                        break;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += read;
+            }
+            end = Math.min(end, size);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("Line too long to memory-map near byte " + start);
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
     private List<Discount> parseDiscountFile(Path filePath, List<Product> newOrUpdatedProductsCollector) throws IOException {
         List<Discount> parsedDiscounts = new ArrayList<>();
         String fileName = filePath.getFileName().toString();
         logger.info("Parsing discount file: {}", fileName);
 
         String[] nameParts = fileName.replace(".csv", "").split("_");
-        String storeName = nameParts[0];
+        int storeId = nameDictionaries.stores().idOf(nameParts[0]);
         LocalDate observationDate;
         try {
             observationDate = LocalDate.parse(nameParts[nameParts.length -1], FILENAME_DATE_FORMATTER);
@@ -126,51 +296,85 @@ public class CsvDataParser {
             return parsedDiscounts;
         }
 
-        try (InputStream is = Files.newInputStream(filePath);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-            reader.readLine(); // Skip header
-            String line;
-            int lineNumber = 1;
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                String[] fields = line.split(CSV_DELIMITER, -1);
-                if (fields.length < 9) {
-                    logger.warn("Skipping malformed line {} in {}: Insufficient fields. Line: {}", lineNumber, fileName, line);
-                    continue;
-                }
-                try {
-                    String productId = fields[0].trim();
-                    String productName = fields[1].trim();
-                    String brand = fields[2].trim();
-                    double packageQuantity = Double.parseDouble(fields[3].trim());
-                    String packageUnitString = fields[4].trim();
-                    String productCategory = fields[5].trim();
-                    LocalDate fromDate = LocalDate.parse(fields[6].trim(), DISCOUNT_DATE_FORMATTER);
-                    LocalDate toDate = LocalDate.parse(fields[7].trim(), DISCOUNT_DATE_FORMATTER);
-                    double percentage = Double.parseDouble(fields[8].trim());
-
-                    Optional<Product> existingProductOpt = productRepository.findById(productId);
-                    Product product;
-                    if (existingProductOpt.isPresent()) {
-                        product = existingProductOpt.get();
-                    } else {
-                        product = new Product(productId, productName, productCategory, brand, packageQuantity, packageUnitString);
-                        newOrUpdatedProductsCollector.add(product);
+        CsvRowTokenizer tokenizer = new CsvRowTokenizer(ByteBuffer.wrap(Files.readAllBytes(filePath)), CSV_DELIMITER_CHAR);
+        tokenizer.nextRow(); // Skip header
+        while (tokenizer.nextRow()) {
+            int lineNumber = tokenizer.lineNumber();
+            if (tokenizer.fieldCount() < 9) {
+                logger.warn("Skipping malformed line {} in {}: Insufficient fields. Line: {}", lineNumber, fileName, tokenizer.currentLine());
+                continue;
+            }
+            try {
+                String productId = tokenizer.string(0);
+                double packageQuantity = tokenizer.decimal(3);
+                LocalDate fromDate = tokenizer.date(6);
+                LocalDate toDate = tokenizer.date(7);
+                double percentage = tokenizer.decimal(8);
+
+                Product product = findKnownProduct(productId);
+                if (product == null) {
+                    Product created = new Product(productId, tokenizer.string(1),
+                            nameDictionaries.categories().idOf(tokenizer.string(5)),
+                            tokenizer.string(2), packageQuantity, tokenizer.string(4));
+                    product = registerNewProduct(created, newOrUpdatedProductsCollector);
+                    if (product == created) {
                         logger.warn("Product with ID {} created from discount file {} data.", productId, fileName);
                     }
+                }
 
-                    Discount discount = new Discount(product, storeName, fromDate, toDate, percentage, observationDate);
-                    parsedDiscounts.add(discount);
+                Discount discount = new Discount(product, storeId, fromDate, toDate, percentage, observationDate);
+                parsedDiscounts.add(discount);
 
-                } catch (Exception e) {
-                    logger.error("Error parsing line {} in discount file {}: {}. Line: {}", lineNumber, fileName, e.getMessage(), line, e);
-                }
+            } catch (Exception e) {
+                logger.error("Error parsing line {} in discount file {}: {}. Line: {}", lineNumber, fileName, e.getMessage(), tokenizer.currentLine(), e);
             }
         }
         logger.info("Parsed {} discounts from {}", parsedDiscounts.size(), fileName);
         return parsedDiscounts;
     }
 
+    /**
+     * Returns the catalog product for the ID, or the product already created for it during the current load,
+     * or null if the product is new.
+     */
+    private Product findKnownProduct(String productId) {
+        Optional<Product> existingProductOpt = productRepository.findById(productId);
+        if (existingProductOpt.isPresent()) {
+            return existingProductOpt.get();
+        }
+        return pendingProducts.get(productId);
+    }
+
+    /**
+     * Registers a product created by this load. If another file registered the same ID first, that product is
+     * returned instead; only the winner is added to the collector, so a product is saved once even when several
+     * files are parsed concurrently.
+     */
+    private Product registerNewProduct(Product created, List<Product> newProductsCollector) {
+        Product pending = pendingProducts.putIfAbsent(created.getProductId(), created);
+        if (pending != null) {
+            return pending;
+        }
+        newProductsCollector.add(created);
+        return created;
+    }
+
+    private static Currency parseCurrency(CsvRowTokenizer tokenizer, int field) {
+        for (Currency currency : CURRENCIES) {
+            if (tokenizer.fieldEquals(field, currency.name())) {
+                return currency;
+            }
+        }
+        return Currency.valueOf(tokenizer.string(field));
+    }
+
+    /**
+     * Forgets products created during the previous load. Call before and after a batch of files is ingested.
+     */
+    public void clearPendingProducts() {
+        pendingProducts.clear();
+    }
+
     public List<User> parseUsersFile(Path filePath) throws IOException {
         List<User> parsedUsers = new ArrayList<>();
         String fileName = filePath.getFileName().toString();
@@ -219,6 +423,18 @@ public class CsvDataParser {
         logger.info("Parsed {} users from {}", parsedUsers.size(), fileName);
         return parsedUsers;
     }
+
+    public enum ReadStrategy {
+        BUFFERED,
+        MEMORY_MAPPED
+    }
+
+    private static class MappedChunkResult {
+        final List<Product> newProducts = new ArrayList<>();
+        List<PriceEntry> unsentEntries = List.of();
+        int parsedCount;
+    }
+
     public static class ParsedFileData {
         public final List<Product> products;
         public final List<PriceEntry> priceEntries;
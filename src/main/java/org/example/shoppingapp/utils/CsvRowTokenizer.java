@@ -0,0 +1,239 @@
+package org.example.shoppingapp.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Splits UTF-8 encoded CSV content into rows and fields without creating a String per line or per field.
+ * Each row is described by the start/end offsets of its (trimmed) fields inside the buffer; numbers, ISO dates
+ * and short constants are parsed straight from the bytes and Strings are only decoded on request.
+ * The buffer is read with absolute gets, so heap, direct and memory-mapped buffers are all supported.
+ * Instances are not thread-safe.
+ */
+public class CsvRowTokenizer {
+    private static final int MAX_FAST_PATH_FRACTION_DIGITS = 22;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[MAX_FAST_PATH_FRACTION_DIGITS + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final byte delimiter;
+    private final int end;
+    private int position;
+    private int lineStart;
+    private int lineEnd;
+    private int lineNumber;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+
+    public CsvRowTokenizer(ByteBuffer buffer, char delimiter) {
+        if (delimiter > 0x7F) {
+            throw new IllegalArgumentException("Only single-byte (ASCII) delimiters are supported.");
+        }
+        this.buffer = buffer;
+        this.delimiter = (byte) delimiter;
+        this.position = buffer.position();
+        this.end = buffer.limit();
+        skipByteOrderMark();
+    }
+
+    /**
+     * Advances to the next line of the buffer.
+     * @return false when there are no more lines.
+     */
+    public boolean nextRow() {
+        if (position >= end) {
+            return false;
+        }
+        lineStart = position;
+        fieldCount = 0;
+        int fieldStart = position;
+        int i = position;
+        while (i < end) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                break;
+            }
+            if (b == delimiter) {
+                addField(fieldStart, i);
+                fieldStart = i + 1;
+            }
+            i++;
+        }
+        int contentEnd = i;
+        if (contentEnd > fieldStart && buffer.get(contentEnd - 1) == '\r') {
+            contentEnd--;
+        }
+        addField(fieldStart, contentEnd);
+        lineEnd = contentEnd;
+        position = i + 1;
+        lineNumber++;
+        return true;
+    }
+
+    /** 1-based number of the current line, counting every line including the header. */
+    public int lineNumber() {
+        return lineNumber;
+    }
+
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    public boolean isEmpty(int field) {
+        checkField(field);
+        return fieldStarts[field] == fieldEnds[field];
+    }
+
+    public String string(int field) {
+        checkField(field);
+        return decode(fieldStarts[field], fieldEnds[field]);
+    }
+
+    /** Compares the field with an ASCII constant without decoding it. */
+    public boolean fieldEquals(int field, String ascii) {
+        checkField(field);
+        int start = fieldStarts[field];
+        int length = fieldEnds[field] - start;
+        if (length != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(start + i) != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a decimal number that may use either '.' or ',' as the decimal separator.
+     * Plain decimals are converted directly from the bytes; anything else (exponents, very long mantissas)
+     * falls back to {@link Double#parseDouble(String)} and fails the same way it does.
+     */
+    public double decimal(int field) {
+        checkField(field);
+        int i = fieldStarts[field];
+        int fieldEnd = fieldEnds[field];
+        boolean negative = false;
+        if (i < fieldEnd && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < fieldEnd; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    return parseDecimalSlowly(field);
+                }
+            } else if ((b == '.' || b == ',') && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return parseDecimalSlowly(field);
+            }
+        }
+        if (digits == 0 || fractionDigits > MAX_FAST_PATH_FRACTION_DIGITS) {
+            return parseDecimalSlowly(field);
+        }
+        // Both operands are exact doubles, so the division is correctly rounded like Double.parseDouble.
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /** Parses an ISO yyyy-MM-dd date directly from the bytes, falling back to {@link LocalDate#parse} otherwise. */
+    public LocalDate date(int field) {
+        checkField(field);
+        int start = fieldStarts[field];
+        if (fieldEnds[field] - start == 10 && buffer.get(start + 4) == '-' && buffer.get(start + 7) == '-') {
+            int year = digits(start, 4);
+            int month = digits(start + 5, 2);
+            int day = digits(start + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(string(field));
+    }
+
+    /** Decodes the whole current line, for log messages. */
+    public String currentLine() {
+        return decode(lineStart, lineEnd);
+    }
+
+    private double parseDecimalSlowly(int field) {
+        return Double.parseDouble(string(field).replace(",", "."));
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            byte b = buffer.get(i);
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private void addField(int start, int fieldEnd) {
+        while (start < fieldEnd && isWhitespace(buffer.get(start))) {
+            start++;
+        }
+        while (fieldEnd > start && isWhitespace(buffer.get(fieldEnd - 1))) {
+            fieldEnd--;
+        }
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = fieldEnd;
+        fieldCount++;
+    }
+
+    private String decode(int start, int decodeEnd) {
+        int length = decodeEnd - start;
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + start, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void checkField(int field) {
+        if (field < 0 || field >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + field + " out of bounds for row with " + fieldCount + " fields");
+        }
+    }
+
+    private void skipByteOrderMark() {
+        if (end - position >= 3 && (buffer.get(position) & 0xFF) == 0xEF
+                && (buffer.get(position + 1) & 0xFF) == 0xBB && (buffer.get(position + 2) & 0xFF) == 0xBF) {
+            position += 3;
+        }
+    }
+
+    // Same definition as String.trim(): every unsigned value up to and including the space character.
+    private static boolean isWhitespace(byte b) {
+        return (b & 0xFF) <= ' ';
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.shoppingapp.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+/**
+ * Size, modification time and, when it was needed, CRC32 of a data file at the time it was loaded.
+ * Size and modification time are a cheap first check; the checksum tells a touched file from a changed one, so it
+ * is only computed for a file whose size stayed the same while its modification time changed.
+ */
+public final class DataFileFingerprint {
+    /** Checksum of a fingerprint taken without reading the file (CRC32 values are never negative). */
+    public static final long NO_CHECKSUM = -1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final long size;
+    private final long lastModifiedMillis;
+    private final long checksum;
+
+    private DataFileFingerprint(long size, long lastModifiedMillis, long checksum) {
+        this.size = size;
+        this.lastModifiedMillis = lastModifiedMillis;
+        this.checksum = checksum;
+    }
+
+    /** Size and modification time of the file, without reading its content. */
+    public static DataFileFingerprint of(Path file) throws IOException {
+        return new DataFileFingerprint(Files.size(file), Files.getLastModifiedTime(file).toMillis(), NO_CHECKSUM);
+    }
+
+    /** Size, modification time and checksum of the file; reads the whole file. */
+    public static DataFileFingerprint withChecksumOf(Path file) throws IOException {
+        long size = Files.size(file);
+        long lastModifiedMillis = Files.getLastModifiedTime(file).toMillis();
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return new DataFileFingerprint(size, lastModifiedMillis, crc.getValue());
+    }
+
+    /** Fingerprint recorded earlier, e.g. in a data snapshot. */
+    public static DataFileFingerprint of(long size, long lastModifiedMillis, long checksum) {
+        return new DataFileFingerprint(size, lastModifiedMillis, checksum);
+    }
+
+    /** True if the file still has the recorded size and modification time, without reading its content. */
+    public boolean matchesMetadataOf(Path file) throws IOException {
+        return Files.size(file) == size && Files.getLastModifiedTime(file).toMillis() == lastModifiedMillis;
+    }
+
+    /** True if the file still has the recorded size, so a changed modification time may only mean it was touched. */
+    public boolean matchesSizeOf(Path file) throws IOException {
+        return Files.size(file) == size;
+    }
+
+    public boolean hasChecksum() {
+        return checksum != NO_CHECKSUM;
+    }
+
+    /** True if both fingerprints have a checksum and they and the sizes are equal. */
+    public boolean hasSameContentAs(DataFileFingerprint other) {
+        return other != null && hasChecksum() && size == other.size && checksum == other.checksum;
+    }
+
+    public long getSize() { return size; }
+    public long getLastModifiedMillis() { return lastModifiedMillis; }
+    public long getChecksum() { return checksum; }
+
+    @Override
+    public String toString() {
+        return "DataFileFingerprint{size=" + size + ", lastModified=" + lastModifiedMillis
+                + ", crc32=" + Long.toHexString(checksum) + '}';
+    }
+}
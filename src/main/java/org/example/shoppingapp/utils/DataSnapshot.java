@@ -0,0 +1,425 @@
+package org.example.shoppingapp.utils;
+
+import org.example.shoppingapp.model.Discount;
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.model.User;
+import org.example.shoppingapp.model.NameDictionary;
+import org.example.shoppingapp.model.enums.Currency;
+import org.example.shoppingapp.repository.NameDictionaries;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Binary image of the loaded data, read back on startup instead of re-parsing every CSV file.
+ * <p>
+ * Layout: a fixed header, then one fixed-width row per price entry (product and store as indexes into the
+ * dictionaries, the date as a day offset from the earliest date, the price as an 8-byte double), then the
+ * dictionaries and the small sections (stores, products, discounts, users, and the fingerprint and row keys of
+ * every loaded data file). Price rows are read through memory-mapped windows and decoded in parallel, since
+ * fixed-width rows can be located without reading what comes before them. Store and category names are written out
+ * and get ids in the given {@link NameDictionaries} when read back, since ids are only valid within one run.
+ */
+public final class DataSnapshot {
+    private static final long MAGIC = 0x53484f5050534e50L; // "SHOPPSNP"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 8 + 4 + 8 + 8;
+    private static final int PRICE_ROW_BYTES = 4 + 2 + 2 + 8 + 1;
+    private static final int ROWS_PER_WINDOW = 1 << 20;
+    private static final int NO_DATE = 0xFFFF;
+    private static final int NO_INDEX = -1;
+    private static final int WRITE_BUFFER_BYTES = 1 << 20;
+
+    private final List<Product> products;
+    private final List<PriceEntry> priceEntries;
+    private final List<Discount> discounts;
+    private final List<User> users;
+    // Keyed by path relative to the data directory.
+    private final Map<String, FileState> files;
+
+    public DataSnapshot(List<Product> products, List<PriceEntry> priceEntries, List<Discount> discounts,
+                        List<User> users, Map<String, FileState> files) {
+        this.products = products;
+        this.priceEntries = priceEntries;
+        this.discounts = discounts;
+        this.users = users;
+        this.files = files;
+    }
+
+    public List<Product> getProducts() { return products; }
+    public List<PriceEntry> getPriceEntries() { return priceEntries; }
+    public List<Discount> getDiscounts() { return discounts; }
+    public List<User> getUsers() { return users; }
+    public Map<String, FileState> getFiles() { return files; }
+
+    /**
+     * Writes the snapshot to a temporary file next to the target and moves it into place, so a crash while
+     * writing never leaves a truncated snapshot behind.
+     */
+    public void writeTo(Path file, NameDictionaries nameDictionaries) throws IOException {
+        Map<String, Integer> productIndexes = new HashMap<>();
+        List<Product> productDictionary = new ArrayList<>();
+        Map<Integer, Integer> storeIndexes = new HashMap<>();
+        List<Integer> storeDictionary = new ArrayList<>();
+        products.forEach(product -> indexOf(product, productIndexes, productDictionary));
+        long minEpochDay = Long.MAX_VALUE;
+        long maxEpochDay = Long.MIN_VALUE;
+        for (PriceEntry entry : priceEntries) {
+            if (entry.getStoreId() == NameDictionary.NO_ID) {
+                throw new IOException("Price entries without a store cannot be written to a data snapshot.");
+            }
+            indexOf(entry.getProduct(), productIndexes, productDictionary);
+            indexOf(entry.getStoreId(), storeIndexes, storeDictionary);
+            if (entry.getEntryDate() != null) {
+                minEpochDay = Math.min(minEpochDay, entry.getEntryDate().toEpochDay());
+                maxEpochDay = Math.max(maxEpochDay, entry.getEntryDate().toEpochDay());
+            }
+        }
+        for (Discount discount : discounts) {
+            if (discount.getStoreId() == NameDictionary.NO_ID) {
+                throw new IOException("Discounts without a store cannot be written to a data snapshot.");
+            }
+            indexOf(discount.getProduct(), productIndexes, productDictionary);
+            indexOf(discount.getStoreId(), storeIndexes, storeDictionary);
+        }
+        if (storeDictionary.size() > 0xFFFF) {
+            throw new IOException("Too many stores for a data snapshot: " + storeDictionary.size());
+        }
+        long baseEpochDay = minEpochDay == Long.MAX_VALUE ? 0 : minEpochDay;
+        if (maxEpochDay != Long.MIN_VALUE && maxEpochDay - baseEpochDay >= NO_DATE) {
+            throw new IOException("Price entry dates span too many days for a data snapshot.");
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Output out = new Output(channel);
+            out.reserve(HEADER_BYTES);
+            out.buffer.putLong(MAGIC).putInt(VERSION).putLong(priceEntries.size()).putLong(baseEpochDay);
+
+            for (PriceEntry entry : priceEntries) {
+                out.reserve(PRICE_ROW_BYTES);
+                out.buffer.putInt(entry.getProduct() == null ? NO_INDEX : productIndexes.get(entry.getProduct().getProductId()))
+                        .putChar((char) (int) storeIndexes.get(entry.getStoreId()))
+                        .putChar((char) (entry.getEntryDate() == null ? NO_DATE : entry.getEntryDate().toEpochDay() - baseEpochDay))
+                        .putDouble(entry.getPrice())
+                        .put((byte) (entry.getCurrency() == null ? NO_INDEX : entry.getCurrency().ordinal()));
+            }
+
+            out.putInt(storeDictionary.size());
+            for (int storeId : storeDictionary) {
+                out.putString(nameDictionaries.stores().nameOf(storeId));
+            }
+
+            out.putInt(productDictionary.size());
+            for (Product product : productDictionary) {
+                out.putString(product.getProductId());
+                out.putString(product.getProductName());
+                out.putString(nameDictionaries.categories().nameOf(product.getCategoryId()));
+                out.putString(product.getBrand());
+                out.putDouble(product.getPackageQuantityInput());
+                out.putString(product.getPackageUnitInput() == null ? null : product.getPackageUnitInput().getCsvValue());
+            }
+
+            out.putInt(discounts.size());
+            for (Discount discount : discounts) {
+                out.putInt(discount.getProduct() == null ? NO_INDEX : productIndexes.get(discount.getProduct().getProductId()));
+                out.putInt(storeIndexes.get(discount.getStoreId()));
+                out.putDate(discount.getStartDate());
+                out.putDate(discount.getEndDate());
+                out.putDate(discount.getDiscountObservationDate());
+                out.putDouble(discount.getDiscountPercentage());
+            }
+
+            out.putInt(users.size());
+            for (User user : users) {
+                out.putInt(user.getUserId());
+                out.putString(user.getUsername());
+                out.putString(user.getFirstName());
+                out.putString(user.getLastName());
+            }
+
+            out.putInt(files.size());
+            for (Map.Entry<String, FileState> entry : files.entrySet()) {
+                FileState state = entry.getValue();
+                out.putString(entry.getKey());
+                out.putLong(state.fingerprint.getSize());
+                out.putLong(state.fingerprint.getLastModifiedMillis());
+                out.putLong(state.fingerprint.getChecksum());
+                out.putStrings(state.priceEntryKeys);
+                out.putStrings(state.discountKeys);
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #writeTo}. Throws an {@link IOException} if the file is not a snapshot
+     * of this version or is truncated.
+     */
+    public static DataSnapshot readFrom(Path file, NameDictionaries nameDictionaries) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException("Data snapshot is truncated: " + file);
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getLong() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a data snapshot of version " + VERSION + ": " + file);
+            }
+            long priceCount = header.getLong();
+            long baseEpochDay = header.getLong();
+            if (priceCount < 0 || priceCount > Integer.MAX_VALUE - 8
+                    || HEADER_BYTES + priceCount * PRICE_ROW_BYTES > fileSize) {
+                throw new IOException("Data snapshot is truncated: " + file);
+            }
+            long tailStart = HEADER_BYTES + priceCount * PRICE_ROW_BYTES;
+
+            try {
+                ByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, tailStart, fileSize - tailStart);
+                int[] storeIds = new int[tail.getInt()];
+                for (int i = 0; i < storeIds.length; i++) {
+                    storeIds[i] = nameDictionaries.stores().idOf(getString(tail));
+                }
+
+                Product[] productDictionary = new Product[tail.getInt()];
+                for (int i = 0; i < productDictionary.length; i++) {
+                    String productId = getString(tail);
+                    String productName = getString(tail);
+                    int categoryId = nameDictionaries.categories().idOf(getString(tail));
+                    String brand = getString(tail);
+                    double packageQuantity = tail.getDouble();
+                    productDictionary[i] = new Product(productId, productName, categoryId, brand,
+                            packageQuantity, getString(tail));
+                }
+
+                int discountCount = tail.getInt();
+                List<Discount> discounts = new ArrayList<>(discountCount);
+                for (int i = 0; i < discountCount; i++) {
+                    Product product = productAt(productDictionary, tail.getInt());
+                    int storeId = storeIds[tail.getInt()];
+                    LocalDate startDate = getDate(tail);
+                    LocalDate endDate = getDate(tail);
+                    LocalDate observationDate = getDate(tail);
+                    discounts.add(new Discount(product, storeId, startDate, endDate, tail.getDouble(), observationDate));
+                }
+
+                int userCount = tail.getInt();
+                List<User> users = new ArrayList<>(userCount);
+                for (int i = 0; i < userCount; i++) {
+                    int userId = tail.getInt();
+                    String username = getString(tail);
+                    String firstName = getString(tail);
+                    users.add(new User(userId, username, firstName, getString(tail)));
+                }
+
+                int fileCount = tail.getInt();
+                Map<String, FileState> files = new LinkedHashMap<>();
+                for (int i = 0; i < fileCount; i++) {
+                    String path = getString(tail);
+                    long size = tail.getLong();
+                    long lastModifiedMillis = tail.getLong();
+                    DataFileFingerprint fingerprint = DataFileFingerprint.of(size, lastModifiedMillis, tail.getLong());
+                    Set<String> priceEntryKeys = getStrings(tail);
+                    files.put(path, new FileState(fingerprint, priceEntryKeys, getStrings(tail)));
+                }
+
+                List<PriceEntry> priceEntries = readPriceEntries(channel, (int) priceCount, baseEpochDay, storeIds, productDictionary);
+                return new DataSnapshot(Arrays.asList(productDictionary), priceEntries, discounts, users, files);
+            } catch (RuntimeException e) {
+                throw new IOException("Data snapshot is corrupt: " + file, e);
+            }
+        }
+    }
+
+    private static List<PriceEntry> readPriceEntries(FileChannel channel, int count, long baseEpochDay,
+                                                     int[] storeIds, Product[] productDictionary) throws IOException {
+        PriceEntry[] entries = new PriceEntry[count];
+        // Dates are shared by many rows; racing threads may each create one, which is harmless.
+        LocalDate[] dates = new LocalDate[NO_DATE];
+        Currency[] currencies = Currency.values();
+        int windows = (count + ROWS_PER_WINDOW - 1) / ROWS_PER_WINDOW;
+        try {
+            IntStream.range(0, windows).parallel().forEach(window -> {
+                int first = window * ROWS_PER_WINDOW;
+                int rows = Math.min(ROWS_PER_WINDOW, count - first);
+                MappedByteBuffer buffer;
+                try {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                            HEADER_BYTES + (long) first * PRICE_ROW_BYTES, (long) rows * PRICE_ROW_BYTES);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                for (int i = first; i < first + rows; i++) {
+                    Product product = productAt(productDictionary, buffer.getInt());
+                    int storeId = storeIds[buffer.getChar()];
+                    int day = buffer.getChar();
+                    double price = buffer.getDouble();
+                    byte currency = buffer.get();
+                    LocalDate date = null;
+                    if (day != NO_DATE) {
+                        date = dates[day];
+                        if (date == null) {
+                            date = LocalDate.ofEpochDay(baseEpochDay + day);
+                            dates[day] = date;
+                        }
+                    }
+                    entries[i] = new PriceEntry(product, storeId, date, price, currency < 0 ? null : currencies[currency]);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return Arrays.asList(entries);
+    }
+
+    private static Product productAt(Product[] productDictionary, int index) {
+        return index == NO_INDEX ? null : productDictionary[index];
+    }
+
+    private static <T> void indexOf(T value, Map<T, Integer> indexes, List<T> dictionary) {
+        if (value != null && !indexes.containsKey(value)) {
+            indexes.put(value, dictionary.size());
+            dictionary.add(value);
+        }
+    }
+
+    private static void indexOf(Product product, Map<String, Integer> indexes, List<Product> dictionary) {
+        if (product != null && product.getProductId() != null && !indexes.containsKey(product.getProductId())) {
+            indexes.put(product.getProductId(), dictionary.size());
+            dictionary.add(product);
+        }
+    }
+
+    private static LocalDate getDate(ByteBuffer buffer) {
+        long epochDay = buffer.getLong();
+        return epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static Set<String> getStrings(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            values.add(getString(buffer));
+        }
+        return values;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Fingerprint of a loaded data file and the row keys it contributed. */
+    public static final class FileState {
+        private final DataFileFingerprint fingerprint;
+        private final Set<String> priceEntryKeys;
+        private final Set<String> discountKeys;
+
+        public FileState(DataFileFingerprint fingerprint, Set<String> priceEntryKeys, Set<String> discountKeys) {
+            this.fingerprint = fingerprint;
+            this.priceEntryKeys = priceEntryKeys;
+            this.discountKeys = discountKeys;
+        }
+
+        public DataFileFingerprint getFingerprint() { return fingerprint; }
+        public Set<String> getPriceEntryKeys() { return priceEntryKeys; }
+        public Set<String> getDiscountKeys() { return discountKeys; }
+    }
+
+    /** Buffered writer of big-endian values to a file channel. */
+    private static final class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void putInt(int value) throws IOException {
+            reserve(4);
+            buffer.putInt(value);
+        }
+
+        private void putLong(long value) throws IOException {
+            reserve(8);
+            buffer.putLong(value);
+        }
+
+        private void putDouble(double value) throws IOException {
+            reserve(8);
+            buffer.putDouble(value);
+        }
+
+        private void putDate(LocalDate date) throws IOException {
+            putLong(date == null ? Long.MIN_VALUE : date.toEpochDay());
+        }
+
+        private void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(NO_INDEX);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            if (bytes.length > buffer.capacity()) {
+                flush();
+                ByteBuffer large = ByteBuffer.wrap(bytes);
+                while (large.hasRemaining()) {
+                    channel.write(large);
+                }
+                return;
+            }
+            reserve(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void putStrings(Collection<String> values) throws IOException {
+            putInt(values.size());
+            for (String value : values) {
+                putString(value);
+            }
+        }
+    }
+}
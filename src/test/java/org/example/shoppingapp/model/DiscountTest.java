@@ -16,6 +16,10 @@ import static org.mockito.Mockito.when;
 class DiscountTest {
 
     private static final double DELTA = 0.0001;
+    private static final int LIDL = 0;
+    private static final int MEGA_IMAGE = 1;
+    private static final int STORE_A = 2;
+    private static final int STORE_B = 3;
     private Product mockProduct;
     private LocalDate obsDate;
     private LocalDate startDate;
@@ -35,10 +39,10 @@ class DiscountTest {
     @Test
     @DisplayName("Constructor should set all fields correctly")
     void constructor_SetsAllFields() {
-        Discount discount = new Discount(mockProduct, "Lidl", startDate, endDate, 10.0, obsDate);
+        Discount discount = new Discount(mockProduct, LIDL, startDate, endDate, 10.0, obsDate);
 
         assertSame(mockProduct, discount.getProduct());
-        assertEquals("Lidl", discount.getStoreName());
+        assertEquals(LIDL, discount.getStoreId());
         assertEquals(startDate, discount.getStartDate());
         assertEquals(endDate, discount.getEndDate());
         assertEquals(10.0, discount.getDiscountPercentage(), DELTA);
@@ -49,24 +53,24 @@ class DiscountTest {
     @ValueSource(doubles = {-5.0, 105.0, -0.01, 100.01})
     @DisplayName("Constructor should store discount percentage as is, even if out of 0-100 range (logs warning)")
     void constructor_StoresOutOfRangePercentage(double percentage) {
-        Discount discount = new Discount(mockProduct, "Lidl", startDate, endDate, percentage, obsDate);
+        Discount discount = new Discount(mockProduct, LIDL, startDate, endDate, percentage, obsDate);
         assertEquals(percentage, discount.getDiscountPercentage(), DELTA);
     }
 
     @Test
     @DisplayName("Constructor should accept 0 and 100 for discount percentage")
     void constructor_AcceptsZeroAndHundredPercentage() {
-        Discount discountZero = new Discount(mockProduct, "Lidl", startDate, endDate, 0.0, obsDate);
+        Discount discountZero = new Discount(mockProduct, LIDL, startDate, endDate, 0.0, obsDate);
         assertEquals(0.0, discountZero.getDiscountPercentage(), DELTA);
 
-        Discount discountHundred = new Discount(mockProduct, "Lidl", startDate, endDate, 100.0, obsDate);
+        Discount discountHundred = new Discount(mockProduct, LIDL, startDate, endDate, 100.0, obsDate);
         assertEquals(100.0, discountHundred.getDiscountPercentage(), DELTA);
     }
 
     @Test
     @DisplayName("isActiveOnDate should return true when checkDate is within range (inclusive)")
     void isActiveOnDate_WithinRange_ReturnsTrue() {
-        Discount discount = new Discount(mockProduct, "Lidl", startDate, endDate, 10.0, obsDate);
+        Discount discount = new Discount(mockProduct, LIDL, startDate, endDate, 10.0, obsDate);
         assertTrue(discount.isActiveOnDate(startDate));
         assertTrue(discount.isActiveOnDate(endDate));
         assertTrue(discount.isActiveOnDate(LocalDate.of(2023, 10, 5)));
@@ -75,7 +79,7 @@ class DiscountTest {
     @Test
     @DisplayName("isActiveOnDate should return false when checkDate is before startDate")
     void isActiveOnDate_BeforeStartDate_ReturnsFalse() {
-        Discount discount = new Discount(mockProduct, "Lidl", startDate, endDate, 10.0, obsDate);
+        Discount discount = new Discount(mockProduct, LIDL, startDate, endDate, 10.0, obsDate);
         assertFalse(discount.isActiveOnDate(startDate.minusDays(1)));
         assertFalse(discount.isActiveOnDate(LocalDate.of(2023, 9, 30)));
     }
@@ -83,17 +87,32 @@ class DiscountTest {
     @Test
     @DisplayName("isActiveOnDate should return false when checkDate is after endDate")
     void isActiveOnDate_AfterEndDate_ReturnsFalse() {
-        Discount discount = new Discount(mockProduct, "Lidl", startDate, endDate, 10.0, obsDate);
+        Discount discount = new Discount(mockProduct, LIDL, startDate, endDate, 10.0, obsDate);
         assertFalse(discount.isActiveOnDate(endDate.plusDays(1)));
         assertFalse(discount.isActiveOnDate(LocalDate.of(2023, 10, 11)));
     }
 
+    @Test
+    @DisplayName("Epoch days should match the dates, and a discount without an end date is never active")
+    void epochDays_MatchDates() {
+        Discount discount = new Discount(mockProduct, LIDL, startDate, endDate, 10.0, obsDate);
+        assertEquals(startDate.toEpochDay(), discount.getStartEpochDay());
+        assertEquals(endDate.toEpochDay(), discount.getEndEpochDay());
+        assertEquals(obsDate.toEpochDay(), discount.getObservationEpochDay());
+        assertTrue(discount.isActiveOnEpochDay((int) endDate.toEpochDay()));
+        assertFalse(discount.isActiveOnEpochDay((int) endDate.plusDays(1).toEpochDay()));
+
+        Discount openEnded = new Discount(mockProduct, LIDL, startDate, null, 10.0, obsDate);
+        assertEquals(EpochDays.NONE, openEnded.getEndEpochDay());
+        assertFalse(openEnded.isActiveOnDate(startDate));
+    }
+
     @Test
     @DisplayName("Getters should return correct values")
     void getters_ReturnCorrectValues() {
-        Discount discount = new Discount(mockProduct, "Mega Image", startDate, endDate, 25.5, obsDate);
+        Discount discount = new Discount(mockProduct, MEGA_IMAGE, startDate, endDate, 25.5, obsDate);
         assertSame(mockProduct, discount.getProduct());
-        assertEquals("Mega Image", discount.getStoreName());
+        assertEquals(MEGA_IMAGE, discount.getStoreId());
         assertEquals(startDate, discount.getStartDate());
         assertEquals(endDate, discount.getEndDate());
         assertEquals(25.5, discount.getDiscountPercentage(), DELTA);
@@ -107,13 +126,13 @@ class DiscountTest {
         Product mockProduct2 = mock(Product.class);
         when(mockProduct2.getProductId()).thenReturn("P456");
 
-        Discount d1 = new Discount(mockProduct, "StoreA", startDate, endDate, 10.0, obsDate);
-        Discount d2 = new Discount(mockProduct, "StoreA", startDate, endDate, 10.0, obsDate.plusDays(1)); // Same by equals contract
-        Discount d3 = new Discount(mockProduct2, "StoreA", startDate, endDate, 10.0, obsDate); // Different product
-        Discount d4 = new Discount(mockProduct, "StoreB", startDate, endDate, 10.0, obsDate); // Different store
-        Discount d5 = new Discount(mockProduct, "StoreA", startDate.minusDays(1), endDate, 10.0, obsDate); // Different start date
-        Discount d6 = new Discount(mockProduct, "StoreA", startDate, endDate.plusDays(1), 10.0, obsDate); // Different end date
-        Discount d7 = new Discount(mockProduct, "StoreA", startDate, endDate, 15.0, obsDate); // Different percentage
+        Discount d1 = new Discount(mockProduct, STORE_A, startDate, endDate, 10.0, obsDate);
+        Discount d2 = new Discount(mockProduct, STORE_A, startDate, endDate, 10.0, obsDate.plusDays(1)); // Same by equals contract
+        Discount d3 = new Discount(mockProduct2, STORE_A, startDate, endDate, 10.0, obsDate); // Different product
+        Discount d4 = new Discount(mockProduct, STORE_B, startDate, endDate, 10.0, obsDate); // Different store
+        Discount d5 = new Discount(mockProduct, STORE_A, startDate.minusDays(1), endDate, 10.0, obsDate); // Different start date
+        Discount d6 = new Discount(mockProduct, STORE_A, startDate, endDate.plusDays(1), 10.0, obsDate); // Different end date
+        Discount d7 = new Discount(mockProduct, STORE_A, startDate, endDate, 15.0, obsDate); // Different percentage
 
         assertEquals(d1, d2, "Discounts should be equal even if observation date differs");
         assertEquals(d1.hashCode(), d2.hashCode(), "Hashcodes should be equal for equal discounts");
@@ -132,19 +151,19 @@ class DiscountTest {
     @Test
     @DisplayName("ToString should not throw exception and return a non-null string")
     void toString_ReturnsNonNullString() {
-        Discount discount = new Discount(mockProduct, "Lidl", startDate, endDate, 10.0, obsDate);
+        Discount discount = new Discount(mockProduct, LIDL, startDate, endDate, 10.0, obsDate);
         String str = discount.toString();
         assertNotNull(str);
         assertTrue(str.startsWith("Discount{"));
         assertTrue(str.contains("product=" + mockProduct.getProductId()));
-        assertTrue(str.contains("store='Lidl'"));
+        assertTrue(str.contains("storeId=" + LIDL));
         assertTrue(str.contains("percentage=10.0%"));
     }
 
     @Test
     @DisplayName("ToString handles null product gracefully")
     void toString_HandlesNullProduct() {
-        Discount discount = new Discount(null, "Lidl", startDate, endDate, 10.0, obsDate);
+        Discount discount = new Discount(null, LIDL, startDate, endDate, 10.0, obsDate);
         String str = discount.toString();
         assertNotNull(str);
         assertTrue(str.contains("product=null_product"));
@@ -0,0 +1,65 @@
+package org.example.shoppingapp.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameDictionaryTest {
+
+    @Test
+    @DisplayName("Names differing only in case should share an id")
+    void idOf_CaseInsensitive() {
+        NameDictionary stores = new NameDictionary();
+        int id = stores.idOf("Lidl");
+
+        assertEquals(id, stores.idOf("lidl"));
+        assertEquals(id, stores.findId("LIDL"));
+        assertNotEquals(id, stores.idOf("Kaufland"));
+        assertEquals(NameDictionary.NO_ID, stores.idOf(null));
+        assertEquals(2, stores.size());
+    }
+
+    @Test
+    @DisplayName("findId should not assign ids to names never seen")
+    void findId_UnknownName() {
+        NameDictionary categories = new NameDictionary();
+
+        assertEquals(NameDictionary.NO_ID, categories.findId("Lactate"));
+        assertEquals(NameDictionary.NO_ID, categories.findId("Lactate"));
+        assertEquals(NameDictionary.NO_ID, categories.findId(null));
+        assertEquals(0, categories.size());
+    }
+
+    @Test
+    @DisplayName("nameOf should return the spelling seen first")
+    void nameOf_FirstSpelling() {
+        NameDictionary stores = new NameDictionary();
+        int id = stores.idOf("Mega Image");
+        stores.idOf("MEGA IMAGE");
+
+        assertEquals("Mega Image", stores.nameOf(id));
+        assertNull(stores.nameOf(NameDictionary.NO_ID));
+        assertNull(stores.nameOf(id + 1));
+    }
+
+    @Test
+    @DisplayName("retainOnly should drop the other names without reusing their ids")
+    void retainOnly_DropsOtherNames() {
+        NameDictionary stores = new NameDictionary();
+        int lidl = stores.idOf("Lidl");
+        int kaufland = stores.idOf("Kaufland");
+
+        stores.retainOnly(Set.of(lidl));
+
+        assertEquals("Lidl", stores.nameOf(lidl));
+        assertNull(stores.nameOf(kaufland));
+        assertEquals(NameDictionary.NO_ID, stores.findId("kaufland"));
+        int readded = stores.idOf("Kaufland");
+        assertNotEquals(kaufland, readded);
+        assertNotEquals(lidl, readded);
+        assertEquals(2, stores.size());
+    }
+}
@@ -17,6 +17,9 @@ import static org.mockito.Mockito.when;
 class PriceEntryTest {
 
     private static final double DELTA = 0.0001;
+    private static final int LIDL = 0;
+    private static final int KAUFLAND = 1;
+    private static final int STORE = 2;
     private Product mockProductLiter;
     private Product mockProductKg;
     private Product mockProductPiece;
@@ -56,10 +59,10 @@ class PriceEntryTest {
     @Test
     @DisplayName("Constructor should set fields and convert currency string")
     void constructor_SetsFieldsAndConvertsCurrency() {
-        PriceEntry entry = new PriceEntry(mockProductLiter, "Lidl", testDate, 9.99, "RON");
+        PriceEntry entry = new PriceEntry(mockProductLiter, LIDL, testDate, 9.99, "RON");
 
         assertSame(mockProductLiter, entry.getProduct());
-        assertEquals("Lidl", entry.getStoreName());
+        assertEquals(LIDL, entry.getStoreId());
         assertEquals(testDate, entry.getEntryDate());
         assertEquals(9.99, entry.getPrice(), DELTA);
         assertEquals(Currency.RON, entry.getCurrency());
@@ -69,7 +72,7 @@ class PriceEntryTest {
     @DisplayName("Constructor should throw IllegalArgumentException for invalid currency string")
     void constructor_InvalidCurrencyString_ThrowsException() {
         assertThrows(IllegalArgumentException.class, () ->
-            new PriceEntry(mockProductLiter, "Lidl", testDate, 9.99, "XYZ")
+            new PriceEntry(mockProductLiter, LIDL, testDate, 9.99, "XYZ")
         );
     }
 
@@ -82,7 +85,7 @@ class PriceEntryTest {
     })
     @DisplayName("calculatePricePerNormalizedUnit for LITER product")
     void calculatePrice_ProductLiter(double price, double expectedPricePerUnit) {
-        PriceEntry entry = new PriceEntry(mockProductLiter, "Store", testDate, price, "RON");
+        PriceEntry entry = new PriceEntry(mockProductLiter, STORE, testDate, price, "RON");
         assertEquals(expectedPricePerUnit, entry.getPricePerNormalizedUnit(), DELTA);
     }
 
@@ -95,7 +98,7 @@ class PriceEntryTest {
     })
     @DisplayName("calculatePricePerNormalizedUnit for KILOGRAM product (from GRAM)")
     void calculatePrice_ProductKg(double price, double expectedPricePerUnit) {
-        PriceEntry entry = new PriceEntry(mockProductKg, "Store", testDate, price, "RON");
+        PriceEntry entry = new PriceEntry(mockProductKg, STORE, testDate, price, "RON");
         assertEquals(expectedPricePerUnit, entry.getPricePerNormalizedUnit(), DELTA);
     }
 
@@ -108,30 +111,30 @@ class PriceEntryTest {
     })
     @DisplayName("calculatePricePerNormalizedUnit for PIECE product")
     void calculatePrice_ProductPiece(double price, double expectedPricePerUnit) {
-        PriceEntry entry = new PriceEntry(mockProductPiece, "Store", testDate, price, "RON");
+        PriceEntry entry = new PriceEntry(mockProductPiece, STORE, testDate, price, "RON");
         assertEquals(expectedPricePerUnit, entry.getPricePerNormalizedUnit(), DELTA);
     }
 
     @Test
     @DisplayName("calculatePricePerNormalizedUnit should use product price if product or normalized unit is null")
     void calculatePrice_ProductOrNormalizedUnitNull_UsesProductPrice() {
-        PriceEntry entryWithNullProduct = new PriceEntry(null, "Store", testDate, 15.0, "RON");
+        PriceEntry entryWithNullProduct = new PriceEntry(null, STORE, testDate, 15.0, "RON");
         assertEquals(15.0, entryWithNullProduct.getPricePerNormalizedUnit(), DELTA);
 
-        PriceEntry entryWithNoUnitProduct = new PriceEntry(mockProductNoUnit, "Store", testDate, 25.0, "RON");
+        PriceEntry entryWithNoUnitProduct = new PriceEntry(mockProductNoUnit, STORE, testDate, 25.0, "RON");
         assertEquals(25.0, entryWithNoUnitProduct.getPricePerNormalizedUnit(), DELTA);
     }
 
     @Test
     @DisplayName("calculatePricePerNormalizedUnit should use product price if normalized quantity is zero or negative")
     void calculatePrice_NormalizedQuantityZeroOrNegative_UsesProductPrice() {
-        PriceEntry entryZeroQty = new PriceEntry(mockProductZeroNormQty, "Store", testDate, 30.0, "RON");
+        PriceEntry entryZeroQty = new PriceEntry(mockProductZeroNormQty, STORE, testDate, 30.0, "RON");
         assertEquals(30.0, entryZeroQty.getPricePerNormalizedUnit(), DELTA);
 
         Product mockProductNegativeNormQty = mock(Product.class);
         when(mockProductNegativeNormQty.getNormalizedUnitType()).thenReturn(UnitType.KILOGRAM);
         when(mockProductNegativeNormQty.getNormalizedQuantity()).thenReturn(-0.5);
-        PriceEntry entryNegativeQty = new PriceEntry(mockProductNegativeNormQty, "Store", testDate, 35.0, "RON");
+        PriceEntry entryNegativeQty = new PriceEntry(mockProductNegativeNormQty, STORE, testDate, 35.0, "RON");
         assertEquals(35.0, entryNegativeQty.getPricePerNormalizedUnit(), DELTA);
     }
 
@@ -139,22 +142,22 @@ class PriceEntryTest {
     @DisplayName("getUnitForNormalizedPrice should return correct unit string")
     void getUnitForNormalizedPrice_ReturnsCorrectString() {
         when(mockProductLiter.getNormalizedUnitType()).thenReturn(UnitType.LITER);
-        PriceEntry entryLiter = new PriceEntry(mockProductLiter, "S", testDate, 1, "RON");
+        PriceEntry entryLiter = new PriceEntry(mockProductLiter, STORE, testDate, 1, "RON");
         assertEquals(UnitType.LITER.getNormalizedForm(), entryLiter.getUnitForNormalizedPrice());
 
         when(mockProductKg.getNormalizedUnitType()).thenReturn(UnitType.KILOGRAM);
-        PriceEntry entryKg = new PriceEntry(mockProductKg, "S", testDate, 1, "RON");
+        PriceEntry entryKg = new PriceEntry(mockProductKg, STORE, testDate, 1, "RON");
         assertEquals(UnitType.KILOGRAM.getNormalizedForm(), entryKg.getUnitForNormalizedPrice());
 
         when(mockProductNoUnit.getNormalizedUnitType()).thenReturn(null);
         when(mockProductNoUnit.getPackageUnitInput()).thenReturn(null);
-        PriceEntry entryNoUnit = new PriceEntry(mockProductNoUnit, "S", testDate, 1, "RON");
+        PriceEntry entryNoUnit = new PriceEntry(mockProductNoUnit, STORE, testDate, 1, "RON");
         assertEquals("pachet", entryNoUnit.getUnitForNormalizedPrice());
 
         Product mockProductWithPackageUnitOnly = mock(Product.class);
         when(mockProductWithPackageUnitOnly.getNormalizedUnitType()).thenReturn(null);
         when(mockProductWithPackageUnitOnly.getPackageUnitInput()).thenReturn(UnitType.GRAM);
-        PriceEntry entryPkgUnitOnly = new PriceEntry(mockProductWithPackageUnitOnly, "S", testDate, 1, "RON");
+        PriceEntry entryPkgUnitOnly = new PriceEntry(mockProductWithPackageUnitOnly, STORE, testDate, 1, "RON");
         assertEquals(UnitType.GRAM.getCsvValue(), entryPkgUnitOnly.getUnitForNormalizedPrice()); // Should be "g"
     }
 
@@ -162,13 +165,13 @@ class PriceEntryTest {
     @Test
     @DisplayName("Equals and HashCode contract")
     void equalsAndHashCodeContract() {
-        PriceEntry entry1 = new PriceEntry(mockProductLiter, "Lidl", testDate, 9.99, "RON");
-        PriceEntry entry2 = new PriceEntry(mockProductLiter, "Lidl", testDate, 9.99, "RON"); // Same
-        PriceEntry entry3 = new PriceEntry(mockProductKg, "Lidl", testDate, 9.99, "RON");   // Different product
-        PriceEntry entry4 = new PriceEntry(mockProductLiter, "Kauf", testDate, 9.99, "RON"); // Different store
-        PriceEntry entry5 = new PriceEntry(mockProductLiter, "Lidl", testDate.plusDays(1), 9.99, "RON"); // Different date
-        PriceEntry entry6 = new PriceEntry(mockProductLiter, "Lidl", testDate, 10.50, "RON"); // Different price
-        PriceEntry entry7 = new PriceEntry(mockProductLiter, "Lidl", testDate, 9.99, "EUR"); // Different currency
+        PriceEntry entry1 = new PriceEntry(mockProductLiter, LIDL, testDate, 9.99, "RON");
+        PriceEntry entry2 = new PriceEntry(mockProductLiter, LIDL, testDate, 9.99, "RON"); // Same
+        PriceEntry entry3 = new PriceEntry(mockProductKg, LIDL, testDate, 9.99, "RON");   // Different product
+        PriceEntry entry4 = new PriceEntry(mockProductLiter, KAUFLAND, testDate, 9.99, "RON"); // Different store
+        PriceEntry entry5 = new PriceEntry(mockProductLiter, LIDL, testDate.plusDays(1), 9.99, "RON"); // Different date
+        PriceEntry entry6 = new PriceEntry(mockProductLiter, LIDL, testDate, 10.50, "RON"); // Different price
+        PriceEntry entry7 = new PriceEntry(mockProductLiter, LIDL, testDate, 9.99, "EUR"); // Different currency
 
 
         assertEquals(entry1, entry2);
@@ -187,7 +190,7 @@ class PriceEntryTest {
     @Test
     @DisplayName("ToString should not throw exception")
     void toString_DoesNotThrowException() {
-        PriceEntry entry = new PriceEntry(mockProductLiter, "Lidl", testDate, 9.99, "RON");
+        PriceEntry entry = new PriceEntry(mockProductLiter, LIDL, testDate, 9.99, "RON");
         assertNotNull(entry.toString());
         assertTrue(entry.toString().startsWith("PriceEntry{"));
     }
@@ -195,7 +198,7 @@ class PriceEntryTest {
     @Test
     @DisplayName("ToString handles null product gracefully")
     void toString_HandlesNullProduct() {
-        PriceEntry entry = new PriceEntry(null, "Lidl", testDate, 9.99, "RON");
+        PriceEntry entry = new PriceEntry(null, LIDL, testDate, 9.99, "RON");
         assertNotNull(entry.toString());
         assertTrue(entry.toString().contains("product=null_product"));
     }
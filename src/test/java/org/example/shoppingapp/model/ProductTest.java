@@ -12,14 +12,19 @@ import static org.junit.jupiter.api.Assertions.*;
 class ProductTest {
 
     private static final double DELTA = 0.0001; // Value for double comparisons
+    private static final int DAIRY = 0;
+    private static final int BEVERAGE = 1;
+    private static final int CAT1 = 2;
+    private static final int CAT2 = 3;
+    private static final int OTHER = 4;
 
     @Test
     @DisplayName("Constructor should correctly set basic product details")
     void constructor_SetsBasicDetails() {
-        Product product = new Product("P001", "Test Milk", "Dairy", "BrandX", 1.0, "l");
+        Product product = new Product("P001", "Test Milk", DAIRY, "BrandX", 1.0, "l");
         assertEquals("P001", product.getProductId());
         assertEquals("Test Milk", product.getProductName());
-        assertEquals("Dairy", product.getProductCategory());
+        assertEquals(DAIRY, product.getCategoryId());
         assertEquals("BrandX", product.getBrand());
         assertEquals(1.0, product.getPackageQuantityInput(), DELTA);
         assertEquals(UnitType.LITER, product.getPackageUnitInput());
@@ -39,7 +44,7 @@ class ProductTest {
     })
     @DisplayName("Constructor should correctly normalize quantity and unit")
     void constructor_NormalizesCorrectly(double pkgQty, String unitStr, double expectedNormQty, UnitType expectedNormUnit) {
-        Product product = new Product("P001", "Test", "Cat", "Brand", pkgQty, unitStr);
+        Product product = new Product("P001", "Test", OTHER, "Brand", pkgQty, unitStr);
 
         assertEquals(pkgQty, product.getPackageQuantityInput(), DELTA);
         assertEquals(UnitType.fromString(unitStr.toLowerCase()), product.getPackageUnitInput());
@@ -51,7 +56,7 @@ class ProductTest {
     @NullAndEmptySource
     @DisplayName("Constructor with null or empty unit string should result in null packageUnitInput and skip normalization")
     void constructor_NullOrEmptyUnitString_HandlesGracefully(String unitString) {
-        Product product = new Product("P002", "Test No Unit", "Unknown", "BrandY", 5.0, unitString);
+        Product product = new Product("P002", "Test No Unit", OTHER, "BrandY", 5.0, unitString);
 
         assertNull(product.getPackageUnitInput(), "packageUnitInput should be null for null/empty unit string");
         assertEquals(5.0, product.getNormalizedQuantity(), DELTA, "normalizedQuantity should be same as packageQuantityInput");
@@ -61,7 +66,7 @@ class ProductTest {
     @Test
     @DisplayName("Constructor with unrecognized unit string should result in null packageUnitInput and skip normalization")
     void constructor_UnrecognizedUnitString_HandlesGracefully() {
-        Product product = new Product("P003", "Test Bad Unit", "Misc", "BrandZ", 3.0, "xyz");
+        Product product = new Product("P003", "Test Bad Unit", OTHER, "BrandZ", 3.0, "xyz");
 
         assertNull(product.getPackageUnitInput(), "packageUnitInput should be null for unrecognized unit string");
         assertEquals(3.0, product.getNormalizedQuantity(), DELTA, "normalizedQuantity should be same as packageQuantityInput");
@@ -72,11 +77,11 @@ class ProductTest {
     @Test
     @DisplayName("Getters should return correct values after construction")
     void getters_ReturnCorrectValues() {
-        Product product = new Product("P123", "Coffee", "Beverage", "CafeBrand", 250.0, "g");
+        Product product = new Product("P123", "Coffee", BEVERAGE, "CafeBrand", 250.0, "g");
 
         assertEquals("P123", product.getProductId());
         assertEquals("Coffee", product.getProductName());
-        assertEquals("Beverage", product.getProductCategory());
+        assertEquals(BEVERAGE, product.getCategoryId());
         assertEquals("CafeBrand", product.getBrand());
         assertEquals(250.0, product.getPackageQuantityInput(), DELTA);
         assertEquals(UnitType.GRAM, product.getPackageUnitInput());
@@ -87,8 +92,8 @@ class ProductTest {
     @Test
     @DisplayName("Equals should be true for products with same productId")
     void equals_SameProductId_ReturnsTrue() {
-        Product product1 = new Product("ID001", "Product A", "Cat1", "Brand1", 1, "l");
-        Product product2 = new Product("ID001", "Product B", "Cat2", "Brand2", 2, "kg"); // Different details, same ID
+        Product product1 = new Product("ID001", "Product A", CAT1, "Brand1", 1, "l");
+        Product product2 = new Product("ID001", "Product B", CAT2, "Brand2", 2, "kg"); // Different details, same ID
         assertTrue(product1.equals(product2));
         assertTrue(product2.equals(product1));
     }
@@ -96,29 +101,29 @@ class ProductTest {
     @Test
     @DisplayName("Equals should be false for products with different productId")
     void equals_DifferentProductId_ReturnsFalse() {
-        Product product1 = new Product("ID001", "Product A", "Cat1", "Brand1", 1, "l");
-        Product product2 = new Product("ID002", "Product A", "Cat1", "Brand1", 1, "l");
+        Product product1 = new Product("ID001", "Product A", CAT1, "Brand1", 1, "l");
+        Product product2 = new Product("ID002", "Product A", CAT1, "Brand1", 1, "l");
         assertFalse(product1.equals(product2));
     }
 
     @Test
     @DisplayName("Equals should be true for same instance")
     void equals_SameInstance_ReturnsTrue() {
-        Product product1 = new Product("ID001", "Product A", "Cat1", "Brand1", 1, "l");
+        Product product1 = new Product("ID001", "Product A", CAT1, "Brand1", 1, "l");
         assertTrue(product1.equals(product1));
     }
 
     @Test
     @DisplayName("Equals should be false for null")
     void equals_Null_ReturnsFalse() {
-        Product product1 = new Product("ID001", "Product A", "Cat1", "Brand1", 1, "l");
+        Product product1 = new Product("ID001", "Product A", CAT1, "Brand1", 1, "l");
         assertFalse(product1.equals(null));
     }
 
     @Test
     @DisplayName("Equals should be false for different type")
     void equals_DifferentType_ReturnsFalse() {
-        Product product1 = new Product("ID001", "Product A", "Cat1", "Brand1", 1, "l");
+        Product product1 = new Product("ID001", "Product A", CAT1, "Brand1", 1, "l");
         Object other = new Object();
         assertFalse(product1.equals(other));
     }
@@ -126,16 +131,16 @@ class ProductTest {
     @Test
     @DisplayName("HashCode should be same for products with same productId")
     void hashCode_SameProductId_ReturnsSameHashCode() {
-        Product product1 = new Product("ID001", "Product A", "Cat1", "Brand1", 1, "l");
-        Product product2 = new Product("ID001", "Product B", "Cat2", "Brand2", 2, "kg");
+        Product product1 = new Product("ID001", "Product A", CAT1, "Brand1", 1, "l");
+        Product product2 = new Product("ID001", "Product B", CAT2, "Brand2", 2, "kg");
         assertEquals(product1.hashCode(), product2.hashCode());
     }
 
     @Test
     @DisplayName("HashCode should (ideally) be different for products with different productId")
     void hashCode_DifferentProductId_IdeallyReturnsDifferentHashCode() {
-        Product product1 = new Product("ID001", "Product A", "Cat1", "Brand1", 1, "l");
-        Product product2 = new Product("ID002", "Product A", "Cat1", "Brand1", 1, "l");
+        Product product1 = new Product("ID001", "Product A", CAT1, "Brand1", 1, "l");
+        Product product2 = new Product("ID002", "Product A", CAT1, "Brand1", 1, "l");
         if (!product1.equals(product2)) {
             assertNotEquals(product1.hashCode(), product2.hashCode());
         }
@@ -144,7 +149,7 @@ class ProductTest {
     @Test
     @DisplayName("ToString should not throw an exception and return a non-null string")
     void toString_ReturnsNonNullString() {
-        Product product = new Product("P001", "Test Milk", "Dairy", "BrandX", 1.0, "l");
+        Product product = new Product("P001", "Test Milk", DAIRY, "BrandX", 1.0, "l");
         assertNotNull(product.toString());
         assertTrue(product.toString().startsWith("Product{"));
     }
@@ -152,7 +157,7 @@ class ProductTest {
     @Test
     @DisplayName("ToString should handle null packageUnitInput gracefully")
     void toString_HandlesNullPackageUnitInput() {
-        Product product = new Product("P002", "Test No Unit", "Unknown", "BrandY", 5.0, null);
+        Product product = new Product("P002", "Test No Unit", OTHER, "BrandY", 5.0, null);
         assertNotNull(product.toString());
         assertTrue(product.toString().contains("[UNKNOWN_UNIT]"));
         assertTrue(product.toString().contains("[UNKNOWN_BASE]"));
@@ -0,0 +1,72 @@
+package org.example.shoppingapp.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppendOnlyListTest {
+
+    @Test
+    @DisplayName("AppendAll should return a longer view and leave the original view unchanged")
+    void appendAll_LeavesOriginalUnchanged() {
+        AppendOnlyList<String> first = AppendOnlyList.<String>empty().appendAll(List.of("a", "b"));
+        AppendOnlyList<String> second = first.appendAll(List.of("c"));
+
+        assertEquals(List.of("a", "b"), first);
+        assertEquals(List.of("a", "b", "c"), second);
+        assertThrows(IndexOutOfBoundsException.class, () -> first.get(2));
+    }
+
+    @Test
+    @DisplayName("Appending to an older view should not overwrite elements of a newer view")
+    void appendAll_FromOlderView_DoesNotOverwrite() {
+        AppendOnlyList<String> base = AppendOnlyList.<String>empty().appendAll(List.of("a"));
+        AppendOnlyList<String> left = base.appendAll(List.of("b"));
+        AppendOnlyList<String> right = base.appendAll(List.of("x", "y"));
+
+        assertEquals(List.of("a", "b"), left);
+        assertEquals(List.of("a", "x", "y"), right);
+    }
+
+    @Test
+    @DisplayName("Elements should be kept in order across chunk boundaries, also when an older view is extended")
+    void appendAll_AcrossChunks() {
+        List<Integer> expected = new ArrayList<>();
+        AppendOnlyList<Integer> list = AppendOnlyList.empty();
+        AppendOnlyList<Integer> older = list;
+        for (int batch = 0; batch < 50; batch++) {
+            List<Integer> added = new ArrayList<>();
+            for (int i = 0; i < batch * 7 + 1; i++) {
+                added.add(expected.size() + i);
+            }
+            if (batch == 20) {
+                older = list;
+            }
+            list = list.appendAll(added);
+            expected.addAll(added);
+        }
+        assertEquals(expected, list);
+        List<Integer> visited = new ArrayList<>();
+        list.forEach(visited::add);
+        assertEquals(expected, visited);
+
+        AppendOnlyList<Integer> branch = older.appendAll(List.of(-1));
+        assertEquals(older.size() + 1, branch.size());
+        assertEquals(expected.subList(0, older.size()), branch.subList(0, older.size()));
+        assertEquals(-1, branch.get(older.size()));
+        assertEquals(expected, list);
+    }
+
+    @Test
+    @DisplayName("Views should be unmodifiable")
+    void views_AreUnmodifiable() {
+        AppendOnlyList<String> list = AppendOnlyList.of(List.of("a"));
+        assertThrows(UnsupportedOperationException.class, () -> list.add("b"));
+        assertThrows(UnsupportedOperationException.class, list::clear);
+        assertTrue(AppendOnlyList.empty().isEmpty());
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.shoppingapp.repository;
+
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarPriceEntryRepositoryTest {
+
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
+    private ColumnarPriceEntryRepository priceEntryRepository;
+    private Product p1, p2;
+    private PriceEntry pe1, pe2, pe3, pe4;
+    private LocalDate date1, date2;
+
+    @BeforeEach
+    void setUp() {
+        priceEntryRepository = new ColumnarPriceEntryRepository(nameDictionaries);
+        p1 = new Product("P001", "Lapte", category("Lactate"), "BrandA", 1.0, "l");
+        p2 = new Product("P002", "Pâine", category("Panificație"), "BrandB", 500, "g");
+
+        date1 = LocalDate.of(2023, 10, 1);
+        date2 = LocalDate.of(2023, 10, 2);
+
+        pe1 = new PriceEntry(p1, store("Lidl"), date1, 10.0, "RON");
+        pe2 = new PriceEntry(p2, store("Lidl"), date1, 5.50, "RON");
+        pe3 = new PriceEntry(p1, store("Kaufland"), date1, 10.20, "EUR");
+        pe4 = new PriceEntry(p1, store("Lidl"), date2, 9.80, "RON");
+    }
+
+    @Test
+    @DisplayName("Saved entries should be materialized back with the same values")
+    void save_RoundTripsValues() {
+        priceEntryRepository.saveAll(Arrays.asList(pe1, pe2, pe3, pe4));
+
+        List<PriceEntry> all = priceEntryRepository.findAll();
+        assertEquals(List.of(pe1, pe2, pe3, pe4), all);
+        PriceEntry bread = all.get(1);
+        assertSame(p2, bread.getProduct());
+        assertEquals(11.0, bread.getPricePerNormalizedUnit(), 1e-9);
+        assertEquals(pe3.getCurrency(), all.get(2).getCurrency());
+    }
+
+    @Test
+    @DisplayName("Save should throw IllegalArgumentException for null entry")
+    void save_NullEntry_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> priceEntryRepository.save(null));
+    }
+
+    @Test
+    @DisplayName("Finders should match the object-per-row repository")
+    void finders_ReturnCorrectEntries() {
+        priceEntryRepository.saveAll(Arrays.asList(pe1, null, pe2, pe3, pe4));
+        assertEquals(4, priceEntryRepository.size());
+
+        assertEquals(List.of(pe1, pe3, pe4), priceEntryRepository.findByProductId("P001"));
+        assertTrue(priceEntryRepository.findByProductId("P999").isEmpty());
+        assertTrue(priceEntryRepository.findByProductId(null).isEmpty());
+
+        assertEquals(List.of(pe1, pe2, pe4), priceEntryRepository.findByStoreName("lidl"));
+        assertTrue(priceEntryRepository.findByStoreName("Profi").isEmpty());
+
+        assertEquals(List.of(pe1, pe2, pe3), priceEntryRepository.findByEntryDate(date1));
+        assertEquals(List.of(pe3), priceEntryRepository.findByStoreNameAndEntryDate("KAUFLAND", date1));
+        assertTrue(priceEntryRepository.findByStoreNameAndEntryDate("Lidl", null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Only the latest entry per store and the cheapest per store and day should be materialized")
+    void findLatestAndDailyCheapest_MaterializesWinners() {
+        PriceEntry lidlCheaper = new PriceEntry(p1, store("Lidl"), date1, 9.50, "RON");
+        PriceEntry lidlOld = new PriceEntry(p1, store("Lidl"), date1.minusDays(10), 8.0, "RON");
+        priceEntryRepository.saveAll(Arrays.asList(pe1, pe2, pe3, pe4, lidlCheaper, lidlOld));
+        int sinceEpochDay = (int) date1.toEpochDay();
+
+        // pe1 loses its day to lidlCheaper, and lidlOld is neither the latest nor current.
+        assertEquals(List.of(pe3, pe4, lidlCheaper),
+                priceEntryRepository.findLatestAndDailyCheapestByProductId("P001", sinceEpochDay));
+        assertEquals(List.of(pe2), priceEntryRepository.findLatestAndDailyCheapestByProductId("P002", sinceEpochDay));
+        assertTrue(priceEntryRepository.findLatestAndDailyCheapestByProductId("P999", sinceEpochDay).isEmpty());
+        assertTrue(priceEntryRepository.findLatestAndDailyCheapestByProductId(null, sinceEpochDay).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Finders should return read-only lists, including for null arguments")
+    void finders_ReturnReadOnlyLists() {
+        priceEntryRepository.saveAll(Arrays.asList(pe1, pe2));
+
+        assertThrows(UnsupportedOperationException.class, () -> priceEntryRepository.findAll().clear());
+        assertThrows(UnsupportedOperationException.class, () -> priceEntryRepository.findByProductId("P001").clear());
+        assertThrows(UnsupportedOperationException.class, () -> priceEntryRepository.findByProductId(null).add(pe1));
+        assertThrows(UnsupportedOperationException.class, () -> priceEntryRepository.findByStoreName(null).add(pe1));
+        assertThrows(UnsupportedOperationException.class, () -> priceEntryRepository.findByEntryDate(null).add(pe1));
+        assertThrows(UnsupportedOperationException.class,
+                () -> priceEntryRepository.findByStoreNameAndEntryDate("Lidl", null).add(pe1));
+    }
+
+    @Test
+    @DisplayName("Columns should grow past the initial capacity")
+    void save_GrowsColumns() {
+        for (int i = 0; i < 5000; i++) {
+            priceEntryRepository.save(new PriceEntry(p1, store("Store" + (i % 7)), date1.plusDays(i % 30), i, "RON"));
+        }
+        assertEquals(5000, priceEntryRepository.findByProductId("P001").size());
+        assertEquals(4999.0, priceEntryRepository.findAll().get(4999).getPrice());
+    }
+
+    @Test
+    @DisplayName("A batch switching stores and dates should keep each row's own store and date")
+    void saveAll_MixedStoresAndDates() {
+        PriceEntry undated = new PriceEntry(p2, store("Kaufland"), null, 4.0, "RON");
+        priceEntryRepository.saveAll(Arrays.asList(pe1, pe2, pe3, undated, pe4, pe1));
+
+        assertEquals(List.of(pe1, pe2, pe3, undated, pe4, pe1), priceEntryRepository.findAll());
+        assertEquals(List.of(pe3, undated), priceEntryRepository.findByStoreName("Kaufland"));
+        assertEquals(List.of(pe4), priceEntryRepository.findByStoreNameAndEntryDate("Lidl", date2));
+        assertNull(priceEntryRepository.findAll().get(3).getEntryDate());
+    }
+
+    @Test
+    @DisplayName("DeleteAll should clear rows and dictionaries")
+    void deleteAll_ClearsAllEntries() {
+        priceEntryRepository.saveAll(Arrays.asList(pe1, pe2));
+        priceEntryRepository.deleteAll();
+        assertTrue(priceEntryRepository.findAll().isEmpty());
+        assertTrue(priceEntryRepository.findByProductId("P001").isEmpty());
+        assertTrue(priceEntryRepository.findByStoreName("Lidl").isEmpty());
+    }
+
+    @Test
+    @DisplayName("ReplaceAll should leave only the new rows")
+    void replaceAll_SwapsRows() {
+        priceEntryRepository.saveAll(Arrays.asList(pe1, pe2));
+
+        priceEntryRepository.replaceAll(Arrays.asList(pe3, pe4));
+
+        assertEquals(2, priceEntryRepository.size());
+        assertTrue(priceEntryRepository.findByProductId("P002").isEmpty());
+        assertEquals(1, priceEntryRepository.findByStoreName("Kaufland").size());
+        assertEquals(9.80, priceEntryRepository.findByStoreName("Lidl").get(0).getPrice());
+    }
+
+    private int store(String name) {
+        return nameDictionaries.stores().idOf(name);
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}
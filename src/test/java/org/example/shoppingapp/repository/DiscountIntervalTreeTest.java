@@ -0,0 +1,125 @@
+package org.example.shoppingapp.repository;
+
+import org.example.shoppingapp.model.Discount;
+import org.example.shoppingapp.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscountIntervalTreeTest {
+
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
+    private DiscountIntervalTree tree;
+    private Product product;
+    private LocalDate base;
+
+    @BeforeEach
+    void setUp() {
+        tree = new DiscountIntervalTree();
+        product = new Product("P001", "Lapte", category("Lactate"), "BrandA", 1.0, "l");
+        base = LocalDate.of(2025, 5, 1);
+    }
+
+    @Test
+    @DisplayName("Stabbing query should include discounts starting or ending on the date")
+    void findActiveOn_IncludesBoundaries() {
+        Discount endsToday = new Discount(product, store("Lidl"), base.minusDays(3), base, 10, base.minusDays(3));
+        Discount startsToday = new Discount(product, store("Profi"), base, base.plusDays(3), 10, base);
+        Discount expired = new Discount(product, store("Kaufland"), base.minusDays(9), base.minusDays(1), 10, base.minusDays(9));
+        tree = tree.withAll(List.of(endsToday, startsToday, expired));
+
+        List<Discount> active = tree.findActiveOn(base);
+        assertEquals(2, active.size());
+        assertTrue(active.containsAll(List.of(endsToday, startsToday)));
+    }
+
+    @Test
+    @DisplayName("Discounts without dates should not be indexed")
+    void withAll_NullDates_Ignored() {
+        tree = tree.withAll(List.of(new Discount(product, store("Lidl"), null, base, 10, base),
+                new Discount(product, store("Profi"), base, null, 10, base)));
+        assertEquals(0, tree.size());
+        assertTrue(tree.findActiveOn(base).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Overlap queries should match a linear scan for date-sorted inserts")
+    void findOverlapping_MatchesLinearScan() {
+        Random random = new Random(42);
+        List<Discount> all = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            LocalDate start = base.plusDays(i / 10);
+            Discount discount = new Discount(product, store("Store" + i), start, start.plusDays(random.nextInt(14)), 10, start);
+            all.add(discount);
+        }
+        tree = tree.withAll(all);
+
+        for (int q = 0; q < 200; q++) {
+            LocalDate from = base.plusDays(random.nextInt(220) - 10);
+            LocalDate to = from.plusDays(random.nextInt(7));
+            Set<Discount> expected = new HashSet<>();
+            for (Discount d : all) {
+                if (!d.getStartDate().isAfter(to) && !d.getEndDate().isBefore(from)) {
+                    expected.add(d);
+                }
+            }
+            List<Discount> actual = tree.findOverlapping(from, to);
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected, new HashSet<>(actual));
+        }
+    }
+
+    @Test
+    @DisplayName("WithAll should return a tree with the new discounts and leave the original unchanged")
+    void withAll_LeavesOriginalUnchanged() {
+        List<Discount> first = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            LocalDate start = base.plusDays(i % 30);
+            Discount discount = new Discount(product, store("Store" + i), start, start.plusDays(3), 10, start);
+            first.add(discount);
+        }
+        tree = tree.withAll(first);
+        List<Discount> second = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            LocalDate start = base.plusDays(i % 30);
+            second.add(new Discount(product, store("Other" + i), start, start.plusDays(3), 10, start));
+        }
+        Set<Discount> activeBefore = new HashSet<>(tree.findActiveOn(base.plusDays(10)));
+
+        DiscountIntervalTree extended = tree.withAll(second);
+
+        assertEquals(200, tree.size());
+        assertEquals(400, extended.size());
+        assertEquals(activeBefore, new HashSet<>(tree.findActiveOn(base.plusDays(10))));
+        Set<Discount> expected = new HashSet<>();
+        for (Discount d : first) {
+            if (!d.getStartDate().isAfter(base.plusDays(10)) && !d.getEndDate().isBefore(base.plusDays(10))) {
+                expected.add(d);
+            }
+        }
+        for (Discount d : second) {
+            if (!d.getStartDate().isAfter(base.plusDays(10)) && !d.getEndDate().isBefore(base.plusDays(10))) {
+                expected.add(d);
+            }
+        }
+        assertEquals(expected, new HashSet<>(extended.findActiveOn(base.plusDays(10))));
+    }
+
+    private int store(String name) {
+        return nameDictionaries.stores().idOf(name);
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}
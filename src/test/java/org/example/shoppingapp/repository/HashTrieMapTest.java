@@ -0,0 +1,73 @@
+package org.example.shoppingapp.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashTrieMapTest {
+
+    @Test
+    @DisplayName("With should return a map holding the new mapping and leave the original map unchanged")
+    void with_LeavesOriginalUnchanged() {
+        HashTrieMap<String, Integer> first = HashTrieMap.<String, Integer>empty().with("a", 1);
+        HashTrieMap<String, Integer> second = first.with("a", 2).with("b", 3);
+
+        assertEquals(1, first.get("a"));
+        assertNull(first.get("b"));
+        assertEquals(2, second.get("a"));
+        assertEquals(3, second.get("b"));
+        assertEquals(0, second.getOrDefault("c", 0));
+    }
+
+    @Test
+    @DisplayName("Keys with the same hash code should keep their own values")
+    void with_CollidingKeys() {
+        // "Aa" and "BB" have the same hash code.
+        HashTrieMap<String, String> map = HashTrieMap.<String, String>empty().with("Aa", "first").with("BB", "second");
+        HashTrieMap<String, String> replaced = map.with("Aa", "third");
+
+        assertEquals("first", map.get("Aa"));
+        assertEquals("second", map.get("BB"));
+        assertEquals("third", replaced.get("Aa"));
+        assertEquals("second", replaced.get("BB"));
+    }
+
+    @Test
+    @DisplayName("A large map should hold the same mappings as a HashMap")
+    void with_ManyKeys() {
+        Map<Integer, Integer> expected = new HashMap<>();
+        HashTrieMap<Integer, Integer> map = HashTrieMap.empty();
+        for (int i = 0; i < 100_000; i++) {
+            int key = i * 7919 - 50_000;
+            map = map.with(key, i);
+            expected.put(key, i);
+        }
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertNull(map.get(1));
+    }
+
+    @Test
+    @DisplayName("Without should drop only the given key and leave the original map unchanged")
+    void without_LeavesOriginalUnchanged() {
+        // "Aa" and "BB" have the same hash code.
+        HashTrieMap<String, Integer> map = HashTrieMap.<String, Integer>empty().with("Aa", 1).with("BB", 2).with("c", 3);
+        HashTrieMap<String, Integer> removed = map.without("Aa").without("c");
+
+        assertSame(map, map.without("missing"));
+        assertEquals(1, map.get("Aa"));
+        assertEquals(3, map.get("c"));
+        assertNull(removed.get("Aa"));
+        assertNull(removed.get("c"));
+        assertEquals(2, removed.get("BB"));
+
+        Map<String, Integer> remaining = new HashMap<>();
+        removed.forEach(remaining::put);
+        assertEquals(Map.of("BB", 2), remaining);
+    }
+}
@@ -17,6 +17,8 @@ import static org.mockito.Mockito.when;
 
 class InMemoryDiscountRepositoryTest {
 
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
     private DiscountRepository discountRepository;
     private Product p1, p2;
     private Discount d1, d2, d3, d4;
@@ -24,7 +26,7 @@ class InMemoryDiscountRepositoryTest {
 
     @BeforeEach
     void setUp() {
-        discountRepository = new InMemoryDiscountRepository();
+        discountRepository = new InMemoryDiscountRepository(nameDictionaries);
         p1 = mock(Product.class);
         when(p1.getProductId()).thenReturn("P001");
         p2 = mock(Product.class);
@@ -35,10 +37,10 @@ class InMemoryDiscountRepositoryTest {
         tomorrow = today.plusDays(1);
         nextWeek = today.plusWeeks(1);
 
-        d1 = new Discount(p1, "Lidl", yesterday, tomorrow, 10.0, yesterday);
-        d2 = new Discount(p1, "Lidl", yesterday.minusDays(5), yesterday, 15.0, yesterday.minusDays(5));
-        d3 = new Discount(p2, "Kaufland", tomorrow, nextWeek, 20.0, today);
-        d4 = new Discount(p2, "Profi", today, nextWeek, 5.0, today);
+        d1 = new Discount(p1, store("Lidl"), yesterday, tomorrow, 10.0, yesterday);
+        d2 = new Discount(p1, store("Lidl"), yesterday.minusDays(5), yesterday, 15.0, yesterday.minusDays(5));
+        d3 = new Discount(p2, store("Kaufland"), tomorrow, nextWeek, 20.0, today);
+        d4 = new Discount(p2, store("Profi"), today, nextWeek, 5.0, today);
     }
 
     @Test
@@ -158,4 +160,20 @@ class InMemoryDiscountRepositoryTest {
         discountRepository.deleteAll();
         assertTrue(discountRepository.findAll().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("ReplaceAll should swap in the new discounts and rebuild the active period index")
+    void replaceAll_SwapsDiscountsAndIndex() {
+        discountRepository.saveAll(Arrays.asList(d1, d2));
+
+        discountRepository.replaceAll(Arrays.asList(d3, d4));
+
+        assertEquals(List.of(d3, d4), discountRepository.findAll());
+        assertEquals(List.of(d4), discountRepository.findActiveOnDate(today));
+        assertTrue(discountRepository.findByProductId("P001").isEmpty());
+    }
+
+    private int store(String name) {
+        return nameDictionaries.stores().idOf(name);
+    }
+}
@@ -20,6 +20,8 @@ import static org.mockito.Mockito.when;
 
 class InMemoryPriceEntryRepositoryTest {
 
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
     private PriceEntryRepository priceEntryRepository;
     private Product p1, p2;
     private PriceEntry pe1, pe2, pe3, pe4;
@@ -27,7 +29,7 @@ class InMemoryPriceEntryRepositoryTest {
 
     @BeforeEach
     void setUp() {
-        priceEntryRepository = new InMemoryPriceEntryRepository();
+        priceEntryRepository = new InMemoryPriceEntryRepository(nameDictionaries);
         p1 = mock(Product.class);
         when(p1.getProductId()).thenReturn("P001");
         p2 = mock(Product.class);
@@ -36,10 +38,10 @@ class InMemoryPriceEntryRepositoryTest {
         date1 = LocalDate.of(2023, 10, 1);
         date2 = LocalDate.of(2023, 10, 2);
 
-        pe1 = new PriceEntry(p1, "Lidl", date1, 10.0, "RON");
-        pe2 = new PriceEntry(p2, "Lidl", date1, 5.50, "RON");
-        pe3 = new PriceEntry(p1, "Kaufland", date1, 10.20, "RON");
-        pe4 = new PriceEntry(p1, "Lidl", date2, 9.80, "RON"); // Same product, store, different date
+        pe1 = new PriceEntry(p1, store("Lidl"), date1, 10.0, "RON");
+        pe2 = new PriceEntry(p2, store("Lidl"), date1, 5.50, "RON");
+        pe3 = new PriceEntry(p1, store("Kaufland"), date1, 10.20, "RON");
+        pe4 = new PriceEntry(p1, store("Lidl"), date2, 9.80, "RON"); // Same product, store, different date
     }
 
     @Test
@@ -95,6 +97,7 @@ class InMemoryPriceEntryRepositoryTest {
         
         assertTrue(priceEntryRepository.findByProductId("P999").isEmpty());
         assertTrue(priceEntryRepository.findByProductId(null).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> priceEntryRepository.findByProductId(null).add(pe1));
     }
 
     @Test
@@ -152,4 +155,52 @@ class InMemoryPriceEntryRepositoryTest {
         priceEntryRepository.deleteAll();
         assertTrue(priceEntryRepository.findAll().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("DeleteAll should also clear the lookup indexes")
+    void deleteAll_ClearsIndexes() {
+        priceEntryRepository.saveAll(Arrays.asList(pe1, pe2, pe3, pe4));
+        priceEntryRepository.deleteAll();
+
+        assertTrue(priceEntryRepository.findByProductId("P001").isEmpty());
+        assertTrue(priceEntryRepository.findByStoreName("Lidl").isEmpty());
+        assertTrue(priceEntryRepository.findByEntryDate(date1).isEmpty());
+        assertTrue(priceEntryRepository.findByStoreNameAndEntryDate("Lidl", date1).isEmpty());
+
+        priceEntryRepository.save(pe3);
+        assertEquals(List.of(pe3), priceEntryRepository.findByProductId("P001"));
+        assertEquals(List.of(pe3), priceEntryRepository.findByStoreNameAndEntryDate("KAUFLAND", date1));
+    }
+
+    @Test
+    @DisplayName("Finder results should be read-only snapshots that later writes do not change")
+    void findByProductId_ReturnsSnapshot() {
+        priceEntryRepository.saveAll(Arrays.asList(pe1, pe4));
+        List<PriceEntry> snapshot = priceEntryRepository.findByProductId("P001");
+        List<PriceEntry> allBefore = priceEntryRepository.findAll();
+
+        assertThrows(UnsupportedOperationException.class, snapshot::clear);
+        priceEntryRepository.save(pe3);
+
+        assertEquals(List.of(pe1, pe4), snapshot);
+        assertEquals(List.of(pe1, pe4), allBefore);
+        assertEquals(List.of(pe1, pe4, pe3), priceEntryRepository.findByProductId("P001"));
+    }
+
+    @Test
+    @DisplayName("ReplaceAll should swap in the new entries and rebuild the indexes")
+    void replaceAll_SwapsEntriesAndIndexes() {
+        priceEntryRepository.saveAll(Arrays.asList(pe1, pe2));
+
+        priceEntryRepository.replaceAll(Arrays.asList(pe3, null, pe4));
+
+        assertEquals(List.of(pe3, pe4), priceEntryRepository.findAll());
+        assertTrue(priceEntryRepository.findByProductId("P002").isEmpty());
+        assertEquals(List.of(pe4), priceEntryRepository.findByStoreName("Lidl"));
+        assertEquals(List.of(pe3), priceEntryRepository.findByStoreNameAndEntryDate("Kaufland", date1));
+    }
+
+    private int store(String name) {
+        return nameDictionaries.stores().idOf(name);
+    }
+}
@@ -14,18 +14,20 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class InMemoryProductRepositoryTest {
 
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
     private ProductRepository productRepository;
 
     private Product p1, p2, p3;
 
     @BeforeEach
     void setUp() {
-        productRepository = new InMemoryProductRepository(); // Creează o instanță nouă pentru fiecare test
+        productRepository = new InMemoryProductRepository(nameDictionaries); // Creează o instanță nouă pentru fiecare test
 
         // Produse de test
-        p1 = new Product("P001", "Lapte Zuzu", "Lactate", "Zuzu", 1.0, "l");
-        p2 = new Product("P002", "Pâine albă", "Panificație", "Vel Pitar", 0.5, "kg");
-        p3 = new Product("P003", "Iaurt de băut Zuzu", "Lactate", "Zuzu", 0.33, "kg");
+        p1 = new Product("P001", "Lapte Zuzu", category("Lactate"), "Zuzu", 1.0, "l");
+        p2 = new Product("P002", "Pâine albă", category("Panificație"), "Vel Pitar", 0.5, "kg");
+        p3 = new Product("P003", "Iaurt de băut Zuzu", category("Lactate"), "Zuzu", 0.33, "kg");
     }
 
     @Test
@@ -35,7 +37,7 @@ class InMemoryProductRepositoryTest {
         assertEquals(1, productRepository.count());
         assertTrue(productRepository.findById("P001").isPresent());
 
-        Product updatedP1 = new Product("P001", "Lapte Zuzu 1.5%", "Lactate", "Zuzu", 1.0, "l");
+        Product updatedP1 = new Product("P001", "Lapte Zuzu 1.5%", category("Lactate"), "Zuzu", 1.0, "l");
         productRepository.save(updatedP1);
         assertEquals(1, productRepository.count()); // Numărul nu ar trebui să crească
         assertEquals("Lapte Zuzu 1.5%", productRepository.findById("P001").get().getProductName());
@@ -45,7 +47,7 @@ class InMemoryProductRepositoryTest {
     @DisplayName("Save should throw IllegalArgumentException for null product or product with null ID")
     void save_NullProductOrId_ThrowsException() {
         assertThrows(IllegalArgumentException.class, () -> productRepository.save(null));
-        Product productWithNullId = new Product(null, "Test", "Cat", "Brand", 1, "l");
+        Product productWithNullId = new Product(null, "Test", category("Cat"), "Brand", 1, "l");
         assertThrows(IllegalArgumentException.class, () -> productRepository.save(productWithNullId));
     }
 
@@ -162,7 +164,7 @@ class InMemoryProductRepositoryTest {
     void delete_NullEntityOrEntityWithNullId_DoesNothing() {
         productRepository.save(p1);
         assertDoesNotThrow(() -> productRepository.delete(null));
-        Product productWithNullId = new Product(null, "Test", "Cat", "Brand", 1, "l");
+        Product productWithNullId = new Product(null, "Test", category("Cat"), "Brand", 1, "l");
         assertDoesNotThrow(() -> productRepository.delete(productWithNullId));
         assertEquals(1, productRepository.count());
     }
@@ -232,6 +234,28 @@ class InMemoryProductRepositoryTest {
         assertFalse(productRepository.findByProductNameAndBrand("Lapte", null).isPresent());
     }
 
+    @Test
+    @DisplayName("Category, brand and name lookups should follow updates, deletes and replaceAll")
+    void findByCategoryAndBrand_FollowWrites() {
+        productRepository.saveAll(Arrays.asList(p1, p2, p3));
+        Product movedP3 = new Product("P003", "Iaurt de băut", category("Băuturi"), "Napolact", 0.33, "kg");
+        productRepository.save(movedP3);
+
+        assertEquals(List.of(p1), productRepository.findByCategory("LACTATE"));
+        assertEquals(List.of(movedP3), productRepository.findByCategory(" băuturi "));
+        assertEquals(List.of(p1), productRepository.findByBrand("zuzu"));
+        assertFalse(productRepository.findByProductNameAndBrand("Iaurt de băut Zuzu", "Zuzu").isPresent());
+        assertEquals(Optional.of(movedP3), productRepository.findByProductNameAndBrand("iaurt de băut", "napolact"));
+
+        productRepository.deleteById("P001");
+        assertTrue(productRepository.findByCategory("Lactate").isEmpty());
+        assertTrue(productRepository.findByProductNameAndBrand("Lapte Zuzu", "Zuzu").isEmpty());
+
+        productRepository.replaceAll(List.of(p1));
+        assertEquals(List.of(p1), productRepository.findByBrand("Zuzu"));
+        assertTrue(productRepository.findByBrand("Vel Pitar").isEmpty());
+    }
+
     @Test
     @DisplayName("FindByProductNameContaining should return products with name containing substring (case-insensitive)")
     void findByProductNameContaining_ReturnsMatchingProducts() {
@@ -252,4 +276,41 @@ class InMemoryProductRepositoryTest {
         // Comportamentul pentru string gol depinde de implementare, aici am făcut să returneze listă goală
         assertTrue(productRepository.findByProductNameContaining("  ").isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("ReplaceAll should keep only the given products")
+    void replaceAll_KeepsOnlyGivenProducts() {
+        productRepository.saveAll(Arrays.asList(p1, p2));
+        Product updatedP1 = new Product("P001", "Lapte Zuzu 1.5%", category("Lactate"), "Zuzu", 1.0, "l");
+
+        productRepository.replaceAll(Arrays.asList(updatedP1, p3));
+
+        assertEquals(2, productRepository.count());
+        assertEquals("Lapte Zuzu 1.5%", productRepository.findById("P001").get().getProductName());
+        assertFalse(productRepository.existsById("P002"));
+        assertTrue(productRepository.existsById("P003"));
+    }
+
+    @Test
+    @DisplayName("Updating or deleting some products should leave the other index entries in place")
+    void indexes_UpdateOnlyChangedProducts() {
+        InMemoryProductRepository repository = new InMemoryProductRepository(nameDictionaries);
+        Product p4 = new Product("P004", "Brânză Zuzu", category("Lactate"), "Zuzu", 0.2, "kg");
+        repository.saveAll(Arrays.asList(p1, p2, p3, p4));
+        Product renamedP3 = new Product("P003", "Iaurt Zuzu", category("Lactate"), "Zuzu", 0.33, "kg");
+        repository.save(renamedP3);
+
+        assertEquals(List.of(p1, renamedP3, p4), repository.findByCategory("Lactate"));
+        assertEquals(Optional.of(renamedP3), repository.findByProductNameAndBrand("iaurt zuzu", "zuzu"));
+
+        repository.deleteAllGivenProducts(List.of(p1, p4));
+        assertEquals(2, repository.count());
+        assertEquals(List.of(renamedP3), repository.findByBrand("Zuzu"));
+        assertEquals(List.of(p2), repository.findByCategory("Panificație"));
+        assertEquals(2, repository.findAll().size());
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.shoppingapp.services;
+
+import org.example.shoppingapp.model.dto.DiscountedProductDTO;
+import org.example.shoppingapp.model.dto.PriceHistoryDataPointDTO;
+import org.example.shoppingapp.service.CachedQueryService;
+import org.example.shoppingapp.service.DataLoadingService;
+import org.example.shoppingapp.service.DiscountService;
+import org.example.shoppingapp.service.PriceHistoryService;
+import org.example.shoppingapp.service.ProductRecommendationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachedQueryServiceTest {
+
+    @Mock
+    private DiscountService mockDiscountService;
+    @Mock
+    private ProductRecommendationService mockProductRecommendationService;
+    @Mock
+    private PriceHistoryService mockPriceHistoryService;
+    @Mock
+    private DataLoadingService mockDataLoadingService;
+
+    private CachedQueryService cachedQueryService;
+    private DiscountedProductDTO discount;
+
+    @BeforeEach
+    void setUp() {
+        cachedQueryService = new CachedQueryService(mockDiscountService, mockProductRecommendationService,
+                mockPriceHistoryService, mockDataLoadingService);
+        discount = new DiscountedProductDTO("P001", "Lapte", "BrandA", "Lidl",
+                new BigDecimal("10.00"), new BigDecimal("8.00"), 20, "1.00 l");
+    }
+
+    @Test
+    @DisplayName("A repeated query should be answered from the cache until the data version changes")
+    void getBestCurrentDiscounts_CachedUntilDataVersionChanges() {
+        when(mockDataLoadingService.getDataVersion()).thenReturn(1L);
+        when(mockDiscountService.getBestCurrentDiscounts(10)).thenReturn(List.of(discount));
+
+        assertEquals(List.of(discount), cachedQueryService.getBestCurrentDiscounts(10));
+        assertEquals(List.of(discount), cachedQueryService.getBestCurrentDiscounts(10));
+        verify(mockDiscountService, times(1)).getBestCurrentDiscounts(10);
+
+        when(mockDataLoadingService.getDataVersion()).thenReturn(2L);
+        cachedQueryService.getBestCurrentDiscounts(10);
+        verify(mockDiscountService, times(2)).getBestCurrentDiscounts(10);
+
+        CachedQueryService.Stats stats = cachedQueryService.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    @DisplayName("Results computed while the data is changing should not be cached")
+    void getBestCurrentDiscounts_NotCachedWhileDataChanging() {
+        when(mockDataLoadingService.getDataVersion()).thenReturn(1L);
+        when(mockDataLoadingService.isDataChanging()).thenReturn(true);
+        when(mockDiscountService.getBestCurrentDiscounts(10)).thenReturn(List.of(discount));
+
+        cachedQueryService.getBestCurrentDiscounts(10);
+        cachedQueryService.getBestCurrentDiscounts(10);
+        verify(mockDiscountService, times(2)).getBestCurrentDiscounts(10);
+        assertEquals(0, cachedQueryService.getStats().getSize());
+
+        when(mockDataLoadingService.isDataChanging()).thenReturn(false);
+        cachedQueryService.getBestCurrentDiscounts(10);
+        cachedQueryService.getBestCurrentDiscounts(10);
+        verify(mockDiscountService, times(3)).getBestCurrentDiscounts(10);
+        assertEquals(1, cachedQueryService.getStats().getSize());
+    }
+
+    @Test
+    @DisplayName("Queries should be cached per parameters, including absent ones")
+    void getPriceHistory_KeyedByParameters() {
+        LocalDate from = LocalDate.of(2025, 5, 1);
+        PriceHistoryDataPointDTO point = new PriceHistoryDataPointDTO(from, new BigDecimal("9.99"), "Lidl");
+        when(mockPriceHistoryService.getPriceHistory(any(), any(), any(), any(), any(), any())).thenReturn(List.of(point));
+
+        cachedQueryService.getPriceHistory("P001", Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(from), Optional.empty());
+        cachedQueryService.getPriceHistory("P001", Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(from), Optional.empty());
+        cachedQueryService.getPriceHistory("P001", Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+        cachedQueryService.getPriceHistory(null, Optional.empty(), Optional.of("lactate"), Optional.empty(), Optional.empty(), Optional.empty());
+
+        verify(mockPriceHistoryService, times(3)).getPriceHistory(any(), any(), any(), any(), any(), any());
+        assertEquals(1, cachedQueryService.getStats().getHits());
+    }
+
+    @Test
+    @DisplayName("The least recently used result should be evicted when the cache is full")
+    void getBestCurrentDiscounts_EvictsLeastRecentlyUsed() {
+        ReflectionTestUtils.setField(cachedQueryService, "maxEntries", 2);
+        when(mockDiscountService.getBestCurrentDiscounts(anyInt())).thenReturn(List.of(discount));
+
+        cachedQueryService.getBestCurrentDiscounts(1);
+        cachedQueryService.getBestCurrentDiscounts(2);
+        cachedQueryService.getBestCurrentDiscounts(1);
+        cachedQueryService.getBestCurrentDiscounts(3); // evicts 2
+        cachedQueryService.getBestCurrentDiscounts(1);
+        cachedQueryService.getBestCurrentDiscounts(2);
+
+        verify(mockDiscountService, times(1)).getBestCurrentDiscounts(1);
+        verify(mockDiscountService, times(2)).getBestCurrentDiscounts(2);
+        CachedQueryService.Stats stats = cachedQueryService.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(4, stats.getMisses());
+        assertEquals(2, stats.getEvictions());
+        assertEquals(2, stats.getSize());
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.shoppingapp.services;
+
+import org.example.shoppingapp.service.DataDirectoryWatcher;
+import org.example.shoppingapp.service.DataLoadingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataDirectoryWatcherTest {
+
+    @Mock
+    private DataLoadingService mockDataLoadingService;
+
+    @InjectMocks
+    private DataDirectoryWatcher dataDirectoryWatcher;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dataDirectoryWatcher, "dataDirectoryPath", tempDir.toString());
+        ReflectionTestUtils.setField(dataDirectoryWatcher, "debounceMillis", 50L);
+        ReflectionTestUtils.setField(dataDirectoryWatcher, "queueCapacity", 4);
+        ReflectionTestUtils.setField(dataDirectoryWatcher, "maxBatchFiles", 8);
+        dataDirectoryWatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataDirectoryWatcher.stop();
+    }
+
+    @Test
+    @DisplayName("New price and discount files should be handed to the loading service")
+    void newDataFiles_AreIngested() throws IOException {
+        Path pricesFile = Files.writeString(tempDir.resolve("lidl_2025-05-08.csv"), "header\n");
+        Path discountsFile = Files.writeString(tempDir.resolve("lidl_discounts_2025-05-08.csv"), "header\n");
+
+        verify(mockDataLoadingService, timeout(5000).atLeastOnce()).applyFileChanges(argThat(files -> files.contains(pricesFile)));
+        verify(mockDataLoadingService, timeout(5000).atLeastOnce()).applyFileChanges(argThat(files -> files.contains(discountsFile)));
+    }
+
+    @Test
+    @DisplayName("Files that are not store price or discount files should be ignored")
+    void otherFiles_AreIgnored() throws IOException {
+        Path notesFile = Files.writeString(tempDir.resolve("notes.csv"), "x\n");
+        Path pricesFile = Files.writeString(tempDir.resolve("profi_2025-05-08.csv"), "header\n");
+
+        verify(mockDataLoadingService, timeout(5000).atLeastOnce()).applyFileChanges(argThat(files -> files.contains(pricesFile)));
+        verify(mockDataLoadingService, never()).applyFileChanges(argThat(files -> files.contains(notesFile)));
+    }
+}
@@ -4,32 +4,51 @@ import org.example.shoppingapp.model.Discount;
 import org.example.shoppingapp.model.PriceEntry;
 import org.example.shoppingapp.model.Product;
 import org.example.shoppingapp.model.User;
+import org.example.shoppingapp.repository.NameDictionaries;
 import org.example.shoppingapp.repository.interfaces.DiscountRepository;
 import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
 import org.example.shoppingapp.repository.interfaces.ProductRepository;
 import org.example.shoppingapp.repository.interfaces.UserRepository;
 import org.example.shoppingapp.service.DataLoadingService;
+import org.example.shoppingapp.service.PriceHistoryArchive;
 import org.example.shoppingapp.utils.CsvDataParser;
+import org.example.shoppingapp.utils.DataFileFingerprint;
+import org.example.shoppingapp.utils.DataSnapshot;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -48,6 +67,10 @@ class DataLoadingServiceTest {
     private DiscountRepository mockDiscountRepository;
     @Mock
     private UserRepository mockUserRepository;
+    @Mock
+    private PriceHistoryArchive mockPriceHistoryArchive;
+    @Spy
+    private NameDictionaries nameDictionaries = new NameDictionaries();
 
     @InjectMocks
     private DataLoadingService dataLoadingService;
@@ -89,9 +112,9 @@ class DataLoadingServiceTest {
     @Test
     @DisplayName("loadInitialData processes CSV files and saves data")
     void loadInitialData_ProcessesFiles_AndSavesData() throws IOException {
-        Product p1 = new Product("P1", "Prod1", "Cat1", "B1", 1, "kg");
-        PriceEntry pe1 = new PriceEntry(p1, "StoreA", LocalDate.parse("2023-01-01"), 10.0, "RON");
-        Discount d1 = new Discount(p1, "StoreA", LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-07"), 10, LocalDate.parse("2023-01-01"));
+        Product p1 = new Product("P1", "Prod1", category("Cat1"), "B1", 1, "kg");
+        PriceEntry pe1 = new PriceEntry(p1, store("StoreA"), LocalDate.parse("2023-01-01"), 10.0, "RON");
+        Discount d1 = new Discount(p1, store("StoreA"), LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-07"), 10, LocalDate.parse("2023-01-01"));
         User u1 = new User(1, "user1", "Test", "User");
         User u2 = new User(2, "user2", "Another", "User");
 
@@ -122,6 +145,30 @@ class DataLoadingServiceTest {
         verify(mockUserRepository, times(2)).save(any(User.class));
     }
 
+    @Test
+    @DisplayName("loadInitialData with parallelism > 1 ingests every file")
+    void loadInitialData_Parallel_ProcessesAllFiles() throws IOException {
+        Product p1 = new Product("P1", "Prod1", category("Cat1"), "B1", 1, "kg");
+        PriceEntry pe1 = new PriceEntry(p1, store("StoreA"), LocalDate.parse("2023-01-01"), 10.0, "RON");
+        Discount d1 = new Discount(p1, store("StoreA"), LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-07"), 10, LocalDate.parse("2023-01-01"));
+        ReflectionTestUtils.setField(dataLoadingService, "loadingParallelism", 4);
+
+        when(mockCsvDataParser.parseAllDataFromFile(pricesFile))
+                .thenReturn(new CsvDataParser.ParsedFileData(List.of(p1), List.of(pe1), Collections.emptyList()));
+        when(mockCsvDataParser.parseAllDataFromFile(discountsFile))
+                .thenReturn(new CsvDataParser.ParsedFileData(Collections.emptyList(), Collections.emptyList(), List.of(d1)));
+
+        dataLoadingService.loadInitialData();
+
+        verify(mockCsvDataParser).parseAllDataFromFile(pricesFile);
+        verify(mockCsvDataParser).parseAllDataFromFile(discountsFile);
+        verify(mockCsvDataParser).parseAllDataFromFile(usersFile);
+        verify(mockCsvDataParser, times(2)).clearPendingProducts();
+        verify(mockProductRepository).saveAll(List.of(p1));
+        verify(mockPriceEntryRepository).saveAll(List.of(pe1));
+        verify(mockDiscountRepository).saveAll(List.of(d1));
+    }
+
     @Test
     @DisplayName("loadInitialData handles IOException from CSV parsing")
     void loadInitialData_HandlesIOExceptionFromCsvParsing() throws IOException {
@@ -155,11 +202,13 @@ class DataLoadingServiceTest {
     }
 
     @Test
-    @DisplayName("reloadAllData should clear existing data and load new data")
-    void reloadAllData_ClearsAndLoads() throws IOException {
-        Product pNew1 = new Product("P_NEW1", "New Prod 1", "Cat", "B", 1, "kg");
-        PriceEntry peNew1 = new PriceEntry(pNew1, "StoreNew", LocalDate.now(), 1.0, "RON");
+    @DisplayName("reloadAllData should replace existing data and drop the names no reloaded row refers to")
+    void reloadAllData_ReplacesData() throws IOException {
+        Product pNew1 = new Product("P_NEW1", "New Prod 1", category("Cat"), "B", 1, "kg");
+        PriceEntry peNew1 = new PriceEntry(pNew1, store("StoreNew"), LocalDate.now(), 1.0, "RON");
         User userReload1 = new User(10, "reloadUser1", "Reload", "Test");
+        int storeOld = store("StoreOld");
+        int categoryOld = category("OldCat");
 
         CsvDataParser.ParsedFileData dataFromFile1 = new CsvDataParser.ParsedFileData(
                 List.of(pNew1), List.of(peNew1), Collections.emptyList()
@@ -177,13 +226,183 @@ class DataLoadingServiceTest {
 
         dataLoadingService.reloadAllData();
 
-        verify(mockProductRepository).deleteAll();
-        verify(mockPriceEntryRepository).deleteAll();
-        verify(mockDiscountRepository).deleteAll();
+        verify(mockProductRepository, never()).deleteAll();
+        verify(mockPriceEntryRepository, never()).deleteAll();
+        verify(mockDiscountRepository, never()).deleteAll();
 
-        verify(mockProductRepository).saveAll(List.of(pNew1));
-        verify(mockPriceEntryRepository).saveAll(List.of(peNew1));
+        ArgumentCaptor<Collection<Product>> products = ArgumentCaptor.forClass(Collection.class);
+        verify(mockProductRepository).replaceAll(products.capture());
+        assertEquals(List.of(pNew1), new ArrayList<>(products.getValue()));
+        verify(mockPriceEntryRepository).replaceAll(List.of(peNew1));
+        verify(mockDiscountRepository).replaceAll(Collections.emptyList());
         verify(mockUserRepository).save(userReload1);
+
+        assertEquals("StoreNew", nameDictionaries.stores().nameOf(peNew1.getStoreId()));
+        assertEquals("Cat", nameDictionaries.categories().nameOf(pNew1.getCategoryId()));
+        assertNull(nameDictionaries.stores().nameOf(storeOld));
+        assertNull(nameDictionaries.categories().nameOf(categoryOld));
+    }
+
+    @Test
+    @DisplayName("reloadAllData should keep the loaded data if a file fails to parse")
+    void reloadAllData_ParseError_KeepsData() throws IOException {
+        when(mockCsvDataParser.parseAllDataFromFile(discountsFile)).thenThrow(new IOException("Test parse error"));
+
+        dataLoadingService.reloadAllData();
+
+        verify(mockProductRepository, never()).replaceAll(any());
+        verify(mockPriceEntryRepository, never()).replaceAll(any());
+        verify(mockDiscountRepository, never()).replaceAll(any());
+    }
+
+    @Test
+    @DisplayName("reloadChangedData should not re-parse files that did not change")
+    void reloadChangedData_NoChanges_DoesNotReparse() throws IOException {
+        dataLoadingService.loadInitialData();
+
+        dataLoadingService.reloadChangedData();
+
+        verify(mockCsvDataParser, times(1)).parseAllDataFromFile(pricesFile);
+        verify(mockCsvDataParser, times(1)).parseAllDataFromFile(discountsFile);
+        verify(mockPriceEntryRepository, never()).replaceAll(any());
+        verify(mockPriceEntryRepository, never()).deleteAll();
+    }
+
+    @Test
+    @DisplayName("loadInitialData should restore a current snapshot instead of parsing the CSV files")
+    void loadInitialData_CurrentSnapshot_SkipsParsing() throws IOException {
+        Product p1 = new Product("P1", "Prod1", category("Cat1"), "B1", 1, "kg");
+        PriceEntry pe1 = new PriceEntry(p1, store("StoreA"), LocalDate.parse("2023-01-01"), 10.0, "RON");
+        Map<String, DataSnapshot.FileState> files = new LinkedHashMap<>();
+        for (Path file : List.of(pricesFile, discountsFile, usersFile)) {
+            files.put(file.getFileName().toString(),
+                    new DataSnapshot.FileState(DataFileFingerprint.of(file), Set.of(), Set.of()));
+        }
+        new DataSnapshot(List.of(p1), List.of(pe1), List.of(), List.of(), files).writeTo(tempDir.resolve("snapshot.bin"), nameDictionaries);
+        ReflectionTestUtils.setField(dataLoadingService, "snapshotEnabled", true);
+
+        dataLoadingService.loadInitialData();
+
+        verify(mockCsvDataParser, never()).parseAllDataFromFile(any(Path.class));
+        verify(mockCsvDataParser, never()).parseUsersFile(any(Path.class));
+        verify(mockPriceEntryRepository).saveAll(List.of(pe1));
+        assertEquals(1, dataLoadingService.getDataVersion());
+    }
+
+    @Test
+    @DisplayName("reloadChangedData should re-parse a changed file and replace only its rows")
+    void reloadChangedData_ChangedFile_ReplacesItsRows() throws IOException {
+        Product p1 = new Product("P1", "Prod1", category("Cat1"), "B1", 1, "kg");
+        Product p2 = new Product("P2", "Prod2", category("Cat1"), "B1", 1, "kg");
+        PriceEntry peOld = new PriceEntry(p1, store("storeA"), LocalDate.parse("2023-01-01"), 10.0, "RON");
+        PriceEntry peOtherStore = new PriceEntry(p2, store("storeB"), LocalDate.parse("2023-01-01"), 3.0, "RON");
+        PriceEntry peNew = new PriceEntry(p1, store("storeA"), LocalDate.parse("2023-01-01"), 9.0, "RON");
+        when(mockCsvDataParser.parseAllDataFromFile(pricesFile)).thenReturn(
+                new CsvDataParser.ParsedFileData(List.of(p1), List.of(peOld), Collections.emptyList()),
+                new CsvDataParser.ParsedFileData(Collections.emptyList(), List.of(peNew), Collections.emptyList()));
+        dataLoadingService.loadInitialData();
+
+        Files.writeString(pricesFile, "changed content");
+        when(mockPriceEntryRepository.findAll()).thenReturn(List.of(peOld, peOtherStore));
+        dataLoadingService.reloadChangedData();
+
+        verify(mockCsvDataParser, times(2)).parseAllDataFromFile(pricesFile);
+        verify(mockCsvDataParser, times(1)).parseAllDataFromFile(discountsFile);
+        verify(mockPriceEntryRepository).replaceAll(List.of(peOtherStore, peNew));
+        verify(mockDiscountRepository).replaceAll(Collections.emptyList());
+        ArgumentCaptor<Collection<Product>> products = ArgumentCaptor.forClass(Collection.class);
+        verify(mockProductRepository).replaceAll(products.capture());
+        assertEquals(List.of(p2, p1), new ArrayList<>(products.getValue()));
+        verify(mockPriceEntryRepository, never()).deleteAll();
+    }
+
+    @Test
+    @DisplayName("reloadChangedData should retract the rows of deleted files")
+    void reloadChangedData_DeletedFile_RetractsItsRows() throws IOException {
+        Product p1 = new Product("P1", "Prod1", category("Cat1"), "B1", 1, "kg");
+        Discount d1 = new Discount(p1, store("storeA"), LocalDate.parse("2023-01-01"), LocalDate.parse("2023-01-07"), 10, LocalDate.parse("2023-01-01"));
+        when(mockCsvDataParser.parseAllDataFromFile(discountsFile))
+                .thenReturn(new CsvDataParser.ParsedFileData(List.of(p1), Collections.emptyList(), List.of(d1)));
+        dataLoadingService.loadInitialData();
+
+        Files.delete(discountsFile);
+        when(mockDiscountRepository.findAll()).thenReturn(List.of(d1));
+        dataLoadingService.reloadChangedData();
+
+        verify(mockDiscountRepository).replaceAll(Collections.emptyList());
+        verify(mockPriceEntryRepository).replaceAll(Collections.emptyList());
+        ArgumentCaptor<Collection<Product>> products = ArgumentCaptor.forClass(Collection.class);
+        verify(mockProductRepository).replaceAll(products.capture());
+        assertTrue(products.getValue().isEmpty());
+    }
+
+    @Test
+    @DisplayName("reloadChangedData should keep the rows of an unchanged file sharing a store and date with a changed one")
+    void reloadChangedData_SharedStoreAndDate_KeepsUnchangedFileRows() throws IOException {
+        Path weekendDiscountsFile = Files.createFile(tempDir.resolve("storeA_weekend_discounts_2023-01-01.csv"));
+        Product p1 = new Product("P1", "Prod1", category("Cat1"), "B1", 1, "kg");
+        Product p2 = new Product("P2", "Prod2", category("Cat1"), "B1", 1, "kg");
+        LocalDate day = LocalDate.parse("2023-01-01");
+        Discount dOld = new Discount(p1, store("storeA"), day, day.plusDays(6), 10, day);
+        Discount dWeekend = new Discount(p2, store("storeA"), day, day.plusDays(1), 20, day);
+        Discount dNew = new Discount(p1, store("storeA"), day, day.plusDays(6), 15, day);
+        when(mockCsvDataParser.parseAllDataFromFile(discountsFile)).thenReturn(
+                new CsvDataParser.ParsedFileData(List.of(p1), Collections.emptyList(), List.of(dOld)),
+                new CsvDataParser.ParsedFileData(Collections.emptyList(), Collections.emptyList(), List.of(dNew)));
+        when(mockCsvDataParser.parseAllDataFromFile(weekendDiscountsFile))
+                .thenReturn(new CsvDataParser.ParsedFileData(List.of(p2), Collections.emptyList(), List.of(dWeekend)));
+        dataLoadingService.loadInitialData();
+
+        Files.writeString(discountsFile, "changed content");
+        when(mockDiscountRepository.findAll()).thenReturn(List.of(dOld, dWeekend));
+        dataLoadingService.reloadChangedData();
+
+        verify(mockCsvDataParser, times(2)).parseAllDataFromFile(weekendDiscountsFile);
+        verify(mockDiscountRepository).replaceAll(List.of(dNew, dWeekend));
+    }
+
+    @Test
+    @DisplayName("reloadChangedData should keep the rows of a shared store and date if a file re-read with it fails to parse")
+    void reloadChangedData_SharedFileParseError_KeepsRowsAndRetries() throws IOException {
+        Path weekendDiscountsFile = Files.createFile(tempDir.resolve("storeA_weekend_discounts_2023-01-01.csv"));
+        Product p1 = new Product("P1", "Prod1", category("Cat1"), "B1", 1, "kg");
+        Product p2 = new Product("P2", "Prod2", category("Cat1"), "B1", 1, "kg");
+        LocalDate day = LocalDate.parse("2023-01-01");
+        Discount dOld = new Discount(p1, store("storeA"), day, day.plusDays(6), 10, day);
+        Discount dWeekend = new Discount(p2, store("storeA"), day, day.plusDays(1), 20, day);
+        Discount dNew = new Discount(p1, store("storeA"), day, day.plusDays(6), 15, day);
+        when(mockCsvDataParser.parseAllDataFromFile(discountsFile)).thenReturn(
+                new CsvDataParser.ParsedFileData(List.of(p1), Collections.emptyList(), List.of(dOld)),
+                new CsvDataParser.ParsedFileData(Collections.emptyList(), Collections.emptyList(), List.of(dNew)));
+        when(mockCsvDataParser.parseAllDataFromFile(weekendDiscountsFile))
+                .thenReturn(new CsvDataParser.ParsedFileData(List.of(p2), Collections.emptyList(), List.of(dWeekend)))
+                .thenThrow(new IOException("Test parse error"))
+                .thenReturn(new CsvDataParser.ParsedFileData(Collections.emptyList(), Collections.emptyList(), List.of(dWeekend)));
+        dataLoadingService.loadInitialData();
+
+        Files.writeString(discountsFile, "changed content");
+        when(mockDiscountRepository.findAll()).thenReturn(List.of(dOld, dWeekend));
+        dataLoadingService.reloadChangedData();
+
+        verify(mockDiscountRepository, never()).replaceAll(any());
+
+        dataLoadingService.reloadChangedData();
+
+        verify(mockDiscountRepository).replaceAll(List.of(dNew, dWeekend));
+    }
+
+    @Test
+    @DisplayName("reloadChangedData should re-read a touched file once, then recognize touches by its checksum")
+    void reloadChangedData_TouchedFile_ParsedOnceThenRecognized() throws IOException {
+        dataLoadingService.loadInitialData();
+        long loadedMillis = Files.getLastModifiedTime(pricesFile).toMillis();
+
+        Files.setLastModifiedTime(pricesFile, FileTime.fromMillis(loadedMillis + 10_000));
+        dataLoadingService.reloadChangedData();
+        Files.setLastModifiedTime(pricesFile, FileTime.fromMillis(loadedMillis + 20_000));
+        dataLoadingService.reloadChangedData();
+
+        verify(mockCsvDataParser, times(2)).parseAllDataFromFile(pricesFile);
     }
 
     @Test
@@ -238,4 +457,33 @@ class DataLoadingServiceTest {
         verify(mockUserRepository, times(1)).save(u2New);
         verify(mockUserRepository, never()).save(u1Existing);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("A background initial load should count as complete only after the actions waiting for it have run")
+    void loadInitialData_Background_RunsActionsBeforeCompleting() throws Exception {
+        CountDownLatch parsing = new CountDownLatch(1);
+        when(mockCsvDataParser.parseAllDataFromFile(pricesFile)).thenAnswer(invocation -> {
+            parsing.await();
+            return new CsvDataParser.ParsedFileData(Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+        });
+        ReflectionTestUtils.setField(dataLoadingService, "backgroundLoading", true);
+        AtomicBoolean actionRan = new AtomicBoolean();
+
+        dataLoadingService.loadInitialData();
+        dataLoadingService.whenInitialLoadComplete(() -> actionRan.set(true));
+        assertFalse(dataLoadingService.isInitialLoadComplete());
+        assertFalse(actionRan.get());
+
+        parsing.countDown();
+        assertTrue(dataLoadingService.awaitInitialLoad(10, TimeUnit.SECONDS));
+        assertTrue(actionRan.get());
+    }
+
+    private int store(String name) {
+        return nameDictionaries.stores().idOf(name);
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.shoppingapp.services;
+
+import org.example.shoppingapp.model.Discount;
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.model.dto.DiscountedProductDTO;
+import org.example.shoppingapp.repository.InMemoryDiscountRepository;
+import org.example.shoppingapp.repository.InMemoryPriceEntryRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.service.DiscountService;
+import org.example.shoppingapp.service.LatestPriceView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscountServiceTest {
+
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
+    private InMemoryPriceEntryRepository priceEntryRepository;
+    private InMemoryDiscountRepository discountRepository;
+    private DiscountService discountService;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        priceEntryRepository = new InMemoryPriceEntryRepository(nameDictionaries);
+        discountRepository = new InMemoryDiscountRepository(nameDictionaries);
+        discountService = new DiscountService(discountRepository,
+                new LatestPriceView(priceEntryRepository, nameDictionaries), nameDictionaries);
+        today = LocalDate.now();
+    }
+
+    private Product pricedProduct(String productId, double price) {
+        Product product = new Product(productId, "Produs " + productId, category("Lactate"), "BrandA", 1.0, "l");
+        priceEntryRepository.save(new PriceEntry(product, store("Lidl"), today, price, "RON"));
+        return product;
+    }
+
+    private Discount activeDiscount(Product product, double percentage, LocalDate observed) {
+        return new Discount(product, store("Lidl"), today.minusDays(1), today.plusDays(1), percentage, observed);
+    }
+
+    private static List<String> productIds(List<DiscountedProductDTO> discounts) {
+        return discounts.stream().map(DiscountedProductDTO::getProductId).collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("Best discounts should be the highest percentages with a reference price, equal ones in list order")
+    void getBestCurrentDiscounts_TopByPercentage() {
+        Product p1 = pricedProduct("P001", 10.0);
+        Product p2 = pricedProduct("P002", 20.0);
+        Product p3 = pricedProduct("P003", 30.0);
+        Product unpriced = new Product("P004", "Fara pret", category("Lactate"), "BrandA", 1.0, "l");
+        discountRepository.saveAll(List.of(
+                activeDiscount(p1, 20, today),
+                activeDiscount(unpriced, 50, today),
+                activeDiscount(p2, 30, today),
+                activeDiscount(p3, 20, today),
+                activeDiscount(p1, 0, today)));
+
+        List<DiscountedProductDTO> best = discountService.getBestCurrentDiscounts(2);
+        assertEquals(List.of("P002", "P001"), productIds(best));
+        assertEquals(new BigDecimal("14.00"), best.get(0).getDiscountedPrice());
+
+        assertEquals(List.of("P002", "P001", "P003"), productIds(discountService.getBestCurrentDiscounts(10)));
+        assertTrue(discountService.getBestCurrentDiscounts(0).isEmpty());
+    }
+
+    @Test
+    @DisplayName("New discounts should only include recently observed, active discounts")
+    void getNewDiscounts_OnlyRecentlyObserved() {
+        Product p1 = pricedProduct("P001", 10.0);
+        Product p2 = pricedProduct("P002", 20.0);
+        discountRepository.saveAll(List.of(
+                activeDiscount(p1, 10, today),
+                activeDiscount(p2, 40, today.minusDays(5)),
+                new Discount(p2, store("Lidl"), today.minusDays(5), today.minusDays(1), 30, today)));
+
+        assertEquals(List.of("P001"), productIds(discountService.getNewDiscounts(24, 10)));
+    }
+
+    @Test
+    @DisplayName("Large discount sets should select the same discounts as small ones")
+    void getBestCurrentDiscounts_LargeSet() {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            products.add(pricedProduct("P" + i, 10.0 + i));
+        }
+        List<Discount> discounts = new ArrayList<>();
+        for (int i = 0; i < 60_000; i++) {
+            discounts.add(activeDiscount(products.get(i % 100), i % 50, today));
+        }
+        discounts.add(activeDiscount(products.get(42), 75, today));
+        discounts.add(activeDiscount(products.get(7), 60, today));
+        discountRepository.saveAll(discounts);
+
+        List<DiscountedProductDTO> best = discountService.getBestCurrentDiscounts(3);
+        assertEquals(List.of("P42", "P7", "P49"), productIds(best));
+        assertEquals(75, best.get(0).getDiscountPercentage());
+    }
+
+    private int store(String name) {
+        return nameDictionaries.stores().idOf(name);
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}
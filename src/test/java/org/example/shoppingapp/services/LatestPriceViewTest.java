@@ -0,0 +1,111 @@
+package org.example.shoppingapp.services;
+
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.repository.ColumnarPriceEntryRepository;
+import org.example.shoppingapp.repository.InMemoryPriceEntryRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.service.LatestPriceView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatestPriceViewTest {
+
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
+    private InMemoryPriceEntryRepository priceEntryRepository;
+    private LatestPriceView latestPriceView;
+    private Product p1;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        priceEntryRepository = new InMemoryPriceEntryRepository(nameDictionaries);
+        latestPriceView = new LatestPriceView(priceEntryRepository, nameDictionaries);
+        p1 = new Product("P001", "Lapte", category("Lactate"), "BrandA", 1.0, "l");
+        today = LocalDate.now();
+    }
+
+    @Test
+    @DisplayName("Latest and cheapest current prices should match the price history")
+    void findLatestAndCheapest_MatchHistory() {
+        PriceEntry lidlOld = new PriceEntry(p1, store("Lidl"), today.minusDays(20), 3.0, "RON");
+        PriceEntry lidlYesterday = new PriceEntry(p1, store("Lidl"), today.minusDays(1), 4.5, "RON");
+        PriceEntry lidlToday = new PriceEntry(p1, store("Lidl"), today, 4.9, "RON");
+        PriceEntry kauflandToday = new PriceEntry(p1, store("Kaufland"), today, 4.7, "RON");
+        priceEntryRepository.saveAll(List.of(lidlOld, lidlYesterday, lidlToday, kauflandToday));
+
+        assertEquals(Optional.of(lidlToday), latestPriceView.findLatest("P001", "LIDL"));
+        assertEquals(Set.of(lidlToday, kauflandToday), new HashSet<>(latestPriceView.findLatestPerStore("P001")));
+        assertEquals(Set.of(lidlYesterday, kauflandToday), new HashSet<>(latestPriceView.findCheapestCurrentPerStore("P001")));
+        assertEquals(Optional.of(lidlYesterday), latestPriceView.findCheapestCurrent("P001"));
+        assertTrue(latestPriceView.findCheapestCurrent("P999").isEmpty());
+    }
+
+    @Test
+    @DisplayName("The view over the columnar repository should match the one over the object-per-row repository")
+    void columnarRepository_MatchesInMemory() {
+        ColumnarPriceEntryRepository columnarRepository = new ColumnarPriceEntryRepository(nameDictionaries);
+        LatestPriceView columnarView = new LatestPriceView(columnarRepository, nameDictionaries);
+        List<PriceEntry> entries = List.of(
+                new PriceEntry(p1, store("Lidl"), today.minusDays(20), 3.0, "RON"),
+                new PriceEntry(p1, store("Lidl"), today.minusDays(2), 4.5, "RON"),
+                new PriceEntry(p1, store("Lidl"), today.minusDays(2), 4.2, "RON"),
+                new PriceEntry(p1, store("Lidl"), today, 4.9, "RON"),
+                new PriceEntry(p1, store("Kaufland"), today, 4.7, "RON"),
+                new PriceEntry(p1, store("Kaufland"), today, 4.7, "RON"),
+                new PriceEntry(p1, store("Profi"), today.minusDays(30), 2.0, "RON"));
+        priceEntryRepository.saveAll(entries);
+        columnarRepository.saveAll(entries);
+
+        assertEquals(latestPriceView.findLatest("P001", "Lidl"), columnarView.findLatest("P001", "Lidl"));
+        assertEquals(new HashSet<>(latestPriceView.findLatestPerStore("P001")),
+                new HashSet<>(columnarView.findLatestPerStore("P001")));
+        assertEquals(new HashSet<>(latestPriceView.findCheapestCurrentPerStore("P001")),
+                new HashSet<>(columnarView.findCheapestCurrentPerStore("P001")));
+        assertEquals(4.2, columnarView.findCheapestCurrent("P001").orElseThrow().getPrice());
+    }
+
+    @Test
+    @DisplayName("Prices saved after a product was read should update the view")
+    void onPriceEntriesAdded_UpdatesCachedProduct() {
+        priceEntryRepository.save(new PriceEntry(p1, store("Lidl"), today.minusDays(1), 4.5, "RON"));
+        assertEquals(4.5, latestPriceView.findCheapestCurrent("P001").orElseThrow().getPrice());
+
+        PriceEntry cheaperToday = new PriceEntry(p1, store("Lidl"), today, 4.0, "RON");
+        priceEntryRepository.saveAll(List.of(cheaperToday));
+
+        assertEquals(Optional.of(cheaperToday), latestPriceView.findLatest("P001", "Lidl"));
+        assertEquals(Optional.of(cheaperToday), latestPriceView.findCheapestCurrent("P001"));
+    }
+
+    @Test
+    @DisplayName("Replacing the repository contents should drop the view")
+    void onPriceEntriesReplaced_DropsView() {
+        priceEntryRepository.save(new PriceEntry(p1, store("Lidl"), today, 4.5, "RON"));
+        assertTrue(latestPriceView.findLatest("P001", "Lidl").isPresent());
+
+        PriceEntry profi = new PriceEntry(p1, store("Profi"), today, 5.0, "RON");
+        priceEntryRepository.replaceAll(List.of(profi));
+
+        assertTrue(latestPriceView.findLatest("P001", "Lidl").isEmpty());
+        assertEquals(Optional.of(profi), latestPriceView.findCheapestCurrent("P001"));
+    }
+
+    private int store(String name) {
+        return nameDictionaries.stores().idOf(name);
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.shoppingapp.services;
+
+import org.example.shoppingapp.model.PriceAlert;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.model.User;
+import org.example.shoppingapp.repository.InMemoryDiscountRepository;
+import org.example.shoppingapp.repository.InMemoryPriceEntryRepository;
+import org.example.shoppingapp.repository.InMemoryProductRepository;
+import org.example.shoppingapp.repository.InMemoryUserRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.service.DataLoadingService;
+import org.example.shoppingapp.service.LatestPriceView;
+import org.example.shoppingapp.service.PriceAlertLog;
+import org.example.shoppingapp.service.PriceAlertService;
+import org.example.shoppingapp.service.PriceHistoryArchive;
+import org.example.shoppingapp.utils.CsvDataParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceAlertLogTest {
+
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+    private InMemoryProductRepository productRepository;
+    private InMemoryUserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        logFile = tempDir.resolve("alerts.log");
+        productRepository = new InMemoryProductRepository(nameDictionaries);
+        productRepository.save(new Product("P001", "Lapte", category("Lactate"), "BrandA", 1.0, "l"));
+        productRepository.save(new Product("P002", "Paine", category("Panificatie"), "BrandB", 500, "g"));
+        userRepository = new InMemoryUserRepository();
+        userRepository.save(new User(1, "testuser", "Test", "User"));
+        userRepository.save(new User(2, "otheruser", "Other", "User"));
+    }
+
+    @Test
+    @DisplayName("Alerts set and removed before a restart should be restored from the log")
+    void restart_RestoresAlerts() {
+        PriceAlertService first = newService();
+        PriceAlertLog firstLog = startLog(first, 10000);
+        first.setAlert(1, "P001", 5.00);
+        first.setAlert(1, "P001", 4.50);
+        first.setAlert(1, "P002", 3.00);
+        first.setAlert(2, "P002", 2.00);
+        first.removeAlert(1, "P002");
+        firstLog.stop();
+
+        PriceAlertService restarted = newService();
+        startLog(restarted, 10000).stop();
+
+        assertEquals(Map.of("1;P001", 4.50, "2;P002", 2.00), targetsOf(restarted.getAllAlerts()));
+    }
+
+    @Test
+    @DisplayName("A torn last line should be skipped and the log compacted to the current alerts")
+    void restart_SkipsTornLineAndCompacts() throws IOException {
+        PriceAlertService first = newService();
+        PriceAlertLog firstLog = startLog(first, 2);
+        for (int i = 1; i <= 5; i++) {
+            first.setAlert(1, "P001", i);
+        }
+        firstLog.stop();
+        Files.writeString(logFile, "SET;2;P002;1.5;2026-0", StandardOpenOption.APPEND);
+
+        PriceAlertService restarted = newService();
+        startLog(restarted, 2).stop();
+
+        assertEquals(Map.of("1;P001", 5.0), targetsOf(restarted.getAllAlerts()));
+        assertEquals(1, Files.readAllLines(logFile).size());
+    }
+
+    @Test
+    @DisplayName("Alerts of products missing from the catalog should survive compaction and return once the product is loaded")
+    void restart_KeepsAlertsOfUnknownProductsThroughCompaction() throws IOException {
+        Files.writeString(logFile, "SET;1;P003;2.5;2026-01-10\nSET;1;P001;6.0;2026-01-10\nSET;1;P001;5.0;2026-01-11\n"
+                + "SET;1;P001;4.5;2026-01-12\nSET;1;P001;4.0;2026-01-13\n");
+
+        PriceAlertService withoutProduct = newService();
+        startLog(withoutProduct, 2).stop();
+        assertEquals(Map.of("1;P001", 4.0), targetsOf(withoutProduct.getAllAlerts()));
+        assertEquals(2, Files.readAllLines(logFile).size());
+
+        productRepository.save(new Product("P003", "Unt", category("Lactate"), "BrandC", 200, "g"));
+        PriceAlertService withProduct = newService();
+        startLog(withProduct, 2).stop();
+        assertEquals(Map.of("1;P001", 4.0, "1;P003", 2.5), targetsOf(withProduct.getAllAlerts()));
+    }
+
+    private PriceAlertService newService() {
+        InMemoryPriceEntryRepository priceEntryRepository = new InMemoryPriceEntryRepository(nameDictionaries);
+        return new PriceAlertService(userRepository, productRepository, priceEntryRepository,
+                new LatestPriceView(priceEntryRepository, nameDictionaries), nameDictionaries);
+    }
+
+    private PriceAlertLog startLog(PriceAlertService priceAlertService, int compactMinRecords) {
+        DataLoadingService dataLoadingService = new DataLoadingService(new CsvDataParser(productRepository, nameDictionaries),
+                productRepository, new InMemoryPriceEntryRepository(nameDictionaries), new InMemoryDiscountRepository(nameDictionaries),
+                userRepository, new PriceHistoryArchive(productRepository, nameDictionaries), nameDictionaries);
+        PriceAlertLog log = new PriceAlertLog(priceAlertService, productRepository, dataLoadingService);
+        ReflectionTestUtils.setField(log, "logFilePath", logFile.toString());
+        ReflectionTestUtils.setField(log, "flushIntervalMillis", 10L);
+        ReflectionTestUtils.setField(log, "compactMinRecords", compactMinRecords);
+        log.start();
+        return log;
+    }
+
+    private static Map<String, Double> targetsOf(List<PriceAlert> alerts) {
+        return alerts.stream().collect(Collectors.toMap(
+                alert -> alert.getUserId() + ";" + alert.getProduct().getProductId(), PriceAlert::getTargetPrice));
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}
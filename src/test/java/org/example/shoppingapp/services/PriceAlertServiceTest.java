@@ -5,25 +5,32 @@ import org.example.shoppingapp.model.PriceEntry;
 import org.example.shoppingapp.model.Product;
 import org.example.shoppingapp.model.User;
 import org.example.shoppingapp.model.dto.TriggeredAlertDTO;
+import org.example.shoppingapp.repository.NameDictionaries;
 import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
 import org.example.shoppingapp.repository.interfaces.ProductRepository;
 import org.example.shoppingapp.repository.interfaces.UserRepository;
+import org.example.shoppingapp.service.LatestPriceView;
 import org.example.shoppingapp.service.PriceAlertService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import static org.mockito.Mockito.lenient;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -31,6 +38,8 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class PriceAlertServiceTest {
 
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
     @Mock
     private UserRepository userRepository;
     @Mock
@@ -38,7 +47,6 @@ class PriceAlertServiceTest {
     @Mock
     private PriceEntryRepository priceEntryRepository;
 
-    @InjectMocks
     private PriceAlertService priceAlertService;
 
     private User user1;
@@ -47,10 +55,12 @@ class PriceAlertServiceTest {
 
     @BeforeEach
     void setUp() {
+        priceAlertService = new PriceAlertService(userRepository, productRepository, priceEntryRepository,
+                new LatestPriceView(priceEntryRepository, nameDictionaries), nameDictionaries);
         today = LocalDate.now();
         user1 = new User(1, "testuser", "Test", "User");
-        p1 = new Product("P001", "Lapte", "Lactate", "BrandA", 1.0, "l");
-        p2 = new Product("P002", "Pâine", "Panificație", "BrandB", 0.5, "kg");
+        p1 = new Product("P001", "Lapte", category("Lactate"), "BrandA", 1.0, "l");
+        p2 = new Product("P002", "Pâine", category("Panificație"), "BrandB", 0.5, "kg");
 
         lenient().when(userRepository.findById(1)).thenReturn(Optional.of(user1));
         lenient().when(productRepository.findById("P001")).thenReturn(Optional.of(p1));
@@ -121,8 +131,8 @@ class PriceAlertServiceTest {
     @DisplayName("CheckTriggeredAlerts finds alerts when price is at or below target")
     void checkTriggeredAlerts_FindsTriggered() {
         priceAlertService.setAlert(1, "P001", 5.00);
-        PriceEntry peP001Lidl = new PriceEntry(p1, "Lidl", today, 4.80, "RON");
-        PriceEntry peP001Kauf = new PriceEntry(p1, "Kaufland", today, 5.10, "RON");
+        PriceEntry peP001Lidl = new PriceEntry(p1, store("Lidl"), today, 4.80, "RON");
+        PriceEntry peP001Kauf = new PriceEntry(p1, store("Kaufland"), today, 5.10, "RON");
         when(priceEntryRepository.findByProductId("P001")).thenReturn(Arrays.asList(peP001Lidl, peP001Kauf));
 
         List<TriggeredAlertDTO> triggered = priceAlertService.checkTriggeredAlerts();
@@ -139,12 +149,26 @@ class PriceAlertServiceTest {
     @DisplayName("CheckTriggeredAlerts finds no alerts if price is above target")
     void checkTriggeredAlerts_NoTriggerIfPriceAboveTarget() {
         priceAlertService.setAlert(1, "P001", 4.00);
-        PriceEntry peP001Lidl = new PriceEntry(p1, "Lidl", today, 4.80, "RON");
+        PriceEntry peP001Lidl = new PriceEntry(p1, store("Lidl"), today, 4.80, "RON");
         when(priceEntryRepository.findByProductId("P001")).thenReturn(List.of(peP001Lidl));
 
         List<TriggeredAlertDTO> triggered = priceAlertService.checkTriggeredAlerts();
         assertTrue(triggered.isEmpty());
     }
+    @Test
+    @DisplayName("CheckTriggeredAlerts returns only the alerts of a product whose target meets its cheapest price")
+    void checkTriggeredAlerts_OnlyAlertsAtOrAboveCheapestPrice() {
+        when(userRepository.findById(2)).thenReturn(Optional.of(new User(2, "second", "Second", "User")));
+        when(userRepository.findById(3)).thenReturn(Optional.of(new User(3, "third", "Third", "User")));
+        priceAlertService.setAlert(1, "P001", 5.00);
+        priceAlertService.setAlert(2, "P001", 4.80);
+        priceAlertService.setAlert(3, "P001", 4.00);
+        when(priceEntryRepository.findByProductId("P001")).thenReturn(List.of(new PriceEntry(p1, store("Lidl"), today, 4.80, "RON")));
+
+        List<TriggeredAlertDTO> triggered = priceAlertService.checkTriggeredAlerts();
+        assertEquals(Set.of(1, 2), triggered.stream().map(TriggeredAlertDTO::getUserId).collect(Collectors.toSet()));
+    }
+
     @Test
     @DisplayName("RemoveAlert successfully removes an active alert")
     void removeAlert_Successful() {
@@ -167,4 +191,97 @@ class PriceAlertServiceTest {
         assertFalse(removedOtherUser);
         assertFalse(priceAlertService.getAlertsForUser(1).isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("New prices should trigger only the alerts whose target they meet")
+    void onPriceEntriesAdded_TriggersMatchingAlerts() {
+        User user2 = new User(2, "otheruser", "Other", "User");
+        when(userRepository.findById(2)).thenReturn(Optional.of(user2));
+        priceAlertService.setAlert(1, "P001", 5.00);
+        priceAlertService.setAlert(2, "P001", 4.50);
+        priceAlertService.setAlert(1, "P002", 10.00);
+        List<TriggeredAlertDTO> notified = new ArrayList<>();
+        priceAlertService.addAlertListener(notified::add);
+
+        priceAlertService.onPriceEntriesAdded(List.of(
+                new PriceEntry(p1, store("Lidl"), today, 4.80, "RON"),
+                new PriceEntry(p1, store("Profi"), today.minusDays(20), 3.00, "RON")));
+
+        List<TriggeredAlertDTO> triggered = priceAlertService.drainTriggeredAlerts();
+        assertEquals(1, triggered.size());
+        assertEquals(1, triggered.get(0).getUserId());
+        assertEquals("P001", triggered.get(0).getProductId());
+        assertEquals("Lidl", triggered.get(0).getStoreName());
+        assertEquals(triggered, notified);
+        assertTrue(priceAlertService.drainTriggeredAlerts().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Removed or replaced alerts should no longer be triggered by new prices")
+    void onPriceEntriesAdded_IgnoresRemovedAlerts() {
+        priceAlertService.setAlert(1, "P001", 5.00);
+        priceAlertService.setAlert(1, "P001", 4.00);
+        priceAlertService.onPriceEntriesAdded(List.of(new PriceEntry(p1, store("Lidl"), today, 4.80, "RON")));
+        assertTrue(priceAlertService.drainTriggeredAlerts().isEmpty());
+
+        priceAlertService.removeAlert(1, "P001");
+        priceAlertService.onPriceEntriesAdded(List.of(new PriceEntry(p1, store("Lidl"), today, 3.00, "RON")));
+        assertTrue(priceAlertService.drainTriggeredAlerts().isEmpty());
+    }
+
+    @Test
+    @DisplayName("The triggered alert queue should keep only the most recent alerts")
+    void drainTriggeredAlerts_BoundedQueue() {
+        ReflectionTestUtils.setField(priceAlertService, "triggeredQueueCapacity", 2);
+        priceAlertService.setAlert(1, "P001", 5.00);
+
+        priceAlertService.onPriceEntriesAdded(List.of(
+                new PriceEntry(p1, store("Lidl"), today, 4.90, "RON"),
+                new PriceEntry(p1, store("Kaufland"), today, 4.80, "RON"),
+                new PriceEntry(p1, store("Profi"), today, 4.70, "RON")));
+
+        List<TriggeredAlertDTO> triggered = priceAlertService.drainTriggeredAlerts();
+        assertEquals(List.of("Kaufland", "Profi"), triggered.stream().map(TriggeredAlertDTO::getStoreName).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("An alert set while another user's alert on the same product is removed should still be triggered")
+    void setAndRemoveAlert_ConcurrentlyOnSameProduct_KeepsAlertIndexed() {
+        when(userRepository.findById(2)).thenReturn(Optional.of(new User(2, "otheruser", "Other", "User")));
+        AtomicInteger triggeredForUser1 = new AtomicInteger();
+        priceAlertService.addAlertListener(alert -> {
+            if (alert.getUserId() == 1) {
+                triggeredForUser1.incrementAndGet();
+            }
+        });
+        int rounds = 20_000;
+
+        CompletableFuture<Void> otherUser = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < rounds; i++) {
+                priceAlertService.setAlert(2, "P001", 1.00);
+                priceAlertService.removeAlert(2, "P001");
+            }
+        });
+        int missed = 0;
+        for (int i = 0; i < rounds; i++) {
+            priceAlertService.setAlert(1, "P001", 5.00);
+            int before = triggeredForUser1.get();
+            priceAlertService.onPriceEntriesAdded(List.of(new PriceEntry(p1, store("Lidl"), today, 4.00, "RON")));
+            if (triggeredForUser1.get() == before) {
+                missed++;
+            }
+            priceAlertService.removeAlert(1, "P001");
+        }
+        otherUser.join();
+
+        assertEquals(0, missed);
+    }
+
+    private int store(String name) {
+        return nameDictionaries.stores().idOf(name);
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}
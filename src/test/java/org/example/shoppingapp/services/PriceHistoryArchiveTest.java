@@ -0,0 +1,133 @@
+package org.example.shoppingapp.services;
+
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.repository.InMemoryProductRepository;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.service.PriceHistoryArchive;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceHistoryArchiveTest {
+
+    private static final String HEADER = "product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n";
+
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
+    @TempDir
+    Path tempDir;
+
+    private LocalDate oldDate;
+    private Path oldFile;
+    private PriceHistoryArchive archive;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        InMemoryProductRepository productRepository = new InMemoryProductRepository(nameDictionaries);
+        productRepository.save(new Product("P001", "Lapte", category("Lactate"), "BrandA", 1.0, "l"));
+        archive = new PriceHistoryArchive(productRepository, nameDictionaries);
+        ReflectionTestUtils.setField(archive, "residentDays", 30);
+
+        oldDate = LocalDate.now().minusDays(60);
+        oldFile = writePriceFile("lidl_" + oldDate + ".csv", "9.99");
+    }
+
+    private Path writePriceFile(String name, String price) throws IOException {
+        Path file = tempDir.resolve(name);
+        Files.writeString(file, HEADER + "P001;Lapte;Lactate;BrandA;1;l;" + price + ";RON\n", StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Only dates before the resident window should be archived, and never current prices")
+    void isArchived_ResidentWindow() {
+        assertTrue(archive.isArchived(LocalDate.now().minusDays(31)));
+        assertFalse(archive.isArchived(LocalDate.now().minusDays(10)));
+
+        ReflectionTestUtils.setField(archive, "residentDays", 1);
+        assertFalse(archive.isArchived(LocalDate.now().minusDays(5)));
+
+        ReflectionTestUtils.setField(archive, "residentDays", 0);
+        assertFalse(archive.isEnabled());
+        assertFalse(archive.isArchived(oldDate));
+    }
+
+    @Test
+    @DisplayName("Archived partitions should be read from their files only for the dates asked for")
+    void findByEntryDateBetween_LoadsRegisteredPartitions() {
+        archive.register(oldFile, oldDate);
+
+        List<PriceEntry> entries = archive.findByEntryDateBetween(oldDate.minusDays(1), oldDate.plusDays(1));
+        assertEquals(1, entries.size());
+        assertEquals("P001", entries.get(0).getProduct().getProductId());
+        assertEquals("lidl", nameDictionaries.stores().nameOf(entries.get(0).getStoreId()));
+        assertEquals(oldDate, entries.get(0).getEntryDate());
+        assertEquals(9.99, entries.get(0).getPrice(), 0.001);
+
+        assertTrue(archive.findByEntryDateBetween(oldDate.plusDays(1), LocalDate.MAX).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A loaded partition should be cached until one of its files is registered again or unregistered")
+    void findByEntryDateBetween_CachesPartitionUntilFilesChange() throws IOException {
+        archive.register(oldFile, oldDate);
+        assertEquals(9.99, archive.findByEntryDateBetween(oldDate, oldDate).get(0).getPrice(), 0.001);
+
+        writePriceFile(oldFile.getFileName().toString(), "7.49");
+        assertEquals(9.99, archive.findByEntryDateBetween(oldDate, oldDate).get(0).getPrice(), 0.001);
+
+        archive.register(oldFile, oldDate);
+        assertEquals(7.49, archive.findByEntryDateBetween(oldDate, oldDate).get(0).getPrice(), 0.001);
+
+        archive.unregister(oldFile);
+        assertTrue(archive.findByEntryDateBetween(LocalDate.MIN, LocalDate.MAX).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Only the most recently used partitions should stay cached")
+    void findByEntryDateBetween_EvictsLeastRecentlyUsedPartition() throws IOException {
+        ReflectionTestUtils.setField(archive, "maxCachedPartitions", 1);
+        LocalDate olderDate = oldDate.minusDays(1);
+        Path olderFile = writePriceFile("lidl_" + olderDate + ".csv", "8.00");
+        archive.register(oldFile, oldDate);
+        archive.register(olderFile, olderDate);
+
+        archive.findByEntryDateBetween(oldDate, oldDate);
+        archive.findByEntryDateBetween(olderDate, olderDate);
+        writePriceFile(oldFile.getFileName().toString(), "7.49");
+
+        // oldDate was evicted when olderDate was loaded, so its file is read again.
+        assertEquals(7.49, archive.findByEntryDateBetween(oldDate, oldDate).get(0).getPrice(), 0.001);
+    }
+
+    @Test
+    @DisplayName("An open-ended read should return every archived date without caching the partitions it parsed")
+    void findUpTo_ReadsAllArchivedDatesWithoutCaching() throws IOException {
+        LocalDate olderDate = oldDate.minusDays(1);
+        archive.register(oldFile, oldDate);
+        archive.register(writePriceFile("lidl_" + olderDate + ".csv", "8.00"), olderDate);
+
+        List<PriceEntry> entries = archive.findUpTo(LocalDate.MAX, entry -> true);
+        assertEquals(2, entries.size());
+        assertTrue(archive.findUpTo(olderDate, entry -> entry.getPrice() > 9).isEmpty());
+
+        writePriceFile(oldFile.getFileName().toString(), "7.49");
+        assertEquals(7.49, archive.findUpTo(oldDate, entry -> entry.getEntryDate().equals(oldDate)).get(0).getPrice(), 0.001);
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}
@@ -3,14 +3,15 @@ package org.example.shoppingapp.services;
 import org.example.shoppingapp.model.dto.ProductRecommendationDTO;
 import org.example.shoppingapp.model.PriceEntry;
 import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.repository.NameDictionaries;
 import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
 import org.example.shoppingapp.repository.interfaces.ProductRepository;
+import org.example.shoppingapp.service.LatestPriceView;
 import org.example.shoppingapp.service.ProductRecommendationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -29,13 +30,14 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class ProductRecommendationServiceTest {
 
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
     @Mock
     private ProductRepository productRepository;
 
     @Mock
     private PriceEntryRepository priceEntryRepository;
 
-    @InjectMocks
     private ProductRecommendationService productRecommendationService;
 
     private Product p1, p2, p3;
@@ -44,16 +46,18 @@ class ProductRecommendationServiceTest {
 
     @BeforeEach
     void setUp() {
+        productRecommendationService = new ProductRecommendationService(productRepository,
+                new LatestPriceView(priceEntryRepository, nameDictionaries), nameDictionaries);
         today = LocalDate.now();
 
-        p1 = new Product("P001", "Lapte UHT 1L", "Lactate", "BrandA", 1.0, "l");
-        p2 = new Product("P002", "Lapte Proaspat 1.5L", "Lactate", "BrandB", 1.5, "l");
-        p3 = new Product("P003", "Branza Feta 200g", "Lactate", "BrandC", 200, "g");
+        p1 = new Product("P001", "Lapte UHT 1L", category("Lactate"), "BrandA", 1.0, "l");
+        p2 = new Product("P002", "Lapte Proaspat 1.5L", category("Lactate"), "BrandB", 1.5, "l");
+        p3 = new Product("P003", "Branza Feta 200g", category("Lactate"), "BrandC", 200, "g");
 
-        pe1_s1 = new PriceEntry(p1, "Store1", today, 5.0, "RON");
-        pe1_s2 = new PriceEntry(p1, "Store2", today.minusDays(1), 4.8, "RON");
-        pe2_s1 = new PriceEntry(p2, "Store1", today, 9.0, "RON");
-        pe3_s1_old = new PriceEntry(p3, "Store1", today.minusDays(10), 6.0, "RON");
+        pe1_s1 = new PriceEntry(p1, store("Store1"), today, 5.0, "RON");
+        pe1_s2 = new PriceEntry(p1, store("Store2"), today.minusDays(1), 4.8, "RON");
+        pe2_s1 = new PriceEntry(p2, store("Store1"), today, 9.0, "RON");
+        pe3_s1_old = new PriceEntry(p3, store("Store1"), today.minusDays(10), 6.0, "RON");
     }
 
     @Test
@@ -138,4 +142,12 @@ class ProductRecommendationServiceTest {
                 Optional.empty(), Optional.of("Lactate"), 5);
         assertTrue(recommendations.isEmpty());
     }
-}
\ No newline at end of file
+
+    private int store(String name) {
+        return nameDictionaries.stores().idOf(name);
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}
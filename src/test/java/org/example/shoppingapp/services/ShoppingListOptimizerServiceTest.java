@@ -4,14 +4,15 @@ package org.example.shoppingapp.services;
 import org.example.shoppingapp.model.PriceEntry;
 import org.example.shoppingapp.model.Product;
 import org.example.shoppingapp.model.dto.OptimizedShoppingListDTO;
+import org.example.shoppingapp.repository.NameDictionaries;
 import org.example.shoppingapp.repository.interfaces.PriceEntryRepository;
 import org.example.shoppingapp.repository.interfaces.ProductRepository;
+import org.example.shoppingapp.service.LatestPriceView;
 import org.example.shoppingapp.service.ShoppingListOptimizerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -24,6 +25,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -31,12 +33,13 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 class ShoppingListOptimizerServiceTest {
 
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
     @Mock
     private ProductRepository productRepository;
     @Mock
     private PriceEntryRepository priceEntryRepository;
 
-    @InjectMocks
     private ShoppingListOptimizerService optimizerService;
 
     private Product p1, p2, p3;
@@ -44,10 +47,12 @@ class ShoppingListOptimizerServiceTest {
 
     @BeforeEach
     void setUp() {
+        optimizerService = new ShoppingListOptimizerService(productRepository,
+                new LatestPriceView(priceEntryRepository, nameDictionaries), nameDictionaries);
         today = LocalDate.now();
-        p1 = new Product("P001", "Lapte", "Lactate", "BrandA", 1.0, "l");
-        p2 = new Product("P002", "Pâine", "Panificație", "BrandB", 0.5, "kg");
-        p3 = new Product("P003", "Ouă", "Ouă", "BrandC", 10.0, "buc");
+        p1 = new Product("P001", "Lapte", category("Lactate"), "BrandA", 1.0, "l");
+        p2 = new Product("P002", "Pâine", category("Panificație"), "BrandB", 0.5, "kg");
+        p3 = new Product("P003", "Ouă", category("Ouă"), "BrandC", 10.0, "buc");
     }
 
     @Test
@@ -57,12 +62,12 @@ class ShoppingListOptimizerServiceTest {
         when(productRepository.findById("P002")).thenReturn(Optional.of(p2));
 
         when(priceEntryRepository.findByProductId("P001")).thenReturn(Arrays.asList(
-                new PriceEntry(p1, "Lidl", today, 5.0, "RON"),
-                new PriceEntry(p1, "Kaufland", today, 5.2, "RON")
+                new PriceEntry(p1, store("Lidl"), today, 5.0, "RON"),
+                new PriceEntry(p1, store("Kaufland"), today, 5.2, "RON")
         ));
         when(priceEntryRepository.findByProductId("P002")).thenReturn(Arrays.asList(
-                new PriceEntry(p2, "Lidl", today, 3.5, "RON"),
-                new PriceEntry(p2, "Kaufland", today, 3.0, "RON")
+                new PriceEntry(p2, store("Lidl"), today, 3.5, "RON"),
+                new PriceEntry(p2, store("Kaufland"), today, 3.0, "RON")
         ));
 
         Map<String, Integer> basket = new HashMap<>();
@@ -91,7 +96,7 @@ class ShoppingListOptimizerServiceTest {
     void optimizeShoppingBasket_ProductNoPrice_Handled() {
         when(productRepository.findById("P001")).thenReturn(Optional.of(p1));
         when(productRepository.findById("P003")).thenReturn(Optional.of(p3));
-        when(priceEntryRepository.findByProductId("P001")).thenReturn(List.of(new PriceEntry(p1, "Lidl", today, 5.0, "RON")));
+        when(priceEntryRepository.findByProductId("P001")).thenReturn(List.of(new PriceEntry(p1, store("Lidl"), today, 5.0, "RON")));
         when(priceEntryRepository.findByProductId("P003")).thenReturn(Collections.emptyList());
 
 
@@ -115,4 +120,71 @@ class ShoppingListOptimizerServiceTest {
         List<OptimizedShoppingListDTO> result = optimizerService.optimizeShoppingBasket(Collections.emptyMap());
         assertTrue(result.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("With a store visit cost, the basket should be consolidated when that is cheaper overall")
+    void optimizeShoppingBasket_VisitCost_ConsolidatesStores() {
+        when(productRepository.findById("P001")).thenReturn(Optional.of(p1));
+        when(productRepository.findById("P002")).thenReturn(Optional.of(p2));
+        when(priceEntryRepository.findByProductId("P001")).thenReturn(Arrays.asList(
+                new PriceEntry(p1, store("Lidl"), today, 5.0, "RON"),
+                new PriceEntry(p1, store("Kaufland"), today, 5.2, "RON")
+        ));
+        when(priceEntryRepository.findByProductId("P002")).thenReturn(Arrays.asList(
+                new PriceEntry(p2, store("Lidl"), today, 3.5, "RON"),
+                new PriceEntry(p2, store("Kaufland"), today, 3.0, "RON")
+        ));
+        Map<String, Integer> basket = new HashMap<>();
+        basket.put("P001", 2);
+        basket.put("P002", 1);
+
+        List<OptimizedShoppingListDTO> withoutVisitCost = optimizerService.optimizeShoppingBasket(basket, 0, 0);
+        List<OptimizedShoppingListDTO> withVisitCost = optimizerService.optimizeShoppingBasket(basket, 1.0, 0);
+
+        assertEquals(2, withoutVisitCost.size());
+        // Lidl alone costs 13.50 + 1 visit; splitting costs 13.00 + 2 visits.
+        assertEquals(1, withVisitCost.size());
+        assertEquals("Lidl", withVisitCost.get(0).getStoreName());
+        assertEquals(2, withVisitCost.get(0).getItems().size());
+        assertEquals(0, new BigDecimal("13.50").compareTo(withVisitCost.get(0).getStoreTotalCost()));
+    }
+
+    @Test
+    @DisplayName("The store limit should be respected, listing items no chosen store sells as not priced")
+    void optimizeShoppingBasket_MaxStores_Respected() {
+        when(productRepository.findById("P001")).thenReturn(Optional.of(p1));
+        when(productRepository.findById("P002")).thenReturn(Optional.of(p2));
+        when(productRepository.findById("P003")).thenReturn(Optional.of(p3));
+        when(priceEntryRepository.findByProductId("P001")).thenReturn(Arrays.asList(
+                new PriceEntry(p1, store("Lidl"), today, 5.0, "RON"),
+                new PriceEntry(p1, store("Kaufland"), today, 4.0, "RON")
+        ));
+        when(priceEntryRepository.findByProductId("P002")).thenReturn(List.of(new PriceEntry(p2, store("Lidl"), today, 3.0, "RON")));
+        when(priceEntryRepository.findByProductId("P003")).thenReturn(Arrays.asList(
+                new PriceEntry(p3, store("Profi"), today, 12.0, "RON"),
+                new PriceEntry(p3, store("Lidl"), today.minusDays(30), 9.0, "RON")
+        ));
+        Map<String, Integer> basket = new HashMap<>();
+        basket.put("P001", 1);
+        basket.put("P002", 1);
+        basket.put("P003", 1);
+
+        List<OptimizedShoppingListDTO> twoStores = optimizerService.optimizeShoppingBasket(basket, 0, 2);
+        List<OptimizedShoppingListDTO> oneStore = optimizerService.optimizeShoppingBasket(basket, 0, 1);
+
+        assertEquals(List.of("Lidl", "Profi"), twoStores.stream().map(OptimizedShoppingListDTO::getStoreName).collect(Collectors.toList()));
+        assertEquals(0, new BigDecimal("8.00").compareTo(twoStores.get(0).getStoreTotalCost()));
+
+        assertEquals(List.of("Items_Not_Found_Or_Priced", "Lidl"), oneStore.stream().map(OptimizedShoppingListDTO::getStoreName).collect(Collectors.toList()));
+        assertEquals("P003", oneStore.get(0).getItems().get(0).getProductId());
+        assertEquals(2, oneStore.get(1).getItems().size());
+    }
+
+    private int store(String name) {
+        return nameDictionaries.stores().idOf(name);
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.shoppingapp.utils;
+
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.example.shoppingapp.repository.interfaces.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+class CsvDataParserTest {
+
+    private static final int ROWS = 60_000;
+    private static final int PRODUCTS = 500;
+
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @TempDir
+    Path tempDir;
+
+    private CsvDataParser csvDataParser;
+    private Path priceFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        lenient().when(productRepository.findById(anyString())).thenReturn(Optional.empty());
+        csvDataParser = new CsvDataParser(productRepository, nameDictionaries);
+
+        // Roughly 2.8 MB, so the mapped reader splits it into several chunks.
+        StringBuilder content = new StringBuilder("product_id;product_name;product_category;brand;package_quantity;package_unit;price;currency\n");
+        for (int i = 0; i < ROWS; i++) {
+            int product = i % PRODUCTS;
+            content.append('P').append(product).append(";Produs ").append(product).append(";lactate;Brand")
+                    .append(product % 7).append(";1;l;").append(i % 1000).append('.').append(i % 100 < 10 ? "0" : "")
+                    .append(i % 100).append(";RON\r\n");
+        }
+        priceFile = tempDir.resolve("lidl_2025-05-08.csv");
+        Files.writeString(priceFile, content, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    @DisplayName("Small price files should use the buffered reader by default")
+    void selectReadStrategy_DefaultsToBuffered() throws IOException {
+        assertEquals(CsvDataParser.ReadStrategy.BUFFERED, csvDataParser.selectReadStrategy(priceFile));
+    }
+
+    @Test
+    @DisplayName("Only price files above the threshold should be memory-mapped")
+    void selectReadStrategy_AboveThreshold() throws IOException {
+        ReflectionTestUtils.setField(csvDataParser, "mappedReadThresholdBytes", 1024L);
+        Path discountFile = tempDir.resolve("lidl_discounts_2025-05-08.csv");
+        Files.writeString(discountFile, "x".repeat(4096));
+
+        assertEquals(CsvDataParser.ReadStrategy.MEMORY_MAPPED, csvDataParser.selectReadStrategy(priceFile));
+        assertEquals(CsvDataParser.ReadStrategy.BUFFERED, csvDataParser.selectReadStrategy(discountFile));
+    }
+
+    @Test
+    @DisplayName("Memory-mapped parsing should produce the same entries and products as the buffered reader")
+    void parseAllDataFromFile_MemoryMapped_MatchesBuffered() throws IOException {
+        CsvDataParser.ParsedFileData buffered = csvDataParser.parseAllDataFromFile(priceFile);
+        csvDataParser.clearPendingProducts();
+
+        ReflectionTestUtils.setField(csvDataParser, "mappedReadThresholdBytes", 1024L);
+        CsvDataParser.ParsedFileData mapped = csvDataParser.parseAllDataFromFile(priceFile);
+
+        assertEquals(ROWS, buffered.priceEntries.size());
+        assertEquals(describe(buffered.priceEntries), describe(mapped.priceEntries));
+        assertEquals(PRODUCTS, mapped.products.size());
+        assertEquals(productIds(buffered.products), productIds(mapped.products));
+        assertTrue(mapped.priceEntries.stream().allMatch(e -> e.getEntryDate().equals(LocalDate.of(2025, 5, 8))));
+    }
+
+    @Test
+    @DisplayName("With a sink, memory-mapped price entries should be delivered in batches instead of returned")
+    void parseAllDataFromFile_MemoryMapped_DeliversBatchesToSink() throws IOException {
+        ReflectionTestUtils.setField(csvDataParser, "mappedReadThresholdBytes", 1024L);
+        ReflectionTestUtils.setField(csvDataParser, "mappedReadBatchSize", 1_000);
+        List<List<PriceEntry>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        CsvDataParser.ParsedFileData mapped = csvDataParser.parseAllDataFromFile(priceFile, batches::add);
+
+        assertTrue(mapped.priceEntries.isEmpty());
+        assertEquals(PRODUCTS, mapped.products.size());
+        assertTrue(batches.size() > 1);
+        assertTrue(batches.stream().allMatch(batch -> !batch.isEmpty() && batch.size() <= 1_000));
+        assertEquals(ROWS, batches.stream().mapToInt(List::size).sum());
+    }
+
+    private List<String> describe(List<PriceEntry> entries) {
+        return entries.stream()
+                .map(e -> e.getProduct().getProductId() + "|" + nameDictionaries.stores().nameOf(e.getStoreId()) + "|" + e.getPrice() + "|" + e.getCurrency())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> productIds(List<Product> products) {
+        return products.stream().map(Product::getProductId).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.shoppingapp.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRowTokenizerTest {
+
+    private static CsvRowTokenizer tokenizerFor(String content) {
+        return new CsvRowTokenizer(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), ';');
+    }
+
+    @Test
+    @DisplayName("Fields should be trimmed and line endings stripped")
+    void nextRow_TrimsFieldsAndLineEndings() {
+        CsvRowTokenizer tokenizer = tokenizerFor("﻿id;name\r\n P001 ; Lapte Zuzu \r\n");
+
+        assertTrue(tokenizer.nextRow());
+        assertEquals("id", tokenizer.string(0));
+        assertEquals("name", tokenizer.string(1));
+
+        assertTrue(tokenizer.nextRow());
+        assertEquals(2, tokenizer.lineNumber());
+        assertEquals(2, tokenizer.fieldCount());
+        assertEquals("P001", tokenizer.string(0));
+        assertEquals("Lapte Zuzu", tokenizer.string(1));
+        assertEquals(" P001 ; Lapte Zuzu ", tokenizer.currentLine());
+
+        assertFalse(tokenizer.nextRow());
+    }
+
+    @Test
+    @DisplayName("Empty lines and trailing delimiters should produce empty fields")
+    void nextRow_EmptyFields() {
+        CsvRowTokenizer tokenizer = tokenizerFor("\na;;\n");
+
+        assertTrue(tokenizer.nextRow());
+        assertEquals(1, tokenizer.fieldCount());
+        assertTrue(tokenizer.isEmpty(0));
+
+        assertTrue(tokenizer.nextRow());
+        assertEquals(3, tokenizer.fieldCount());
+        assertTrue(tokenizer.isEmpty(1));
+        assertTrue(tokenizer.isEmpty(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> tokenizer.string(3));
+    }
+
+    @Test
+    @DisplayName("Non-ASCII text should be decoded as UTF-8")
+    void string_DecodesUtf8() {
+        CsvRowTokenizer tokenizer = tokenizerFor("Pâine;Panificație");
+        tokenizer.nextRow();
+        assertEquals("Pâine", tokenizer.string(0));
+        assertEquals("Panificație", tokenizer.string(1));
+    }
+
+    @Test
+    @DisplayName("Decimals should accept both separators and match Double.parseDouble")
+    void decimal_ParsesBothSeparators() {
+        CsvRowTokenizer tokenizer = tokenizerFor("9,90;9.90;-0.5;+3.;12;1e3;abc");
+        tokenizer.nextRow();
+        assertEquals(9.90, tokenizer.decimal(0));
+        assertEquals(9.90, tokenizer.decimal(1));
+        assertEquals(-0.5, tokenizer.decimal(2));
+        assertEquals(3.0, tokenizer.decimal(3));
+        assertEquals(12.0, tokenizer.decimal(4));
+        assertEquals(1000.0, tokenizer.decimal(5));
+        assertThrows(NumberFormatException.class, () -> tokenizer.decimal(6));
+
+        Random random = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            String value = String.format(Locale.ROOT, "%d.%0" + (1 + random.nextInt(4)) + "d",
+                    random.nextInt(100_000), random.nextInt(1000));
+            CsvRowTokenizer single = tokenizerFor(value);
+            single.nextRow();
+            assertEquals(Double.parseDouble(value), single.decimal(0), value);
+        }
+    }
+
+    @Test
+    @DisplayName("ISO dates should be parsed from bytes")
+    void date_ParsesIsoDates() {
+        CsvRowTokenizer tokenizer = tokenizerFor("2025-05-08;2025-13-01;2025/05/08");
+        tokenizer.nextRow();
+        assertEquals(LocalDate.of(2025, 5, 8), tokenizer.date(0));
+        assertThrows(RuntimeException.class, () -> tokenizer.date(1));
+        assertThrows(RuntimeException.class, () -> tokenizer.date(2));
+    }
+
+    @Test
+    @DisplayName("FieldEquals should compare without decoding")
+    void fieldEquals_ComparesAscii() {
+        CsvRowTokenizer tokenizer = tokenizerFor("RON ;EUR");
+        tokenizer.nextRow();
+        assertTrue(tokenizer.fieldEquals(0, "RON"));
+        assertFalse(tokenizer.fieldEquals(0, "EUR"));
+        assertFalse(tokenizer.fieldEquals(1, "EURO"));
+    }
+}
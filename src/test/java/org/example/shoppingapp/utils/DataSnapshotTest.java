@@ -0,0 +1,75 @@
+package org.example.shoppingapp.utils;
+
+import org.example.shoppingapp.model.Discount;
+import org.example.shoppingapp.model.PriceEntry;
+import org.example.shoppingapp.model.Product;
+import org.example.shoppingapp.model.User;
+import org.example.shoppingapp.repository.NameDictionaries;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataSnapshotTest {
+
+    private final NameDictionaries nameDictionaries = new NameDictionaries();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("A written snapshot should read back the same rows, users and file states")
+    void writeTo_ReadFrom_RoundTrip() throws IOException {
+        Product milk = new Product("P001", "Lapte", category("Lactate"), "BrandA", 1.0, "l");
+        Product bread = new Product("P002", "Paine", category("Panificatie"), "BrandB", 500, "g");
+        LocalDate day = LocalDate.parse("2025-05-01");
+        List<PriceEntry> priceEntries = List.of(
+                new PriceEntry(milk, store("lidl"), day, 4.79, "RON"),
+                new PriceEntry(bread, store("kaufland"), day.plusDays(3), 2.5, "EUR"));
+        List<Discount> discounts = List.of(new Discount(milk, store("lidl"), day, day.plusDays(6), 15, day));
+        List<User> users = List.of(new User(1, "ana", "Ana", "Pop"));
+        DataFileFingerprint fingerprint = DataFileFingerprint.of(120, 1_700_000_000_000L, 0xCAFEL);
+        Map<String, DataSnapshot.FileState> files = Map.of("lidl_2025-05-01.csv",
+                new DataSnapshot.FileState(fingerprint, Set.of("lidl|2025-05-01"), Set.of()));
+        Path file = tempDir.resolve("snapshot.bin");
+
+        new DataSnapshot(List.of(milk), priceEntries, discounts, users, files).writeTo(file, nameDictionaries);
+        DataSnapshot read = DataSnapshot.readFrom(file, nameDictionaries);
+
+        assertEquals(priceEntries, read.getPriceEntries());
+        assertEquals(priceEntries.get(1).getPricePerNormalizedUnit(), read.getPriceEntries().get(1).getPricePerNormalizedUnit());
+        assertEquals(List.of(milk, bread), read.getProducts());
+        assertEquals(discounts, read.getDiscounts());
+        assertEquals(day, read.getDiscounts().get(0).getDiscountObservationDate());
+        assertEquals(users, read.getUsers());
+        DataSnapshot.FileState state = read.getFiles().get("lidl_2025-05-01.csv");
+        assertTrue(state.getFingerprint().hasSameContentAs(fingerprint));
+        assertEquals(Set.of("lidl|2025-05-01"), state.getPriceEntryKeys());
+        assertTrue(Files.notExists(tempDir.resolve("snapshot.bin.tmp")));
+    }
+
+    @Test
+    @DisplayName("Reading a file that is not a snapshot should fail with an IOException")
+    void readFrom_NotASnapshot_Throws() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("snapshot.bin"), "product_id;product_name\n", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> DataSnapshot.readFrom(file, nameDictionaries));
+    }
+
+    private int store(String name) {
+        return nameDictionaries.stores().idOf(name);
+    }
+
+    private int category(String name) {
+        return nameDictionaries.categories().idOf(name);
+    }
+}